@@ -22,6 +22,7 @@ import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.security.SignatureException;
 import java.security.spec.InvalidKeySpecException;
+import java.util.List;
 
 /**
  * An algorithm that signs values and verifies such signatures back.
@@ -62,6 +63,31 @@ public interface SignatureAlgorithm<T> {
 	 */
 	boolean verify(T what, PublicKey publicKey, byte[] signature) throws InvalidKeyException, SignatureException;
 
+	/**
+	 * Verifies that the given signatures correspond to the given values, by using
+	 * the given public keys. The outcome is the same as verifying each signature
+	 * with {@link #verify(Object, PublicKey, byte[])}, but algorithms can
+	 * implement this method in a more efficient way than a sequence of verifications.
+	 * 
+	 * @param what the values whose signatures get verified
+	 * @param publicKeys the public keys, one for each value in {@code what}
+	 * @param signatures the signatures to verify, one for each value in {@code what}
+	 * @return an array whose element at each position is true if and only if
+	 *         the signature at that position matches
+	 * @throws InvalidKeyException if some of the provided public keys is invalid
+	 * @throws SignatureException if some of the values cannot be signed
+	 */
+	default boolean[] verifyBatch(List<? extends T> what, List<PublicKey> publicKeys, List<byte[]> signatures) throws InvalidKeyException, SignatureException {
+		if (what.size() != publicKeys.size() || what.size() != signatures.size())
+			throw new IllegalArgumentException("there must be a public key and a signature for each value");
+
+		boolean[] result = new boolean[what.size()];
+		for (int pos = 0; pos < result.length; pos++)
+			result[pos] = verify(what.get(pos), publicKeys.get(pos), signatures.get(pos));
+
+		return result;
+	}
+
 	/**
 	 * Yields a public key that can be used with this signature, from
 	 * its encoded version as a byte array.
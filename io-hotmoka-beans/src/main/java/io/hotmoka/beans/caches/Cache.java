@@ -0,0 +1,150 @@
+/*
+Copyright 2021 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.beans.caches;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+import io.hotmoka.beans.annotations.ThreadSafe;
+
+/**
+ * A cache of bounded size, that keeps track of its hits, misses and evictions.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+@ThreadSafe
+public interface Cache<K, V> {
+
+	/**
+	 * Adds a new object to the cache. If the cache size has reached its capacity,
+	 * then some object gets evicted.
+	 *
+	 * @param key the key to bind
+	 * @param value the value to bind to the {@code key}
+	 */
+	void put(K key, V value);
+
+	/**
+	 * Fetches an object from the cache.
+	 *
+	 * @param key the key to access
+	 * @return the value bound to the {@code key}; this is {@code null} if no such mapping exists
+	 */
+	V get(K key);
+
+	/**
+	 * Clears this cache. Its statistics are not reset.
+	 */
+	void clear();
+
+	/**
+	 * Yields the number of successful lookups in this cache.
+	 *
+	 * @return the number of hits
+	 */
+	long getHits();
+
+	/**
+	 * Yields the number of unsuccessful lookups in this cache.
+	 *
+	 * @return the number of misses
+	 */
+	long getMisses();
+
+	/**
+	 * Yields the number of objects that have been evicted from this cache, to make space for new objects.
+	 *
+	 * @return the number of evictions
+	 */
+	long getEvictions();
+
+	/**
+	 * A supplier of values for a cache, that might throw an exception.
+	 *
+	 * @param <K> the type of the keys
+	 * @param <V> the type of the values
+	 */
+	interface ValueSupplier<K,V> {
+		V supply(K key) throws Exception;
+	}
+
+	/**
+	 * Adds a new object to the cache, if its key was unbound.
+	 * In that case, it calls a supplier to provide the new object to add.
+	 *
+	 * @param key the key of the cached value
+	 * @param supplier the supplier that produces the value to put in cache
+	 * @return the current (old or computed) value in cache for {@code key} at the end of the method
+	 */
+	default V computeIfAbsent(K key, ValueSupplier<K,V> supplier) throws Exception {
+		V old = get(key);
+		if (old == null) {
+			V _new = supplier.supply(key);
+			if (_new != null)
+				put(key, _new);
+
+			return _new;
+		}
+		else
+			return old;
+	}
+
+	/**
+	 * Adds a new object to the cache, if its key was unbound.
+	 * In that case, it calls a supplier to provide the new object to add.
+	 *
+	 * @param key the key of the cached value
+	 * @param supplier the supplier that produces the value to put in cache
+	 * @return the current (old or computed) value in cache for {@code key} at the end of the method
+	 */
+	default V computeIfAbsentNoException(K key, Function<K,V> supplier) {
+		V old = get(key);
+		if (old == null) {
+			V _new = supplier.apply(key);
+			if (_new != null)
+				put(key, _new);
+
+			return _new;
+		}
+		else
+			return old;
+	}
+
+	/**
+	 * Adds a new object to the cache, if its key was unbound.
+	 * In that case, it calls a supplier to provide the new object to add.
+	 * If the supplier yields an empty optional, nothing is added to the map.
+	 *
+	 * @param key the key of the cached value
+	 * @param supplier the supplier that produces the value to put in cache
+	 * @return the current (old or computed) value in cache for {@code key} at the end of the method;
+	 *         if the cache did not contain a value for the key and the supplier returns
+	 *         an empty optional, then an empty optional is returned
+	 */
+	default Optional<V> computeIfAbsentOptional(K key, Function<K, Optional<V>> supplier) {
+		V old = get(key);
+		if (old == null) {
+			Optional<V> _new = supplier.apply(key);
+			_new.ifPresent(v -> put(key, v));
+
+			return _new;
+		}
+		else
+			return Optional.of(old);
+	}
+}
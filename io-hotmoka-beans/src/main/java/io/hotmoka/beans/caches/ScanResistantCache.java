@@ -0,0 +1,313 @@
+/*
+Copyright 2021 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.beans.caches;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.hotmoka.beans.annotations.ThreadSafe;
+
+/**
+ * A cache that allows concurrent, lock-free lookups and resists scans.
+ * It follows the S3-FIFO eviction strategy: new objects enter a small probationary
+ * queue and only move to the main queue if they get accessed again before leaving it.
+ * Hence a sweep over many objects, each accessed once, only evicts other objects
+ * on probation and leaves the frequently accessed objects in the main queue.
+ * Objects evicted from the probationary queue are remembered for a while, so that
+ * they enter the main queue directly if they are added again soon.
+ * Lookups only increment a small access counter of the object; insertions,
+ * removals and evictions are serialized instead.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+@ThreadSafe
+public final class ScanResistantCache<K, V> implements Cache<K, V> {
+
+	/**
+	 * The maximal value of the access counter of the objects in cache.
+	 */
+	private final static int MAX_FREQUENCY = 3;
+
+	/**
+	 * An object in cache.
+	 */
+	private static class Entry<K, V> {
+		private final K key;
+		private volatile V value;
+
+		/**
+		 * A counter of the accesses to this entry, up to {@link #MAX_FREQUENCY}.
+		 * Concurrent increments might get lost, which is harmless.
+		 */
+		private volatile int frequency;
+
+		/**
+		 * True if and only if this entry has been explicitly removed from the cache.
+		 * It is then skipped when found in the queues. This is guarded by {@link ScanResistantCache#lock}.
+		 */
+		private boolean removed;
+
+		private Entry(K key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+	}
+
+	/**
+	 * The maximum number of objects that can be cached.
+	 */
+	private final int maxCapacity;
+
+	/**
+	 * The maximum number of objects in the probationary queue.
+	 */
+	private final int probationCapacity;
+
+	/**
+	 * The objects in cache. This is accessed without synchronization.
+	 */
+	private final ConcurrentMap<K, Entry<K, V>> map;
+
+	/**
+	 * The probationary queue. This is guarded by {@link #lock}.
+	 */
+	private final Deque<Entry<K, V>> probation = new ArrayDeque<>();
+
+	/**
+	 * The main queue. This is guarded by {@link #lock}.
+	 */
+	private final Deque<Entry<K, V>> main = new ArrayDeque<>();
+
+	/**
+	 * The keys recently evicted from the probationary queue, in order of eviction.
+	 * This is guarded by {@link #lock}.
+	 */
+	private final Set<K> ghosts = new LinkedHashSet<>();
+
+	/**
+	 * The number of objects in cache. This is guarded by {@link #lock}.
+	 */
+	private int size;
+
+	/**
+	 * The number of removed objects that are still in the queues. This is guarded by {@link #lock}.
+	 */
+	private int stale;
+
+	/**
+	 * The lock for the modifications of this cache.
+	 */
+	private final Object lock = new Object();
+
+	/**
+	 * The statistics of this cache.
+	 */
+	private final LongAdder hits = new LongAdder(), misses = new LongAdder(), evictions = new LongAdder();
+
+	/**
+	 * Creates a cache.
+	 *
+	 * @param maxCapacity the maximum number of objects that can be cached
+	 */
+	public ScanResistantCache(int maxCapacity) {
+		this(16, maxCapacity);
+	}
+
+	/**
+	 * Creates a cache.
+	 *
+	 * @param initialCapacity the initial number of objects for which space is allocated
+	 * @param maxCapacity the maximum number of objects that can be cached
+	 */
+	public ScanResistantCache(int initialCapacity, int maxCapacity) {
+		if (maxCapacity < 1)
+			throw new IllegalArgumentException("the maximal capacity of a cache must be positive");
+
+		this.maxCapacity = maxCapacity;
+		this.probationCapacity = Math.max(1, maxCapacity / 10);
+		this.map = new ConcurrentHashMap<>(Math.min(initialCapacity, maxCapacity));
+	}
+
+	@Override
+	public V get(K key) {
+		Entry<K, V> entry = map.get(key);
+		if (entry == null) {
+			misses.increment();
+			return null;
+		}
+
+		hits.increment();
+		int frequency = entry.frequency;
+		if (frequency < MAX_FREQUENCY)
+			entry.frequency = frequency + 1;
+
+		return entry.value;
+	}
+
+	@Override
+	public void put(K key, V value) {
+		Entry<K, V> entry = map.get(key);
+		if (entry != null) {
+			entry.value = value;
+			return;
+		}
+
+		synchronized (lock) {
+			entry = map.get(key);
+			if (entry != null)
+				entry.value = value;
+			else {
+				while (size >= maxCapacity)
+					evict();
+
+				entry = new Entry<>(key, value);
+				if (ghosts.remove(key))
+					main.addLast(entry);
+				else
+					probation.addLast(entry);
+
+				map.put(key, entry);
+				size++;
+			}
+		}
+	}
+
+	/**
+	 * Removes the object bound to the given key from this cache, if any.
+	 * This does not count as an eviction.
+	 *
+	 * @param key the key
+	 */
+	public void remove(K key) {
+		synchronized (lock) {
+			Entry<K, V> entry = map.remove(key);
+			if (entry != null) {
+				entry.removed = true;
+				size--;
+
+				// the entry is left in its queue, where it will be skipped, unless too many accumulate
+				if (++stale > probationCapacity) {
+					probation.removeIf(e -> e.removed);
+					main.removeIf(e -> e.removed);
+					stale = 0;
+				}
+			}
+		}
+	}
+
+	@Override
+	public void clear() {
+		synchronized (lock) {
+			map.clear();
+			probation.clear();
+			main.clear();
+			ghosts.clear();
+			size = stale = 0;
+		}
+	}
+
+	@Override
+	public long getHits() {
+		return hits.sum();
+	}
+
+	@Override
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	@Override
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	/**
+	 * Evicts an object from this cache. The caller holds {@link #lock}.
+	 */
+	private void evict() {
+		if (probation.size() >= probationCapacity || main.isEmpty())
+			evictFromProbation();
+		else
+			evictFromMain();
+	}
+
+	/**
+	 * Evicts the oldest object in the probationary queue that has not been accessed
+	 * since it entered the cache. The accessed ones are moved into the main queue instead.
+	 * The caller holds {@link #lock}.
+	 */
+	private void evictFromProbation() {
+		Entry<K, V> entry;
+
+		while ((entry = probation.pollFirst()) != null) {
+			if (entry.removed)
+				stale--;
+			else if (entry.frequency > 0) {
+				entry.frequency = 0;
+				main.addLast(entry);
+				if (main.size() > maxCapacity - probationCapacity)
+					evictFromMain();
+			}
+			else {
+				discard(entry);
+				ghosts.add(entry.key);
+				if (ghosts.size() > maxCapacity)
+					ghosts.remove(ghosts.iterator().next());
+
+				return;
+			}
+		}
+
+		// all objects on probation have been promoted
+		evictFromMain();
+	}
+
+	/**
+	 * Evicts the oldest object in the main queue that has not been accessed
+	 * recently. The others are given another round in the queue, with a decreased counter.
+	 * The caller holds {@link #lock}.
+	 */
+	private void evictFromMain() {
+		Entry<K, V> entry;
+
+		while ((entry = main.pollFirst()) != null) {
+			int frequency = entry.frequency;
+			if (entry.removed)
+				stale--;
+			else if (frequency > 0) {
+				entry.frequency = frequency - 1;
+				main.addLast(entry);
+			}
+			else {
+				discard(entry);
+				return;
+			}
+		}
+	}
+
+	private void discard(Entry<K, V> entry) {
+		map.remove(entry.key);
+		size--;
+		evictions.increment();
+	}
+}
@@ -46,18 +46,19 @@ public abstract class TransactionRequest<R extends TransactionResponse> extends
 	protected final static byte EXPANSION_SELECTOR = 12;
 
 	/**
-	 * The hashing algorithm for the requests.
+	 * The hashing algorithm for the requests. There is one for each thread,
+	 * since digests are not thread-safe.
 	 */
-	private final static MessageDigest HASHING_FOR_REQUESTS;
+	private final static ThreadLocal<MessageDigest> HASHING_FOR_REQUESTS = ThreadLocal.withInitial(TransactionRequest::mkHashingForRequests);
 
 	/**
 	 * The length of the hash of a transaction request.
 	 */
 	public final static int REQUEST_HASH_LENGTH = 32;
 
-	static {
+	private static MessageDigest mkHashingForRequests() {
 		try {
-			HASHING_FOR_REQUESTS = MessageDigest.getInstance("SHA-256");
+			return MessageDigest.getInstance("SHA-256");
 		}
 		catch (NoSuchAlgorithmException e) {
 			throw new InternalFailureException("the hashing algorithm for the requests is not available");
@@ -125,11 +126,7 @@ public abstract class TransactionRequest<R extends TransactionResponse> extends
 	public final TransactionReference getReference() {
 		try {
 			byte[] bytes = toByteArray();
-
-			synchronized (HASHING_FOR_REQUESTS) {
-				HASHING_FOR_REQUESTS.reset();
-				return new LocalTransactionReference(bytesToHex(HASHING_FOR_REQUESTS.digest(bytes)));
-			}
+			return new LocalTransactionReference(bytesToHex(HASHING_FOR_REQUESTS.get().digest(bytes)));
 		}
 		catch(Exception e) {
 			throw new IllegalArgumentException(e);
@@ -16,6 +16,7 @@ limitations under the License.
 
 module io.hotmoka.beans {
 	exports io.hotmoka.beans.annotations;
+	exports io.hotmoka.beans.caches;
 	exports io.hotmoka.beans.references;
 	exports io.hotmoka.beans.requests;
 	exports io.hotmoka.beans.responses;
@@ -31,6 +31,11 @@ public interface Constants {
 	 */
 	String RUNTIME_NAME = "io.hotmoka.local.internal.runtime.Runtime";
 
+	/**
+	 * The name of the interface {@code io.hotmoka.local.internal.runtime.GasMeter}.
+	 */
+	String GAS_METER_NAME = "io.hotmoka.local.internal.runtime.GasMeter";
+
 	/**
 	 * The name of the class {@code io.hotmoka.verification.Dummy}.
 	 */
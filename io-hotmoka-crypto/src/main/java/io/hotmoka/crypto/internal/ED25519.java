@@ -38,11 +38,15 @@ import java.security.SignatureException;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.security.spec.X509EncodedKeySpec;
+import java.util.List;
+import java.util.stream.IntStream;
 
 import org.bouncycastle.asn1.ASN1Encodable;
 import org.bouncycastle.asn1.ASN1OctetString;
 import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.asn1.edec.EdECObjectIdentifiers;
 import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
 import org.bouncycastle.crypto.CryptoServicesRegistrar;
 import org.bouncycastle.crypto.params.Ed25519PrivateKeyParameters;
 import org.bouncycastle.crypto.params.Ed25519PublicKeyParameters;
@@ -50,6 +54,7 @@ import org.bouncycastle.crypto.util.PrivateKeyInfoFactory;
 import org.bouncycastle.crypto.util.SubjectPublicKeyInfoFactory;
 import org.bouncycastle.jcajce.spec.EdDSAParameterSpec;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.math.ec.rfc8032.Ed25519;
 
 import io.hotmoka.beans.InternalFailureException;
 import io.hotmoka.crypto.BytesSupplier;
@@ -60,9 +65,10 @@ import io.hotmoka.crypto.BytesSupplier;
 public class ED25519<T> extends AbstractSignatureAlgorithm<T> {
 
     /**
-     * The actual signing algorithm.
+     * The actual signing algorithm. There is one for each thread,
+     * since signing algorithms are not thread-safe.
      */
-    private final Signature signature;
+    private final static ThreadLocal<Signature> SIGNATURE = ThreadLocal.withInitial(ED25519::mkSignature);
 
     /**
      * The key pair generator.
@@ -82,7 +88,7 @@ public class ED25519<T> extends AbstractSignatureAlgorithm<T> {
     public ED25519(BytesSupplier<? super T> supplier) throws NoSuchAlgorithmException {
     	try {
     		ensureProvider();
-    		this.signature = Signature.getInstance("Ed25519");
+    		Signature.getInstance("Ed25519"); // fails early if the algorithm is not available
     		this.keyFactory = KeyFactory.getInstance("Ed25519", "BC");
     		this.keyPairGenerator = mkKeyPairGenerator(CryptoServicesRegistrar.getSecureRandom());
     		this.supplier = supplier;
@@ -115,11 +121,10 @@ public class ED25519<T> extends AbstractSignatureAlgorithm<T> {
             throw new SignatureException("cannot transform value into bytes before signing", e);
         }
 
-        synchronized (signature) {
-            signature.initSign(privateKey);
-            signature.update(bytes);
-            return signature.sign();
-        }
+        Signature engine = SIGNATURE.get();
+        engine.initSign(privateKey);
+        engine.update(bytes);
+        return engine.sign();
     }
 
     @Override
@@ -133,11 +138,86 @@ public class ED25519<T> extends AbstractSignatureAlgorithm<T> {
             throw new SignatureException("cannot transform value into bytes before verifying the signature", e);
         }
 
-        synchronized (this.signature) {
-            this.signature.initVerify(publicKey);
-            this.signature.update(bytes);
-            return this.signature.verify(signature);
-        }
+        Signature engine = SIGNATURE.get();
+        engine.initVerify(publicKey);
+        engine.update(bytes);
+        return engine.verify(signature);
+    }
+
+    @Override
+    public boolean[] verifyBatch(List<? extends T> what, List<PublicKey> publicKeys, List<byte[]> signatures) throws InvalidKeyException, SignatureException {
+    	return verifyBatch(supplier, what, publicKeys, signatures);
+    }
+
+    /**
+     * Verifies a batch of ed25519 signatures. BouncyCastle does not expose the curve
+     * arithmetic needed to check a random linear combination of the signatures at once,
+     * hence the signatures are verified in parallel, each with the low-level ed25519 primitive.
+     * This avoids the initialization of a {@link Signature} for each verification.
+     * 
+     * @param <T> the type of values that get signed
+     * @param supplier how values get transformed into bytes, before being hashed
+     * @param what the values whose signatures get verified
+     * @param publicKeys the public keys, one for each value in {@code what}
+     * @param signatures the signatures to verify, one for each value in {@code what}
+     * @return an array whose element at each position is true if and only if
+     *         the signature at that position matches
+     * @throws InvalidKeyException if some of the provided public keys is invalid
+     * @throws SignatureException if some of the values cannot be transformed into bytes
+     */
+    static <T> boolean[] verifyBatch(BytesSupplier<? super T> supplier, List<? extends T> what, List<PublicKey> publicKeys, List<byte[]> signatures) throws InvalidKeyException, SignatureException {
+    	int size = what.size();
+    	if (size != publicKeys.size() || size != signatures.size())
+    		throw new IllegalArgumentException("there must be a public key and a signature for each value");
+
+    	byte[][] messages = new byte[size][];
+    	byte[][] keys = new byte[size][];
+
+    	for (int pos = 0; pos < size; pos++) {
+    		try {
+    			messages[pos] = supplier.get(what.get(pos));
+    		}
+    		catch (Exception e) {
+    			throw new SignatureException("cannot transform value into bytes before verifying the signature", e);
+    		}
+
+    		keys[pos] = bytesOf(publicKeys.get(pos));
+    	}
+
+    	boolean[] result = new boolean[size];
+    	IntStream.range(0, size).parallel().forEach(pos -> {
+    		byte[] signature = signatures.get(pos);
+    		result[pos] = signature.length == Ed25519.SIGNATURE_SIZE && Ed25519.verify(signature, 0, keys[pos], 0, messages[pos], 0, messages[pos].length);
+    	});
+
+    	return result;
+    }
+
+    /**
+     * Yields the bytes of the given ed25519 public key, extracted from its X.509 encoding.
+     * The encoding is parsed, since its header is not always the same: for instance,
+     * the identifier of the algorithm might be followed by explicit null parameters.
+     * 
+     * @param publicKey the public key
+     * @return the bytes of {@code publicKey}
+     * @throws InvalidKeyException if {@code publicKey} is not an ed25519 public key
+     */
+    static byte[] bytesOf(PublicKey publicKey) throws InvalidKeyException {
+    	SubjectPublicKeyInfo info;
+    	byte[] bytes;
+
+    	try {
+    		info = SubjectPublicKeyInfo.getInstance(publicKey.getEncoded());
+    		bytes = info.getPublicKeyData().getOctets();
+    	}
+    	catch (RuntimeException e) {
+    		throw new InvalidKeyException("the public key is not an X.509 encoded key", e);
+    	}
+
+    	if (!EdECObjectIdentifiers.id_Ed25519.equals(info.getAlgorithm().getAlgorithm()) || bytes.length != Ed25519PublicKeyParameters.KEY_SIZE)
+    		throw new InvalidKeyException("the public key is not an ed25519 key");
+
+    	return bytes;
     }
 
     @Override
@@ -164,9 +244,12 @@ public class ED25519<T> extends AbstractSignatureAlgorithm<T> {
 
     @Override
     public byte[] encodingOf(PublicKey publicKey) {
-    	// we drop the initial 12 bytes
-		Ed25519PublicKeyParameters publicKeyParams = new Ed25519PublicKeyParameters(publicKey.getEncoded(), 12);
-		return publicKeyParams.getEncoded();
+    	try {
+    		return bytesOf(publicKey);
+    	}
+    	catch (InvalidKeyException e) {
+    		throw new IllegalArgumentException(e);
+    	}
     }
 
     @Override
@@ -187,6 +270,15 @@ public class ED25519<T> extends AbstractSignatureAlgorithm<T> {
 	        Security.addProvider(new BouncyCastleProvider());
 	}
 
+    private static Signature mkSignature() {
+        try {
+            return Signature.getInstance("Ed25519");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw InternalFailureException.of("unexpected exception", e);
+        }
+    }
+
 	@Override
 	public String getName() {
 		return "ed25519";
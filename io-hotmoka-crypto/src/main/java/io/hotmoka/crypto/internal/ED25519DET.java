@@ -39,6 +39,7 @@ import java.security.SignatureException;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.security.spec.X509EncodedKeySpec;
+import java.util.List;
 
 import org.bouncycastle.asn1.ASN1Encodable;
 import org.bouncycastle.asn1.ASN1OctetString;
@@ -64,9 +65,10 @@ import io.hotmoka.crypto.BytesSupplier;
 public class ED25519DET<T> extends AbstractSignatureAlgorithm<T> {
 
     /**
-     * The actual signing algorithm.
+     * The actual signing algorithm. There is one for each thread,
+     * since signing algorithms are not thread-safe.
      */
-    private final Signature signature;
+    private final static ThreadLocal<Signature> SIGNATURE = ThreadLocal.withInitial(ED25519DET::mkSignature);
 
     /**
      * The key pair generator.
@@ -86,7 +88,7 @@ public class ED25519DET<T> extends AbstractSignatureAlgorithm<T> {
     public ED25519DET(BytesSupplier<? super T> supplier) throws NoSuchAlgorithmException {
     	try {
     		ensureProvider();
-    		this.signature = Signature.getInstance("Ed25519");
+    		Signature.getInstance("Ed25519"); // fails early if the algorithm is not available
     		this.keyFactory = KeyFactory.getInstance("Ed25519", "BC");
     		SecureRandom random = SecureRandom.getInstance("SHA1PRNG");
             random.setSeed("nel mezzo del cammin di nostra vita".getBytes(StandardCharsets.US_ASCII));
@@ -121,11 +123,10 @@ public class ED25519DET<T> extends AbstractSignatureAlgorithm<T> {
             throw new SignatureException("cannot transform value into bytes before signing", e);
         }
 
-        synchronized (signature) {
-            signature.initSign(privateKey);
-            signature.update(bytes);
-            return signature.sign();
-        }
+        Signature engine = SIGNATURE.get();
+        engine.initSign(privateKey);
+        engine.update(bytes);
+        return engine.sign();
     }
 
     @Override
@@ -139,11 +140,15 @@ public class ED25519DET<T> extends AbstractSignatureAlgorithm<T> {
             throw new SignatureException("cannot transform value into bytes before verifying the signature", e);
         }
 
-        synchronized (this.signature) {
-            this.signature.initVerify(publicKey);
-            this.signature.update(bytes);
-            return this.signature.verify(signature);
-        }
+        Signature engine = SIGNATURE.get();
+        engine.initVerify(publicKey);
+        engine.update(bytes);
+        return engine.verify(signature);
+    }
+
+    @Override
+    public boolean[] verifyBatch(List<? extends T> what, List<PublicKey> publicKeys, List<byte[]> signatures) throws InvalidKeyException, SignatureException {
+    	return ED25519.verifyBatch(supplier, what, publicKeys, signatures);
     }
 
     @Override
@@ -170,9 +175,12 @@ public class ED25519DET<T> extends AbstractSignatureAlgorithm<T> {
 
     @Override
     public byte[] encodingOf(PublicKey publicKey) {
-    	// we drop the initial 12 bytes
-		Ed25519PublicKeyParameters publicKeyParams = new Ed25519PublicKeyParameters(publicKey.getEncoded(), 12);
-		return publicKeyParams.getEncoded();
+    	try {
+    		return ED25519.bytesOf(publicKey);
+    	}
+    	catch (InvalidKeyException e) {
+    		throw new IllegalArgumentException(e);
+    	}
     }
 
     @Override
@@ -193,6 +201,15 @@ public class ED25519DET<T> extends AbstractSignatureAlgorithm<T> {
 	        Security.addProvider(new BouncyCastleProvider());
 	}
 
+    private static Signature mkSignature() {
+        try {
+            return Signature.getInstance("Ed25519");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw InternalFailureException.of("unexpected exception", e);
+        }
+    }
+
 	@Override
 	public String getName() {
 		return "ed25519det";
@@ -67,16 +67,16 @@ public class QTESLA3<T> extends AbstractSignatureAlgorithm<T> {
     private final KeyFactory keyFactory;
 
     /**
-     * The actual signing algorithm.
+     * The actual signing algorithm. There is one for each thread,
+     * since signers are not thread-safe.
      */
-    private final QTESLASigner signer;
+    private final static ThreadLocal<QTESLASigner> SIGNER = ThreadLocal.withInitial(QTESLASigner::new);
 
     public QTESLA3(BytesSupplier<? super T> supplier) throws NoSuchAlgorithmException {
     	try {
     		ensureProvider();
     		this.supplier = supplier;
     		this.keyPairGenerator = mkKeyPairGenerator(CryptoServicesRegistrar.getSecureRandom());
-    		this.signer = new QTESLASigner();
     		this.keyFactory = KeyFactory.getInstance("qTESLA", "BCPQC");
     	}
     	catch (NoSuchAlgorithmException e) {
@@ -110,15 +110,14 @@ public class QTESLA3<T> extends AbstractSignatureAlgorithm<T> {
             throw new SignatureException("cannot transform value into bytes before signing", e);
         }
 
-        synchronized (signer) {
-            try {
-                PrivateKeyInfo privateKeyInfo = PrivateKeyInfo.getInstance(ASN1Primitive.fromByteArray(new PKCS8EncodedKeySpec(encodingOf(privateKey)).getEncoded()));
-                signer.init(true, PrivateKeyFactory.createKey(privateKeyInfo));
-                return signer.generateSignature(bytes);
-            }
-            catch (Exception e) {
-                throw new SignatureException("cannot generate signature", e);
-            }
+        try {
+            PrivateKeyInfo privateKeyInfo = PrivateKeyInfo.getInstance(ASN1Primitive.fromByteArray(new PKCS8EncodedKeySpec(encodingOf(privateKey)).getEncoded()));
+            QTESLASigner signer = SIGNER.get();
+            signer.init(true, PrivateKeyFactory.createKey(privateKeyInfo));
+            return signer.generateSignature(bytes);
+        }
+        catch (Exception e) {
+            throw new SignatureException("cannot generate signature", e);
         }
     }
 
@@ -133,15 +132,14 @@ public class QTESLA3<T> extends AbstractSignatureAlgorithm<T> {
             throw new SignatureException("cannot transform value into bytes before verifying the signature", e);
         }
 
-        synchronized (signer) {
-            try {
-                SubjectPublicKeyInfo subjectPublicKeyInfo = SubjectPublicKeyInfo.getInstance(new X509EncodedKeySpec(encodingOf(publicKey)).getEncoded());
-                signer.init(false, PublicKeyFactory.createKey(subjectPublicKeyInfo));
-                return signer.verifySignature(bytes, signature);
-            }
-            catch (Exception e){
-                throw new SignatureException("cannot verify signature", e);
-            }
+        try {
+            SubjectPublicKeyInfo subjectPublicKeyInfo = SubjectPublicKeyInfo.getInstance(new X509EncodedKeySpec(encodingOf(publicKey)).getEncoded());
+            QTESLASigner signer = SIGNER.get();
+            signer.init(false, PublicKeyFactory.createKey(subjectPublicKeyInfo));
+            return signer.verifySignature(bytes, signature);
+        }
+        catch (Exception e){
+            throw new SignatureException("cannot verify signature", e);
         }
     }
 
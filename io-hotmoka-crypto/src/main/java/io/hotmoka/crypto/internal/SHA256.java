@@ -19,6 +19,7 @@ package io.hotmoka.crypto.internal;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
+import io.hotmoka.beans.InternalFailureException;
 import io.hotmoka.crypto.BytesSupplier;
 import io.hotmoka.crypto.HashingAlgorithm;
 
@@ -29,7 +30,11 @@ import io.hotmoka.crypto.HashingAlgorithm;
  */
 public class SHA256<T> implements HashingAlgorithm<T>{
 
-	private final MessageDigest digest;
+	/**
+	 * The digest used for hashing. There is one for each thread,
+	 * since digests are not thread-safe.
+	 */
+	private final static ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(SHA256::mkDigest);
 
 	/**
 	 * How values get transformed into bytes, before being hashed.
@@ -37,19 +42,24 @@ public class SHA256<T> implements HashingAlgorithm<T>{
 	private final BytesSupplier<? super T> supplier;
 
 	public SHA256(BytesSupplier<? super T> supplier) throws NoSuchAlgorithmException {
-		this.digest = MessageDigest.getInstance("SHA-256");
+		MessageDigest.getInstance("SHA-256"); // fails early if the algorithm is not available
 		this.supplier = supplier;
 	}
 
+	private static MessageDigest mkDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw InternalFailureException.of("unexpected exception", e);
+		}
+	}
+
 	@Override
 	public byte[] hash(T what) {
 		try {
 			byte[] bytes = supplier.get(what);
-
-			synchronized (digest) {
-				digest.reset();
-				return digest.digest(bytes);
-			}
+			return DIGEST.get().digest(bytes);
 		}
 		catch(Exception e) {
 			throw new IllegalArgumentException(e);
@@ -51,9 +51,10 @@ import io.hotmoka.crypto.BytesSupplier;
 public class SHA256DSA<T> extends AbstractSignatureAlgorithm<T> {
 
 	/**
-	 * The actual signing algorithm.
+	 * The actual signing algorithm. There is one for each thread,
+	 * since signing algorithms are not thread-safe.
 	 */
-	private final Signature signature;
+	private final static ThreadLocal<Signature> SIGNATURE = ThreadLocal.withInitial(SHA256DSA::mkSignature);
 
 	/**
 	 * The key pair generator.
@@ -71,7 +72,7 @@ public class SHA256DSA<T> extends AbstractSignatureAlgorithm<T> {
 	private final KeyFactory keyFactory;
 
 	public SHA256DSA(BytesSupplier<? super T> supplier) throws NoSuchAlgorithmException {
-		this.signature = Signature.getInstance("SHA256withDSA");
+		Signature.getInstance("SHA256withDSA"); // fails early if the algorithm is not available
 		this.keyPairGenerator = mkKeyPairGenerator(CryptoServicesRegistrar.getSecureRandom());
 		this.supplier = supplier;
 
@@ -140,11 +141,10 @@ public class SHA256DSA<T> extends AbstractSignatureAlgorithm<T> {
 			throw new SignatureException("cannot transform value into bytes before signing", e);
 		}
 
-		synchronized (signature) {
-			signature.initSign(privateKey);
-			signature.update(bytes);
-			return signature.sign();
-		}
+		Signature engine = SIGNATURE.get();
+		engine.initSign(privateKey);
+		engine.update(bytes);
+		return engine.sign();
 	}
 
 	@Override
@@ -158,11 +158,10 @@ public class SHA256DSA<T> extends AbstractSignatureAlgorithm<T> {
 			throw new SignatureException("cannot transform value into bytes before verifying the signature", e);
 		}
 
-		synchronized (this.signature) { 
-			this.signature.initVerify(publicKey);
-			this.signature.update(bytes);
-			return this.signature.verify(signature);
-		}
+		Signature engine = SIGNATURE.get();
+		engine.initVerify(publicKey);
+		engine.update(bytes);
+		return engine.verify(signature);
 	}
 
 	@Override
@@ -176,6 +175,15 @@ public class SHA256DSA<T> extends AbstractSignatureAlgorithm<T> {
 		return keyFactory.generatePrivate(new PKCS8EncodedKeySpec(encoded));
 	}
 
+	private static Signature mkSignature() {
+		try {
+			return Signature.getInstance("SHA256withDSA");
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw InternalFailureException.of("unexpected exception", e);
+		}
+	}
+
 	@Override
 	public String getName() {
 		return "sha256dsa";
@@ -0,0 +1,43 @@
+/*
+Copyright 2021 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.examples.storage;
+
+import io.takamaka.code.lang.Exported;
+import io.takamaka.code.lang.Storage;
+import io.takamaka.code.lang.View;
+
+/**
+ * Two simple storages that are always set together.
+ */
+@Exported
+public class MirroredStorage extends Storage {
+	private final SimpleStorage left = new SimpleStorage();
+	private final SimpleStorage right = new SimpleStorage();
+
+	public void set(int x) {
+		left.set(x);
+		right.set(x);
+	}
+
+	public @View int get() {
+		return left.get();
+	}
+
+	public @View boolean isMirrored() {
+		return left.get() == right.get();
+	}
+}
\ No newline at end of file
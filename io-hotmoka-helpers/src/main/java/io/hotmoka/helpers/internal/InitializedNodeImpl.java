@@ -295,6 +295,11 @@ public class InitializedNodeImpl implements InitializedNode {
 		return parent.getRequest(reference);
 	}
 
+	@Override
+	public byte[][] getProofOfResponse(TransactionReference reference) throws UnsupportedOperationException {
+		return parent.getProofOfResponse(reference);
+	}
+
 	@Override
 	public TransactionResponse getResponse(TransactionReference reference) throws TransactionRejectedException, NoSuchElementException {
 		return parent.getResponse(reference);
@@ -319,6 +319,11 @@ public class NodeWithAccountsImpl implements NodeWithAccounts {
 		return parent.getRequest(reference);
 	}
 
+	@Override
+	public byte[][] getProofOfResponse(TransactionReference reference) throws UnsupportedOperationException {
+		return parent.getProofOfResponse(reference);
+	}
+
 	@Override
 	public TransactionResponse getResponse(TransactionReference reference) throws TransactionRejectedException, NoSuchElementException {
 		return parent.getResponse(reference);
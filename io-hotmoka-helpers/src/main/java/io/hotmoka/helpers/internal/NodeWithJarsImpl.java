@@ -241,6 +241,11 @@ public class NodeWithJarsImpl implements NodeWithJars {
 		return parent.getRequest(reference);
 	}
 
+	@Override
+	public byte[][] getProofOfResponse(TransactionReference reference) throws UnsupportedOperationException {
+		return parent.getProofOfResponse(reference);
+	}
+
 	@Override
 	public TransactionResponse getResponse(TransactionReference reference) throws TransactionRejectedException, NoSuchElementException {
 		return parent.getResponse(reference);
@@ -19,6 +19,8 @@ package io.hotmoka.instrumentation.internal.instrumentationsOfMethod;
 import java.lang.reflect.Modifier;
 import java.math.BigInteger;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
@@ -60,15 +62,19 @@ import io.hotmoka.instrumentation.internal.InstrumentedClassImpl;
 import io.hotmoka.verification.ThrowIncompleteClasspathError;
 
 /**
- * Adds a gas decrease at the beginning of each basic block of code or
- * before instructions that allocate memory.
+ * Adds a gas decrease at the beginning of each basic block of code. If the block ends
+ * with an instruction that allocates memory, the decrease includes the RAM cost
+ * of that instruction. The gas meter of the transaction is recovered at the beginning
+ * of the method and kept in a local variable, so that basic blocks can call it directly.
  */
 public class AddGasUpdates extends InstrumentedClassImpl.Builder.MethodLevelInstrumentation {
 	private final static ObjectType RUNTIME_OT = new ObjectType(Constants.RUNTIME_NAME);
+	private final static ObjectType GAS_METER_OT = new ObjectType(Constants.GAS_METER_NAME);
 	private final static ObjectType BIGINTEGER_OT = new ObjectType(BigInteger.class.getName());
 	private final static Type[] ONE_BIGINTEGER_ARGS = { BIGINTEGER_OT };
 	private final static Type[] ONE_INT_ARGS = { Type.INT };
 	private final static Type[] ONE_LONG_ARGS = { Type.LONG };
+	private final static Type[] TWO_LONGS_ARGS = { Type.LONG, Type.LONG };
 	private final static short PRIVATE_SYNTHETIC_STATIC = Const.ACC_PRIVATE | Const.ACC_SYNTHETIC | Const.ACC_STATIC;
 
 	public AddGasUpdates(InstrumentedClassImpl.Builder builder, MethodGen method) {
@@ -79,8 +85,20 @@ public class AddGasUpdates extends InstrumentedClassImpl.Builder.MethodLevelInst
 			InstructionList il = method.getInstructionList();
 			CodeExceptionGen[] ceg = method.getExceptionHandlers();
 
-			dominators.forEach(dominator -> addCpuGasUpdate(dominator, il, ceg, dominators));
-			il.forEach(ih -> addRamGasUpdate(ih, il, ceg));			
+			// the CPU costs must be computed before the RAM costs, since the latter
+			// replace array allocations with calls to allocator methods
+			Map<InstructionHandle, Long> cpuCosts = new HashMap<>();
+			dominators.forEach(dominator -> cpuCosts.put(dominator, cpuCostOf(dominator, dominators)));
+			Map<InstructionHandle, Long> ramCosts = ramCostsOf(il, dominators);
+
+			// the gas meter is kept in a new local variable
+			method.setMaxLocals();
+			int meter = method.getMaxLocals();
+			dominators.forEach(dominator -> addGasUpdate(dominator, cpuCosts.get(dominator), ramCosts.get(dominator), meter, il, ceg));
+
+			// this is not a target of branches, hence the gas meter is recovered only once per call
+			il.insert(InstructionFactory.createStore(GAS_METER_OT, meter));
+			il.insert(factory.createInvoke(Constants.RUNTIME_NAME, "getGasMeter", GAS_METER_OT, Type.NO_ARGS, Const.INVOKESTATIC));
 		}
 	}
 
@@ -105,13 +123,46 @@ public class AddGasUpdates extends InstrumentedClassImpl.Builder.MethodLevelInst
 						targeter -> targeter instanceof BranchInstruction || targeter instanceof CodeExceptionGen);
 	}
 
-	private void addRamGasUpdate(InstructionHandle ih, InstructionList il, CodeExceptionGen[] ceg) {
+	/**
+	 * Computes the RAM cost of the basic blocks of the given code, that is known before execution.
+	 * Since calls and allocations end their basic block, this is the cost of the instruction
+	 * at the end of the block.
+	 * 
+	 * @param il the code
+	 * @param dominators the dominators of the code
+	 * @return a map from each dominator to the RAM cost of its basic block, if any
+	 */
+	private Map<InstructionHandle, Long> ramCostsOf(InstructionList il, SortedSet<InstructionHandle> dominators) {
+		Map<InstructionHandle, Long> ramCosts = new HashMap<>();
+		InstructionHandle dominator = null;
+
+		for (InstructionHandle ih: il.getInstructionHandles()) {
+			if (dominators.contains(ih))
+				dominator = ih;
+
+			long cost = ramCostOf(ih);
+			if (cost > 0L)
+				ramCosts.merge(dominator, cost, Long::sum);
+		}
+
+		return ramCosts;
+	}
+
+	/**
+	 * Yields the RAM cost of the given instruction, that is known before execution.
+	 * If the instruction allocates an array, it gets replaced with a call to an allocator
+	 * method that charges for RAM at run time, and its cost is zero.
+	 * 
+	 * @param ih the instruction
+	 * @return the RAM cost
+	 */
+	private long ramCostOf(InstructionHandle ih) {
 		Instruction bytecode = ih.getInstruction();
 
 		if (bytecode instanceof InvokeInstruction) {
 			InvokeInstruction invoke = (InvokeInstruction) bytecode;
 			ReferenceType receiver = invoke.getReferenceType(cpg);
-			// we do not count the calls due to instrumentation, such as those for gas metering themselves
+			// we do not count the calls due to instrumentation, such as those for setting the caller of entries
 			if (!RUNTIME_OT.equals(receiver)) {
 				// we compute an estimation of the size of the activation frame for the callee
 				long size = invoke.getArgumentTypes(cpg).length;
@@ -122,14 +173,13 @@ public class AddGasUpdates extends InstrumentedClassImpl.Builder.MethodLevelInst
 				size *= gasCostModel.ramCostOfActivationSlot();
 				size += gasCostModel.ramCostOfActivationRecord();
 
-				addRamGasUpdate(size, ih, il, ceg);
+				return size;
 			}
 		}
 		else if (bytecode instanceof NEW) {
 			NEW _new = (NEW) bytecode;
 			ObjectType createdClass = _new.getLoadClassType(cpg);
-			long size = gasCostModel.ramCostOfObject() + numberOfInstanceFieldsOf(createdClass) * (long) gasCostModel.ramCostOfField();
-			addRamGasUpdate(size, ih, il, ceg);
+			return gasCostModel.ramCostOfObject() + numberOfInstanceFieldsOf(createdClass) * (long) gasCostModel.ramCostOfField();
 		}
 		else if (bytecode instanceof NEWARRAY || bytecode instanceof ANEWARRAY) {
 			// the behavior of getType() is different between the two instructions;
@@ -261,6 +311,8 @@ public class AddGasUpdates extends InstrumentedClassImpl.Builder.MethodLevelInst
 			// the original multianewarray gets replaced with a call to the allocation method
 			ih.setInstruction(factory.createInvoke(className, allocatorName, createdType, args, Const.INVOKESTATIC));
 		}
+
+		return 0L;
 	}
 
 	private long numberOfInstanceFieldsOf(ObjectType type) {
@@ -273,49 +325,21 @@ public class AddGasUpdates extends InstrumentedClassImpl.Builder.MethodLevelInst
 		});
 	}
 
-	private void addCpuGasUpdate(InstructionHandle dominator, InstructionList il, CodeExceptionGen[] ceg, SortedSet<InstructionHandle> dominators) {
-		long cost = cpuCostOf(dominator, dominators);
-		InstructionHandle newTarget;
+	private void addGasUpdate(InstructionHandle dominator, long cpuCost, Long ramCost, int meter, InstructionList il, CodeExceptionGen[] ceg) {
+		InstructionHandle newTarget = il.insert(dominator, InstructionFactory.createLoad(GAS_METER_OT, meter));
+		il.insert(dominator, factory.createConstant(cpuCost));
 
-		// we check if there is an optimized charge method for the cost
-		if (cost <= InstrumentationConstants.MAX_OPTIMIZED_CHARGE)
-			newTarget = il.insert(dominator, factory.createInvoke(Constants.RUNTIME_NAME, "charge" + cost, Type.VOID, Type.NO_ARGS, Const.INVOKESTATIC));
+		if (ramCost == null)
+			il.insert(dominator, factory.createInvoke(Constants.GAS_METER_NAME, "chargeGasForCPU", Type.VOID, ONE_LONG_ARGS, Const.INVOKEINTERFACE));
 		else {
-			newTarget = il.insert(dominator, createConstantPusher(cost));
-			il.insert(dominator, chargeCall(cost, "charge"));
+			il.insert(dominator, factory.createConstant(ramCost));
+			il.insert(dominator, factory.createInvoke(Constants.GAS_METER_NAME, "chargeGasForCPUAndRAM", Type.VOID, TWO_LONGS_ARGS, Const.INVOKEINTERFACE));
 		}
 
 		il.redirectBranches(dominator, newTarget);
 		il.redirectExceptionHandlers(ceg, dominator, newTarget);
 	}
 
-	private void addRamGasUpdate(long cost, InstructionHandle ih, InstructionList il, CodeExceptionGen[] ceg) {
-		InstructionHandle newTarget;
-
-		// we check if there is an optimized charge method for the cost
-		if (cost <= InstrumentationConstants.MAX_OPTIMIZED_CHARGE)
-			newTarget = il.insert(ih, factory.createInvoke(Constants.RUNTIME_NAME, "chargeForRAM" + cost, Type.VOID, Type.NO_ARGS, Const.INVOKESTATIC));
-		else {
-			newTarget = il.insert(ih, createConstantPusher(cost));
-			il.insert(ih, chargeCall(cost, "chargeForRAM"));
-		}
-
-		il.redirectBranches(ih, newTarget);
-		il.redirectExceptionHandlers(ceg, ih, newTarget);
-	}
-
-	private InvokeInstruction chargeCall(long value, String name) {
-		return factory.createInvoke(Constants.RUNTIME_NAME, name, Type.VOID, value < Integer.MAX_VALUE ? ONE_INT_ARGS : ONE_LONG_ARGS, Const.INVOKESTATIC);
-	}
-
-	private Instruction createConstantPusher(long value) {
-		// we determine if we can use an integer or we need a long (highly unlikely...)
-		if (value < Integer.MAX_VALUE)
-			return factory.createConstant((int) value);
-		else
-			return factory.createConstant(value);
-	}
-
 	private long cpuCostOf(InstructionHandle dominator, SortedSet<InstructionHandle> dominators) {
 		long cost = 0L;
 
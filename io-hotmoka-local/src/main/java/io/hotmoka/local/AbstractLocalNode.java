@@ -24,16 +24,24 @@ import java.io.IOException;
 import java.math.BigInteger;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -41,6 +49,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import io.hotmoka.beans.CodeExecutionException;
@@ -82,6 +91,7 @@ import io.hotmoka.instrumentation.StandardGasCostModel;
 import io.hotmoka.local.internal.LRUCache;
 import io.hotmoka.local.internal.NodeCachesImpl;
 import io.hotmoka.local.internal.NodeInternal;
+import io.hotmoka.local.internal.ReadTrackingStore;
 import io.hotmoka.local.internal.StoreUtilitiesImpl;
 import io.hotmoka.local.internal.transactions.ConstructorCallResponseBuilder;
 import io.hotmoka.local.internal.transactions.GameteCreationResponseBuilder;
@@ -129,16 +139,23 @@ public abstract class AbstractLocalNode<C extends Config, S extends AbstractStor
 	private final GasCostModel gasCostModel = new StandardGasCostModel();
 
 	/**
-	 * A map that provides a semaphore for each currently executing transaction.
-	 * It is used to block threads waiting for the outcome of transactions.
+	 * A map that provides a latch for each currently executing transaction.
+	 * It is used to block threads waiting for the outcome of transactions,
+	 * until that outcome is available in the store of the node.
 	 */
-	private final ConcurrentMap<TransactionReference, Semaphore> semaphores;
+	private final ConcurrentMap<TransactionReference, CountDownLatch> completions;
 
 	/**
 	 * An executor for short background tasks.
 	 */
 	private final ExecutorService executor;
 
+	/**
+	 * The executor of the speculative execution of the requests delivered together.
+	 * It is shared among the clones of this node.
+	 */
+	private final ExecutorService speculationExecutor;
+
 	/**
 	 * The time spent for checking requests.
 	 */
@@ -187,6 +204,12 @@ public abstract class AbstractLocalNode<C extends Config, S extends AbstractStor
 	 */
 	final NodeInternal internal = new NodeInternalImpl();
 
+	/**
+	 * The permits for running view transactions. They bound the number of
+	 * view transactions that run concurrently.
+	 */
+	private final Semaphore viewTransactionPermits;
+
 	/**
 	 * The amount of gas allowed for the execution of the reward method of the validators
 	 * at each committed block.
@@ -216,6 +239,8 @@ public abstract class AbstractLocalNode<C extends Config, S extends AbstractStor
 	}
 
 	private AbstractLocalNode(C config, ConsensusParams consensus, boolean deleteDir) {
+		super(config.maxPendingEventsPerSubscription, config.eventOverflowPolicy);
+
 		try {
 			this.config = config;
 			this.storeUtilities = new StoreUtilitiesImpl(internal);
@@ -226,7 +251,8 @@ public abstract class AbstractLocalNode<C extends Config, S extends AbstractStor
 			this.coinsSinceLastRewardWithoutInflation = ZERO;
 			this.numberOfTransactionsSinceLastReward = ZERO;
 			this.executor = Executors.newCachedThreadPool();
-			this.semaphores = new ConcurrentHashMap<>();
+			this.speculationExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), AbstractLocalNode::mkSpeculationThread);
+			this.completions = new ConcurrentHashMap<>();
 			this.checkTime = new AtomicLong();
 			this.deliverTime = new AtomicLong();
 			this.closed = new AtomicBoolean();
@@ -237,6 +263,7 @@ public abstract class AbstractLocalNode<C extends Config, S extends AbstractStor
 			}
 
 			this.store = mkStore();
+			this.viewTransactionPermits = new Semaphore(config.maxConcurrentViewTransactions);
 			addShutdownHook();
 		}
 		catch (Exception e) {
@@ -261,9 +288,11 @@ public abstract class AbstractLocalNode<C extends Config, S extends AbstractStor
 		this.coinsSinceLastRewardWithoutInflation = parent.coinsSinceLastRewardWithoutInflation;
 		this.numberOfTransactionsSinceLastReward = parent.numberOfTransactionsSinceLastReward;
 		this.executor = parent.executor;
+		this.speculationExecutor = parent.speculationExecutor;
 		this.store = mkStore();
 		this.storeUtilities = new StoreUtilitiesImpl(internal, store);
-		this.semaphores = parent.semaphores;
+		this.viewTransactionPermits = parent.viewTransactionPermits;
+		this.completions = parent.completions;
 		this.checkTime = parent.checkTime;
 		this.deliverTime = parent.deliverTime;
 		this.closed = parent.closed;
@@ -288,6 +317,10 @@ public abstract class AbstractLocalNode<C extends Config, S extends AbstractStor
 
 	@Override
 	public void close() throws Exception {
+		// event handlers and speculations read the store, hence they are stopped first
+		super.close();
+		speculationExecutor.shutdownNow();
+
 		S store = this.store;
 		if (store != null)
 			store.close();
@@ -297,6 +330,13 @@ public abstract class AbstractLocalNode<C extends Config, S extends AbstractStor
 
 		logger.info("time spent checking requests: " + checkTime + "ms");
 		logger.info("time spent delivering requests: " + deliverTime + "ms");
+		logger.info("statistics of the caches: " + caches.getStatistics());
+	}
+
+	private static Thread mkSpeculationThread(Runnable task) {
+		Thread thread = new Thread(task, "speculation");
+		thread.setDaemon(true);
+		return thread;
 	}
 
 	private static InternalFailureException unexpected(Throwable e) {
@@ -323,10 +363,12 @@ public abstract class AbstractLocalNode<C extends Config, S extends AbstractStor
 	public final TransactionResponse getPolledResponse(TransactionReference reference) throws TransactionRejectedException, TimeoutException, InterruptedException {
 		try {
 			Objects.requireNonNull(reference);
-			Semaphore semaphore = semaphores.get(reference);
-			if (semaphore != null)
-				semaphore.acquire();
-	
+			CountDownLatch completion = completions.get(reference);
+			if (completion != null)
+				completion.await();
+
+			// if the transaction was posted to this node, its outcome is normally available now;
+			// otherwise, for instance if it was posted to another node of the same network, we poll for it
 			for (int attempt = 1, delay = config.pollingDelay; attempt <= Math.max(1, config.maxPollingAttempts); attempt++, delay = delay * 110 / 100)
 				try {
 					// we enforce that both request and response are available
@@ -390,6 +432,22 @@ public abstract class AbstractLocalNode<C extends Config, S extends AbstractStor
 			throw new NoSuchElementException("unknown transaction reference " + reference);
 	}
 
+	@Override
+	public final byte[][] getProofOfResponse(TransactionReference reference) throws UnsupportedOperationException {
+		Objects.requireNonNull(reference);
+		Optional<byte[][]> proof;
+
+		try {
+			proof = store.getProofOfResponse(reference);
+		}
+		catch (Exception e) {
+			logger.log(Level.WARNING, "unexpected exception", e);
+			throw InternalFailureException.of(e);
+		}
+
+		return proof.orElseThrow(() -> new UnsupportedOperationException("this node does not provide Merkle proofs of its responses"));
+	}
+
 	@Override
 	public final ClassTag getClassTag(StorageReference reference) throws NoSuchElementException {
 		Objects.requireNonNull(reference);
@@ -462,32 +520,113 @@ public abstract class AbstractLocalNode<C extends Config, S extends AbstractStor
 		return wrapInCaseOfExceptionFull(() -> postStaticMethodCallTransaction(request).get());
 	}
 
+	/**
+	 * {@inheritDoc} The method runs against a snapshot of the committed state of the store of this node,
+	 * taken when the method starts, without waiting for the delivery of transactions. At most
+	 * {@link Config#maxConcurrentViewTransactions} view transactions run concurrently.
+	 * If the store cannot provide such a snapshot, the method runs between the delivery of transactions.
+	 */
 	@Override
 	public final StorageValue runInstanceMethodCallTransaction(InstanceMethodCallTransactionRequest request) throws TransactionRejectedException, TransactionException, CodeExecutionException {
 		return wrapInCaseOfExceptionFull(() -> {
 			TransactionReference reference = request.getReference();
 			logger.info(reference + ": running start (" + request.getClass().getSimpleName() + " -> " + request.method.methodName + ')');
-
-			StorageValue result;
-
-			synchronized (deliverTransactionLock) {
-				result = new InstanceViewMethodCallResponseBuilder(reference, request, internal).getResponse().getOutcome();
-			}
-
+			StorageValue result = runView(internal -> new InstanceViewMethodCallResponseBuilder(reference, request, internal).getResponse().getOutcome());
 			logger.info(reference + ": running success");
 			return result;
 		});
 	}
 
+	/**
+	 * {@inheritDoc} The method runs against a snapshot of the committed state of the store of this node,
+	 * taken when the method starts, without waiting for the delivery of transactions. At most
+	 * {@link Config#maxConcurrentViewTransactions} view transactions run concurrently.
+	 * If the store cannot provide such a snapshot, the method runs between the delivery of transactions.
+	 */
 	@Override
 	public final StorageValue runStaticMethodCallTransaction(StaticMethodCallTransactionRequest request) throws TransactionRejectedException, TransactionException, CodeExecutionException {
 		return wrapInCaseOfExceptionFull(() -> {
 			TransactionReference reference = request.getReference();
 			logger.info(reference + ": running start (" + request.getClass().getSimpleName() + " -> " + request.method.methodName + ')');
+			StorageValue result = runView(internal -> new StaticViewMethodCallResponseBuilder(reference, request, internal).getResponse().getOutcome());
+			logger.info(reference + ": running success");
+			return result;
+		});
+	}
+
+	/**
+	 * The execution of a view transaction against a view of this node.
+	 */
+	private interface ViewExecution {
+		StorageValue runWith(NodeInternal internal) throws TransactionRejectedException, TransactionException, CodeExecutionException;
+	}
+
+	/**
+	 * Runs a view transaction against a snapshot of the committed state of the store of this node.
+	 * All reads of the transaction are resolved against that same snapshot, hence the transaction
+	 * sees a single state of the store, also if transactions are committed in the meanwhile.
+	 * If the store cannot provide a snapshot, the transaction runs against the current state
+	 * of the store, between the delivery of transactions.
+	 * 
+	 * @param execution the execution of the transaction
+	 * @return the result of the transaction
+	 * @throws TransactionRejectedException if the transaction could not be executed
+	 * @throws CodeExecutionException if the transaction led to an exception in the user code in blockchain
+	 * @throws TransactionException if the transaction led to an exception outside the user code in blockchain
+	 * @throws InterruptedException if the current thread is interrupted while waiting to run the transaction
+	 */
+	private StorageValue runView(ViewExecution execution) throws TransactionRejectedException, TransactionException, CodeExecutionException, InterruptedException {
+		viewTransactionPermits.acquire();
+
+		try {
+			Optional<Store> snapshot = store.snapshotOfCommittedState();
+			if (snapshot.isEmpty()) {
+				synchronized (deliverTransactionLock) {
+					return execution.runWith(internal);
+				}
+			}
+
+			try {
+				return execution.runWith(new CommittedNodeInternalImpl(snapshot.get()));
+			}
+			finally {
+				closeSnapshot(snapshot.get());
+			}
+		}
+		finally {
+			viewTransactionPermits.release();
+		}
+	}
+
+	private static void closeSnapshot(Store snapshot) {
+		try {
+			snapshot.close();
+		}
+		catch (Exception e) {
+			logger.log(Level.WARNING, "cannot close a snapshot of the store", e);
+		}
+	}
+
+	/**
+	 * Runs an instance {@code @@View} method against the uncommitted state of the store of this node.
+	 * This is used by the implementation of the node, that might need to see the effects of the
+	 * transactions under delivery. Hence it cannot run concurrently with their delivery.
+	 * 
+	 * @param request the transaction request
+	 * @return the result of the call
+	 * @throws TransactionRejectedException if the transaction could not be executed
+	 * @throws CodeExecutionException if the transaction led to an exception in the user code in blockchain
+	 * @throws TransactionException if the transaction led to an exception outside the user code in blockchain
+	 */
+	private StorageValue runInstanceMethodCallTransactionUncommitted(InstanceMethodCallTransactionRequest request) throws TransactionRejectedException, TransactionException, CodeExecutionException {
+		return wrapInCaseOfExceptionFull(() -> {
+			TransactionReference reference = request.getReference();
+			logger.info(reference + ": running start (" + request.getClass().getSimpleName() + " -> " + request.method.methodName + ')');
+
 			StorageValue result;
 
 			synchronized (deliverTransactionLock) {
-				result = new StaticViewMethodCallResponseBuilder(reference, request, internal).getResponse().getOutcome();
+				result = new InstanceViewMethodCallResponseBuilder(reference, request, internal).getResponse().getOutcome();
 			}
 
 			logger.info(reference + ": running success");
@@ -533,23 +672,23 @@ public abstract class AbstractLocalNode<C extends Config, S extends AbstractStor
 			logger.info(reference + ": checking success");
 		}
 		catch (TransactionRejectedException e) {
-			// we wake up who was waiting for the outcome of the request
-			signalSemaphore(reference);
 			// we do not store the error message, since a failed checkTransaction
 			// means that nobody is paying for this and we cannot expand the store;
 			// we just take note of the failure to avoid polling for the response
 			recentCheckTransactionErrors.put(reference, trimmedMessage(e));
+			// we wake up who was waiting for the outcome of the request
+			signalCompletion(reference);
 			logger.info(reference + ": checking failed: " + trimmedMessage(e));
 			logger.log(Level.INFO, "transaction rejected", e);
 			throw e;
 		}
 		catch (Exception e) {
-			// we wake up who was waiting for the outcome of the request
-			signalSemaphore(reference);
 			// we do not store the error message, since a failed checkTransaction
 			// means that nobody is paying for this and we cannot expand the store;
 			// we just take note of the failure to avoid polling for the response
 			recentCheckTransactionErrors.put(reference, trimmedMessage(e));
+			// we wake up who was waiting for the outcome of the request
+			signalCompletion(reference);
 			logger.log(Level.WARNING, reference + ": checking failed with unexpected exception", e);
 			throw InternalFailureException.of(e);
 		}
@@ -558,6 +697,17 @@ public abstract class AbstractLocalNode<C extends Config, S extends AbstractStor
 		}
 	}
 
+	/**
+	 * Verifies in batch the signatures of the given requests, before they get checked.
+	 * This is only an optimization: the signatures found valid are remembered, so that
+	 * {@link #checkTransaction(TransactionRequest)} does not verify them again.
+	 * 
+	 * @param requests the requests
+	 */
+	protected final void verifySignaturesInBatch(List<TransactionRequest<?>> requests) {
+		caches.verifySignaturesInBatch(requests);
+	}
+
 	/**
 	 * A lock for the {@link #deliverTransaction(TransactionRequest)} body.
 	 */
@@ -571,6 +721,81 @@ public abstract class AbstractLocalNode<C extends Config, S extends AbstractStor
 	 * @throws TransactionRejectedException if the response cannot be built
 	 */
 	protected final TransactionResponse deliverTransaction(TransactionRequest<?> request) throws TransactionRejectedException {
+		TransactionReference reference = request.getReference();
+
+		return deliver(request, () -> {
+			ResponseBuilder<?,?> responseBuilder = responseBuilderFor(reference, request);
+			return new Execution(responseBuilder, responseBuilder.getResponse());
+		});
+	}
+
+	/**
+	 * Builds the responses for the given requests and adds them to the store of the node,
+	 * in order. The result is the same as that of calling {@link #deliverTransaction(TransactionRequest)}
+	 * on each request, in order. However, the responses of the requests are first built speculatively
+	 * in parallel, against the state of the store before the delivery of the first request.
+	 * They are then added to the store in order, and the speculative response of a request is
+	 * used only if the speculation did not read anything modified by the previous requests.
+	 * Otherwise, the request is executed again, as well as the requests whose speculation failed,
+	 * since a failure might depend on something that is not tracked among the reads. Only the requests of the standard non-initial kinds
+	 * are speculated: the others are executed in order, when their turn comes.
+	 * 
+	 * @param requests the requests
+	 * @return the responses, in the same order as {@code requests}; an element is {@code null}
+	 *         if the corresponding request could not be delivered
+	 */
+	protected final List<TransactionResponse> deliverTransactions(List<TransactionRequest<?>> requests) {
+		List<TransactionResponse> responses = new ArrayList<>();
+
+		synchronized (deliverTransactionLock) {
+			// initial transactions modify the manifest and the caches of the node, hence they are never speculated
+			List<Speculation> speculations = requests.size() > 1 && requests.stream().noneMatch(request -> request instanceof InitialTransactionRequest) ?
+				speculate(requests) : null;
+
+			// the speculations also depend on the consensus parameters, the gas price and the inflation
+			ConsensusParams consensus = caches.getConsensusParams();
+			Optional<BigInteger> gasPrice = caches.getGasPrice();
+			Optional<Long> inflation = caches.getCurrentInflation();
+
+			// the objects and transactions modified by the requests already delivered
+			Set<Object> written = new HashSet<>();
+
+			for (int pos = 0; pos < requests.size(); pos++) {
+				TransactionRequest<?> request = requests.get(pos);
+				Speculation speculation = speculations != null ? speculations.get(pos) : null;
+				boolean reusable = speculation != null && speculation.isValidAfter(written) && consensus == caches.getConsensusParams()
+					&& gasPrice.equals(caches.getGasPrice()) && inflation.equals(caches.getCurrentInflation());
+
+				TransactionResponse response;
+
+				try {
+					response = reusable ? deliver(request, speculation::get) : deliverTransaction(request);
+				}
+				catch (TransactionRejectedException | InternalFailureException e) {
+					// already logged
+					response = null;
+				}
+
+				written.add(request.getReference());
+				if (response instanceof TransactionResponseWithUpdates)
+					((TransactionResponseWithUpdates) response).getUpdates().map(Update::getObject).forEach(written::add);
+
+				responses.add(response);
+			}
+		}
+
+		return responses;
+	}
+
+	/**
+	 * Builds the response of the given request and adds it to the store of the node.
+	 * 
+	 * @param request the request
+	 * @param execution the supplier of the builder of the response and of the response itself
+	 * @return the response
+	 * @throws TransactionRejectedException if the response cannot be built
+	 */
+	private TransactionResponse deliver(TransactionRequest<?> request, ExecutionSupplier execution) throws TransactionRejectedException {
 		long start = System.currentTimeMillis();
 
 		TransactionReference reference = request.getReference();
@@ -581,8 +806,9 @@ public abstract class AbstractLocalNode<C extends Config, S extends AbstractStor
 			TransactionResponse response;
 
 			synchronized (deliverTransactionLock) {
-				ResponseBuilder<?,?> responseBuilder = responseBuilderFor(reference, request);
-				response = responseBuilder.getResponse();
+				Execution result = execution.get();
+				ResponseBuilder<?,?> responseBuilder = result.responseBuilder;
+				response = result.response;
 				store.push(reference, request, response);
 				responseBuilder.replaceReverifiedResponses();
 				scheduleForNotificationOfEvents(response);
@@ -605,11 +831,83 @@ public abstract class AbstractLocalNode<C extends Config, S extends AbstractStor
 			throw InternalFailureException.of(e);
 		}
 		finally {
-			signalSemaphore(reference);
+			scheduleForCompletion(reference);
 			deliverTime.addAndGet(System.currentTimeMillis() - start);
 		}
 	}
 
+	/**
+	 * Builds the responses of the given requests speculatively and in parallel, with {@link #speculationExecutor},
+	 * without adding them to the store of the node.
+	 * 
+	 * @param requests the requests
+	 * @return the speculations, in the same order as {@code requests}; an element is {@code null}
+	 *         if the corresponding request could not be speculated; the result is {@code null}
+	 *         if the requests could not be speculated at all
+	 */
+	private List<Speculation> speculate(List<TransactionRequest<?>> requests) {
+		List<Future<Speculation>> futures;
+
+		try {
+			futures = requests.stream().map(request -> speculationExecutor.submit(() -> speculate(request))).collect(Collectors.toList());
+		}
+		catch (RejectedExecutionException e) {
+			// the node is being closed
+			return null;
+		}
+
+		List<Speculation> speculations = new ArrayList<>();
+		for (Future<Speculation> future: futures) {
+			try {
+				speculations.add(future.get());
+			}
+			catch (ExecutionException e) {
+				// the request will be executed when its turn comes
+				speculations.add(null);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				futures.forEach(f -> f.cancel(true));
+				return null;
+			}
+		}
+
+		return speculations;
+	}
+
+	/**
+	 * Builds the response of the given request speculatively, without adding it to the store of the node.
+	 * 
+	 * @param request the request
+	 * @return the speculation; this is {@code null} if {@code request} is not of a kind that can be speculated
+	 *         or if its speculative execution failed
+	 */
+	private Speculation speculate(TransactionRequest<?> request) {
+		TransactionReference reference = request.getReference();
+		SpeculativeNodeInternalImpl node = new SpeculativeNodeInternalImpl();
+		ResponseBuilder<?,?> responseBuilder;
+
+		try {
+			if (request instanceof JarStoreTransactionRequest)
+				responseBuilder = new JarStoreResponseBuilder(reference, (JarStoreTransactionRequest) request, node);
+			else if (request instanceof ConstructorCallTransactionRequest)
+				responseBuilder = new ConstructorCallResponseBuilder(reference, (ConstructorCallTransactionRequest) request, node);
+			else if (request instanceof AbstractInstanceMethodCallTransactionRequest)
+				responseBuilder = new InstanceMethodCallResponseBuilder(reference, (AbstractInstanceMethodCallTransactionRequest) request, node);
+			else if (request instanceof StaticMethodCallTransactionRequest)
+				responseBuilder = new StaticMethodCallResponseBuilder(reference, (StaticMethodCallTransactionRequest) request, node);
+			else
+				return null;
+
+			return new Speculation(request, node.getReads(), new Execution(responseBuilder, responseBuilder.getResponse()));
+		}
+		catch (Exception e) {
+			// failures are not trusted: a rejection might depend on something that is not tracked
+			// among the reads, such as the caches of the node, hence the request gets executed again in order
+			return null;
+		}
+	}
+
 	/**
 	 * Rewards the validators with the cost of the gas consumed by the
 	 * transactions in the last block. This is meaningful only if the
@@ -747,7 +1045,7 @@ public abstract class AbstractLocalNode<C extends Config, S extends AbstractStor
 		if (caches.getResponseUncommitted(reference).isPresent())
 			throw new TransactionRejectedException("repeated request");
 	
-		createSemaphore(reference);
+		createCompletion(reference);
 		postRequest(request);
 	
 		return reference;
@@ -847,6 +1145,18 @@ public abstract class AbstractLocalNode<C extends Config, S extends AbstractStor
 	 */
 	protected abstract void scheduleForNotificationOfEvents(TransactionResponseWithEvents response);
 
+	/**
+	 * Schedules the wake up of who is waiting for the outcome of the given transaction,
+	 * that has just been delivered. This might call {@link #signalCompletion(TransactionReference)}
+	 * immediately or might delay its call to the next commit, if there is a notion of commit.
+	 * In this way, waiters are woken up exactly when the outcome can be read from the committed store.
+	 * 
+	 * @param reference the reference of the transaction
+	 */
+	protected void scheduleForCompletion(TransactionReference reference) {
+		signalCompletion(reference);
+	}
+
 	/**
 	 * Determines if the given transaction has not been committed yet.
 	 * 
@@ -919,24 +1229,26 @@ public abstract class AbstractLocalNode<C extends Config, S extends AbstractStor
 	}
 
 	/**
-	 * Creates a semaphore for those who will wait for the result of the given request.
+	 * Creates a latch for those who will wait for the result of the given request.
 	 * 
 	 * @param reference the reference of the transaction for the request
 	 */
-	private void createSemaphore(TransactionReference reference) {
-		if (semaphores.putIfAbsent(reference, new Semaphore(0)) != null)
+	private void createCompletion(TransactionReference reference) {
+		if (completions.putIfAbsent(reference, new CountDownLatch(1)) != null)
 			throw new InternalFailureException("repeated request");
 	}
 
 	/**
 	 * Wakes up who was waiting for the outcome of the given transaction.
+	 * This must be called only when that outcome can be read from the store of the node,
+	 * or when it is known that it will never be there.
 	 * 
 	 * @param reference the reference of the transaction
 	 */
-	private void signalSemaphore(TransactionReference reference) {
-		Semaphore semaphore = semaphores.remove(reference);
-		if (semaphore != null)
-			semaphore.release();
+	protected final void signalCompletion(TransactionReference reference) {
+		CountDownLatch completion = completions.remove(reference);
+		if (completion != null)
+			completion.countDown();
 	}
 
 	/**
@@ -1025,7 +1337,7 @@ public abstract class AbstractLocalNode<C extends Config, S extends AbstractStor
 
 		@Override
 		public StorageValue runInstanceMethodCallTransaction(InstanceMethodCallTransactionRequest request) throws TransactionRejectedException, TransactionException, CodeExecutionException {
-			return AbstractLocalNode.this.runInstanceMethodCallTransaction(request);
+			return runInstanceMethodCallTransactionUncommitted(request);
 		}
 
 		@Override
@@ -1038,4 +1350,140 @@ public abstract class AbstractLocalNode<C extends Config, S extends AbstractStor
 			executor.submit(task);
 		}
 	}
+
+	/**
+	 * The view of this node that only sees a snapshot of the committed state of its store.
+	 */
+	private class CommittedNodeInternalImpl extends NodeInternalImpl {
+
+		/**
+		 * The snapshot of the committed state of the store of the node.
+		 */
+		private final Store committedStore;
+
+		/**
+		 * An object that provides utility methods on {@link #committedStore}.
+		 */
+		private final StoreUtilities committedStoreUtilities;
+
+		private CommittedNodeInternalImpl(Store committedStore) {
+			this.committedStore = committedStore;
+			this.committedStoreUtilities = new StoreUtilitiesImpl(this, committedStore);
+		}
+
+		@Override
+		public Store getStore() {
+			return committedStore;
+		}
+
+		@Override
+		public StoreUtilities getStoreUtilities() {
+			return committedStoreUtilities;
+		}
+	}
+
+	/**
+	 * The view of this node used for the speculative execution of requests.
+	 * It takes note of what gets read from the store of the node.
+	 */
+	private class SpeculativeNodeInternalImpl extends NodeInternalImpl {
+
+		/**
+		 * The store of the node, with tracking of the reads.
+		 */
+		private final ReadTrackingStore trackingStore = new ReadTrackingStore(store);
+
+		/**
+		 * An object that provides utility methods on {@link #trackingStore}.
+		 */
+		private final StoreUtilities trackingStoreUtilities = new StoreUtilitiesImpl(this, trackingStore);
+
+		@Override
+		public Store getStore() {
+			return trackingStore;
+		}
+
+		@Override
+		public StoreUtilities getStoreUtilities() {
+			return trackingStoreUtilities;
+		}
+
+		/**
+		 * Yields the objects and transactions whose information has been read from the store of the node.
+		 * 
+		 * @return the storage references of the objects and the transaction references
+		 */
+		private Set<Object> getReads() {
+			return trackingStore.getReads();
+		}
+	}
+
+	/**
+	 * The builder of the response of a request, together with the response.
+	 */
+	private static class Execution {
+		private final ResponseBuilder<?,?> responseBuilder;
+		private final TransactionResponse response;
+
+		private Execution(ResponseBuilder<?,?> responseBuilder, TransactionResponse response) {
+			this.responseBuilder = responseBuilder;
+			this.response = response;
+		}
+	}
+
+	/**
+	 * A supplier of the execution of a request.
+	 */
+	private interface ExecutionSupplier {
+
+		/**
+		 * Yields the execution.
+		 * 
+		 * @return the execution
+		 * @throws Exception if the request could not be executed
+		 */
+		Execution get() throws Exception;
+	}
+
+	/**
+	 * The successful speculative execution of a request, with the information that it read from the store of the node.
+	 */
+	private static class Speculation {
+		private final TransactionRequest<?> request;
+		private final Set<Object> reads;
+		private final Execution execution;
+
+		private Speculation(TransactionRequest<?> request, Set<Object> reads, Execution execution) {
+			this.request = request;
+			this.reads = reads;
+			this.execution = execution;
+		}
+
+		/**
+		 * Yields the execution of the request.
+		 * 
+		 * @return the execution
+		 */
+		private Execution get() {
+			return execution;
+		}
+
+		/**
+		 * Determines if this speculation is still valid after the given objects and transactions
+		 * have been modified, that is, if the speculation did not depend on them.
+		 * 
+		 * @param written the storage references of the objects and the references of the transactions
+		 * @return true if and only if that condition holds
+		 */
+		private boolean isValidAfter(Set<Object> written) {
+			if (written.contains(request.getReference()) || !Collections.disjoint(reads, written))
+				return false;
+
+			// the class path is read through the caches of the node, hence it is not tracked among the reads
+			if (request instanceof NonInitialTransactionRequest && written.contains(((NonInitialTransactionRequest<?>) request).classpath))
+				return false;
+
+			return !(request instanceof JarStoreTransactionRequest) || ((JarStoreTransactionRequest) request).getDependencies().noneMatch(written::contains);
+		}
+	}
 }
\ No newline at end of file
@@ -17,18 +17,22 @@ limitations under the License.
 package io.hotmoka.local;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import io.hotmoka.beans.InternalFailureException;
 import io.hotmoka.beans.annotations.ThreadSafe;
+import io.hotmoka.beans.caches.Cache;
 import io.hotmoka.beans.references.TransactionReference;
 import io.hotmoka.beans.requests.InitializationTransactionRequest;
 import io.hotmoka.beans.requests.TransactionRequest;
@@ -37,6 +41,7 @@ import io.hotmoka.beans.responses.InitializationTransactionResponse;
 import io.hotmoka.beans.responses.TransactionResponse;
 import io.hotmoka.beans.responses.TransactionResponseWithUpdates;
 import io.hotmoka.beans.updates.Update;
+import io.hotmoka.beans.updates.UpdateOfField;
 import io.hotmoka.beans.values.StorageReference;
 
 /**
@@ -68,6 +73,12 @@ public abstract class AbstractStore<C extends Config> implements Store {
 	 */
 	protected final C config;
 
+	/**
+	 * A cache of the indexes of the histories of the objects whose history has been recently expanded.
+	 * This is {@code null} if the configuration of the node disables such cache.
+	 */
+	private final Cache<StorageReference, HistoryIndex> historyIndexes;
+
 	/**
 	 * Builds the store for a node.
 	 * 
@@ -76,6 +87,7 @@ public abstract class AbstractStore<C extends Config> implements Store {
 	protected AbstractStore(AbstractLocalNode<? extends C, ? extends AbstractStore<? extends C>> node) {
 		this.node = node;
 		this.config = node.config;
+		this.historyIndexes = config.historyIndexCacheSize > 0 ? config.cachePolicy.mkCache(16, config.historyIndexCacheSize) : null;
 	}
 
 	/**
@@ -86,11 +98,27 @@ public abstract class AbstractStore<C extends Config> implements Store {
 	protected AbstractStore(AbstractStore<? extends C> parent) {
 		this.node = parent.node;
 		this.config = parent.config;
+		this.historyIndexes = parent.historyIndexes;
 	}
 
 	@Override
 	public void close() {
 		logger.info("Time spent in state procedures: " + timeSpent + "ms");
+
+		if (historyIndexes != null)
+			logger.info("Statistics of the cache of the indexes of the histories: " + historyIndexes.getHits() + " hits, "
+				+ historyIndexes.getMisses() + " misses, " + historyIndexes.getEvictions() + " evictions");
+	}
+
+	/**
+	 * Yields a read-only view of the committed state of this store, as it is at the time of this call.
+	 * The view is not affected by the commits and checkouts that occur later.
+	 * It must be closed after use. This implementation yields no view.
+	 *
+	 * @return the view, if this store is able to provide one at this moment
+	 */
+	protected Optional<Store> snapshotOfCommittedState() {
+		return Optional.empty();
 	}
 
 	@Override
@@ -211,7 +239,8 @@ public abstract class AbstractStore<C extends Config> implements Store {
 	 * history. Simplification means that some elements of the previous history might not be useful anymore,
 	 * since they get shadowed by the updates in the added transaction reference. This occurs when the values
 	 * of some fields are updated in {@code added} and the useless old history element provided only values
-	 * for the newly updated fields.
+	 * for the newly updated fields. The index of the history of {@code object} is reused if available,
+	 * so that the responses of the old history need not be reloaded.
 	 * 
 	 * @param object the object whose history is being simplified
 	 * @param added the transaction reference to add in front of the history of {@code object}
@@ -219,58 +248,97 @@ public abstract class AbstractStore<C extends Config> implements Store {
 	 * @return the simplified history, with {@code added} in front followed by a subset of {@code old}
 	 */
 	private Stream<TransactionReference> simplifiedHistory(StorageReference object, TransactionReference added, Stream<Update> addedUpdates) {
-		Stream<TransactionReference> old = getHistoryUncommitted(object);
+		TransactionReference[] old = getHistoryUncommitted(object).toArray(TransactionReference[]::new);
 
-		// we trace the set of updates that are already covered by previous transactions, so that
-		// subsequent history elements might become unnecessary, since they do not add any yet uncovered update
-		Set<Update> covered = addedUpdates.filter(update -> update.object.equals(object)).collect(Collectors.toSet());
+		// the cached index is only valid for the history it was computed for: the history of the object
+		// might be different, for instance if the store has been checked out at another root in the meanwhile
+		HistoryIndex index = historyIndexes != null ? historyIndexes.get(object) : null;
+		Map<Object, TransactionReference> newestUpdaterOf = new HashMap<>(index != null && Arrays.equals(index.history, old) ? index.newestUpdaterOf : indexOf(object, old));
+		addedUpdates.filter(update -> update.object.equals(object)).forEach(update -> newestUpdaterOf.put(propertyOf(update), added));
+
+		// an element of the old history remains useful only if it is the newest updater of some property of the object
+		Set<TransactionReference> useful = new HashSet<>(newestUpdaterOf.values());
 		List<TransactionReference> simplified = new ArrayList<>();
 		simplified.add(added);
-	
-		TransactionReference[] oldAsArray = old.toArray(TransactionReference[]::new);
-		int length = oldAsArray.length;
+
+		int length = old.length;
 		for (int pos = 0; pos < length - 1; pos++)
-			addIfUncovered(oldAsArray[pos], object, covered, simplified);
-	
+			if (useful.contains(old[pos]))
+				simplified.add(old[pos]);
+
 		// the last is always useful, since it contains at least the class tag of the object
 		if (length >= 1)
-			simplified.add(oldAsArray[length - 1]);
-	
-		return simplified.stream();
+			simplified.add(old[length - 1]);
+
+		TransactionReference[] result = simplified.toArray(TransactionReference[]::new);
+		if (historyIndexes != null)
+			historyIndexes.put(object, new HistoryIndex(result, newestUpdaterOf));
+
+		return Stream.of(result);
 	}
 
 	/**
-	 * Adds the given transaction reference to the history of the given object,
-	 * if it provides updates for fields that have not yet been covered by other updates.
+	 * Computes the index of the given history of the given object, by reloading the responses in the history.
 	 * 
-	 * @param reference the transaction reference
 	 * @param object the object
-	 * @param covered the set of updates for the already covered fields
-	 * @param history the history; this might be modified by the method, by prefixing {@code reference} at its front
+	 * @param history the history of {@code object}, from newest to oldest
+	 * @return a map from each property of {@code object} to the newest transaction in {@code history} that updates it
 	 */
-	private void addIfUncovered(TransactionReference reference, StorageReference object, Set<Update> covered, List<TransactionReference> history) {
-		Optional<TransactionResponse> response = node.caches.getResponseUncommitted(reference);
+	private Map<Object, TransactionReference> indexOf(StorageReference object, TransactionReference[] history) {
+		Map<Object, TransactionReference> newestUpdaterOf = new HashMap<>();
 
-		if (response.isEmpty()) {
-			logger.log(Level.WARNING, "history contains a reference to a transaction not in store");
-			throw new InternalFailureException("history contains a reference to a transaction not in store");
-		}
+		for (TransactionReference reference: history) {
+			Optional<TransactionResponse> response = node.caches.getResponseUncommitted(reference);
 
-		if (!(response.get() instanceof TransactionResponseWithUpdates)) {
-			logger.log(Level.WARNING, "history contains a reference to a transaction without updates");
-			throw new InternalFailureException("history contains a reference to a transaction without updates");
+			if (response.isEmpty()) {
+				logger.log(Level.WARNING, "history contains a reference to a transaction not in store");
+				throw new InternalFailureException("history contains a reference to a transaction not in store");
+			}
+
+			if (!(response.get() instanceof TransactionResponseWithUpdates)) {
+				logger.log(Level.WARNING, "history contains a reference to a transaction without updates");
+				throw new InternalFailureException("history contains a reference to a transaction without updates");
+			}
+
+			((TransactionResponseWithUpdates) response.get()).getUpdates()
+				.filter(update -> update.object.equals(object))
+				.forEach(update -> newestUpdaterOf.putIfAbsent(propertyOf(update), reference));
 		}
 
-		// we check if there is at least an update for a field of the object
-		// that is not yet covered by another update in a previous element of the history
-		Set<Update> diff = ((TransactionResponseWithUpdates) response.get()).getUpdates()
-			.filter(update -> update.object.equals(object) && covered.stream().noneMatch(update::sameProperty))
-			.collect(Collectors.toSet());
+		return newestUpdaterOf;
+	}
+
+	/**
+	 * Yields the property of its object that the given update modifies. Two updates
+	 * of the same object modify the same property if and only if they have the
+	 * same property in the sense of {@link Update#sameProperty(Update)}.
+	 * 
+	 * @param update the update
+	 * @return the field modified by {@code update}, or the class of {@code update} if it is a class tag
+	 */
+	private static Object propertyOf(Update update) {
+		return update instanceof UpdateOfField ? ((UpdateOfField) update).getField() : update.getClass();
+	}
+
+	/**
+	 * The index of the history of an object, that is, the newest transaction of the history
+	 * that updates each property of the object.
+	 */
+	private static final class HistoryIndex {
+
+		/**
+		 * The history the index refers to, from newest to oldest.
+		 */
+		private final TransactionReference[] history;
+
+		/**
+		 * A map from each property of the object to the newest transaction in {@link #history} that updates it.
+		 */
+		private final Map<Object, TransactionReference> newestUpdaterOf;
 
-		if (!diff.isEmpty()) {
-			// the transaction reference actually adds at least one useful update
-			history.add(reference);
-			covered.addAll(diff);
+		private HistoryIndex(TransactionReference[] history, Map<Object, TransactionReference> newestUpdaterOf) {
+			this.history = history;
+			this.newestUpdaterOf = newestUpdaterOf;
 		}
 	}
 }
\ No newline at end of file
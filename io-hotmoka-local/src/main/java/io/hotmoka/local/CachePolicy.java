@@ -0,0 +1,61 @@
+/*
+Copyright 2021 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.local;
+
+import io.hotmoka.beans.caches.Cache;
+import io.hotmoka.beans.caches.ScanResistantCache;
+import io.hotmoka.local.internal.LRUCache;
+
+/**
+ * The eviction policy of the caches of a node, when they are full.
+ */
+public enum CachePolicy {
+
+	/**
+	 * The least recently used object is evicted. Each access to the cache is serialized.
+	 */
+	LRU {
+
+		@Override
+		public <K, V> Cache<K, V> mkCache(int initialCapacity, int maxCapacity) {
+			return new LRUCache<>(initialCapacity, maxCapacity);
+		}
+	},
+
+	/**
+	 * The S3-FIFO policy of {@link ScanResistantCache}, that evicts objects accessed only once
+	 * before the frequently accessed ones. Lookups are not serialized.
+	 */
+	SCAN_RESISTANT {
+
+		@Override
+		public <K, V> Cache<K, V> mkCache(int initialCapacity, int maxCapacity) {
+			return new ScanResistantCache<>(initialCapacity, maxCapacity);
+		}
+	};
+
+	/**
+	 * Yields an empty cache that follows this policy.
+	 * 
+	 * @param <K> the type of the keys of the cache
+	 * @param <V> the type of the values of the cache
+	 * @param initialCapacity the initial number of objects for which space is allocated
+	 * @param maxCapacity the maximum number of objects that can be cached
+	 * @return the cache
+	 */
+	public abstract <K, V> Cache<K, V> mkCache(int initialCapacity, int maxCapacity);
+}
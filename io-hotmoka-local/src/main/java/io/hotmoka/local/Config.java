@@ -21,6 +21,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 
 import io.hotmoka.beans.references.TransactionReference;
+import io.hotmoka.nodes.EventOverflowPolicy;
 
 /**
  * The configuration of a node.
@@ -60,25 +61,93 @@ public class Config {
 	 */
 	public final int responseCacheSize;
 
+	/**
+	 * The size of the cache of the nodes of the Merkle-Patricia tries
+	 * of the store of the node, if the store uses such tries.
+	 * It defaults to 10,000.
+	 */
+	public final int trieNodeCacheSize;
+
+	/**
+	 * The size of the cache of the indexes of the histories of the objects in store,
+	 * that avoids reloading old responses when a history gets simplified.
+	 * If it is 0, no index is cached.
+	 * It defaults to 10,000.
+	 */
+	public final int historyIndexCacheSize;
+
+	/**
+	 * The size of the cache of the last updates to the fields of the objects in store,
+	 * that avoids scanning their histories when they are deserialized or their fields are read.
+	 * If it is 0, no last update is cached.
+	 * It defaults to 10,000.
+	 */
+	public final int lastUpdatesCacheSize;
+
+	/**
+	 * The size of the cache of the class tags of the objects in store. Since the class tag
+	 * of an object never changes, a cached class tag is used until it gets evicted.
+	 * If it is 0, no class tag is cached.
+	 * It defaults to 10,000.
+	 */
+	public final int classTagCacheSize;
+
+	/**
+	 * The eviction policy of the caches of the node.
+	 * It defaults to {@link CachePolicy#SCAN_RESISTANT}.
+	 */
+	public final CachePolicy cachePolicy;
+
 	/**
 	 * The maximal amount of gas that a view transaction can consume.
 	 * It defaults to 100_000_000.
 	 */
 	public final BigInteger maxGasPerViewTransaction;
 
+	/**
+	 * The maximal number of view transactions that can be run concurrently.
+	 * It defaults to the number of available processors.
+	 */
+	public final int maxConcurrentViewTransactions;
+
+	/**
+	 * The maximal number of events that can be pending for each subscription
+	 * to the events of the node, waiting to be handled.
+	 * It defaults to 1,000.
+	 */
+	public final int maxPendingEventsPerSubscription;
+
+	/**
+	 * What the node does when a subscription to its events has already
+	 * {@link #maxPendingEventsPerSubscription} pending events and a new event must be notified to it.
+	 * It defaults to {@link EventOverflowPolicy#DROP}.
+	 */
+	public final EventOverflowPolicy eventOverflowPolicy;
+
 	/**
 	 * Full constructor for the builder pattern.
 	 */
 	private Config(Path dir, int maxPollingAttempts,
 			       int pollingDelay, int requestCacheSize,
-			       int responseCacheSize, BigInteger maxGasPerViewTransaction) {
+			       int responseCacheSize, int trieNodeCacheSize, int historyIndexCacheSize,
+			       int lastUpdatesCacheSize, int classTagCacheSize, CachePolicy cachePolicy,
+			       BigInteger maxGasPerViewTransaction, int maxConcurrentViewTransactions,
+			       int maxPendingEventsPerSubscription, EventOverflowPolicy eventOverflowPolicy) {
 
 		this.dir = dir;
 		this.maxPollingAttempts = maxPollingAttempts;
 		this.pollingDelay = pollingDelay;
 		this.requestCacheSize = requestCacheSize;
 		this.responseCacheSize = responseCacheSize;
+		this.trieNodeCacheSize = trieNodeCacheSize;
+		this.historyIndexCacheSize = historyIndexCacheSize;
+		this.lastUpdatesCacheSize = lastUpdatesCacheSize;
+		this.classTagCacheSize = classTagCacheSize;
+		this.cachePolicy = cachePolicy;
 		this.maxGasPerViewTransaction = maxGasPerViewTransaction;
+		this.maxConcurrentViewTransactions = maxConcurrentViewTransactions;
+		this.maxPendingEventsPerSubscription = maxPendingEventsPerSubscription;
+		this.eventOverflowPolicy = eventOverflowPolicy;
 	}
 
 	/**
@@ -90,7 +159,15 @@ public class Config {
 		this.pollingDelay = parent.pollingDelay;
 		this.requestCacheSize = parent.requestCacheSize;
 		this.responseCacheSize = parent.responseCacheSize;
+		this.trieNodeCacheSize = parent.trieNodeCacheSize;
+		this.historyIndexCacheSize = parent.historyIndexCacheSize;
+		this.lastUpdatesCacheSize = parent.lastUpdatesCacheSize;
+		this.classTagCacheSize = parent.classTagCacheSize;
+		this.cachePolicy = parent.cachePolicy;
 		this.maxGasPerViewTransaction = parent.maxGasPerViewTransaction;
+		this.maxConcurrentViewTransactions = parent.maxConcurrentViewTransactions;
+		this.maxPendingEventsPerSubscription = parent.maxPendingEventsPerSubscription;
+		this.eventOverflowPolicy = parent.eventOverflowPolicy;
 	}
 
 	/**
@@ -102,7 +179,15 @@ public class Config {
 		private int pollingDelay = 10;
 		private int requestCacheSize = 1_000;
 		private int responseCacheSize = 1_000;
+		private int trieNodeCacheSize = 10_000;
+		private int historyIndexCacheSize = 10_000;
+		private int lastUpdatesCacheSize = 10_000;
+		private int classTagCacheSize = 10_000;
+		private CachePolicy cachePolicy = CachePolicy.SCAN_RESISTANT;
 		private BigInteger maxGasPerViewTransaction = BigInteger.valueOf(100_000_000);
+		private int maxConcurrentViewTransactions = Runtime.getRuntime().availableProcessors();
+		private int maxPendingEventsPerSubscription = 1_000;
+		private EventOverflowPolicy eventOverflowPolicy = EventOverflowPolicy.DROP;
 
 		/**
 		 * Standard design pattern. See http://www.angelikalanger.com/GenericsFAQ/FAQSections/ProgrammingIdioms.html#FAQ205
@@ -122,6 +207,53 @@ public class Config {
 			return getThis();
 		}
 
+		/**
+		 * Sets the maximal number of view transactions that can be run concurrently.
+		 * It defaults to the number of available processors.
+		 * 
+		 * @param maxConcurrentViewTransactions the maximal number of concurrent view transactions
+		 * @return this builder
+		 */
+		public T setMaxConcurrentViewTransactions(int maxConcurrentViewTransactions) {
+			if (maxConcurrentViewTransactions <= 0)
+				throw new IllegalArgumentException("the maximal number of concurrent view transactions must be positive");
+
+			this.maxConcurrentViewTransactions = maxConcurrentViewTransactions;
+			return getThis();
+		}
+
+		/**
+		 * Sets the maximal number of events that can be pending for each subscription
+		 * to the events of the node, waiting to be handled.
+		 * It defaults to 1,000.
+		 * 
+		 * @param maxPendingEventsPerSubscription the maximal number of pending events
+		 * @return this builder
+		 */
+		public T setMaxPendingEventsPerSubscription(int maxPendingEventsPerSubscription) {
+			if (maxPendingEventsPerSubscription <= 0)
+				throw new IllegalArgumentException("the maximal number of pending events per subscription must be positive");
+
+			this.maxPendingEventsPerSubscription = maxPendingEventsPerSubscription;
+			return getThis();
+		}
+
+		/**
+		 * Sets what the node does when a subscription to its events has already the maximal
+		 * number of pending events and a new event must be notified to it.
+		 * It defaults to {@link EventOverflowPolicy#DROP}.
+		 * 
+		 * @param eventOverflowPolicy the policy
+		 * @return this builder
+		 */
+		public T setEventOverflowPolicy(EventOverflowPolicy eventOverflowPolicy) {
+			if (eventOverflowPolicy == null)
+				throw new NullPointerException("the event overflow policy cannot be null");
+
+			this.eventOverflowPolicy = eventOverflowPolicy;
+			return getThis();
+		}
+
 		/**
 		 * Sets the directory where the node's data will be persisted.
 		 * It defaults to {@code chain} in the current directory.
@@ -185,13 +317,93 @@ public class Config {
 			return getThis();
 		}
 
+		/**
+		 * Sets size of the cache of the nodes of the Merkle-Patricia tries
+		 * of the store of the node, if the store uses such tries.
+		 * It defaults to 10,000.
+		 * 
+		 * @param trieNodeCacheSize the cache size
+		 * @return this builder
+		 */
+		public T setTrieNodeCacheSize(int trieNodeCacheSize) {
+			this.trieNodeCacheSize = trieNodeCacheSize;
+			return getThis();
+		}
+
+		/**
+		 * Sets size of the cache of the indexes of the histories of the objects in store,
+		 * that avoids reloading old responses when a history gets simplified.
+		 * If it is 0, no index is cached.
+		 * It defaults to 10,000.
+		 * 
+		 * @param historyIndexCacheSize the cache size
+		 * @return this builder
+		 */
+		public T setHistoryIndexCacheSize(int historyIndexCacheSize) {
+			if (historyIndexCacheSize < 0)
+				throw new IllegalArgumentException("the size of the cache of the indexes of the histories cannot be negative");
+
+			this.historyIndexCacheSize = historyIndexCacheSize;
+			return getThis();
+		}
+
+		/**
+		 * Sets size of the cache of the last updates to the fields of the objects in store,
+		 * that avoids scanning their histories when they are deserialized or their fields are read.
+		 * If it is 0, no last update is cached.
+		 * It defaults to 10,000.
+		 * 
+		 * @param lastUpdatesCacheSize the cache size
+		 * @return this builder
+		 */
+		public T setLastUpdatesCacheSize(int lastUpdatesCacheSize) {
+			if (lastUpdatesCacheSize < 0)
+				throw new IllegalArgumentException("the size of the cache of the last updates cannot be negative");
+
+			this.lastUpdatesCacheSize = lastUpdatesCacheSize;
+			return getThis();
+		}
+
+		/**
+		 * Sets size of the cache of the class tags of the objects in store.
+		 * If it is 0, no class tag is cached.
+		 * It defaults to 10,000.
+		 * 
+		 * @param classTagCacheSize the cache size
+		 * @return this builder
+		 */
+		public T setClassTagCacheSize(int classTagCacheSize) {
+			if (classTagCacheSize < 0)
+				throw new IllegalArgumentException("the size of the cache of the class tags cannot be negative");
+
+			this.classTagCacheSize = classTagCacheSize;
+			return getThis();
+		}
+
+		/**
+		 * Sets the eviction policy of the caches of the node.
+		 * It defaults to {@link CachePolicy#SCAN_RESISTANT}.
+		 * 
+		 * @param cachePolicy the policy
+		 * @return this builder
+		 */
+		public T setCachePolicy(CachePolicy cachePolicy) {
+			if (cachePolicy == null)
+				throw new NullPointerException("the cache policy cannot be null");
+
+			this.cachePolicy = cachePolicy;
+			return getThis();
+		}
+
 		/**
 		 * Builds the configuration.
 		 * 
 		 * @return the configuration
 		 */
 		public Config build() {
-			return new Config(dir, maxPollingAttempts, pollingDelay, requestCacheSize, responseCacheSize, maxGasPerViewTransaction);
+			return new Config(dir, maxPollingAttempts, pollingDelay, requestCacheSize, responseCacheSize, trieNodeCacheSize, historyIndexCacheSize, lastUpdatesCacheSize, classTagCacheSize, cachePolicy,
+				maxGasPerViewTransaction, maxConcurrentViewTransactions,
+				maxPendingEventsPerSubscription, eventOverflowPolicy);
 		}
 	}
 }
\ No newline at end of file
@@ -16,6 +16,7 @@ limitations under the License.
 
 package io.hotmoka.local;
 
+import java.lang.invoke.MethodHandle;
 import java.math.BigInteger;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -56,6 +57,20 @@ public interface EngineClassLoader extends TakamakaClassLoader {
 	 */
 	TransactionReference transactionThatInstalledJarFor(Class<?> clazz);
 
+	/**
+	 * Yields a method handle for the deserialization constructor of the given class,
+	 * with the given formal arguments. The handle receives the actual arguments
+	 * as an array and yields the new object. It is computed only once and then reused
+	 * for all objects of the same class deserialized through this class loader.
+	 * 
+	 * @param clazz the class
+	 * @param formals the formal arguments of the deserialization constructor
+	 * @return the method handle, of type {@code (Object[])Object}
+	 * @throws NoSuchMethodException if the constructor cannot be found
+	 * @throws IllegalAccessException if the constructor cannot be accessed
+	 */
+	MethodHandle getDeserializationConstructor(Class<?> clazz, Class<?>[] formals) throws NoSuchMethodException, IllegalAccessException;
+
 	/**
 	 * Yields the value of the {@code storageReference} field of the given storage object in RAM.
 	 * 
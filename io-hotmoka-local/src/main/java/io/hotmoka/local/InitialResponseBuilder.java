@@ -62,12 +62,22 @@ public abstract class InitialResponseBuilder<Request extends InitialTransactionR
 			// since code run in initial transactions (such as the creation of gametes) tries to charge for gas
 		}
 
+		@Override
+		public final void chargeGasForCPU(long amount) {
+			// initial transactions consume no gas
+		}
+
 		@Override
 		public final void chargeGasForRAM(BigInteger amount) {
 			// initial transactions consume no gas; this implementation is needed
 			// since code run in initial transactions (such as the creation of gametes) tries to charge for gas
 		}
 
+		@Override
+		public final void chargeGasForRAM(long amount) {
+			// initial transactions consume no gas
+		}
+
 		@Override
 		public final void event(Object event) {
 			// initial transactions do not generate events
@@ -17,6 +17,10 @@ limitations under the License.
 package io.hotmoka.local;
 
 import java.math.BigInteger;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 import io.hotmoka.beans.SignatureAlgorithm;
@@ -24,14 +28,26 @@ import io.hotmoka.beans.references.TransactionReference;
 import io.hotmoka.beans.requests.SignedTransactionRequest;
 import io.hotmoka.beans.requests.TransactionRequest;
 import io.hotmoka.beans.responses.TransactionResponse;
+import io.hotmoka.beans.signatures.FieldSignature;
+import io.hotmoka.beans.updates.ClassTag;
+import io.hotmoka.beans.updates.UpdateOfField;
 import io.hotmoka.beans.values.StorageReference;
 import io.hotmoka.nodes.ConsensusParams;
+import io.hotmoka.whitelisting.ResolvingClassLoader;
 
 /**
  * The caches of a local node.
  */
 public interface NodeCaches {
 
+	/**
+	 * Yields the statistics of the caches of the node, that is, the number of hits,
+	 * misses and evictions of each cache, for logging.
+	 * 
+	 * @return a description of the statistics
+	 */
+	String getStatistics();
+
 	/**
 	 * Invalidates the information in this cache.
 	 */
@@ -95,6 +111,50 @@ public interface NodeCaches {
 	 */
 	EngineClassLoader getClassLoader(TransactionReference classpath);
 
+	/**
+	 * Yields a class loader for the given jar, that is shared as parent by all class loaders
+	 * whose class path includes that jar. In this way, its classes are defined only once.
+	 * This is only meant for jars without dependencies.
+	 * 
+	 * @param reference the reference of the transaction that installed the jar
+	 * @param jar the instrumented jar installed by {@code reference}
+	 * @param verificationVersion the version of the verification module used by the class loader
+	 * @return the class loader
+	 */
+	ResolvingClassLoader getSharedClassLoader(TransactionReference reference, byte[] jar, int verificationVersion);
+
+	/**
+	 * Yields the last update to each field of the given object, as it was
+	 * after the execution of the given transaction, if it is in this cache.
+	 * Since the state of an object after a transaction never changes, this information
+	 * does not need invalidation when new transactions are delivered: they just
+	 * add newer transactions to the history of the object.
+	 * 
+	 * @param object the object
+	 * @param transaction a transaction in the history of {@code object}
+	 * @return the last updates, indexed by field, if they are in this cache; this map is unmodifiable
+	 */
+	Optional<Map<FieldSignature, UpdateOfField>> getLastUpdates(StorageReference object, TransactionReference transaction);
+
+	/**
+	 * Takes note of the last update to each field of the given object, as it was
+	 * after the execution of the given transaction.
+	 * 
+	 * @param object the object
+	 * @param transaction a transaction in the history of {@code object}
+	 * @param updates the last updates, indexed by field; this map must not be modified afterwards
+	 */
+	void putLastUpdates(StorageReference object, TransactionReference transaction, Map<FieldSignature, UpdateOfField> updates);
+
+	/**
+	 * Yields the class tag of the given object, that is found in the transaction that created it.
+	 * 
+	 * @param object the object
+	 * @return the class tag
+	 * @throws NoSuchElementException if the class tag of {@code object} cannot be found
+	 */
+	ClassTag getClassTag(StorageReference object) throws NoSuchElementException;
+
 	/**
 	 * Checks that the given request is signed with the private key of its caller.
 	 * It uses a cache to remember the last signatures already checked.
@@ -106,6 +166,28 @@ public interface NodeCaches {
 	 */
 	boolean signatureIsValid(SignedTransactionRequest request, SignatureAlgorithm<SignedTransactionRequest> signatureAlgorithm) throws Exception;
 
+	/**
+	 * Verifies the signatures of the given requests in batch, grouped by signature algorithm,
+	 * and takes note of the outcome of each verification in the cache used by
+	 * {@link #signatureIsValid(SignedTransactionRequest, SignatureAlgorithm)}. This is only an optimization:
+	 * the signatures that cannot be verified in batch are verified one by one later, when their requests get checked.
+	 * 
+	 * @param requests the requests; those that are not signed are ignored
+	 */
+	void verifySignaturesInBatch(List<TransactionRequest<?>> requests);
+
+	/**
+	 * Yields the signature algorithm that must have been used for signing the requests
+	 * of the given caller. This depends on the run-time class of the caller.
+	 * 
+	 * @param caller the caller
+	 * @param classLoader the class loader used to load the class of the caller
+	 * @return the signature algorithm
+	 * @throws NoSuchAlgorithmException if the needed signature algorithm is not available
+	 * @throws ClassNotFoundException if the class of the caller cannot be found
+	 */
+	SignatureAlgorithm<SignedTransactionRequest> getSignatureAlgorithmFor(StorageReference caller, EngineClassLoader classLoader) throws NoSuchAlgorithmException, ClassNotFoundException;
+
 	/**
 	 * Yields the consensus parameters of the node.
 	 * 
@@ -20,8 +20,6 @@ import static java.math.BigInteger.ONE;
 import static java.math.BigInteger.ZERO;
 
 import java.math.BigInteger;
-import java.security.NoSuchAlgorithmException;
-import java.util.LinkedList;
 import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.function.Consumer;
@@ -30,7 +28,6 @@ import java.util.logging.Logger;
 import java.util.stream.Stream;
 
 import io.hotmoka.beans.GasCostModel;
-import io.hotmoka.beans.SignatureAlgorithm;
 import io.hotmoka.beans.TransactionRejectedException;
 import io.hotmoka.beans.references.TransactionReference;
 import io.hotmoka.beans.requests.NonInitialTransactionRequest;
@@ -41,7 +38,6 @@ import io.hotmoka.beans.updates.ClassTag;
 import io.hotmoka.beans.updates.Update;
 import io.hotmoka.beans.updates.UpdateOfField;
 import io.hotmoka.beans.values.StorageReference;
-import io.hotmoka.crypto.SignatureAlgorithmForTransactionRequests;
 import io.hotmoka.local.internal.NodeInternal;
 import io.hotmoka.local.internal.transactions.AbstractResponseBuilder;
 import io.hotmoka.nodes.OutOfGasError;
@@ -168,30 +164,6 @@ public abstract class NonInitialResponseBuilder<Request extends NonInitialTransa
 		return this instanceof ViewResponseBuilder;
 	}
 
-	/**
-	 * Determine the signature algorithm that must have been used for signing the request.
-	 * This depends on the run-time class of the caller of the request.
-	 * 
-	 * @return the signature algorithm
-	 * @throws NoSuchAlgorithmException if the needed signature algorithm is not available
-	 * @throws ClassNotFoundException if the class of the caller cannot be found
-	 */
-	private SignatureAlgorithm<SignedTransactionRequest> determineSignatureAlgorithm() throws NoSuchAlgorithmException, ClassNotFoundException {
-		ClassTag classTag = node.getClassTag(request.caller);
-		Class<?> clazz = classLoader.loadClass(classTag.clazz.name);
-
-		if (classLoader.getAccountED25519().isAssignableFrom(clazz))
-			return SignatureAlgorithmForTransactionRequests.ed25519();
-		else if (classLoader.getAccountSHA256DSA().isAssignableFrom(clazz))
-			return SignatureAlgorithmForTransactionRequests.sha256dsa();
-		else if (classLoader.getAccountQTESLA1().isAssignableFrom(clazz))
-			return SignatureAlgorithmForTransactionRequests.qtesla1();
-		else if (classLoader.getAccountQTESLA3().isAssignableFrom(clazz))
-			return SignatureAlgorithmForTransactionRequests.qtesla3();
-		else
-			return SignatureAlgorithmForTransactionRequests.mk(consensus.signature);
-	}
-
 	/**
 	 * Checks if the caller is an externally owned account or subclass.
 	 *
@@ -235,7 +207,7 @@ public abstract class NonInitialResponseBuilder<Request extends NonInitialTransa
 	private void signatureMustBeValid() throws Exception {
 		// if the node is not initialized yet, the signature is not checked
 		if (transactionIsSigned() && node.getStoreUtilities().nodeIsInitializedUncommitted()
-				&& !node.getCaches().signatureIsValid((SignedTransactionRequest) request, determineSignatureAlgorithm()))
+				&& !node.getCaches().signatureIsValid((SignedTransactionRequest) request, node.getCaches().getSignatureAlgorithmFor(request.caller, classLoader)))
 			throw new TransactionRejectedException("invalid request signature");
 	}
 
@@ -359,29 +331,51 @@ public abstract class NonInitialResponseBuilder<Request extends NonInitialTransa
 		private Optional<Object> deserializedValidators;
 
 		/**
-		 * A stack of available gas. When a sub-computation is started
-		 * with a subset of the available gas, the latter is taken away from
-		 * the current available gas and pushed on top of this stack.
+		 * True if and only if the gas limit of the request is small enough to account
+		 * all gas on the primitive fields below, without ever overflowing. This is the normal case.
+		 * Otherwise, gas is accounted on their {@link BigInteger} counterparts.
+		 */
+		private final boolean gasFitsInLong;
+
+		/**
+		 * The remaining amount of gas for the current transaction, not yet consumed,
+		 * if {@link #gasFitsInLong} holds.
+		 */
+		private long gasAsLong;
+
+		/**
+		 * The amount of gas consumed for CPU execution, if {@link #gasFitsInLong} holds.
 		 */
-		private final LinkedList<BigInteger> oldGas = new LinkedList<>();
+		private long gasConsumedForCPUAsLong;
 
 		/**
-		 * The remaining amount of gas for the current transaction, not yet consumed.
+		 * The amount of gas consumed for RAM allocation, if {@link #gasFitsInLong} holds.
+		 */
+		private long gasConsumedForRAMAsLong;
+
+		/**
+		 * The amount of gas consumed for storage consumption, if {@link #gasFitsInLong} holds.
+		 */
+		private long gasConsumedForStorageAsLong;
+
+		/**
+		 * The remaining amount of gas for the current transaction, not yet consumed,
+		 * if {@link #gasFitsInLong} does not hold.
 		 */
 		private BigInteger gas;
 
 		/**
-		 * The amount of gas consumed for CPU execution.
+		 * The amount of gas consumed for CPU execution, if {@link #gasFitsInLong} does not hold.
 		 */
 		private BigInteger gasConsumedForCPU = ZERO;
 
 		/**
-		 * The amount of gas consumed for RAM allocation.
+		 * The amount of gas consumed for RAM allocation, if {@link #gasFitsInLong} does not hold.
 		 */
 		private BigInteger gasConsumedForRAM = ZERO;
 
 		/**
-		 * The amount of gas consumed for storage consumption.
+		 * The amount of gas consumed for storage consumption, if {@link #gasFitsInLong} does not hold.
 		 */
 		private BigInteger gasConsumedForStorage = ZERO;
 
@@ -405,7 +399,14 @@ public abstract class NonInitialResponseBuilder<Request extends NonInitialTransa
 
 		protected ResponseCreator() throws TransactionRejectedException {
 			try {
-				this.gas = request.gasLimit;
+				// we leave a bit of room, so that charging an amount of gas saturated
+				// to Long.MAX_VALUE always exceeds the remaining gas
+				this.gasFitsInLong = request.gasLimit.bitLength() < 63;
+
+				if (gasFitsInLong)
+					this.gasAsLong = request.gasLimit.longValue();
+				else
+					this.gas = request.gasLimit;
 			}
 			catch (Throwable t) {
 				logger.log(Level.WARNING, "response creation rejected", t);
@@ -464,7 +465,7 @@ public abstract class NonInitialResponseBuilder<Request extends NonInitialTransa
 		 * @return the amount of gas
 		 */
 		protected final BigInteger gasConsumedForCPU() {
-			return gasConsumedForCPU;
+			return gasFitsInLong ? BigInteger.valueOf(gasConsumedForCPUAsLong) : gasConsumedForCPU;
 		}
 
 		/**
@@ -473,7 +474,7 @@ public abstract class NonInitialResponseBuilder<Request extends NonInitialTransa
 		 * @return the amount of gas
 		 */
 		protected final BigInteger gasConsumedForRAM() {
-			return gasConsumedForRAM;
+			return gasFitsInLong ? BigInteger.valueOf(gasConsumedForRAMAsLong) : gasConsumedForRAM;
 		}
 
 		/**
@@ -482,7 +483,7 @@ public abstract class NonInitialResponseBuilder<Request extends NonInitialTransa
 		 * @return the amount of gas
 		 */
 		protected final BigInteger gasConsumedForStorage() {
-			return gasConsumedForStorage;
+			return gasFitsInLong ? BigInteger.valueOf(gasConsumedForStorageAsLong) : gasConsumedForStorage;
 		}
 
 		/**
@@ -492,11 +493,45 @@ public abstract class NonInitialResponseBuilder<Request extends NonInitialTransa
 		 *         the gas already consumed for PCU, for RAM and for storage
 		 */
 		protected final BigInteger gasConsumedForPenalty() {
-			return request.gasLimit.subtract(gasConsumedForCPU).subtract(gasConsumedForRAM).subtract(gasConsumedForStorage);
+			return request.gasLimit.subtract(gasConsumedForCPU()).subtract(gasConsumedForRAM()).subtract(gasConsumedForStorage());
 		}
 
 		/**
-		 * Reduces the remaining amount of gas. It performs a task at the end.
+		 * Yields the remaining amount of gas for the current transaction, not yet consumed.
+		 * 
+		 * @return the remaining amount of gas
+		 */
+		private BigInteger remainingGas() {
+			return gasFitsInLong ? BigInteger.valueOf(gasAsLong) : gas;
+		}
+
+		/**
+		 * Reduces the remaining amount of gas, if {@link #gasFitsInLong} holds.
+		 * 
+		 * @param amount the amount of gas to consume
+		 * @return true if and only if the gas has been consumed; it is false
+		 *         if gas is not being counted
+		 */
+		private boolean consume(long amount) {
+			if (amount < 0L)
+				throw new IllegalArgumentException("gas cannot increase");
+
+			// gas can be negative only if it was initialized so; this special case is
+			// used for the creation of the gamete, when gas should not be counted
+			if (gasAsLong < 0L)
+				return false;
+
+			if (gasAsLong < amount)
+				// we report how much gas is missing
+				throw new OutOfGasError();
+
+			gasAsLong -= amount;
+			return true;
+		}
+
+		/**
+		 * Reduces the remaining amount of gas, if {@link #gasFitsInLong} does not hold.
+		 * It performs a task at the end.
 		 * 
 		 * @param amount the amount of gas to consume
 		 * @param forWhat the task performed at the end, for the amount of gas to consume
@@ -518,13 +553,34 @@ public abstract class NonInitialResponseBuilder<Request extends NonInitialTransa
 			forWhat.accept(amount);
 		}
 
+		/**
+		 * Yields the given amount of gas as a {@code long}, saturated to {@link Long#MAX_VALUE}.
+		 * Since the remaining gas is always smaller than that, this does not change the
+		 * result of charging the amount.
+		 * 
+		 * @param amount the amount of gas
+		 * @return the amount, as a {@code long}
+		 */
+		private long asLong(BigInteger amount) {
+			if (amount.signum() < 0)
+				throw new IllegalArgumentException("gas cannot increase");
+
+			return amount.bitLength() < 64 ? amount.longValue() : Long.MAX_VALUE;
+		}
+
 		/**
 		 * Decreases the available gas by the given amount, for storage allocation.
 		 * 
 		 * @param amount the amount of gas to consume
 		 */
 		private void chargeGasForStorage(BigInteger amount) {
-			charge(amount, x -> gasConsumedForStorage = gasConsumedForStorage.add(x));
+			if (gasFitsInLong) {
+				long amountAsLong = asLong(amount);
+				if (consume(amountAsLong))
+					gasConsumedForStorageAsLong += amountAsLong;
+			}
+			else
+				charge(amount, x -> gasConsumedForStorage = gasConsumedForStorage.add(x));
 		}
 
 		/**
@@ -538,12 +594,34 @@ public abstract class NonInitialResponseBuilder<Request extends NonInitialTransa
 
 		@Override
 		public final void chargeGasForCPU(BigInteger amount) {
-			charge(amount, x -> gasConsumedForCPU = gasConsumedForCPU.add(x));
+			if (gasFitsInLong)
+				chargeGasForCPU(asLong(amount));
+			else
+				charge(amount, x -> gasConsumedForCPU = gasConsumedForCPU.add(x));
+		}
+
+		@Override
+		public final void chargeGasForCPU(long amount) {
+			if (!gasFitsInLong)
+				chargeGasForCPU(BigInteger.valueOf(amount));
+			else if (consume(amount))
+				gasConsumedForCPUAsLong += amount;
 		}
 
 		@Override
 		public final void chargeGasForRAM(BigInteger amount) {
-			charge(amount, x -> gasConsumedForRAM = gasConsumedForRAM.add(x));
+			if (gasFitsInLong)
+				chargeGasForRAM(asLong(amount));
+			else
+				charge(amount, x -> gasConsumedForRAM = gasConsumedForRAM.add(x));
+		}
+
+		@Override
+		public final void chargeGasForRAM(long amount) {
+			if (!gasFitsInLong)
+				chargeGasForRAM(BigInteger.valueOf(amount));
+			else if (consume(amount))
+				gasConsumedForRAMAsLong += amount;
 		}
 
 		/**
@@ -610,7 +688,7 @@ public abstract class NonInitialResponseBuilder<Request extends NonInitialTransa
 		 * Pays back the remaining gas to the payer of the transaction.
 		 */
 		protected final void refundPayerForAllRemainingGas() {
-			BigInteger refund = costOf(gas);
+			BigInteger refund = costOf(remainingGas());
 			BigInteger greenBalance = classLoader.getBalanceOf(deserializedPayer);
 
 			// we pay back the green before
@@ -631,14 +709,30 @@ public abstract class NonInitialResponseBuilder<Request extends NonInitialTransa
 		@Override
 		public final <T> T withGas(BigInteger amount, Callable<T> what) throws Exception {
 			chargeGasForCPU(amount);
-			oldGas.addFirst(gas);
-			gas = amount;
-		
-			try {
-				return what.call();
+
+			// the gas available before the call is kept in the Java stack, in
+			// case of nested calls, and added back at the end of the call
+			if (gasFitsInLong) {
+				long oldGas = gasAsLong;
+				gasAsLong = asLong(amount);
+
+				try {
+					return what.call();
+				}
+				finally {
+					gasAsLong += oldGas;
+				}
 			}
-			finally {
-				gas = gas.add(oldGas.removeFirst());
+			else {
+				BigInteger oldGas = gas;
+				gas = amount;
+
+				try {
+					return what.call();
+				}
+				finally {
+					gas = gas.add(oldGas);
+				}
 			}
 		}
 
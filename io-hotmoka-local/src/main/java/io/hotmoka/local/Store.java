@@ -59,6 +59,15 @@ public interface Store extends AutoCloseable {
 	 */
 	Optional<TransactionResponse> getResponseUncommitted(TransactionReference reference);
 
+	/**
+	 * Yields a Merkle proof of the committed response of the transaction having the given
+	 * reference, or of the absence of such response.
+	 * 
+	 * @param reference the reference of the transaction
+	 * @return the proof; this is empty if this store does not support Merkle proofs
+	 */
+	Optional<byte[][]> getProofOfResponse(TransactionReference reference);
+
 	/**
 	 * Yields the error generated by the transaction having the given reference.
 	 * 
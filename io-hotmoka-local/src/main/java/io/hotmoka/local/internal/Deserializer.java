@@ -16,7 +16,6 @@ limitations under the License.
 
 package io.hotmoka.local.internal;
 
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.math.BigInteger;
@@ -241,18 +240,14 @@ public class Deserializer {
 			formals.add(Dummy.class);
 			actuals.add(null);
 	
-			Constructor<?> constructor = clazz.getConstructor(formals.toArray(Class[]::new));
-	
-			// the instrumented constructor is public, but the class might well be non-public; hence we must force accessibility
-			constructor.setAccessible(true);
-	
-			return constructor.newInstance(actuals.toArray(Object[]::new));
+			return (Object) classLoader.getDeserializationConstructor(clazz, formals.toArray(Class[]::new))
+				.invokeExact(actuals.toArray(Object[]::new));
 		}
 		catch (DeserializationError e) {
 			throw e;
 		}
-		catch (Exception e) {
-			throw new DeserializationError(e);
+		catch (Throwable t) {
+			throw new DeserializationError(t);
 		}
 	}
 }
\ No newline at end of file
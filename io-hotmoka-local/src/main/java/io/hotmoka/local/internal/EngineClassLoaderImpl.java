@@ -19,12 +19,16 @@ package io.hotmoka.local.internal;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -47,6 +51,7 @@ import io.hotmoka.instrumentation.InstrumentationConstants;
 import io.hotmoka.local.EngineClassLoader;
 import io.hotmoka.nodes.ConsensusParams;
 import io.hotmoka.verification.TakamakaClassLoader;
+import io.hotmoka.whitelisting.ResolvingClassLoader;
 import io.hotmoka.whitelisting.WhiteListingWizard;
 
 /**
@@ -96,34 +101,59 @@ public final class EngineClassLoaderImpl implements EngineClassLoader {
 	private final Method redPayableBigInteger;
 
 	/**
-	 * Field {@link io.takamaka.code.lang.ExternallyOwnedAccount#nonce}.
+	 * Setter of field {@link io.takamaka.code.lang.ExternallyOwnedAccount#nonce}.
 	 */
-	private final Field externallyOwnedAccountNonce;
+	private final MethodHandle externallyOwnedAccountNonceSetter;
 
 	/**
-	 * Field {@link io.takamaka.code.givernance.AbstractValidators#currentSupply}.
+	 * Getter of field {@link io.takamaka.code.givernance.AbstractValidators#currentSupply}.
 	 */
-	private final Field abstractValidatorsCurrentSupply;
+	private final MethodHandle abstractValidatorsCurrentSupplyGetter;
 
 	/**
-	 * Field {@link io.takamaka.code.lang.Storage#storageReference}.
+	 * Setter of field {@link io.takamaka.code.givernance.AbstractValidators#currentSupply}.
 	 */
-	private final Field storageReference;
+	private final MethodHandle abstractValidatorsCurrentSupplySetter;
 
 	/**
-	 * Field {@link io.takamaka.code.lang.Storage#inStorage}.
+	 * Getter of field {@link io.takamaka.code.lang.Storage#storageReference}.
 	 */
-	private final Field inStorage;
+	private final MethodHandle storageReferenceGetter;
 
 	/**
-	 * Field {@link io.takamaka.code.lang.Contract#balance}.
+	 * Getter of field {@link io.takamaka.code.lang.Storage#inStorage}.
 	 */
-	private final Field balanceField;
+	private final MethodHandle inStorageGetter;
 
 	/**
-	 * Field {@link io.takamaka.code.lang.Contract#redBalance}.
+	 * Getter of field {@link io.takamaka.code.lang.Contract#balance}.
 	 */
-	private final Field redBalanceField;
+	private final MethodHandle balanceGetter;
+
+	/**
+	 * Setter of field {@link io.takamaka.code.lang.Contract#balance}.
+	 */
+	private final MethodHandle balanceSetter;
+
+	/**
+	 * Getter of field {@link io.takamaka.code.lang.Contract#redBalance}.
+	 */
+	private final MethodHandle redBalanceGetter;
+
+	/**
+	 * Setter of field {@link io.takamaka.code.lang.Contract#redBalance}.
+	 */
+	private final MethodHandle redBalanceSetter;
+
+	/**
+	 * The type of the getters of reference fields, after erasure.
+	 */
+	private final static MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	/**
+	 * The type of the setters of reference fields, after erasure.
+	 */
+	private final static MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
 
 	/**
 	 * The lengths (in bytes) of the instrumented jars of the classpath and its dependencies
@@ -142,6 +172,12 @@ public final class EngineClassLoaderImpl implements EngineClassLoader {
 	 */
 	private final ConcurrentMap<String, TransactionReference> transactionsThatInstalledJarForClasses = new ConcurrentHashMap<>();
 
+	/**
+	 * A map from each class and formal arguments of its deserialization constructor
+	 * to the method handle of that constructor, spread over an array of actual arguments.
+	 */
+	private final ConcurrentMap<List<Class<?>>, MethodHandle> deserializationConstructors = new ConcurrentHashMap<>();
+
 	/**
 	 * List of reverification that has been performed on the responses of the transactions that installed
 	 * the jars in this class loader. This occurs if the verification version of the node changed
@@ -193,18 +229,20 @@ public final class EngineClassLoaderImpl implements EngineClassLoader {
 			this.redPayableLong.setAccessible(true); // it was private
 			this.redPayableBigInteger = contract.getDeclaredMethod("redPayable", contract, BigInteger.class);
 			this.redPayableBigInteger.setAccessible(true); // it was private
-			this.redBalanceField = contract.getDeclaredField("balanceRed");
-			this.redBalanceField.setAccessible(true); // it was private
-			this.externallyOwnedAccountNonce = getExternallyOwnedAccount().getDeclaredField("nonce");
-			this.externallyOwnedAccountNonce.setAccessible(true); // it was private
-			this.abstractValidatorsCurrentSupply= getAbstractValidators().getDeclaredField("currentSupply");
-			this.abstractValidatorsCurrentSupply.setAccessible(true); // it was private
-			this.storageReference = storage.getDeclaredField(InstrumentationConstants.STORAGE_REFERENCE_FIELD_NAME);
-			this.storageReference.setAccessible(true); // it was private
-			this.inStorage = storage.getDeclaredField(InstrumentationConstants.IN_STORAGE);
-			this.inStorage.setAccessible(true); // it was private
-			this.balanceField = contract.getDeclaredField("balance");
-			this.balanceField.setAccessible(true); // it was private
+			Field redBalance = contract.getDeclaredField("balanceRed");
+			this.redBalanceGetter = getterFor(redBalance);
+			this.redBalanceSetter = setterFor(redBalance);
+			this.externallyOwnedAccountNonceSetter = setterFor(getExternallyOwnedAccount().getDeclaredField("nonce"));
+			Field currentSupply = getAbstractValidators().getDeclaredField("currentSupply");
+			this.abstractValidatorsCurrentSupplyGetter = getterFor(currentSupply);
+			this.abstractValidatorsCurrentSupplySetter = setterFor(currentSupply);
+			this.storageReferenceGetter = getterFor(storage.getDeclaredField(InstrumentationConstants.STORAGE_REFERENCE_FIELD_NAME));
+			Field inStorage = storage.getDeclaredField(InstrumentationConstants.IN_STORAGE);
+			inStorage.setAccessible(true); // it was private
+			this.inStorageGetter = MethodHandles.lookup().unreflectGetter(inStorage).asType(MethodType.methodType(boolean.class, Object.class));
+			Field balance = contract.getDeclaredField("balance");
+			this.balanceGetter = getterFor(balance);
+			this.balanceSetter = setterFor(balance);
 		}
 		catch (IllegalArgumentException e) {
 			throw e;
@@ -214,6 +252,30 @@ public final class EngineClassLoaderImpl implements EngineClassLoader {
 		}
 	}
 
+	/**
+	 * Yields a getter for the given reference field, that might be private.
+	 * 
+	 * @param field the field
+	 * @return the getter, of type {@code (Object)Object}
+	 * @throws IllegalAccessException if the field cannot be accessed
+	 */
+	private static MethodHandle getterFor(Field field) throws IllegalAccessException {
+		field.setAccessible(true); // it was private
+		return MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE);
+	}
+
+	/**
+	 * Yields a setter for the given reference field, that might be private.
+	 * 
+	 * @param field the field
+	 * @return the setter, of type {@code (Object,Object)void}
+	 * @throws IllegalAccessException if the field cannot be accessed
+	 */
+	private static MethodHandle setterFor(Field field) throws IllegalAccessException {
+		field.setAccessible(true); // it was private
+		return MethodHandles.lookup().unreflectSetter(field).asType(SETTER_TYPE);
+	}
+
 	/**
 	 * Yields the Takamaka class loader for the given dependencies.
 	 * 
@@ -236,7 +298,25 @@ public final class EngineClassLoaderImpl implements EngineClassLoader {
 		processClassInJar(jars, transactionsOfJars);
 
 		// consensus might be null if the node is restarting, during the recomputation of its consensus itself
-		return TakamakaClassLoader.of(jars.stream(), consensus != null ? consensus.verificationVersion : 0);
+		int verificationVersion = consensus != null ? consensus.verificationVersion : 0;
+
+		// the classes of the Takamaka base jar are defined once, in a class loader shared by all
+		// class loaders of the node; this is possible since it has no dependencies and since
+		// packages cannot be split across jars, hence the order of look-up is irrelevant
+		Optional<TransactionReference> takamakaCode = node.getStoreUtilities().getTakamakaCodeUncommitted();
+		if (takamakaCode.isPresent()) {
+			int pos = transactionsOfJars.indexOf(takamakaCode.get());
+			if (pos >= 0) {
+				ResolvingClassLoader shared = node.getCaches().getSharedClassLoader(takamakaCode.get(), jars.get(pos), verificationVersion);
+				Stream<byte[]> others = IntStream.range(0, jars.size())
+					.filter(i -> !takamakaCode.get().equals(transactionsOfJars.get(i)))
+					.mapToObj(jars::get);
+
+				return TakamakaClassLoader.of(shared, others, verificationVersion);
+			}
+		}
+
+		return TakamakaClassLoader.of(jars.stream(), verificationVersion);
 	}
 
 	private final static int CLASS_END_LENGTH = ".class".length();
@@ -357,68 +437,108 @@ public final class EngineClassLoaderImpl implements EngineClassLoader {
 		return transactionsThatInstalledJarForClasses.get(clazz.getName());
 	}
 
+	@Override
+	public final MethodHandle getDeserializationConstructor(Class<?> clazz, Class<?>[] formals) throws NoSuchMethodException, IllegalAccessException {
+		List<Class<?>> key = new ArrayList<>(formals.length + 1);
+		key.add(clazz);
+		key.addAll(Arrays.asList(formals));
+
+		MethodHandle result = deserializationConstructors.get(key);
+		if (result == null) {
+			Constructor<?> constructor = clazz.getConstructor(formals);
+			// the instrumented constructor is public, but the class might well be non-public; hence we must force accessibility
+			constructor.setAccessible(true);
+			MethodHandle handle = MethodHandles.lookup().unreflectConstructor(constructor);
+			result = handle.asType(handle.type().generic()).asSpreader(Object[].class, formals.length);
+			deserializationConstructors.putIfAbsent(key, result);
+		}
+
+		return result;
+	}
+
 	@Override
 	public final StorageReference getStorageReferenceOf(Object object) {
 		try {
-			return (StorageReference) storageReference.get(object);
+			return (StorageReference) (Object) storageReferenceGetter.invokeExact(object);
 		}
-		catch (IllegalArgumentException e) {
+		catch (ClassCastException | NullPointerException e) {
+			// the object is null or of the wrong class
+			throw new IllegalArgumentException("cannot read the storage reference of a storage object of class " + classNameOf(object), e);
+		}
+		catch (RuntimeException | Error e) {
 			throw e;
 		}
-		catch (IllegalAccessException e) {
-			throw new IllegalArgumentException("cannot read the storage reference of a storage object of class " + object.getClass().getName(), e);
+		catch (Throwable t) {
+			// field accessors throw no checked exceptions
+			throw new IllegalStateException("cannot read the storage reference of a storage object of class " + classNameOf(object), t);
 		}
 	}
 
 	@Override
 	public final boolean getInStorageOf(Object object) {
 		try {
-			return (boolean) inStorage.get(object);
+			return (boolean) inStorageGetter.invokeExact(object);
 		}
-		catch (IllegalArgumentException e) {
+		catch (ClassCastException | NullPointerException e) {
+			throw new IllegalArgumentException("cannot read the inStorage tag of a storage object of class " + classNameOf(object), e);
+		}
+		catch (RuntimeException | Error e) {
 			throw e;
 		}
-		catch (IllegalAccessException e) {
-			throw new IllegalArgumentException("cannot read the inStorage tag of a storage object of class " + object.getClass().getName(), e);
+		catch (Throwable t) {
+			// field accessors throw no checked exceptions
+			throw new IllegalStateException("cannot read the inStorage tag of a storage object of class " + classNameOf(object), t);
 		}
 	}
 
 	@Override
 	public final BigInteger getBalanceOf(Object object) {
 		try {
-			return (BigInteger) balanceField.get(object);
+			return (BigInteger) (Object) balanceGetter.invokeExact(object);
 		}
-		catch (IllegalArgumentException e) {
+		catch (ClassCastException | NullPointerException e) {
+			throw new IllegalArgumentException("cannot read the balance field of a contract object of class " + classNameOf(object), e);
+		}
+		catch (RuntimeException | Error e) {
 			throw e;
 		}
-		catch (IllegalAccessException e) {
-			throw new IllegalArgumentException("cannot read the balance field of a contract object of class " + object.getClass().getName(), e);
+		catch (Throwable t) {
+			// field accessors throw no checked exceptions
+			throw new IllegalStateException("cannot read the balance field of a contract object of class " + classNameOf(object), t);
 		}
 	}
 
 	@Override
 	public final BigInteger getRedBalanceOf(Object object) {
 		try {
-			return (BigInteger) redBalanceField.get(object);
+			return (BigInteger) (Object) redBalanceGetter.invokeExact(object);
 		}
-		catch (IllegalArgumentException e) {
+		catch (ClassCastException | NullPointerException e) {
+			throw new IllegalArgumentException("cannot read the red balance field of a contract object of class " + classNameOf(object), e);
+		}
+		catch (RuntimeException | Error e) {
 			throw e;
 		}
-		catch (IllegalAccessException e) {
-			throw new IllegalArgumentException("cannot read the red balance field of a contract object of class " + object.getClass().getName(), e);
+		catch (Throwable t) {
+			// field accessors throw no checked exceptions
+			throw new IllegalStateException("cannot read the red balance field of a contract object of class " + classNameOf(object), t);
 		}
 	}
 
 	@Override
 	public final void setBalanceOf(Object object, BigInteger value) {
 		try {
-			balanceField.set(object, value);
+			balanceSetter.invokeExact(object, (Object) value);
 		}
-		catch (IllegalArgumentException e) {
+		catch (ClassCastException | NullPointerException e) {
+			throw new IllegalArgumentException("cannot write the balance field of a contract object of class " + classNameOf(object), e);
+		}
+		catch (RuntimeException | Error e) {
 			throw e;
 		}
-		catch (IllegalAccessException e) {
-			throw new IllegalArgumentException("cannot write the balance field of a contract object of class " + object.getClass().getName(), e);
+		catch (Throwable t) {
+			// field accessors throw no checked exceptions
+			throw new IllegalStateException("cannot write the balance field of a contract object of class " + classNameOf(object), t);
 		}
 	}
 
@@ -426,17 +546,21 @@ public final class EngineClassLoaderImpl implements EngineClassLoader {
 	public final void setNonceOf(Object object, BigInteger value) {
 		Class<?> clazz = object.getClass();
 
+		if (!getExternallyOwnedAccount().isAssignableFrom(clazz))
+			throw new IllegalArgumentException("unknown account class " + clazz);
+
 		try {
-			if (getExternallyOwnedAccount().isAssignableFrom(clazz))
-				externallyOwnedAccountNonce.set(object, value);
-			else
-				throw new IllegalArgumentException("unknown account class " + clazz);
+			externallyOwnedAccountNonceSetter.invokeExact(object, (Object) value);
 		}
-		catch (IllegalArgumentException e) {
+		catch (ClassCastException | NullPointerException e) {
+			throw new IllegalArgumentException("cannot write the nonce field of an account object of class " + clazz.getName(), e);
+		}
+		catch (RuntimeException | Error e) {
 			throw e;
 		}
-		catch (IllegalAccessException e) {
-			throw new IllegalArgumentException("cannot write the nonce field of an account object of class " + clazz.getName(), e);
+		catch (Throwable t) {
+			// field accessors throw no checked exceptions
+			throw new IllegalStateException("cannot write the nonce field of an account object of class " + clazz.getName(), t);
 		}
 	}
 
@@ -444,33 +568,52 @@ public final class EngineClassLoaderImpl implements EngineClassLoader {
 	public final void increaseCurrentSupply(Object validators, BigInteger amount) {
 		Class<?> clazz = validators.getClass();
 
+		if (!getAbstractValidators().isAssignableFrom(clazz))
+			throw new IllegalArgumentException("unknown validators class " + clazz);
+
 		try {
-			if (getAbstractValidators().isAssignableFrom(clazz))
-				abstractValidatorsCurrentSupply.set(validators, ((BigInteger) abstractValidatorsCurrentSupply.get(validators)).add(amount));
-			else
-				throw new IllegalArgumentException("unknown validators class " + clazz);
+			BigInteger currentSupply = (BigInteger) (Object) abstractValidatorsCurrentSupplyGetter.invokeExact(validators);
+			abstractValidatorsCurrentSupplySetter.invokeExact(validators, (Object) currentSupply.add(amount));
 		}
-		catch (IllegalArgumentException e) {
+		catch (ClassCastException | NullPointerException e) {
+			throw new IllegalArgumentException("cannot access the current supply field of a validators object of class " + clazz.getName(), e);
+		}
+		catch (RuntimeException | Error e) {
 			throw e;
 		}
-		catch (IllegalAccessException e) {
-			throw new IllegalArgumentException("cannot access the current supply field of a validators object of class " + clazz.getName(), e);
+		catch (Throwable t) {
+			// field accessors throw no checked exceptions
+			throw new IllegalStateException("cannot access the current supply field of a validators object of class " + clazz.getName(), t);
 		}
 	}
 
 	@Override
 	public final void setRedBalanceOf(Object object, BigInteger value) {
 		try {
-			redBalanceField.set(object, value);
+			redBalanceSetter.invokeExact(object, (Object) value);
 		}
-		catch (IllegalArgumentException e) {
+		catch (ClassCastException | NullPointerException e) {
+			throw new IllegalArgumentException("cannot write the red balance field of a contract object of class " + classNameOf(object), e);
+		}
+		catch (RuntimeException | Error e) {
 			throw e;
 		}
-		catch (IllegalAccessException e) {
-			throw new IllegalArgumentException("cannot write the red balance field of a contract object of class " + object.getClass().getName(), e);
+		catch (Throwable t) {
+			// field accessors throw no checked exceptions
+			throw new IllegalStateException("cannot write the red balance field of a contract object of class " + classNameOf(object), t);
 		}
 	}
 
+	/**
+	 * Yields the name of the class of the given object, for error messages.
+	 * 
+	 * @param object the object, possibly {@code null}
+	 * @return the name of the class of {@code object}, or {@code null}
+	 */
+	private static String classNameOf(Object object) {
+		return object == null ? null : object.getClass().getName();
+	}
+
 	/**
 	 * Called at the beginning of the instrumentation of a {@code @@FromContract} method or constructor
 	 * of a storage object. It forwards the call to {@code io.takamaka.code.lang.Storage.fromContract()}.
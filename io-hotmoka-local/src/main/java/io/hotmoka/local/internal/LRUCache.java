@@ -18,9 +18,9 @@ package io.hotmoka.local.internal;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Function;
+
+import io.hotmoka.beans.caches.Cache;
 
 /**
  * A class to cache objects based on LRU (Least Recently Used) cache eviction strategy,
@@ -38,7 +38,7 @@ import java.util.function.Function;
  * 
  * Taken from https://dzone.com/articles/java-based-simple-cache-lru-eviction.
  */
-public final class LRUCache<K, V> {
+public final class LRUCache<K, V> implements Cache<K, V> {
 
 	/**
 	 * A doubly-linked-list implementation to save objects into the hashmap
@@ -83,6 +83,11 @@ public final class LRUCache<K, V> {
 	 */
 	private Node<K, V> head, tail;
 
+	/**
+	 * The statistics of this cache.
+	 */
+	private long hits, misses, evictions;
+
 	public LRUCache(int maxCapacity) {
 		this(16, maxCapacity);
 	}
@@ -136,6 +141,7 @@ public final class LRUCache<K, V> {
 	 * @param key the key to bind
 	 * @param value the value to bind to the {@code key}
 	 */
+	@Override
 	public synchronized void put(K key, V value) {
 		if (map.containsKey(key)) {
 			Node<K, V> node = map.get(key);
@@ -147,6 +153,7 @@ public final class LRUCache<K, V> {
 			if (map.size() == maxCapacity) {
 				map.remove(head.key);
 				removeNode(head);
+				evictions++;
 			}
 
 			Node<K, V> node = new Node<>(key, value);
@@ -163,91 +170,39 @@ public final class LRUCache<K, V> {
 	 * @param key the key to access
 	 * @return the value bound to the {@code key}
 	 */
+	@Override
 	public synchronized V get(K key) {
 		Node<K, V> node = map.get(key);
-		if (node == null)
+		if (node == null) {
+			misses++;
 			return null;
+		}
 
+		hits++;
 		removeNode(node);
 		offerNode(node);
 
 		return node.value;
 	}
 
-	/**
-	 * Clears this cache.
-	 */
+	@Override
 	public synchronized void clear() {
 		map.clear();
 		head = tail = null;
 	}
 
-	public interface ValueSupplier<K,V> {
-		V supply(K key) throws Exception;
+	@Override
+	public synchronized long getHits() {
+		return hits;
 	}
 
-	/**
-	 * Adds a new object to the cache, if its key was unbound.
-	 * In that case, it calls a supplier to provide the new object to add.
-	 * 
-	 * @param key the key of the cached value
-	 * @param supplier the supplier that produces the value to put in cache
-	 * @return the current (old or computed) value in cache for {@code key} at the end of the method
-	 */
-	public V computeIfAbsent(K key, ValueSupplier<K,V> supplier) throws Exception {
-		V old = get(key);
-		if (old == null) {
-			V _new = supplier.supply(key);
-			if (_new != null)
-				put(key, _new);
-
-			return _new;
-		}
-		else
-			return old;
+	@Override
+	public synchronized long getMisses() {
+		return misses;
 	}
 
-	/**
-	 * Adds a new object to the cache, if its key was unbound.
-	 * In that case, it calls a supplier to provide the new object to add.
-	 * 
-	 * @param key the key of the cached value
-	 * @param supplier the supplier that produces the value to put in cache
-	 * @return the current (old or computed) value in cache for {@code key} at the end of the method
-	 */
-	public V computeIfAbsentNoException(K key, Function<K,V> supplier) {
-		V old = get(key);
-		if (old == null) {
-			V _new = supplier.apply(key);
-			if (_new != null)
-				put(key, _new);
-
-			return _new;
-		}
-		else
-			return old;
-	}
-
-	/**
-	 * Adds a new object to the cache, if its key was unbound.
-	 * In that case, it calls a supplier to provide the new object to add.
-	 * If the supplier yields an empty optional, nothing is added to the map.
-	 * 
-	 * @param key the key of the cached value
-	 * @param supplier the supplier that produces the value to put in cache
-	 * @return the current (old or computed) value in cache for {@code key} at the end of the method;
-	 *         if the cache did not contain a value for the key and the supplier returns
-	 *         an empty optional, then an empty optional is returned
-	 */
-	public Optional<V> computeIfAbsentOptional(K key, Function<K, Optional<V>> supplier) {
-		V old = get(key);
-		if (old == null) {
-			Optional<V> _new = supplier.apply(key);
-			_new.ifPresent(v -> put(key, v));
-
-			return _new;
-		}
-		else
-			return Optional.of(old);
+	@Override
+	public synchronized long getEvictions() {
+		return evictions;
 	}
 }
\ No newline at end of file
@@ -21,36 +21,53 @@ import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.security.PublicKey;
 import java.security.spec.InvalidKeySpecException;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Stream;
 
 import io.hotmoka.beans.InternalFailureException;
 import io.hotmoka.beans.SignatureAlgorithm;
+import io.hotmoka.beans.caches.Cache;
 import io.hotmoka.beans.references.TransactionReference;
 import io.hotmoka.beans.requests.InstanceMethodCallTransactionRequest;
+import io.hotmoka.beans.requests.NonInitialTransactionRequest;
 import io.hotmoka.beans.requests.SignedTransactionRequest;
 import io.hotmoka.beans.requests.TransactionRequest;
 import io.hotmoka.beans.responses.InitializationTransactionResponse;
 import io.hotmoka.beans.responses.TransactionResponse;
 import io.hotmoka.beans.responses.TransactionResponseWithEvents;
+import io.hotmoka.beans.responses.TransactionResponseWithUpdates;
 import io.hotmoka.beans.signatures.CodeSignature;
+import io.hotmoka.beans.signatures.FieldSignature;
 import io.hotmoka.beans.signatures.NonVoidMethodSignature;
 import io.hotmoka.beans.types.BasicTypes;
 import io.hotmoka.beans.types.ClassType;
+import io.hotmoka.beans.updates.ClassTag;
+import io.hotmoka.beans.updates.UpdateOfField;
 import io.hotmoka.beans.values.BigIntegerValue;
 import io.hotmoka.beans.values.BooleanValue;
 import io.hotmoka.beans.values.IntValue;
 import io.hotmoka.beans.values.LongValue;
 import io.hotmoka.beans.values.StorageReference;
 import io.hotmoka.beans.values.StringValue;
+import io.hotmoka.crypto.SignatureAlgorithmForTransactionRequests;
 import io.hotmoka.local.AbstractLocalNode;
+import io.hotmoka.local.Config;
 import io.hotmoka.local.EngineClassLoader;
 import io.hotmoka.local.NodeCaches;
 import io.hotmoka.nodes.ConsensusParams;
+import io.hotmoka.whitelisting.ResolvingClassLoader;
 
 /**
  * An implementation of the caches of a local node.
@@ -63,24 +80,47 @@ public class NodeCachesImpl implements NodeCaches {
 	/**
 	 * The cache for the requests.
 	 */
-	private final LRUCache<TransactionReference, TransactionRequest<?>> requests;
+	private final Cache<TransactionReference, TransactionRequest<?>> requests;
 
 	/**
 	 * The cache for the committed responses.
 	 */
-	private final LRUCache<TransactionReference, TransactionResponse> responses;
+	private final Cache<TransactionReference, TransactionResponse> responses;
 
 	/**
 	 * Cached recent requests that have had their signature checked.
 	 * This avoids repeated signature checking in {@link AbstractLocalNode#checkTransaction(TransactionRequest)}
 	 * and {@link AbstractLocalNode#deliverTransaction(TransactionRequest)}.
 	 */
-	private final LRUCache<SignedTransactionRequest, Boolean> checkedSignatures;
+	private final Cache<SignedTransactionRequest, Boolean> checkedSignatures;
 
 	/**
 	 * The cache for the class loaders.
 	 */
-	private final LRUCache<TransactionReference, EngineClassLoader> classLoaders = new LRUCache<>(100, 1000);
+	private final Cache<TransactionReference, EngineClassLoader> classLoaders;
+
+	/**
+	 * The cache for the class loaders shared as parents of the class loaders in {@link #classLoaders}.
+	 */
+	private final Cache<TransactionReference, ResolvingClassLoader> sharedClassLoaders;
+
+	/**
+	 * A cache for the last update to each field of objects, after a given transaction
+	 * in their history. This is used to deserialize hot objects and to read their fields
+	 * without scanning their history. This is {@code null} if the configuration of the node disables such cache.
+	 */
+	private final Cache<ObjectAfterTransaction, Map<FieldSignature, UpdateOfField>> lastUpdates;
+
+	/**
+	 * A cache for the class tags of objects. This is {@code null} if the configuration of the node disables such cache.
+	 */
+	private final Cache<StorageReference, ClassTag> classTags;
+
+	/**
+	 * The signature algorithms for the requests, for each of their names.
+	 * They are built only once, since building a signature algorithm is expensive.
+	 */
+	private final ConcurrentMap<String, SignatureAlgorithm<SignedTransactionRequest>> signatureAlgorithms;
 
 	/**
 	 * The consensus parameters of the node.
@@ -132,9 +172,15 @@ public class NodeCachesImpl implements NodeCaches {
 	 */
 	public NodeCachesImpl(NodeInternal node, ConsensusParams consensus) {
 		this.node = node;
-		this.requests = new LRUCache<>(100, node.getConfig().requestCacheSize);
-		this.responses = new LRUCache<>(100, node.getConfig().responseCacheSize);
-		this.checkedSignatures = new LRUCache<>(100, 1000);
+		Config config = node.getConfig();
+		this.requests = config.cachePolicy.mkCache(100, config.requestCacheSize);
+		this.responses = config.cachePolicy.mkCache(100, config.responseCacheSize);
+		this.checkedSignatures = config.cachePolicy.mkCache(100, 1000);
+		this.classLoaders = config.cachePolicy.mkCache(100, 1000);
+		this.sharedClassLoaders = config.cachePolicy.mkCache(10, 10);
+		this.lastUpdates = config.lastUpdatesCacheSize > 0 ? config.cachePolicy.mkCache(100, config.lastUpdatesCacheSize) : null;
+		this.classTags = config.classTagCacheSize > 0 ? config.cachePolicy.mkCache(100, config.classTagCacheSize) : null;
+		this.signatureAlgorithms = new ConcurrentHashMap<>();
 		this.validators = Optional.empty();
 		this.versions = Optional.empty();
 		this.gasStation = Optional.empty();
@@ -148,6 +194,14 @@ public class NodeCachesImpl implements NodeCaches {
 		responses.clear();
 		checkedSignatures.clear();
 		classLoaders.clear();
+		sharedClassLoaders.clear();
+
+		if (lastUpdates != null)
+			lastUpdates.clear();
+
+		if (classTags != null)
+			classTags.clear();
+
 		consensus = null;
 		validators = Optional.empty();
 		versions = Optional.empty();
@@ -157,6 +211,30 @@ public class NodeCachesImpl implements NodeCaches {
 		inflation = null;
 	}
 
+	@Override
+	public final String getStatistics() {
+		StringBuilder sb = new StringBuilder();
+		appendStatistics(sb, "requests", requests);
+		appendStatistics(sb, "responses", responses);
+		appendStatistics(sb, "checked signatures", checkedSignatures);
+		appendStatistics(sb, "class loaders", classLoaders);
+		appendStatistics(sb, "shared class loaders", sharedClassLoaders);
+		appendStatistics(sb, "last updates", lastUpdates);
+		appendStatistics(sb, "class tags", classTags);
+
+		return sb.toString();
+	}
+
+	private static void appendStatistics(StringBuilder sb, String name, Cache<?,?> cache) {
+		if (cache != null) {
+			if (sb.length() > 0)
+				sb.append("; ");
+
+			sb.append(name).append(": ").append(cache.getHits()).append(" hits, ").append(cache.getMisses())
+				.append(" misses, ").append(cache.getEvictions()).append(" evictions");
+		}
+	}
+
 	@Override
 	public final void invalidateIfNeeded(TransactionResponse response, EngineClassLoader classLoader) {
 		if (consensusParametersMightHaveChanged(response, classLoader)) {
@@ -165,6 +243,7 @@ public class NodeCachesImpl implements NodeCaches {
 			recomputeConsensus();
 			logger.info("the consensus cache has been recomputed");
 			classLoaders.clear();
+			sharedClassLoaders.clear();
 			if (versionBefore != consensus.verificationVersion)
 				logger.info("the version of the verification module has changed from " + versionBefore + " to " + consensus.verificationVersion);
 		}
@@ -333,11 +412,124 @@ public class NodeCachesImpl implements NodeCaches {
 		return classLoaders.computeIfAbsentNoException(classpath, _classpath -> new EngineClassLoaderImpl(null, Stream.of(_classpath), node, true, consensus));
 	}
 
+	@Override
+	public final ResolvingClassLoader getSharedClassLoader(TransactionReference reference, byte[] jar, int verificationVersion) {
+		ResolvingClassLoader classLoader = sharedClassLoaders.computeIfAbsentNoException(reference, _reference -> ResolvingClassLoader.of(Stream.of(jar), verificationVersion));
+
+		// class loaders might be built with a different verification version than the consensus, during a restart of the node
+		if (classLoader.getVerificationVersion() != verificationVersion) {
+			classLoader = ResolvingClassLoader.of(Stream.of(jar), verificationVersion);
+			sharedClassLoaders.put(reference, classLoader);
+		}
+
+		return classLoader;
+	}
+
+	@Override
+	public final Optional<Map<FieldSignature, UpdateOfField>> getLastUpdates(StorageReference object, TransactionReference transaction) {
+		if (lastUpdates == null)
+			return Optional.empty();
+
+		return Optional.ofNullable(lastUpdates.get(new ObjectAfterTransaction(object, transaction)));
+	}
+
+	@Override
+	public final void putLastUpdates(StorageReference object, TransactionReference transaction, Map<FieldSignature, UpdateOfField> updates) {
+		if (lastUpdates != null)
+			lastUpdates.put(new ObjectAfterTransaction(object, transaction), Collections.unmodifiableMap(updates));
+	}
+
+	@Override
+	public final ClassTag getClassTag(StorageReference object) throws NoSuchElementException {
+		return classTags != null ? classTags.computeIfAbsentNoException(object, this::computeClassTag) : computeClassTag(object);
+	}
+
+	private ClassTag computeClassTag(StorageReference object) {
+		// we go straight to the transaction that created the object
+		TransactionResponse response = getResponseUncommitted(object.transaction)
+			.orElseThrow(() -> new NoSuchElementException("unknown transaction reference " + object.transaction));
+
+		if (!(response instanceof TransactionResponseWithUpdates))
+			throw new NoSuchElementException("transaction reference " + object.transaction + " does not contain updates");
+
+		return ((TransactionResponseWithUpdates) response).getUpdates()
+			.filter(update -> update instanceof ClassTag && update.object.equals(object))
+			.map(update -> (ClassTag) update)
+			.findFirst()
+			.orElseThrow(() -> new NoSuchElementException("object " + object + " has no class tag"));
+	}
+
 	@Override
 	public final boolean signatureIsValid(SignedTransactionRequest request, SignatureAlgorithm<SignedTransactionRequest> signatureAlgorithm) throws Exception {
 		return checkedSignatures.computeIfAbsent(request, _request -> signatureAlgorithm.verify(_request, getPublicKey(_request.getCaller(), signatureAlgorithm), _request.getSignature()));
 	}
 
+	@Override
+	public final void verifySignaturesInBatch(List<TransactionRequest<?>> requests) {
+		// if the node is not initialized yet, signatures are not checked
+		if (!node.getStoreUtilities().nodeIsInitializedUncommitted())
+			return;
+
+		Map<String, SignatureAlgorithm<SignedTransactionRequest>> algorithms = new HashMap<>();
+		Map<String, List<SignedTransactionRequest>> batches = new HashMap<>();
+
+		for (TransactionRequest<?> request: requests) {
+			if (request instanceof SignedTransactionRequest && request instanceof NonInitialTransactionRequest<?>) {
+				SignedTransactionRequest signedRequest = (SignedTransactionRequest) request;
+				if (checkedSignatures.get(signedRequest) == null) {
+					try {
+						SignatureAlgorithm<SignedTransactionRequest> algorithm = getSignatureAlgorithmFor
+							(signedRequest.getCaller(), getClassLoader(((NonInitialTransactionRequest<?>) request).classpath));
+						String name = algorithm.getName();
+						algorithms.putIfAbsent(name, algorithm);
+						batches.computeIfAbsent(name, __ -> new ArrayList<>()).add(signedRequest);
+					}
+					catch (Exception e) {
+						// the check of the request will fail and report the problem
+					}
+				}
+			}
+		}
+
+		batches.forEach((name, batch) -> verifySignaturesInBatch(batch, algorithms.get(name)));
+	}
+
+	@Override
+	public final SignatureAlgorithm<SignedTransactionRequest> getSignatureAlgorithmFor(StorageReference caller, EngineClassLoader classLoader) throws NoSuchAlgorithmException, ClassNotFoundException {
+		ClassTag classTag = getClassTag(caller);
+		Class<?> clazz = classLoader.loadClass(classTag.clazz.name);
+
+		if (classLoader.getAccountED25519().isAssignableFrom(clazz))
+			return getSignatureAlgorithm("ed25519");
+		else if (classLoader.getAccountSHA256DSA().isAssignableFrom(clazz))
+			return getSignatureAlgorithm("sha256dsa");
+		else if (classLoader.getAccountQTESLA1().isAssignableFrom(clazz))
+			return getSignatureAlgorithm("qtesla1");
+		else if (classLoader.getAccountQTESLA3().isAssignableFrom(clazz))
+			return getSignatureAlgorithm("qtesla3");
+		else
+			return getSignatureAlgorithm(consensus.signature);
+	}
+
+	/**
+	 * Yields the signature algorithm for the requests with the given name, building it only the first time.
+	 * 
+	 * @param name the name of the algorithm
+	 * @return the algorithm
+	 * @throws NoSuchAlgorithmException if there is no signature algorithm with that name
+	 */
+	private SignatureAlgorithm<SignedTransactionRequest> getSignatureAlgorithm(String name) throws NoSuchAlgorithmException {
+		SignatureAlgorithm<SignedTransactionRequest> algorithm = signatureAlgorithms.get(name);
+		if (algorithm == null) {
+			algorithm = SignatureAlgorithmForTransactionRequests.mk(name);
+			SignatureAlgorithm<SignedTransactionRequest> previous = signatureAlgorithms.putIfAbsent(name, algorithm);
+			if (previous != null)
+				algorithm = previous;
+		}
+
+		return algorithm;
+	}
+
 	@Override
 	public final ConsensusParams getConsensusParams() {
 		return consensus;
@@ -408,6 +600,43 @@ public class NodeCachesImpl implements NodeCaches {
 		return signatureAlgorithm.publicKeyFromEncoding(publicKeyEncoded);
 	}
 
+	/**
+	 * Verifies the signatures of the given requests, all signed with the given algorithm,
+	 * and takes note of the outcome of each verification.
+	 * 
+	 * @param batch the requests
+	 * @param signatureAlgorithm the algorithm used for signing the requests
+	 */
+	private void verifySignaturesInBatch(List<SignedTransactionRequest> batch, SignatureAlgorithm<SignedTransactionRequest> signatureAlgorithm) {
+		List<SignedTransactionRequest> verifiable = new ArrayList<>();
+		List<PublicKey> publicKeys = new ArrayList<>();
+		List<byte[]> signatures = new ArrayList<>();
+
+		for (SignedTransactionRequest request: batch) {
+			try {
+				publicKeys.add(getPublicKey(request.getCaller(), signatureAlgorithm));
+				signatures.add(request.getSignature());
+				verifiable.add(request);
+			}
+			catch (Exception e) {
+				// the check of the request will fail and report the problem
+			}
+		}
+
+		// a single signature is verified when its request gets checked
+		if (verifiable.size() < 2)
+			return;
+
+		try {
+			boolean[] valid = signatureAlgorithm.verifyBatch(verifiable, publicKeys, signatures);
+			for (int pos = 0; pos < valid.length; pos++)
+				checkedSignatures.put(verifiable.get(pos), valid[pos]);
+		}
+		catch (Exception e) {
+			// the signatures will be verified one by one, when their requests get checked
+		}
+	}
+
 	private void recomputeGasPrice() {
 		Optional<StorageReference> manifest = node.getStore().getManifestUncommitted();
 		if (manifest.isPresent())
@@ -532,4 +761,28 @@ public class NodeCachesImpl implements NodeCaches {
 	private boolean isInflationUpdateEvent(StorageReference event, EngineClassLoader classLoader) {
 		return classLoader.isInflationUpdateEvent(node.getStoreUtilities().getClassNameUncommitted(event));
 	}
+
+	/**
+	 * The key of the cache of the last updates: an object, after the execution of a transaction in its history.
+	 */
+	private static class ObjectAfterTransaction {
+		private final StorageReference object;
+		private final TransactionReference transaction;
+
+		private ObjectAfterTransaction(StorageReference object, TransactionReference transaction) {
+			this.object = object;
+			this.transaction = transaction;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof ObjectAfterTransaction && ((ObjectAfterTransaction) other).object.equals(object)
+				&& ((ObjectAfterTransaction) other).transaction.equals(transaction);
+		}
+
+		@Override
+		public int hashCode() {
+			return object.hashCode() ^ transaction.hashCode();
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+/*
+Copyright 2021 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.local.internal;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import io.hotmoka.beans.annotations.ThreadSafe;
+import io.hotmoka.beans.references.TransactionReference;
+import io.hotmoka.beans.requests.TransactionRequest;
+import io.hotmoka.beans.responses.TransactionResponse;
+import io.hotmoka.beans.values.StorageReference;
+import io.hotmoka.local.Store;
+
+/**
+ * A store that delegates to another store and takes note of the objects and transactions
+ * whose information gets read from it. This is used for running transactions speculatively
+ * and later checking if what they read has been modified in the meanwhile.
+ */
+@ThreadSafe
+public class ReadTrackingStore implements Store {
+
+	/**
+	 * The store whose reads are tracked.
+	 */
+	private final Store parent;
+
+	/**
+	 * The storage references of the objects whose history has been read and the
+	 * references of the transactions whose response has been read.
+	 */
+	private final Set<Object> reads = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Builds a store that tracks the reads from the given store.
+	 *
+	 * @param parent the store whose reads are tracked
+	 */
+	public ReadTrackingStore(Store parent) {
+		this.parent = parent;
+	}
+
+	/**
+	 * Yields the storage references of the objects whose history has been read and the
+	 * references of the transactions whose response has been read from this store.
+	 * 
+	 * @return the storage references and the transaction references
+	 */
+	public Set<Object> getReads() {
+		return reads;
+	}
+
+	@Override
+	public void close() {
+		// the parent store is closed by its node
+	}
+
+	@Override
+	public long getNow() {
+		return parent.getNow();
+	}
+
+	@Override
+	public Optional<TransactionResponse> getResponse(TransactionReference reference) {
+		reads.add(reference);
+		return parent.getResponse(reference);
+	}
+
+	@Override
+	public Optional<TransactionResponse> getResponseUncommitted(TransactionReference reference) {
+		reads.add(reference);
+		return parent.getResponseUncommitted(reference);
+	}
+
+	@Override
+	public Optional<byte[][]> getProofOfResponse(TransactionReference reference) {
+		reads.add(reference);
+		return parent.getProofOfResponse(reference);
+	}
+
+	@Override
+	public Optional<String> getError(TransactionReference reference) {
+		reads.add(reference);
+		return parent.getError(reference);
+	}
+
+	@Override
+	public Stream<TransactionReference> getHistory(StorageReference object) {
+		reads.add(object);
+		return parent.getHistory(object);
+	}
+
+	@Override
+	public Stream<TransactionReference> getHistoryUncommitted(StorageReference object) {
+		reads.add(object);
+		return parent.getHistoryUncommitted(object);
+	}
+
+	@Override
+	public Optional<StorageReference> getManifest() {
+		return parent.getManifest();
+	}
+
+	@Override
+	public Optional<StorageReference> getManifestUncommitted() {
+		return parent.getManifestUncommitted();
+	}
+
+	@Override
+	public Optional<TransactionRequest<?>> getRequest(TransactionReference reference) {
+		reads.add(reference);
+		return parent.getRequest(reference);
+	}
+
+	@Override
+	public void push(TransactionReference reference, TransactionRequest<?> request, TransactionResponse response) {
+		parent.push(reference, request, response);
+	}
+
+	@Override
+	public void replace(TransactionReference reference, TransactionRequest<?> request, TransactionResponse response) {
+		parent.replace(reference, request, response);
+	}
+
+	@Override
+	public void push(TransactionReference reference, TransactionRequest<?> request, String errorMessage) {
+		parent.push(reference, request, errorMessage);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,186 @@
+/*
+Copyright 2021 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.local.internal;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.stream.Stream;
+
+import io.hotmoka.instrumentation.InstrumentationConstants;
+
+/**
+ * The layout of the fields of storage objects defined in a given class:
+ * for each instance, non-transient field, it provides accessors to its current
+ * value and to the old value that the instrumentation keeps for it.
+ * Layouts are computed once for each class and kept as long as the class is alive,
+ * that is, as long as its class loader is alive.
+ */
+public class StorageLayout {
+
+	/**
+	 * The layouts computed so far, attached to their classes.
+	 */
+	private final static ClassValue<StorageLayout> layouts = new ClassValue<>() {
+
+		@Override
+		protected StorageLayout computeValue(Class<?> clazz) {
+			return new StorageLayout(clazz);
+		}
+	};
+
+	/**
+	 * The type of the getters of the fields, after erasure.
+	 */
+	private final static MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	/**
+	 * The fields of the layout, in the order of declaration.
+	 */
+	private final List<StorageField> fields;
+
+	private StorageLayout(Class<?> clazz) {
+		this.fields = List.of(Stream.of(clazz.getDeclaredFields())
+			.filter(field -> !isStaticOrTransient(field))
+			.map(StorageField::new)
+			.toArray(StorageField[]::new));
+	}
+
+	/**
+	 * Yields the layout of the fields defined in the given class.
+	 * It does not include the fields defined in its superclasses.
+	 *
+	 * @param clazz the class
+	 * @return the layout
+	 */
+	public static StorageLayout of(Class<?> clazz) {
+		return layouts.get(clazz);
+	}
+
+	/**
+	 * Yields the fields of this layout.
+	 *
+	 * @return the fields, in the order of declaration
+	 */
+	public List<StorageField> getFields() {
+		return fields;
+	}
+
+	/**
+	 * Determines if the given field is static or transient, hence it is not part of the layout.
+	 *
+	 * @param field the field
+	 * @return true if and only if that condition holds
+	 */
+	private static boolean isStaticOrTransient(Field field) {
+		int modifiers = field.getModifiers();
+		return Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers);
+	}
+
+	/**
+	 * A field of a storage layout.
+	 */
+	public static class StorageField {
+
+		/**
+		 * The name of the class that defines the field.
+		 */
+		public final String definingClass;
+
+		/**
+		 * The name of the field.
+		 */
+		public final String name;
+
+		/**
+		 * The type of the field.
+		 */
+		public final Class<?> type;
+
+		/**
+		 * The getter of the current value of the field.
+		 */
+		private final MethodHandle current;
+
+		/**
+		 * The getter of the old value of the field, as kept by the instrumentation.
+		 */
+		private final MethodHandle old;
+
+		private StorageField(Field field) {
+			this.definingClass = field.getDeclaringClass().getName();
+			this.name = field.getName();
+			this.type = field.getType();
+
+			try {
+				field.setAccessible(true); // it might be private
+				this.current = MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE);
+			}
+			catch (IllegalAccessException | RuntimeException e) {
+				throw new IllegalStateException("cannot access field " + definingClass + "." + name, e);
+			}
+
+			try {
+				Field oldField = field.getDeclaringClass().getDeclaredField(InstrumentationConstants.OLD_PREFIX + name);
+				oldField.setAccessible(true); // it is always private
+				this.old = MethodHandles.lookup().unreflectGetter(oldField).asType(GETTER_TYPE);
+			}
+			catch (NoSuchFieldException | IllegalAccessException | RuntimeException e) {
+				throw new IllegalStateException("cannot access old value for field " + definingClass + "." + name, e);
+			}
+		}
+
+		/**
+		 * Yields the current value of this field in the given object.
+		 *
+		 * @param object the object
+		 * @return the value, boxed if primitive
+		 */
+		public Object getCurrentValue(Object object) {
+			try {
+				return (Object) current.invokeExact(object);
+			}
+			catch (RuntimeException | Error e) {
+				throw e;
+			}
+			catch (Throwable t) {
+				throw new IllegalStateException("cannot access field " + definingClass + "." + name, t);
+			}
+		}
+
+		/**
+		 * Yields the old value of this field in the given object, as kept by the instrumentation.
+		 *
+		 * @param object the object
+		 * @return the value, boxed if primitive
+		 */
+		public Object getOldValue(Object object) {
+			try {
+				return (Object) old.invokeExact(object);
+			}
+			catch (RuntimeException | Error e) {
+				throw e;
+			}
+			catch (Throwable t) {
+				throw new IllegalStateException("cannot access old value for field " + definingClass + "." + name, t);
+			}
+		}
+	}
+}
@@ -17,7 +17,10 @@ limitations under the License.
 package io.hotmoka.local.internal;
 
 import java.math.BigInteger;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.logging.Level;
@@ -160,15 +163,7 @@ public class StoreUtilitiesImpl implements StoreUtilities {
 	@Override
 	public ClassTag getClassTagUncommitted(StorageReference reference) {
 		try {
-			// we go straight to the transaction that created the object
-			Optional<TransactionResponse> response = node.getCaches().getResponseUncommitted(reference.transaction);
-			if (!(response.get() instanceof TransactionResponseWithUpdates))
-				throw new InternalFailureException("transaction reference " + reference.transaction + " does not contain updates");
-	
-			return ((TransactionResponseWithUpdates) response.get()).getUpdates()
-				.filter(update -> update instanceof ClassTag && update.object.equals(reference))
-				.map(update -> (ClassTag) update)
-				.findFirst().get();
+			return node.getCaches().getClassTag(reference);
 		}
 		catch (Exception e) {
 			logger.log(Level.WARNING, "unexpected exception", e);
@@ -193,14 +188,7 @@ public class StoreUtilitiesImpl implements StoreUtilities {
 	@Override
 	public Stream<UpdateOfField> getEagerFieldsUncommitted(StorageReference object) {
 		try {
-			Set<FieldSignature> fieldsAlreadySeen = new HashSet<>();
-			NodeCaches caches = node.getCaches();
-
-			return getStore().getHistoryUncommitted(object)
-				.flatMap(transaction -> enforceHasUpdates(caches.getResponseUncommitted(transaction).get()).getUpdates())
-				.filter(update -> update.isEager() && update instanceof UpdateOfField && update.object.equals(object) &&
-						fieldsAlreadySeen.add(((UpdateOfField) update).getField()))
-				.map(update -> (UpdateOfField) update);
+			return getLastUpdatesUncommitted(object).values().stream().filter(UpdateOfField::isEager);
 		}
 		catch (Throwable t) {
 			logger.log(Level.WARNING, "unexpected exception", t);
@@ -210,11 +198,7 @@ public class StoreUtilitiesImpl implements StoreUtilities {
 
 	@Override
 	public Optional<UpdateOfField> getLastUpdateToFieldUncommitted(StorageReference object, FieldSignature field) {
-		return getStore().getHistoryUncommitted(object)
-			.map(transaction -> getLastUpdateUncommitted(object, field, transaction))
-			.filter(Optional::isPresent)
-			.map(Optional::get)
-			.findFirst();
+		return Optional.ofNullable(getLastUpdatesUncommitted(object).get(field));
 	}
 
 	@Override
@@ -230,6 +214,42 @@ public class StoreUtilitiesImpl implements StoreUtilities {
 			throw new InternalFailureException("Transaction " + response + " does not contain updates");
 	}
 
+	/**
+	 * Yields the last update to each field of the given object, by using
+	 * the cache of the node, if possible.
+	 * 
+	 * @param object the object
+	 * @return the last updates, indexed by field
+	 */
+	private Map<FieldSignature, UpdateOfField> getLastUpdatesUncommitted(StorageReference object) {
+		NodeCaches caches = node.getCaches();
+		TransactionReference[] history = getStore().getHistoryUncommitted(object).toArray(TransactionReference[]::new);
+		if (history.length == 0)
+			return Collections.emptyMap();
+
+		// we look for the most recent transaction in the history for which the last updates are in cache
+		int cached = 0;
+		Optional<Map<FieldSignature, UpdateOfField>> updatesInCache = Optional.empty();
+		while (cached < history.length && (updatesInCache = caches.getLastUpdates(object, history[cached])).isEmpty())
+			cached++;
+
+		if (cached == 0)
+			return updatesInCache.get();
+
+		// the transactions more recent than that one are scanned, from the most recent, and they shadow the cached updates
+		Map<FieldSignature, UpdateOfField> updates = new HashMap<>();
+		for (int pos = 0; pos < cached; pos++)
+			enforceHasUpdates(caches.getResponseUncommitted(history[pos]).get()).getUpdates()
+				.filter(update -> update instanceof UpdateOfField && update.object.equals(object))
+				.map(update -> (UpdateOfField) update)
+				.forEachOrdered(update -> updates.putIfAbsent(update.getField(), update));
+
+		updatesInCache.ifPresent(inCache -> inCache.forEach(updates::putIfAbsent));
+		caches.putLastUpdates(object, history[0], updates);
+
+		return updates;
+	}
+
 	/**
 	 * Adds, to the given set, the updates of the fields of the object at the given reference,
 	 * occurred during the execution of a given transaction.
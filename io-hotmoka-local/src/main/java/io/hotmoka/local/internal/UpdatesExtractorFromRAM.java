@@ -49,8 +49,8 @@ import io.hotmoka.beans.updates.UpdateOfString;
 import io.hotmoka.beans.updates.UpdateToNullEager;
 import io.hotmoka.beans.updates.UpdateToNullLazy;
 import io.hotmoka.beans.values.StorageReference;
-import io.hotmoka.instrumentation.InstrumentationConstants;
 import io.hotmoka.local.EngineClassLoader;
+import io.hotmoka.local.internal.StorageLayout.StorageField;
 import io.hotmoka.local.internal.transactions.AbstractResponseBuilder;
 import io.hotmoka.nodes.DeserializationError;
 
@@ -377,34 +377,16 @@ public class UpdatesExtractorFromRAM {
 			 * @param object the object
 			 */
 			private void addUpdatesForFieldsDefinedInClass(Class<?> clazz, Object object) {
-				for (Field field: clazz.getDeclaredFields())
-					if (!isStaticOrTransient(field)) {
-						field.setAccessible(true); // it might be private
-						Object currentValue, oldValue;
-
-						try {
-							currentValue = field.get(object);
-						}
-						catch (IllegalArgumentException | IllegalAccessException e) {
-							throw new IllegalStateException("cannot access field " + field.getDeclaringClass().getName() + "." + field.getName(), e);
-						}
-
-						String oldName = InstrumentationConstants.OLD_PREFIX + field.getName();
-						try {
-							Field oldField = field.getDeclaringClass().getDeclaredField(oldName);
-							oldField.setAccessible(true); // it is always private
-							oldValue = oldField.get(object);
-						}
-						catch (NoSuchFieldException | SecurityException | IllegalArgumentException | IllegalAccessException e) {
-							throw new IllegalStateException("cannot access old value for field " + field.getDeclaringClass().getName() + "." + field.getName(), e);
-						}
-
-						if (!inStorage || !Objects.equals(oldValue, currentValue))
-							addUpdateFor(field, currentValue);
-
-						if (inStorage && classLoader.isLazilyLoaded(field.getType()))
-							recursiveExtract(oldValue);
-					}
+				for (StorageField field: StorageLayout.of(clazz).getFields()) {
+					Object currentValue = field.getCurrentValue(object);
+					Object oldValue = field.getOldValue(object);
+
+					if (!inStorage || !Objects.equals(oldValue, currentValue))
+						addUpdateFor(field, currentValue);
+
+					if (inStorage && classLoader.isLazilyLoaded(field.type))
+						recursiveExtract(oldValue);
+				}
 			}
 
 			/**
@@ -413,10 +395,10 @@ public class UpdatesExtractorFromRAM {
 			 * @param field the field
 			 * @param currentValue the current value of the field
 			 */
-			private void addUpdateFor(Field field, Object currentValue) {
-				Class<?> fieldType = field.getType();
-				String fieldDefiningClass = field.getDeclaringClass().getName();
-				String fieldName = field.getName();
+			private void addUpdateFor(StorageField field, Object currentValue) {
+				Class<?> fieldType = field.type;
+				String fieldDefiningClass = field.definingClass;
+				String fieldName = field.name;
 
 				if (fieldType == char.class)
 					addUpdateFor(fieldDefiningClass, fieldName, (char) currentValue);
@@ -445,17 +427,6 @@ public class UpdatesExtractorFromRAM {
 				else
 					throw new IllegalStateException("unexpected field in storage object: " + fieldDefiningClass + '.' + fieldName);
 			}
-
-			/**
-			 * Determines if the given field is static or transient, hence its updates are not extracted.
-			 * 
-			 * @param field the field
-			 * @return true if and only if that condition holds
-			 */
-			private boolean isStaticOrTransient(Field field) {
-				int modifiers = field.getModifiers();
-				return Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers);
-			}
 		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+/*
+Copyright 2021 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.local.internal.runtime;
+
+/**
+ * The object that charges the gas consumed by the current transaction.
+ * Instrumented Takamaka code recovers it once, at the beginning of each method
+ * or constructor, through {@link Runtime#getGasMeter()}, and then calls it directly
+ * at the beginning of each basic block of code, without any further
+ * lookup in the thread-local table of {@link Runtime}.
+ */
+public interface GasMeter {
+
+	/**
+	 * Decreases the available gas by the given amount, for CPU execution.
+	 *
+	 * @param amount the amount of gas to consume
+	 */
+	void chargeGasForCPU(long amount);
+
+	/**
+	 * Decreases the available gas by the given amount, for RAM execution.
+	 *
+	 * @param amount the amount of gas to consume
+	 */
+	void chargeGasForRAM(long amount);
+
+	/**
+	 * Decreases the available gas by the given amounts, first for CPU
+	 * and then for RAM execution. This is equivalent to calling
+	 * {@link #chargeGasForCPU(long)} and then {@link #chargeGasForRAM(long)},
+	 * but it is used for basic blocks that end with a call or an allocation,
+	 * so that they can charge all their gas with a single call.
+	 *
+	 * @param cpu the amount of gas to consume for CPU execution
+	 * @param ram the amount of gas to consume for RAM execution
+	 */
+	default void chargeGasForCPUAndRAM(long cpu, long ram) {
+		chargeGasForCPU(cpu);
+		chargeGasForRAM(ram);
+	}
+}
@@ -57,6 +57,17 @@ public abstract class Runtime {
 		return responseCreators.get();
 	}
 
+	/**
+	 * Yields the gas meter of the transaction that is using the current thread.
+	 * Instrumented code calls this once, at the beginning of each method or constructor,
+	 * and keeps the result in a local variable, for charging gas at each basic block.
+	 * 
+	 * @return the gas meter
+	 */
+	public static GasMeter getGasMeter() {
+		return responseCreators.get();
+	}
+
 	/**
 	 * Yields the last value assigned to the given lazy, non-{@code final} field of the given storage object.
 	 * 
@@ -382,7 +393,7 @@ public abstract class Runtime {
 	 * @param ram the amount of gas to consume for RAM consumption
 	 */
 	public static void chargeForRAM(long ram) {
-		getResponseCreator().chargeGasForRAM(BigInteger.valueOf(ram));
+		getResponseCreator().chargeGasForRAM(ram);
 	}
 
 	/**
@@ -391,147 +402,147 @@ public abstract class Runtime {
 	 * @param ram the amount of gas to consume for RAM consumption
 	 */
 	public static void chargeForRAM(int ram) {
-		getResponseCreator().chargeGasForRAM(BigInteger.valueOf(ram));
+		getResponseCreator().chargeGasForRAM(ram);
 	}
 
 	/**
 	 * Charges one unit of gas for RAM usage for the current transaction.
 	 */
 	public static void chargeForRAM1() {
-		getResponseCreator().chargeGasForRAM(BigInteger.ONE);
+		getResponseCreator().chargeGasForRAM(1L);
 	}
 
 	/**
 	 * Charges two units of gas for RAM usage for the current transaction.
 	 */
 	public static void chargeForRAM2() {
-		getResponseCreator().chargeGasForRAM(BigInteger.TWO);
+		getResponseCreator().chargeGasForRAM(2L);
 	}
 
 	/**
 	 * Charges three units of gas for RAM usage for the current transaction.
 	 */
 	public static void chargeForRAM3() {
-		getResponseCreator().chargeGasForRAM(BigInteger.valueOf(3L));
+		getResponseCreator().chargeGasForRAM(3L);
 	}
 
 	/**
 	 * Charges four units of gas for RAM usage for the current transaction.
 	 */
 	public static void chargeForRAM4() {
-		getResponseCreator().chargeGasForRAM(BigInteger.valueOf(4L));
+		getResponseCreator().chargeGasForRAM(4L);
 	}
 
 	/**
 	 * Charges five units of gas for RAM usage for the current transaction.
 	 */
 	public static void chargeForRAM5() {
-		getResponseCreator().chargeGasForRAM(BigInteger.valueOf(5L));
+		getResponseCreator().chargeGasForRAM(5L);
 	}
 
 	/**
 	 * Charges six units of gas for RAM usage for the current transaction.
 	 */
 	public static void chargeForRAM6() {
-		getResponseCreator().chargeGasForRAM(BigInteger.valueOf(6L));
+		getResponseCreator().chargeGasForRAM(6L);
 	}
 
 	/**
 	 * Charges seven units of gas for RAM usage for the current transaction.
 	 */
 	public static void chargeForRAM7() {
-		getResponseCreator().chargeGasForRAM(BigInteger.valueOf(7L));
+		getResponseCreator().chargeGasForRAM(7L);
 	}
 
 	/**
 	 * Charges eight units of gas for RAM usage for the current transaction.
 	 */
 	public static void chargeForRAM8() {
-		getResponseCreator().chargeGasForRAM(BigInteger.valueOf(8L));
+		getResponseCreator().chargeGasForRAM(8L);
 	}
 
 	/**
 	 * Charges nine units of gas for RAM usage for the current transaction.
 	 */
 	public static void chargeForRAM9() {
-		getResponseCreator().chargeGasForRAM(BigInteger.valueOf(9L));
+		getResponseCreator().chargeGasForRAM(9L);
 	}
 
 	/**
 	 * Charges ten units of gas for RAM usage for the current transaction.
 	 */
 	public static void chargeForRAM10() {
-		getResponseCreator().chargeGasForRAM(BigInteger.valueOf(10L));
+		getResponseCreator().chargeGasForRAM(10L);
 	}
 
 	/**
 	 * Charges eleven units of gas for RAM usage for the current transaction.
 	 */
 	public static void chargeForRAM11() {
-		getResponseCreator().chargeGasForRAM(BigInteger.valueOf(11L));
+		getResponseCreator().chargeGasForRAM(11L);
 	}
 
 	/**
 	 * Charges twelve units of gas for RAM usage for the current transaction.
 	 */
 	public static void chargeForRAM12() {
-		getResponseCreator().chargeGasForRAM(BigInteger.valueOf(12L));
+		getResponseCreator().chargeGasForRAM(12L);
 	}
 
 	/**
 	 * Charges thirteen units of gas for RAM usage for the current transaction.
 	 */
 	public static void chargeForRAM13() {
-		getResponseCreator().chargeGasForRAM(BigInteger.valueOf(13L));
+		getResponseCreator().chargeGasForRAM(13L);
 	}
 
 	/**
 	 * Charges fourteen units of gas for RAM usage for the current transaction.
 	 */
 	public static void chargeForRAM14() {
-		getResponseCreator().chargeGasForRAM(BigInteger.valueOf(14L));
+		getResponseCreator().chargeGasForRAM(14L);
 	}
 
 	/**
 	 * Charges fifteen units of gas for RAM usage for the current transaction.
 	 */
 	public static void chargeForRAM15() {
-		getResponseCreator().chargeGasForRAM(BigInteger.valueOf(15L));
+		getResponseCreator().chargeGasForRAM(15L);
 	}
 
 	/**
 	 * Charges sixteen units of gas for RAM usage for the current transaction.
 	 */
 	public static void chargeForRAM16() {
-		getResponseCreator().chargeGasForRAM(BigInteger.valueOf(16L));
+		getResponseCreator().chargeGasForRAM(16L);
 	}
 
 	/**
 	 * Charges seventeen units of gas for RAM usage for the current transaction.
 	 */
 	public static void chargeForRAM17() {
-		getResponseCreator().chargeGasForRAM(BigInteger.valueOf(17L));
+		getResponseCreator().chargeGasForRAM(17L);
 	}
 
 	/**
 	 * Charges eighteen units of gas for RAM usage for the current transaction.
 	 */
 	public static void chargeForRAM18() {
-		getResponseCreator().chargeGasForRAM(BigInteger.valueOf(18L));
+		getResponseCreator().chargeGasForRAM(18L);
 	}
 
 	/**
 	 * Charges nineteen units of gas for RAM usage for the current transaction.
 	 */
 	public static void chargeForRAM19() {
-		getResponseCreator().chargeGasForRAM(BigInteger.valueOf(19L));
+		getResponseCreator().chargeGasForRAM(19L);
 	}
 
 	/**
 	 * Charges twenty units of gas for RAM usage for the current transaction.
 	 */
 	public static void chargeForRAM20() {
-		getResponseCreator().chargeGasForRAM(BigInteger.valueOf(20L));
+		getResponseCreator().chargeGasForRAM(20L);
 	}
 
 	/**
@@ -540,7 +551,7 @@ public abstract class Runtime {
 	 * @param cpu the amount of gas to consume
 	 */
 	public static void charge(long cpu) {
-		getResponseCreator().chargeGasForCPU(BigInteger.valueOf(cpu));
+		getResponseCreator().chargeGasForCPU(cpu);
 	}
 
 	/**
@@ -549,146 +560,146 @@ public abstract class Runtime {
 	 * @param cpu the amount of gas to consume
 	 */
 	public static void charge(int cpu) {
-		getResponseCreator().chargeGasForCPU(BigInteger.valueOf(cpu));
+		getResponseCreator().chargeGasForCPU(cpu);
 	}
 
 	/**
 	 * Charges one unit of gas for CPU usage for the current transaction.
 	 */
 	public static void charge1() {
-		getResponseCreator().chargeGasForCPU(BigInteger.ONE);
+		getResponseCreator().chargeGasForCPU(1L);
 	}
 
 	/**
 	 * Charges two units of gas for CPU usage for the current transaction.
 	 */
 	public static void charge2() {
-		getResponseCreator().chargeGasForCPU(BigInteger.valueOf(2L));
+		getResponseCreator().chargeGasForCPU(2L);
 	}
 
 	/**
 	 * Charges three units of gas for CPU usage for the current transaction.
 	 */
 	public static void charge3() {
-		getResponseCreator().chargeGasForCPU(BigInteger.valueOf(3L));
+		getResponseCreator().chargeGasForCPU(3L);
 	}
 
 	/**
 	 * Charges four units of gas for CPU usage for the current transaction.
 	 */
 	public static void charge4() {
-		getResponseCreator().chargeGasForCPU(BigInteger.valueOf(4L));
+		getResponseCreator().chargeGasForCPU(4L);
 	}
 
 	/**
 	 * Charges five units of gas for CPU usage for the current transaction.
 	 */
 	public static void charge5() {
-		getResponseCreator().chargeGasForCPU(BigInteger.valueOf(5L));
+		getResponseCreator().chargeGasForCPU(5L);
 	}
 
 	/**
 	 * Charges six units of gas for CPU usage for the current transaction.
 	 */
 	public static void charge6() {
-		getResponseCreator().chargeGasForCPU(BigInteger.valueOf(6L));
+		getResponseCreator().chargeGasForCPU(6L);
 	}
 
 	/**
 	 * Charges seven units of gas for CPU usage for the current transaction.
 	 */
 	public static void charge7() {
-		getResponseCreator().chargeGasForCPU(BigInteger.valueOf(7L));
+		getResponseCreator().chargeGasForCPU(7L);
 	}
 
 	/**
 	 * Charges eight units of gas for CPU usage for the current transaction.
 	 */
 	public static void charge8() {
-		getResponseCreator().chargeGasForCPU(BigInteger.valueOf(8L));
+		getResponseCreator().chargeGasForCPU(8L);
 	}
 
 	/**
 	 * Charges nine units of gas for CPU usage for the current transaction.
 	 */
 	public static void charge9() {
-		getResponseCreator().chargeGasForCPU(BigInteger.valueOf(9L));
+		getResponseCreator().chargeGasForCPU(9L);
 	}
 
 	/**
 	 * Charges ten units of gas for CPU usage for the current transaction.
 	 */
 	public static void charge10() {
-		getResponseCreator().chargeGasForCPU(BigInteger.valueOf(10L));
+		getResponseCreator().chargeGasForCPU(10L);
 	}
 
 	/**
 	 * Charges eleven units of gas for CPU usage for the current transaction.
 	 */
 	public static void charge11() {
-		getResponseCreator().chargeGasForCPU(BigInteger.valueOf(11L));
+		getResponseCreator().chargeGasForCPU(11L);
 	}
 
 	/**
 	 * Charges twelve units of gas for CPU usage for the current transaction.
 	 */
 	public static void charge12() {
-		getResponseCreator().chargeGasForCPU(BigInteger.valueOf(12L));
+		getResponseCreator().chargeGasForCPU(12L);
 	}
 
 	/**
 	 * Charges 13 units of gas for CPU usage for the current transaction.
 	 */
 	public static void charge13() {
-		getResponseCreator().chargeGasForCPU(BigInteger.valueOf(13L));
+		getResponseCreator().chargeGasForCPU(13L);
 	}
 
 	/**
 	 * Charges 14 units of gas for CPU usage for the current transaction.
 	 */
 	public static void charge14() {
-		getResponseCreator().chargeGasForCPU(BigInteger.valueOf(14L));
+		getResponseCreator().chargeGasForCPU(14L);
 	}
 
 	/**
 	 * Charges 15 units of gas for CPU usage for the current transaction.
 	 */
 	public static void charge15() {
-		getResponseCreator().chargeGasForCPU(BigInteger.valueOf(15L));
+		getResponseCreator().chargeGasForCPU(15L);
 	}
 
 	/**
 	 * Charges 16 units of gas for CPU usage for the current transaction.
 	 */
 	public static void charge16() {
-		getResponseCreator().chargeGasForCPU(BigInteger.valueOf(16L));
+		getResponseCreator().chargeGasForCPU(16L);
 	}
 
 	/**
 	 * Charges 17 units of gas for CPU usage fo)r the current transaction.
 	 */
 	public static void charge17() {
-		getResponseCreator().chargeGasForCPU(BigInteger.valueOf(17L));
+		getResponseCreator().chargeGasForCPU(17L);
 	}
 
 	/**
 	 * Charges 18 units of gas for CPU usage for the current transaction.
 	 */
 	public static void charge18() {
-		getResponseCreator().chargeGasForCPU(BigInteger.valueOf(18L));
+		getResponseCreator().chargeGasForCPU(18L);
 	}
 
 	/**
 	 * Charges 19 units of gas for CPU usage for the current transaction.
 	 */
 	public static void charge19() {
-		getResponseCreator().chargeGasForCPU(BigInteger.valueOf(19L));
+		getResponseCreator().chargeGasForCPU(19L);
 	}
 
 	/**
 	 * Charges 20 units of gas for CPU usage for the current transaction.
 	 */
 	public static void charge20() {
-		getResponseCreator().chargeGasForCPU(BigInteger.valueOf(20L));
+		getResponseCreator().chargeGasForCPU(20L);
 	}
 }
\ No newline at end of file
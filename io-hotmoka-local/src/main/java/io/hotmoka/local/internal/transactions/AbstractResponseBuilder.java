@@ -39,6 +39,7 @@ import io.hotmoka.local.internal.EngineClassLoaderImpl;
 import io.hotmoka.local.internal.NodeInternal;
 import io.hotmoka.local.internal.StorageTypeToClass;
 import io.hotmoka.local.internal.UpdatesExtractorFromRAM;
+import io.hotmoka.local.internal.runtime.GasMeter;
 import io.hotmoka.nodes.ConsensusParams;
 import io.hotmoka.nodes.DeserializationError;
 import io.hotmoka.nodes.OutOfGasError;
@@ -139,9 +140,10 @@ public abstract class AbstractResponseBuilder<Request extends TransactionRequest
 	/**
 	 * The creator of a response. Its body runs in a thread, so that the
 	 * {@linkplain io.hotmoka.local.internal.runtime.Runtime} class
-	 * can recover it from its thread-local table.
+	 * can recover it from its thread-local table. It is also the gas meter
+	 * that instrumented code calls for charging gas.
 	 */
-	public abstract class ResponseCreator {
+	public abstract class ResponseCreator implements GasMeter {
 
 		/**
 		 * The object that deserializes storage objects into RAM values.
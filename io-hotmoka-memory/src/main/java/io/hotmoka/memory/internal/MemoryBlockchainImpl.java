@@ -16,6 +16,7 @@ limitations under the License.
 
 package io.hotmoka.memory.internal;
 
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -116,8 +117,13 @@ public class MemoryBlockchainImpl extends AbstractLocalNode<MemoryBlockchainConf
 		}
 
 		@Override
-		public TransactionResponse deliverTransaction(TransactionRequest<?> request) throws TransactionRejectedException {
-			return MemoryBlockchainImpl.this.deliverTransaction(request);
+		public void verifySignaturesInBatch(List<TransactionRequest<?>> requests) {
+			MemoryBlockchainImpl.this.verifySignaturesInBatch(requests);
+		}
+
+		@Override
+		public List<TransactionResponse> deliverTransactions(List<TransactionRequest<?>> requests) {
+			return MemoryBlockchainImpl.this.deliverTransactions(requests);
 		}
 
 		@Override
@@ -16,6 +16,8 @@ limitations under the License.
 
 package io.hotmoka.memory.internal;
 
+import java.util.List;
+
 import io.hotmoka.beans.TransactionRejectedException;
 import io.hotmoka.beans.requests.TransactionRequest;
 import io.hotmoka.beans.responses.TransactionResponse;
@@ -43,14 +45,20 @@ public interface MemoryBlockchainInternal {
 	void checkTransaction(TransactionRequest<?> request) throws TransactionRejectedException;
 
 	/**
-	 * Builds a response for the given request and adds it to the store of the node.
+	 * Verifies in batch the signatures of the given requests, before they get checked.
 	 * 
-	 * @param request the request
-	 * @return the response; if this node has a notion of commit, this response is typically
-	 *         still uncommitted
-	 * @throws TransactionRejectedException if the response cannot be built
+	 * @param requests the requests
+	 */
+	void verifySignaturesInBatch(List<TransactionRequest<?>> requests);
+
+	/**
+	 * Builds the responses for the given requests and adds them to the store of the node, in order.
+	 * 
+	 * @param requests the requests
+	 * @return the responses, in the same order as {@code requests}; an element is {@code null}
+	 *         if the corresponding request could not be delivered
 	 */
-	TransactionResponse deliverTransaction(TransactionRequest<?> request) throws TransactionRejectedException;
+	List<TransactionResponse> deliverTransactions(List<TransactionRequest<?>> requests);
 
 	/**
 	 * Rewards the validators with the cost of the gas consumed by the
@@ -16,6 +16,8 @@ limitations under the License.
 
 package io.hotmoka.memory.internal;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.logging.Level;
@@ -31,6 +33,12 @@ import io.hotmoka.beans.requests.TransactionRequest;
  */
 class Mempool {
 	public final static int MAX_CAPACITY = 200_000;
+
+	/**
+	 * The maximal number of requests that are checked together, so that
+	 * their signatures can be verified in batch.
+	 */
+	private final static int MAX_CHECK_BATCH_SIZE = 100;
 	private final static Logger logger = Logger.getLogger(Mempool.class.getName());
 
 	/**
@@ -90,26 +98,38 @@ class Mempool {
 	}
 
 	/**
-	 * The body of the checking thread. Its pops a request from the mempool and checks it.
+	 * The body of the checking thread. Its pops the requests already available in the mempool
+	 * and checks them, in order. Their signatures are verified in batch before the checks.
 	 */
 	private void check() {
 		while (!Thread.currentThread().isInterrupted()) {
 			try {
-				TransactionRequest<?> current = mempool.take();
+				List<TransactionRequest<?>> current = new ArrayList<>();
+				current.add(mempool.take());
+				mempool.drainTo(current, MAX_CHECK_BATCH_SIZE - 1);
 
 				try {
-					node.checkTransaction(current);
-					if (!checkedMempool.offer(current)) {
-						deliverer.interrupt();
-						throw new IllegalStateException("mempool overflow");
-					}
+					node.verifySignaturesInBatch(current);
 				}
-				catch (TransactionRejectedException e) {
-					// already logged
+				catch (Throwable t) {
+					logger.log(Level.WARNING, "Failed to verify the signatures of transaction requests", t);
+				}
+
+				for (TransactionRequest<?> request: current) {
+					try {
+						node.checkTransaction(request);
+						if (!checkedMempool.offer(request)) {
+							deliverer.interrupt();
+							throw new IllegalStateException("mempool overflow");
+						}
+					}
+					catch (TransactionRejectedException e) {
+						// already logged
+					}
+					catch (Throwable t) {
+						logger.log(Level.WARNING, "Failed to check transaction request", t);
+					}
 				}
-	            catch (Throwable t) {
-	            	logger.log(Level.WARNING, "Failed to check transaction request", t);
-	    		}
 			}
 			catch (InterruptedException e) {
 				return;
@@ -118,7 +138,9 @@ class Mempool {
 	}
 
 	/**
-	 * The body of the thread that executes requests. Its pops a request from the checked mempool and executes it.
+	 * The body of the thread that executes requests. Its pops the requests from the checked mempool
+	 * and executes them. The requests already available, up to the end of the current block, are
+	 * executed together, so that they can be executed in parallel.
 	 */
 	private void deliver() {
 		int counter = 0;
@@ -126,18 +148,24 @@ class Mempool {
 
 		while (!Thread.currentThread().isInterrupted()) {
 			try {
-				TransactionRequest<?> current = checkedMempool.take();
+				List<TransactionRequest<?>> current = new ArrayList<>();
+				current.add(checkedMempool.take());
+				// we stop at the transaction after which the validators get rewarded
+				checkedMempool.drainTo(current, Math.max(0, transactionsPerBlock - 2 - counter));
 
 				try {
-					node.deliverTransaction(current);
+					node.deliverTransactions(current);
+				}
+	            catch (Throwable t) {
+	            	logger.log(Level.WARNING, "Failed to deliver transaction requests", t);
+	    		}
+
+				for (int pos = 0; pos < current.size(); pos++) {
 					counter = (counter + 1) % transactionsPerBlock;
 					// the last transaction of a block is for rewarding the validators and updating the gas price
 					if (counter == transactionsPerBlock - 1 && node.rewardValidators("", ""))
 						counter = 0;
 				}
-	            catch (Throwable t) {
-	            	logger.log(Level.WARNING, "Failed to deliver transaction request", t);
-	    		}
 			}
 			catch (InterruptedException e) {
 				return;
@@ -137,6 +137,12 @@ class Store extends AbstractStore<MemoryBlockchainConfig> {
 		return getResponse(reference);
 	}
 
+	@Override
+	public Optional<byte[][]> getProofOfResponse(TransactionReference reference) {
+		// responses are kept in files, hence there is no Merkle proof for them
+		return Optional.empty();
+	}
+
 	@Override
 	public Optional<String> getError(TransactionReference reference) {
 		return Optional.ofNullable(errors.get(reference));
@@ -0,0 +1,43 @@
+/*
+Copyright 2021 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.network.responses;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The model of a Merkle proof of a response.
+ */
+public class ProofModel {
+
+    /**
+     * The marshalled nodes of the proof, in Base64 format, from the root of the trie.
+     */
+    public List<String> nodes;
+
+    public ProofModel(byte[][] proof) {
+        this.nodes = Stream.of(proof).map(Base64.getEncoder()::encodeToString).collect(Collectors.toList());
+    }
+
+    public ProofModel() {}
+
+    public byte[][] toBean() {
+        return nodes.stream().map(Base64.getDecoder()::decode).toArray(byte[][]::new);
+    }
+}
@@ -16,11 +16,18 @@ limitations under the License.
 
 package io.hotmoka.nodes;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -46,16 +53,69 @@ public abstract class AbstractNode implements Node {
 	protected final static Logger logger = Logger.getLogger(Node.class.getName());
 
 	/**
-	 * A map from each key of events to the subscription with this node for that key.
-	 * The {@code null} key is allowed, meaning that the subscriptions are for all keys.
+	 * The default maximal number of events that can be pending for each subscription.
 	 */
-	private final Map<StorageReference, Set<SubscriptionImpl>> subscriptions;
+	private final static int DEFAULT_MAX_PENDING_EVENTS_PER_SUBSCRIPTION = 1_000;
 
 	/**
-	 * Builds an abstract node.
+	 * A map from each key of events to the subscriptions with this node for that key.
+	 * The sets of subscriptions are copied on write, so that events can be notified
+	 * without locking.
+	 */
+	private final ConcurrentMap<StorageReference, Set<SubscriptionImpl>> subscriptions;
+
+	/**
+	 * The subscriptions for all keys. They are kept apart from {@link #subscriptions},
+	 * whose keys cannot be {@code null}.
+	 */
+	private final Set<SubscriptionImpl> subscriptionsForAllKeys;
+
+	/**
+	 * The executor that runs the event handlers, so that the thread that notifies
+	 * the events never waits for them.
+	 */
+	private final ExecutorService eventDispatcher;
+
+	/**
+	 * The maximal number of events that can be pending for each subscription.
+	 */
+	private final int maxPendingEventsPerSubscription;
+
+	/**
+	 * What to do when a subscription has already {@link #maxPendingEventsPerSubscription}
+	 * pending events and a new event must be notified to it.
+	 */
+	private final EventOverflowPolicy eventOverflowPolicy;
+
+	/**
+	 * Builds an abstract node. Each subscription to its events can have at most
+	 * 1,000 pending events; further events are dropped.
 	 */
 	protected AbstractNode() {
-		this.subscriptions = new HashMap<>();
+		this(DEFAULT_MAX_PENDING_EVENTS_PER_SUBSCRIPTION, EventOverflowPolicy.DROP);
+	}
+
+	/**
+	 * Builds an abstract node.
+	 * 
+	 * @param maxPendingEventsPerSubscription the maximal number of events that can be
+	 *                                        pending for each subscription to the events of the node
+	 * @param eventOverflowPolicy what to do when a subscription has already
+	 *                            {@code maxPendingEventsPerSubscription} pending events
+	 *                            and a new event must be notified to it
+	 */
+	protected AbstractNode(int maxPendingEventsPerSubscription, EventOverflowPolicy eventOverflowPolicy) {
+		if (maxPendingEventsPerSubscription <= 0)
+			throw new IllegalArgumentException("the maximal number of pending events per subscription must be positive");
+
+		if (eventOverflowPolicy == null)
+			throw new NullPointerException("the event overflow policy cannot be null");
+
+		this.subscriptions = new ConcurrentHashMap<>();
+		this.subscriptionsForAllKeys = new CopyOnWriteArraySet<>();
+		this.eventDispatcher = Executors.newCachedThreadPool(AbstractNode::mkEventDispatcherThread);
+		this.maxPendingEventsPerSubscription = maxPendingEventsPerSubscription;
+		this.eventOverflowPolicy = eventOverflowPolicy;
 	}
 
 	/**
@@ -65,6 +125,10 @@ public abstract class AbstractNode implements Node {
 	 */
 	protected AbstractNode(AbstractNode parent) {
 		this.subscriptions = parent.subscriptions;
+		this.subscriptionsForAllKeys = parent.subscriptionsForAllKeys;
+		this.eventDispatcher = parent.eventDispatcher;
+		this.maxPendingEventsPerSubscription = parent.maxPendingEventsPerSubscription;
+		this.eventOverflowPolicy = parent.eventOverflowPolicy;
 	}
 
 	@Override
@@ -74,37 +138,55 @@ public abstract class AbstractNode implements Node {
 
 		SubscriptionImpl subscription = new SubscriptionImpl(creator, handler);
 
-		synchronized (subscriptions) {
-			subscriptions.computeIfAbsent(creator, __ -> new HashSet<>()).add(subscription);
-		}
+		if (creator == null)
+			subscriptionsForAllKeys.add(subscription);
+		else
+			subscriptions.compute(creator, (__, subscriptionsForKey) -> {
+				if (subscriptionsForKey == null)
+					subscriptionsForKey = new CopyOnWriteArraySet<>();
+
+				subscriptionsForKey.add(subscription);
+				return subscriptionsForKey;
+			});
 
 		return subscription;
 	}
 
+	/**
+	 * Closes this node. This implementation closes all subscriptions to the events of the node,
+	 * discarding the events not handled yet, and stops the threads that dispatch the events,
+	 * interrupting the handlers still running. Subclasses that redefine this method must call it.
+	 */
+	@Override
+	public void close() throws Exception {
+		subscriptionsForAllKeys.forEach(SubscriptionImpl::close);
+		subscriptions.values().forEach(subscriptionsForKey -> subscriptionsForKey.forEach(SubscriptionImpl::close));
+
+		eventDispatcher.shutdownNow();
+		if (!eventDispatcher.awaitTermination(10, TimeUnit.SECONDS))
+			logger.warning("some event handlers are still running after the node has been closed");
+	}
+
 	/**
 	 * Notifies the given event to all event handlers for the given creator.
+	 * The handlers are run later, by another thread, hence this method never
+	 * waits for them. The events notified to the same subscription are handled
+	 * in order of notification.
 	 * 
 	 * @param creator the creator of the event
 	 * @param event the event to notify
 	 */
 	protected final void notifyEvent(StorageReference creator, StorageReference event) {
-		try {
-			synchronized (subscriptions) {
-				Set<SubscriptionImpl> subscriptionsPerKey = subscriptions.get(creator);
-				if (subscriptionsPerKey != null)
-					subscriptionsPerKey.forEach(subscription -> subscription.accept(creator, event));
-
-				// we forward the event also to the subscriptions for all keys
-				subscriptionsPerKey = subscriptions.get(null);
-				if (subscriptionsPerKey != null)
-					subscriptionsPerKey.forEach(subscription -> subscription.accept(creator, event));
-			}
-
-			logger.info(event + ": notified as event with creator " + creator);
-		}
-		catch (Throwable t) {
-			throw InternalFailureException.of("event handler execution failed", t);
+		if (creator != null) {
+			Set<SubscriptionImpl> subscriptionsForKey = subscriptions.get(creator);
+			if (subscriptionsForKey != null)
+				subscriptionsForKey.forEach(subscription -> subscription.enqueue(creator, event));
 		}
+
+		// we forward the event also to the subscriptions for all keys
+		subscriptionsForAllKeys.forEach(subscription -> subscription.enqueue(creator, event));
+
+		logger.info(event + ": notified as event with creator " + creator);
 	}
 
 	/**
@@ -274,31 +356,130 @@ public abstract class AbstractNode implements Node {
 		};
 	}
 
+	/**
+	 * Creates a thread for the dispatching of events. It is a daemon thread,
+	 * so that it does not prevent the termination of the application.
+	 * 
+	 * @param task the task that the thread will run
+	 * @return the thread
+	 */
+	private static Thread mkEventDispatcherThread(Runnable task) {
+		Thread thread = new Thread(task, "event dispatcher");
+		thread.setDaemon(true);
+		return thread;
+	}
+
+	/**
+	 * An event notified to a subscription, not yet handled.
+	 */
+	private static class PendingEvent {
+		private final StorageReference creator;
+		private final StorageReference event;
+
+		private PendingEvent(StorageReference creator, StorageReference event) {
+			this.creator = creator;
+			this.event = event;
+		}
+	}
+
 	/**
 	 * An implementation of a subscription to events. It handles events
 	 * with the event handler provided to the constructor and unsubscribes to events on close.
+	 * Events are queued and handled, in order, by a task run by the {@link #eventDispatcher}.
+	 * At most one such task is active for each subscription at any time.
 	 */
-	private class SubscriptionImpl implements Subscription, BiConsumer<StorageReference, StorageReference> {
+	private class SubscriptionImpl implements Subscription {
 		private final StorageReference key;
 		private final BiConsumer<StorageReference, StorageReference> handler;
 
+		/**
+		 * The events notified to this subscription, not yet handled.
+		 */
+		private final BlockingQueue<PendingEvent> pending;
+
+		/**
+		 * True if and only if a task is handling the pending events of this subscription.
+		 */
+		private final AtomicBoolean dispatching = new AtomicBoolean();
+
+		/**
+		 * True if and only if this subscription has been closed.
+		 */
+		private volatile boolean closed;
+
 		private SubscriptionImpl(StorageReference key, BiConsumer<StorageReference, StorageReference> handler) {
 			this.key = key;
 			this.handler = handler;
+			this.pending = new ArrayBlockingQueue<>(maxPendingEventsPerSubscription);
 		}
 
 		@Override
 		public void close() {
-			synchronized (subscriptions) {
-				Set<SubscriptionImpl> subscriptionsForKey = subscriptions.get(key);
-				if (subscriptionsForKey != null && subscriptionsForKey.remove(this) && subscriptionsForKey.isEmpty())
-					subscriptions.remove(key);
+			closed = true;
+			pending.clear();
+
+			if (key == null)
+				subscriptionsForAllKeys.remove(this);
+			else
+				subscriptions.computeIfPresent(key, (__, subscriptionsForKey) -> {
+					subscriptionsForKey.remove(this);
+					return subscriptionsForKey.isEmpty() ? null : subscriptionsForKey;
+				});
+		}
+
+		/**
+		 * Adds an event to those that must be handled by this subscription.
+		 * It never blocks: if too many events are pending, it applies the {@link #eventOverflowPolicy}.
+		 * 
+		 * @param creator the creator of the event
+		 * @param event the event
+		 */
+		private void enqueue(StorageReference creator, StorageReference event) {
+			if (closed)
+				return;
+
+			if (!pending.offer(new PendingEvent(creator, event))) {
+				if (eventOverflowPolicy == EventOverflowPolicy.DISCONNECT) {
+					logger.warning("closing the subscription to the events with key " + key + " since it cannot keep up with them");
+					close();
+				}
+				else
+					logger.warning(event + ": dropped event with creator " + creator + " since a subscriber cannot keep up with the events");
+
+				return;
+			}
+
+			if (dispatching.compareAndSet(false, true)) {
+				try {
+					eventDispatcher.execute(this::dispatch);
+				}
+				catch (RejectedExecutionException e) {
+					// the node has been closed: nobody will handle the event anymore
+					pending.clear();
+					dispatching.set(false);
+				}
 			}
 		}
 
-		@Override
-		public void accept(StorageReference key, StorageReference event) {
-			handler.accept(key, event);
+		/**
+		 * Handles the pending events of this subscription, until there are none left.
+		 */
+		private void dispatch() {
+			do {
+				PendingEvent next;
+				while (!closed && (next = pending.poll()) != null) {
+					try {
+						handler.accept(next.creator, next.event);
+					}
+					catch (Throwable t) {
+						logger.log(Level.WARNING, "event handler execution failed", t);
+					}
+				}
+
+				dispatching.set(false);
+			}
+			// an event might have been enqueued after the last poll but before resetting the flag
+			while (!closed && !pending.isEmpty() && dispatching.compareAndSet(false, true));
 		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+/*
+Copyright 2021 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.nodes;
+
+/**
+ * The policy followed by a node when a subscriber to its events
+ * cannot keep up with them, so that its queue of pending events is full.
+ */
+public enum EventOverflowPolicy {
+
+	/**
+	 * The new event is not notified to the subscriber, that remains subscribed.
+	 */
+	DROP,
+
+	/**
+	 * The subscription is closed, hence the subscriber will not receive further events.
+	 */
+	DISCONNECT
+}
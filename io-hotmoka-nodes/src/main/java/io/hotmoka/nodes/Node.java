@@ -149,6 +149,20 @@ public interface Node extends AutoCloseable {
 	 */
 	TransactionResponse getResponse(TransactionReference reference) throws TransactionRejectedException, NoSuchElementException;
 
+	/**
+	 * Yields a Merkle proof of the response generated for the request for the given transaction,
+	 * or of the absence of such response, with respect to the current, committed state of this node.
+	 * It consists of the marshalled nodes along the path of {@code reference} in the
+	 * Merkle-Patricia trie of the responses, starting from its root. Hence, it can be checked
+	 * by a client that knows the root of that trie, without trusting this node. That root
+	 * is part of the hash of the state of the node, as agreed upon by its consensus, if any.
+	 * 
+	 * @param reference the reference of the transaction
+	 * @return the proof
+	 * @throws UnsupportedOperationException if this node does not keep its responses in a Merkle-Patricia trie
+	 */
+	byte[][] getProofOfResponse(TransactionReference reference) throws UnsupportedOperationException;
+
 	/**
 	 * Waits until a transaction has been committed, or until its delivering fails.
 	 * If this method succeeds and this node has some form of commit, then the
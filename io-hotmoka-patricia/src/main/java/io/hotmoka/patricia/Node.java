@@ -16,10 +16,45 @@ limitations under the License.
 
 package io.hotmoka.patricia;
 
+import java.io.IOException;
+
 import io.hotmoka.beans.Marshallable;
 
 /**
  * A node of a Patricia tree.
  */
 public abstract class Node extends Marshallable {
-}
\ No newline at end of file
+
+	/**
+	 * The marshalled bytes of this node, computed the first time they are needed.
+	 */
+	private volatile byte[] bytes;
+
+	/**
+	 * Yields the marshalled bytes of this node. Since nodes are immutable,
+	 * they are computed only once and then recycled, until {@link #forgetByteArray()}
+	 * is called. Hence the hashing algorithm for the nodes of a Patricia trie
+	 * should use this method instead of {@link #toByteArray()}, so that a node
+	 * is marshalled once only, although it gets both hashed and written into the store.
+	 * 
+	 * @return the marshalled bytes of this node; they must not be modified
+	 * @throws IOException if the node could not be marshalled
+	 */
+	public final byte[] toByteArrayMemoized() throws IOException {
+		byte[] result = bytes;
+		if (result == null)
+			bytes = result = toByteArray();
+
+		return result;
+	}
+
+	/**
+	 * Forgets the marshalled bytes of this node, if they have been memoized by
+	 * {@link #toByteArrayMemoized()}. This should be called when they are not
+	 * needed anymore, such as after the node has been written into its store,
+	 * so that nodes kept in a cache do not keep their bytes as well.
+	 */
+	protected final void forgetByteArray() {
+		bytes = null;
+	}
+}
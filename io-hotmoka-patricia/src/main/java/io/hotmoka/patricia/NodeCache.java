@@ -0,0 +1,82 @@
+/*
+Copyright 2021 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.patricia;
+
+import java.util.Optional;
+
+import io.hotmoka.beans.annotations.ThreadSafe;
+import io.hotmoka.patricia.internal.NodeCacheImpl;
+
+/**
+ * A bounded cache of the already unmarshalled nodes of Patricia tries,
+ * indexed by their hash. Since nodes are addressed by the hash of their content,
+ * the same cache can be shared among many tries, also if they are kept in
+ * distinct stores.
+ */
+@ThreadSafe
+public interface NodeCache {
+
+	/**
+	 * Yields the node with the given hash, if it is in this cache.
+	 *
+	 * @param hash the hash of the node
+	 * @return the node, if any
+	 */
+	Optional<Node> get(byte[] hash);
+
+	/**
+	 * Binds the given hash to the given node in this cache.
+	 * This might evict other nodes from the cache.
+	 *
+	 * @param hash the hash of the node
+	 * @param node the node
+	 */
+	void put(byte[] hash, Node node);
+
+	/**
+	 * Removes the node with the given hash from this cache, if it is there.
+	 * This must be called when the node gets removed from its store.
+	 *
+	 * @param hash the hash of the node
+	 */
+	void remove(byte[] hash);
+
+	/**
+	 * Yields the number of successful lookups performed on this cache so far.
+	 *
+	 * @return the number of hits
+	 */
+	long getHits();
+
+	/**
+	 * Yields the number of unsuccessful lookups performed on this cache so far.
+	 *
+	 * @return the number of misses
+	 */
+	long getMisses();
+
+	/**
+	 * Yields a cache of nodes.
+	 *
+	 * @param maxSize the maximal number of nodes kept in the cache; if this is 0,
+	 *                the cache is actually disabled and never contains any node
+	 * @return the cache
+	 */
+	static NodeCache of(int maxSize) {
+		return new NodeCacheImpl(maxSize);
+	}
+}
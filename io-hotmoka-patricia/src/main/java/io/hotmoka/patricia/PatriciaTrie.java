@@ -16,7 +16,9 @@ limitations under the License.
 
 package io.hotmoka.patricia;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import io.hotmoka.beans.Marshallable;
 import io.hotmoka.beans.Marshallable.Unmarshaller;
@@ -45,6 +47,36 @@ public interface PatriciaTrie<Key, Value extends Marshallable> {
 	 */
 	void put(Key key, Value value);
 
+	/**
+	 * Binds the given keys to the given values. It replaces them
+	 * if already present. This is equivalent to calling {@link #put(Object, Marshallable)}
+	 * for each binding, but the bindings are applied in a single pass over the trie,
+	 * in the order of their hashed keys, so that each node modified by more bindings
+	 * is written into the store only once.
+	 * 
+	 * @param bindings the bindings to put in the trie
+	 */
+	void putAll(Map<? extends Key, ? extends Value> bindings);
+
+	/**
+	 * Removes the binding of the given key, if any. Nodes left with a single child
+	 * get merged with it, hence the resulting trie coincides with that obtained
+	 * by never putting the key into the trie, and so does its root.
+	 * 
+	 * @param key the key
+	 */
+	void remove(Key key);
+
+	/**
+	 * Yields the values bound in the trie, in the order of their hashed keys.
+	 * The stream is lazy: the nodes of the trie are read from the store only
+	 * when the stream reaches them. Hence, if the trie is garbage collected,
+	 * it must not be modified while the stream is being consumed.
+	 * 
+	 * @return the values
+	 */
+	Stream<Value> values();
+
 	/**
 	 * Yields the root of the trie, that can be used as a hash of its content.
 	 * 
@@ -52,14 +84,75 @@ public interface PatriciaTrie<Key, Value extends Marshallable> {
 	 */
 	byte[] getRoot();
 
+	/**
+	 * Yields a Merkle proof of the value bound to the given key, or of the absence of
+	 * a value for that key. It consists of the marshalled nodes of the trie along the
+	 * path of the key, starting from the root. It can be checked against the root of the trie
+	 * with {@link #verifyProof(byte[], Object, byte[][], HashingAlgorithm, HashingAlgorithm, Unmarshaller)},
+	 * without any access to the rest of the trie.
+	 * 
+	 * @param key the key
+	 * @return the proof; this is empty if the trie is empty
+	 */
+	byte[][] getProof(Key key);
+
+	/**
+	 * Checks a Merkle proof computed by {@link #getProof(Object)} and yields the value
+	 * that it proves to be bound to the given key.
+	 * 
+	 * @param <Key> the type of the keys of the trie
+	 * @param <Value> the type of the values of the trie
+	 * @param root the root of the trie, as yielded by {@link #getRoot()}; this is {@code null} for an empty trie
+	 * @param key the key
+	 * @param proof the proof
+	 * @param hashingForKeys the hashing algorithm for the keys, as used by the trie
+	 * @param hashingForNodes the hashing algorithm for the nodes, as used by the trie
+	 * @param valueUnmarshaller a function able to unmarshall a value from its byte representation
+	 * @return the value bound to {@code key}; this is empty if the proof shows that
+	 *         {@code key} has no value in the trie
+	 * @throws IllegalArgumentException if the proof is not a valid proof for {@code key} in the trie with the given {@code root}
+	 */
+	static <Key, Value extends Marshallable> Optional<Value> verifyProof
+			(byte[] root, Key key, byte[][] proof,
+			HashingAlgorithm<? super Key> hashingForKeys, HashingAlgorithm<? super Node> hashingForNodes,
+			Unmarshaller<? extends Value> valueUnmarshaller) throws IllegalArgumentException {
+
+		return PatriciaTrieImpl.verifyProof(root, key, proof, hashingForKeys, hashingForNodes, valueUnmarshaller);
+	}
+
+	/**
+	 * Yields the Merkle-Patricia trie supported by the underlying store,
+	 * using the given hashing algorithm to hash nodes, keys and the values.
+	 * 
+	 * @param store the store used to store a mapping from nodes' hashes to their content
+	 * @param hashingForKeys the hashing algorithm for the keys
+	 * @param hashingForNodes the hashing algorithm for the nodes of the trie
+	 * @param valueUnmarshaller a function able to unmarshall a value from its byte representation
+	 * @param garbageCollected true if and only if unused nodes must be garbage collected; in general,
+	 *                         this can be true if previous configurations of the trie needn't be
+	 *                         rechecked out in the future
+	 * @return the trie
+	 */
+	static <Key, Value extends Marshallable> PatriciaTrie<Key, Value> of
+			(KeyValueStore store,
+			HashingAlgorithm<? super Key> hashingForKeys, HashingAlgorithm<? super Node> hashingForNodes,
+			Unmarshaller<? extends Value> valueUnmarshaller,
+			boolean garbageCollected) {
+
+		return new PatriciaTrieImpl<>(store, hashingForKeys, hashingForNodes, valueUnmarshaller, NodeCache.of(0), garbageCollected);
+	}
+
 	/**
 	 * Yields the Merkle-Patricia trie supported by the underlying store,
 	 * using the given hashing algorithm to hash nodes, keys and the values.
+	 * The nodes of the trie are looked up in the given cache before being
+	 * read from the store.
 	 * 
 	 * @param store the store used to store a mapping from nodes' hashes to their content
 	 * @param hashingForKeys the hashing algorithm for the keys
 	 * @param hashingForNodes the hashing algorithm for the nodes of the trie
 	 * @param valueUnmarshaller a function able to unmarshall a value from its byte representation
+	 * @param nodeCache the cache of the already unmarshalled nodes; this can be shared among many tries
 	 * @param garbageCollected true if and only if unused nodes must be garbage collected; in general,
 	 *                         this can be true if previous configurations of the trie needn't be
 	 *                         rechecked out in the future
@@ -69,8 +162,9 @@ public interface PatriciaTrie<Key, Value extends Marshallable> {
 			(KeyValueStore store,
 			HashingAlgorithm<? super Key> hashingForKeys, HashingAlgorithm<? super Node> hashingForNodes,
 			Unmarshaller<? extends Value> valueUnmarshaller,
+			NodeCache nodeCache,
 			boolean garbageCollected) {
 
-		return new PatriciaTrieImpl<>(store, hashingForKeys, hashingForNodes, valueUnmarshaller, garbageCollected);
+		return new PatriciaTrieImpl<>(store, hashingForKeys, hashingForNodes, valueUnmarshaller, nodeCache, garbageCollected);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,132 @@
+/*
+Copyright 2021 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.patricia.internal;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.hotmoka.beans.annotations.ThreadSafe;
+import io.hotmoka.beans.caches.ScanResistantCache;
+import io.hotmoka.patricia.Node;
+import io.hotmoka.patricia.NodeCache;
+
+/**
+ * Implementation of a bounded cache of the nodes of Patricia tries.
+ * Lookups do not lock and a scan over many nodes, each used once,
+ * does not evict the frequently used nodes, such as those near the roots of the tries.
+ */
+@ThreadSafe
+public class NodeCacheImpl implements NodeCache {
+
+	/**
+	 * The maximal number of nodes kept in this cache.
+	 */
+	private final int maxSize;
+
+	/**
+	 * The cached nodes. This is {@code null} if the cache is disabled.
+	 */
+	private final ScanResistantCache<Hash, Node> nodes;
+
+	/**
+	 * The number of successful lookups.
+	 */
+	private final AtomicLong hits = new AtomicLong();
+
+	/**
+	 * The number of unsuccessful lookups.
+	 */
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Builds a cache of nodes.
+	 *
+	 * @param maxSize the maximal number of nodes kept in the cache
+	 */
+	public NodeCacheImpl(int maxSize) {
+		if (maxSize < 0)
+			throw new IllegalArgumentException("the size of a cache of nodes cannot be negative");
+
+		this.maxSize = maxSize;
+		this.nodes = maxSize > 0 ? new ScanResistantCache<>(Math.min(maxSize, 1024), maxSize) : null;
+	}
+
+	@Override
+	public Optional<Node> get(byte[] hash) {
+		Node result = nodes == null ? null : nodes.get(new Hash(hash));
+
+		if (result == null)
+			misses.incrementAndGet();
+		else
+			hits.incrementAndGet();
+
+		return Optional.ofNullable(result);
+	}
+
+	@Override
+	public void put(byte[] hash, Node node) {
+		// the hash is copied since the caller might modify its array later
+		if (nodes != null)
+			nodes.put(new Hash(hash.clone()), node);
+	}
+
+	@Override
+	public void remove(byte[] hash) {
+		if (nodes != null)
+			nodes.remove(new Hash(hash));
+	}
+
+	@Override
+	public long getHits() {
+		return hits.get();
+	}
+
+	@Override
+	public long getMisses() {
+		return misses.get();
+	}
+
+	@Override
+	public String toString() {
+		long evictions = nodes == null ? 0L : nodes.getEvictions();
+		return "cache of Patricia nodes of at most " + maxSize + " nodes, with " + hits + " hits, " + misses + " misses and " + evictions + " evictions";
+	}
+
+	/**
+	 * A hash used as a key in the cache, with value-based equality.
+	 */
+	private static final class Hash {
+		private final byte[] bytes;
+		private final int hashCode;
+
+		private Hash(byte[] bytes) {
+			this.bytes = bytes;
+			this.hashCode = Arrays.hashCode(bytes);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof Hash && Arrays.equals(bytes, ((Hash) other).bytes);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+}
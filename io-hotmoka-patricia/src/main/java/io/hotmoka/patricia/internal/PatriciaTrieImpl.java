@@ -20,10 +20,22 @@ import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import io.hotmoka.beans.InternalFailureException;
 import io.hotmoka.beans.Marshallable;
@@ -33,6 +45,7 @@ import io.hotmoka.beans.UnmarshallingContext;
 import io.hotmoka.crypto.HashingAlgorithm;
 import io.hotmoka.patricia.KeyValueStore;
 import io.hotmoka.patricia.Node;
+import io.hotmoka.patricia.NodeCache;
 import io.hotmoka.patricia.PatriciaTrie;
 
 public class PatriciaTrieImpl<Key, Value extends Marshallable> implements PatriciaTrie<Key, Value> {
@@ -57,6 +70,11 @@ public class PatriciaTrieImpl<Key, Value extends Marshallable> implements Patric
 	 */
 	private final Unmarshaller<? extends Value> valueUnmarshaller;
 
+	/**
+	 * The cache of the already unmarshalled nodes.
+	 */
+	private final NodeCache nodeCache;
+
 	/**
 	 * True if and only if unused nodes must be garbage collected; in general,
 	 * this can be true if previous configurations of the trie needn't be rechecked out in the future.
@@ -74,6 +92,7 @@ public class PatriciaTrieImpl<Key, Value extends Marshallable> implements Patric
 	 * @param hashingForKeys the hashing algorithm for the keys
 	 * @param hashingForNodes the hashing algorithm for the nodes of the trie
 	 * @param valueUnmarshaller a function able to unmarshall a value from its byte representation
+	 * @param nodeCache the cache of the already unmarshalled nodes; this can be shared among many tries
 	 * @param garbageCollected true if and only if unused nodes must be garbage collected; in general,
 	 *                         this can be true if previous configurations of the trie needn't be
 	 *                         rechecked out in the future
@@ -81,12 +100,14 @@ public class PatriciaTrieImpl<Key, Value extends Marshallable> implements Patric
 	public PatriciaTrieImpl(KeyValueStore store,
 			HashingAlgorithm<? super Key> hashingForKeys, HashingAlgorithm<? super Node> hashingForNodes,
 			Unmarshaller<? extends Value> valueUnmarshaller,
+			NodeCache nodeCache,
 			boolean garbageCollected) {
 
 		this.store = store;
 		this.hashingForKeys = hashingForKeys;
 		this.hashingForNodes = hashingForNodes;
 		this.valueUnmarshaller = valueUnmarshaller;
+		this.nodeCache = nodeCache;
 		this.garbageCollected = garbageCollected;
 	}
 
@@ -97,9 +118,12 @@ public class PatriciaTrieImpl<Key, Value extends Marshallable> implements Patric
 			return Optional.empty();
 
 		try {
-			byte[] hashedKey = hashingForKeys.hash(key);
-			byte[] nibblesOfHashedKey = toNibbles(hashedKey);
-			return Optional.of(getNodeFromHash(hashOfRoot, 0).get(nibblesOfHashedKey, 0));
+			Nibbles nibblesOfHashedKey = Nibbles.of(hashingForKeys.hash(key));
+			byte[] value = getNodeFromHash(hashOfRoot, 0).get(this, nibblesOfHashedKey, 0);
+
+			try (UnmarshallingContext context = new UnmarshallingContext(new ByteArrayInputStream(value))) {
+				return Optional.of(valueUnmarshaller.from(context));
+			}
 		}
 		catch (NoSuchElementException e) {
 			return Optional.empty();
@@ -113,21 +137,20 @@ public class PatriciaTrieImpl<Key, Value extends Marshallable> implements Patric
 	@Override
 	public void put(Key key, Value value) {
 		try {
-			byte[] hashedKey = hashingForKeys.hash(key);
-			byte[] nibblesOfHashedKey = toNibbles(hashedKey);
+			Nibbles nibblesOfHashedKey = Nibbles.of(hashingForKeys.hash(key));
 
-			AbstractNode newRoot;
+			byte[] hashOfNewRoot;
 			byte[] hashOfRoot = store.getRoot();
 			if (hashOfRoot == null)
 				// the trie was empty: a leaf node with the value becomes the new root of the trie
-				newRoot = new Leaf(nibblesOfHashedKey, value.toByteArray()).putInStore();
+				hashOfNewRoot = new Leaf(nibblesOfHashedKey, value.toByteArray()).putInStore(this);
 			else {
-				newRoot = getNodeFromHash(hashOfRoot, 0).put(nibblesOfHashedKey, 0, value);
+				hashOfNewRoot = getNodeFromHash(hashOfRoot, 0).put(this, nibblesOfHashedKey, 0, value.toByteArray());
 				if (garbageCollected)
-					store.remove(hashOfRoot);
+					removeFromStore(hashOfRoot);
 			}
 
-			store.setRoot(hashingForNodes.hash(newRoot));
+			store.setRoot(hashOfNewRoot);
 		}
 		catch (Exception e) {
 			logger.log(Level.WARNING, "error while putting key into Patricia trie", e);
@@ -135,11 +158,226 @@ public class PatriciaTrieImpl<Key, Value extends Marshallable> implements Patric
 		}
 	}
 
+	@Override
+	public void putAll(Map<? extends Key, ? extends Value> bindings) {
+		if (bindings.isEmpty())
+			return;
+
+		try {
+			Binding[] sorted = new Binding[bindings.size()];
+			int pos = 0;
+			for (Map.Entry<? extends Key, ? extends Value> entry: bindings.entrySet())
+				sorted[pos++] = new Binding(Nibbles.of(hashingForKeys.hash(entry.getKey())), entry.getValue().toByteArray());
+
+			// bindings whose keys share a prefix become adjacent, hence they can be added to a subtrie in one pass
+			Arrays.sort(sorted, Binding.BY_NIBBLES);
+
+			for (pos = 1; pos < sorted.length; pos++)
+				if (sorted[pos - 1].nibblesOfHashedKey.compareTo(sorted[pos].nibblesOfHashedKey) == 0)
+					throw new IllegalArgumentException("distinct keys with the same hash cannot be put in a Patricia trie together");
+
+			store.setRoot(putAll(store.getRoot(), 0, sorted, 0, sorted.length));
+		}
+		catch (Exception e) {
+			logger.log(Level.WARNING, "error while putting keys into Patricia trie", e);
+			throw InternalFailureException.of("error while putting keys into Patricia trie", e);
+		}
+	}
+
+	@Override
+	public void remove(Key key) {
+		byte[] hashOfRoot = store.getRoot();
+		if (hashOfRoot == null)
+			return;
+
+		try {
+			Nibbles nibblesOfHashedKey = Nibbles.of(hashingForKeys.hash(key));
+			AbstractNode newRoot = getNodeFromHash(hashOfRoot, 0).remove(this, nibblesOfHashedKey, 0);
+			if (garbageCollected)
+				removeFromStore(hashOfRoot);
+
+			store.setRoot(newRoot == null ? null : putInStore(newRoot));
+		}
+		catch (NoSuchElementException e) {
+			// the key was not bound in the trie, that remains unchanged
+		}
+		catch (Exception e) {
+			logger.log(Level.WARNING, "error while removing key from Patricia trie", e);
+			throw InternalFailureException.of("error while removing key from Patricia trie", e);
+		}
+	}
+
+	@Override
+	public Stream<Value> values() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new ValuesIterator(store.getRoot()), Spliterator.ORDERED | Spliterator.NONNULL), false);
+	}
+
+	/**
+	 * An iterator over the values of a trie, that visits its leaves depth-first,
+	 * in the order of their hashed keys.
+	 */
+	private class ValuesIterator implements Iterator<Value> {
+
+		/**
+		 * The hashes of the subtries still to visit, the next on top.
+		 */
+		private final Deque<byte[]> hashes = new ArrayDeque<>();
+
+		/**
+		 * The number of nibbles in the path from the root of the trie to the roots
+		 * of the subtries in {@link #hashes}, in the same order.
+		 */
+		private final Deque<Integer> cursors = new ArrayDeque<>();
+
+		private ValuesIterator(byte[] root) {
+			if (root != null) {
+				hashes.push(root);
+				cursors.push(0);
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !hashes.isEmpty();
+		}
+
+		@Override
+		public Value next() {
+			if (hashes.isEmpty())
+				throw new NoSuchElementException();
+
+			try {
+				while (true) {
+					int cursor = cursors.pop();
+					AbstractNode node = getNodeFromHash(hashes.pop(), cursor);
+
+					if (node instanceof Leaf) {
+						try (UnmarshallingContext context = new UnmarshallingContext(new ByteArrayInputStream(((Leaf) node).value))) {
+							return valueUnmarshaller.from(context);
+						}
+					}
+					else if (node instanceof Extension) {
+						Extension extension = (Extension) node;
+						hashes.push(extension.next);
+						cursors.push(cursor + extension.sharedNibbles.length());
+					}
+					else {
+						byte[][] children = ((Branch) node).children;
+						for (int pos = children.length - 1; pos >= 0; pos--)
+							if (children[pos] != null) {
+								hashes.push(children[pos]);
+								cursors.push(cursor + 1);
+							}
+					}
+				}
+			}
+			catch (Exception e) {
+				logger.log(Level.WARNING, "error while iterating over Patricia trie", e);
+				throw InternalFailureException.of("error while iterating over Patricia trie", e);
+			}
+		}
+	}
+
 	@Override
 	public byte[] getRoot() {
 		return store.getRoot();
 	}
 
+	@Override
+	public byte[][] getProof(Key key) {
+		try {
+			Nibbles nibblesOfHashedKey = Nibbles.of(hashingForKeys.hash(key));
+			List<byte[]> proof = new ArrayList<>();
+			int cursor = 0;
+
+			for (byte[] hash = store.getRoot(); hash != null; ) {
+				AbstractNode node = getNodeFromHash(hash, cursor);
+				proof.add(node.toByteArray());
+				hash = node.childOnPath(nibblesOfHashedKey, cursor);
+				cursor += node.lengthOnPath();
+			}
+
+			return proof.toArray(byte[][]::new);
+		}
+		catch (Exception e) {
+			logger.log(Level.WARNING, "error while computing a proof from Patricia trie", e);
+			throw InternalFailureException.of("error while computing a proof from Patricia trie", e);
+		}
+	}
+
+	/**
+	 * Checks a Merkle proof and yields the value that it proves to be bound to the given key.
+	 * 
+	 * @param <Key> the type of the keys of the trie
+	 * @param <Value> the type of the values of the trie
+	 * @param root the root of the trie; this is {@code null} for an empty trie
+	 * @param key the key
+	 * @param proof the proof
+	 * @param hashingForKeys the hashing algorithm for the keys
+	 * @param hashingForNodes the hashing algorithm for the nodes of the trie
+	 * @param valueUnmarshaller a function able to unmarshall a value from its byte representation
+	 * @return the value bound to {@code key}; this is empty if the proof shows that
+	 *         {@code key} has no value in the trie
+	 * @throws IllegalArgumentException if the proof is not valid
+	 */
+	public static <Key, Value extends Marshallable> Optional<Value> verifyProof
+			(byte[] root, Key key, byte[][] proof,
+			HashingAlgorithm<? super Key> hashingForKeys, HashingAlgorithm<? super Node> hashingForNodes,
+			Unmarshaller<? extends Value> valueUnmarshaller) throws IllegalArgumentException {
+
+		if (proof.length == 0) {
+			if (root == null)
+				return Optional.empty();
+			else
+				throw new IllegalArgumentException("an empty proof can only be given for an empty Patricia trie");
+		}
+
+		// this trie has no store: it is only used to unmarshal the nodes in the proof
+		PatriciaTrieImpl<Key, Value> trie = new PatriciaTrieImpl<>(null, hashingForKeys, hashingForNodes, valueUnmarshaller, NodeCache.of(0), false);
+		Nibbles nibblesOfHashedKey = Nibbles.of(hashingForKeys.hash(key));
+		byte[] expected = root;
+		int cursor = 0;
+
+		try {
+			for (int pos = 0; pos < proof.length; pos++) {
+				if (expected == null)
+					throw new IllegalArgumentException("the proof contains nodes after the end of the path of the key");
+
+				AbstractNode node;
+				try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new ByteArrayInputStream(proof[pos])))) {
+					node = trie.from(ois, cursor);
+				}
+
+				if (!Arrays.equals(expected, hashingForNodes.hash(node)))
+					throw new IllegalArgumentException("the proof does not match the hashes of the Patricia trie");
+
+				if (pos == proof.length - 1 && node instanceof Leaf) {
+					try (UnmarshallingContext context = new UnmarshallingContext(new ByteArrayInputStream(node.get(trie, nibblesOfHashedKey, cursor)))) {
+						return Optional.of(valueUnmarshaller.from(context));
+					}
+					catch (NoSuchElementException e) {
+						// the leaf is bound to another key: the proof shows that the key is missing
+						return Optional.empty();
+					}
+				}
+
+				expected = node.childOnPath(nibblesOfHashedKey, cursor);
+				cursor += node.lengthOnPath();
+			}
+		}
+		catch (IllegalArgumentException e) {
+			throw e;
+		}
+		catch (Exception e) {
+			throw new IllegalArgumentException("the proof contains a node that cannot be unmarshalled", e);
+		}
+
+		if (expected != null)
+			throw new IllegalArgumentException("the proof ends before the end of the path of the key");
+
+		return Optional.empty();
+	}
+
 	/**
 	 * Factory method that unmarshals a node from the given stream.
 	 * 
@@ -160,7 +398,7 @@ public class PatriciaTrieImpl<Key, Value extends Marshallable> implements Patric
 			if (sharedBytesLength - 1 != ois.readNBytes(sharedBytes, 1, sharedBytesLength - 1))
 				throw new IOException("nibbles length mismatch in an extension node of a Patricia trie");
 
-			byte[] sharedNibbles = expandBytesIntoNibbles(sharedBytes, (byte) 0x00);
+			Nibbles sharedNibbles = Nibbles.ofCompactBytes(sharedBytes, (byte) 0x00);
 			byte[] next = ois.readAllBytes();
 
 			return new Extension(sharedNibbles, next);
@@ -190,7 +428,7 @@ public class PatriciaTrieImpl<Key, Value extends Marshallable> implements Patric
 			if (expected - 1 != ois.readNBytes(nibbles, 1, expected - 1))
 				throw new IOException("keyEnd length mismatch in a leaf node of a Patricia trie");
 
-			byte[] keyEnd = expandBytesIntoNibbles(nibbles, (byte) 0x02);
+			Nibbles keyEnd = Nibbles.ofCompactBytes(nibbles, (byte) 0x02);
 			byte[] value = ois.readAllBytes();
 
 			return new Leaf(keyEnd, value);
@@ -210,113 +448,230 @@ public class PatriciaTrieImpl<Key, Value extends Marshallable> implements Patric
 	 * @throws IOException if the node could not be unmarshalled
 	 */
 	private AbstractNode getNodeFromHash(byte[] hash, int cursor) throws NoSuchElementException, IOException {
+		Optional<Node> cached = nodeCache.get(hash);
+		if (cached.isPresent() && isConsistentAt(cached.get(), cursor))
+			return (AbstractNode) cached.get();
+
+		AbstractNode node;
 		try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new ByteArrayInputStream(store.get(hash))))) {
-			return from(ois, cursor);
+			node = from(ois, cursor);
 		}
+
+		nodeCache.put(hash, node);
+		return node;
 	}
 
 	/**
-	 * Splits each byte into two nibbles and yields the resulting array of nibbles.
+	 * Determines if the given node, taken from the cache, can be used in this trie
+	 * at the given distance from the root. This is needed since the cache might be shared
+	 * among tries with different key or node hash lengths and the unmarshalling of a node
+	 * depends on such lengths.
 	 * 
-	 * @param original the original array of bytes; each byte will be split into two nibbles
-	 * @return the resulting array of nibbles; each element of this array contains
-	 *         a nibble in the least significant 4 bits; the most significant 4 bits
-	 *         are constantly set to 0
+	 * @param node the node
+	 * @param cursor the number of nibbles in the path from the root of the trie to the node
+	 * @return true if and only if {@code node} can be used
 	 */
-	private static byte[] toNibbles(byte[] original) {
-		int length = original.length;
-		byte[] split = new byte[length * 2];
-		int pos = 0;
-		for (byte b: original) {
-			split[pos++] = (byte) ((b & 0xf0) >> 4);
-			split[pos++] = (byte) (b & 0x0f);
-		}
-	
-		return split;
+	private boolean isConsistentAt(Node node, int cursor) {
+		if (node instanceof Leaf)
+			return ((Leaf) node).keyEnd.length() == hashingForKeys.length() * 2 - cursor;
+		else if (node instanceof Extension)
+			return ((Extension) node).next.length == hashingForNodes.length();
+		else
+			return node instanceof Branch;
 	}
 
 	/**
-	 * Compacts the given nibbles into bytes, using the given selector
-	 * as first nibble if the array has odd length.
+	 * Binds the given node to its hash in the store of this trie.
+	 * The node is hashed once only here and, if the hashing algorithm for the nodes
+	 * uses {@link Node#toByteArrayMemoized()}, it is marshalled once only as well.
+	 * Its marshalled bytes are then forgotten, since the node goes into the cache.
 	 * 
-	 * @param nibbles the nibbles
-	 * @param evenSelector the selector byte prefixed to even arrays of nibbles
-	 * @param oddSelector the selector nibble prefixed to odd arrays of nibbles
-	 * @return the resulting bytes
+	 * @param node the node
+	 * @return the hash of the node
+	 * @throws IOException if the node could not be marshalled
 	 */
-	private static byte[] compactNibblesIntoBytes(byte[] nibbles, byte evenSelector, byte oddSelector) {
-		int length = nibbles.length;
-		byte[] result = new byte[1 + length / 2];
+	private byte[] putInStore(AbstractNode node) throws IOException {
+		byte[] hash = hashingForNodes.hash(node);
+		store.put(hash, node.toByteArrayMemoized());
+		node.wasPutInStore();
+		nodeCache.put(hash, node);
+		return hash;
+	}
 
-		if (length % 2 == 0) {
-			result[0] = evenSelector;
-			for (int pos = 0; pos < length; pos += 2)
-				result[1 + pos / 2] = (byte) ((nibbles[pos] << 4) | nibbles[pos + 1]);
-		}
-		else {
-			result[0] = (byte) ((oddSelector << 4) | nibbles[0]);
-			for (int pos = 1; pos < length; pos += 2)
-				result[1 + pos / 2] = (byte) ((nibbles[pos] << 4) | nibbles[pos + 1]);
-		}
+	/**
+	 * Removes the node with the given hash from the store of this trie.
+	 * 
+	 * @param hash the hash of the node
+	 */
+	private void removeFromStore(byte[] hash) {
+		// the node is removed from the cache as well, or otherwise it could be
+		// still found in this trie, although it is not in store anymore
+		nodeCache.remove(hash);
+		store.remove(hash);
+	}
+
+	/**
+	 * Adds the given bindings to the subtrie whose root has the given hash.
+	 * Only the resulting nodes are written into the store, once.
+	 * 
+	 * @param hash the hash of the root of the subtrie; this is {@code null} if the subtrie is empty
+	 * @param cursor the number of nibbles in the path from the root of the trie to the root of the subtrie
+	 * @param bindings the bindings, sorted by hashed key; those between {@code from} (inclusive)
+	 *                 and {@code to} (exclusive) share their first {@code cursor} nibbles
+	 * @param from the first binding to add
+	 * @param to the binding after the last to add
+	 * @return the hash of the resulting subtrie
+	 * @throws IOException if some node could not be marshalled or unmarshalled
+	 */
+	private byte[] putAll(byte[] hash, int cursor, Binding[] bindings, int from, int to) throws IOException {
+		AbstractNode result;
+		if (hash == null)
+			result = fromBindings(cursor, bindings, from, to);
+		else
+			result = getNodeFromHash(hash, cursor).putAll(this, cursor, bindings, from, to);
+
+		byte[] newHash = putInStore(result);
+
+		// if the bindings were already in the subtrie, the old root coincides with the new one and must be kept
+		if (garbageCollected && hash != null && !Arrays.equals(hash, newHash))
+			removeFromStore(hash);
 
-		return result;
+		return newHash;
 	}
 
-	private static byte[] expandBytesIntoNibbles(byte[] bytes, byte evenSelector) {
-		byte[] nibbles;
+	/**
+	 * Yields a new subtrie containing only the given bindings. Its descendants
+	 * are written into the store, while its root is not.
+	 * 
+	 * @param cursor the number of nibbles in the path from the root of the trie to the root of the subtrie
+	 * @param bindings the bindings, sorted by hashed key; those between {@code from} (inclusive)
+	 *                 and {@code to} (exclusive) share their first {@code cursor} nibbles
+	 * @param from the first binding to add
+	 * @param to the binding after the last to add
+	 * @return the root of the subtrie
+	 * @throws IOException if some node could not be marshalled
+	 */
+	private AbstractNode fromBindings(int cursor, Binding[] bindings, int from, int to) throws IOException {
+		Nibbles first = bindings[from].nibblesOfHashedKey;
+
+		if (to - from == 1)
+			return new Leaf(first.subsequence(cursor, first.length()), bindings[from].value);
 
-		if (bytes[0] == evenSelector) {
-			nibbles = new byte[(bytes.length - 1) * 2];
-			for (int pos = 1; pos < bytes.length; pos++) {
-				nibbles[(pos - 1) * 2] = (byte) ((bytes[pos] & 0xf0) >> 4);
-				nibbles[pos * 2 - 1] = (byte) (bytes[pos] & 0x0f);
-			}
-		}
-		else {
-			nibbles = new byte[bytes.length * 2 - 1];
-			nibbles[0] = (byte) (bytes[0] & 0x0f);
+		// since the bindings are sorted, the prefix shared by the first and the last binding is shared by all
+		Nibbles last = bindings[to - 1].nibblesOfHashedKey;
+		int lengthOfSharedPortion = 0;
+		while (cursor + lengthOfSharedPortion < first.length() && first.get(cursor + lengthOfSharedPortion) == last.get(cursor + lengthOfSharedPortion))
+			lengthOfSharedPortion++;
 
-			for (int pos = 1; pos < bytes.length; pos++) {
-				nibbles[pos * 2 - 1] = (byte) ((bytes[pos] & 0xf0) >> 4);
-				nibbles[pos * 2] = (byte) (bytes[pos] & 0x0f);
-			}
+		if (cursor + lengthOfSharedPortion == first.length())
+			throw new InternalFailureException("inconsistent key length in Patricia trie");
+
+		if (lengthOfSharedPortion > 0)
+			return new Extension(first.subsequence(cursor, cursor + lengthOfSharedPortion), putAll(null, cursor + lengthOfSharedPortion, bindings, from, to));
+		else
+			return new Branch(putAllInChildren(new byte[16][], cursor, bindings, from, to));
+	}
+
+	/**
+	 * Adds the given bindings to the children of a branch node, grouping them by their nibble
+	 * at the branching point.
+	 * 
+	 * @param children the hashes of the children of the branch node; this gets modified
+	 * @param cursor the number of nibbles in the path from the root of the trie to the branch node
+	 * @param bindings the bindings, sorted by hashed key; those between {@code from} (inclusive)
+	 *                 and {@code to} (exclusive) share their first {@code cursor} nibbles
+	 * @param from the first binding to add
+	 * @param to the binding after the last to add
+	 * @return {@code children}, modified with the hashes of the resulting children
+	 * @throws IOException if some node could not be marshalled or unmarshalled
+	 */
+	private byte[][] putAllInChildren(byte[][] children, int cursor, Binding[] bindings, int from, int to) throws IOException {
+		int end;
+		for (int start = from; start < to; start = end) {
+			byte selection = bindings[start].nibblesOfHashedKey.get(cursor);
+			for (end = start + 1; end < to && bindings[end].nibblesOfHashedKey.get(cursor) == selection; end++);
+			children[selection] = putAll(children[selection], cursor + 1, bindings, start, end);
 		}
 
-		return nibbles;
+		return children;
 	}
 
-	private abstract class AbstractNode extends Node {
+	private abstract static class AbstractNode extends Node {
 
 		/**
-		 * Yields the value bound to the given key.
+		 * Yields the marshalled value bound to the given key.
 		 * It considers only the portion of the key starting at the {@code cursor}th nibble.
 		 * 
-		 * @param nibblesOfHashedKey the nibbles of the key to look up; only the 4 least significant bits
-		 *                           of each element are significant; the 4 most significant bits must be
-		 *                           constantly 0
+		 * @param trie the trie this node belongs to
+		 * @param nibblesOfHashedKey the nibbles of the hashed key to look up
 		 * @param cursor the starting point of the significant portion of {@code nibblesOfHashedKey}
-		 * @return the value
+		 * @return the marshalled bytes of the value
 		 * @throws NoSuchElementException if there is not such value
-		 * @throws ClassNotFoundException if some data could not be unmarshalled
 		 * @throws IOException if some data could not be unmarshalled
 		 */
-		protected abstract Value get(byte[] nibblesOfHashedKey, int cursor) throws NoSuchElementException, ClassNotFoundException, IOException;
+		protected abstract byte[] get(PatriciaTrieImpl<?,?> trie, Nibbles nibblesOfHashedKey, int cursor) throws NoSuchElementException, IOException;
+
+		/**
+		 * Yields the hash of the child of this node that lies on the path of the given key.
+		 * It considers only the portion of the key starting at the {@code cursor}th nibble.
+		 * 
+		 * @param nibblesOfHashedKey the nibbles of the key
+		 * @param cursor the starting point of the significant portion of {@code nibblesOfHashedKey}
+		 * @return the hash of the child; this is {@code null} if the path of the key ends at this node
+		 */
+		protected abstract byte[] childOnPath(Nibbles nibblesOfHashedKey, int cursor);
+
+		/**
+		 * Yields the number of nibbles of a key that are consumed by going through this node.
+		 * 
+		 * @return the number of nibbles
+		 */
+		protected abstract int lengthOnPath();
 
 		/**
 		 * Binds the given value to the given key.
 		 * It considers only the portion of the key starting at the {@code cursor}th nibble.
 		 * 
-		 * @param nibblesOfHashedKey the nibbles of the key to look up; only the 4 least significant bits
-		 *                           of each element are significant; the 4 most significant bits must be
-		 *                           constantly 0
+		 * @param trie the trie this node belongs to
+		 * @param nibblesOfHashedKey the nibbles of the hashed key to look up
 		 * @param cursor the starting point of the significant portion of {@code nibblesOfHashedKey}
-		 * @param value the value
-		 * @return the new node that replaced this in the trie; if the key was already bound to the same
-		 *         value, then this node will coincide with this, that is, they have the same hash
-		 * @throws ClassNotFoundException if some data could not be unmarshalled
-		 * @throws IOException if some data could not be unmarshalled
+		 * @param value the marshalled bytes of the value
+		 * @return the hash of the new node that replaced this in the trie, already written into the store;
+		 *         if the key was already bound to the same value, then this is the hash of this node
+		 * @throws IOException if some data could not be marshalled or unmarshalled
+		 */
+		protected abstract byte[] put(PatriciaTrieImpl<?,?> trie, Nibbles nibblesOfHashedKey, int cursor, byte[] value) throws IOException;
+
+		/**
+		 * Adds the given bindings below this node. The new descendants of the
+		 * resulting node are written into the store, while the resulting node itself is not.
+		 * 
+		 * @param trie the trie this node belongs to
+		 * @param cursor the number of nibbles in the path from the root of the trie to this node
+		 * @param bindings the bindings, sorted by hashed key; those between {@code from} (inclusive)
+		 *                 and {@code to} (exclusive) share their first {@code cursor} nibbles
+		 * @param from the first binding to add
+		 * @param to the binding after the last to add
+		 * @return the new node that replaces this in the trie
+		 * @throws IOException if some node could not be marshalled or unmarshalled
+		 */
+		protected abstract AbstractNode putAll(PatriciaTrieImpl<?,?> trie, int cursor, Binding[] bindings, int from, int to) throws IOException;
+
+		/**
+		 * Removes the binding of the given key below this node. The new descendants of the
+		 * resulting node are written into the store, while the resulting node itself is not.
+		 * It considers only the portion of the key starting at the {@code cursor}th nibble.
+		 * 
+		 * @param trie the trie this node belongs to
+		 * @param nibblesOfHashedKey the nibbles of the hashed key to remove
+		 * @param cursor the starting point of the significant portion of {@code nibblesOfHashedKey}
+		 * @return the new node that replaces this in the trie; this is {@code null} if
+		 *         no binding is left below this node
+		 * @throws NoSuchElementException if the key is not bound below this node; in that case,
+		 *                                the store has not been modified
+		 * @throws IOException if some node could not be marshalled or unmarshalled
 		 */
-		protected abstract AbstractNode put(byte[] nibblesOfHashedKey, int cursor, Value value) throws IOException, ClassNotFoundException;
+		protected abstract AbstractNode remove(PatriciaTrieImpl<?,?> trie, Nibbles nibblesOfHashedKey, int cursor) throws NoSuchElementException, IOException;
 
 		/*
 		protected abstract int depth(int cursor) throws NoSuchElementException, ClassNotFoundException, IOException;
@@ -331,17 +686,29 @@ public class PatriciaTrieImpl<Key, Value extends Marshallable> implements Patric
 		}
 		*/
 
-		protected final AbstractNode putInStore() throws IOException {
-			// we bind it to its hash in the store
-			store.put(hashingForNodes.hash(this), toByteArray());
-			return this;
+		/**
+		 * Binds this node to its hash in the store of the given trie.
+		 * 
+		 * @param trie the trie this node belongs to
+		 * @return the hash of this node
+		 * @throws IOException if this node could not be marshalled
+		 */
+		protected final byte[] putInStore(PatriciaTrieImpl<?,?> trie) throws IOException {
+			return trie.putInStore(this);
+		}
+
+		/**
+		 * Called when this node has been written into the store.
+		 */
+		private void wasPutInStore() {
+			forgetByteArray();
 		}
 	}
 
 	/**
 	 * A branch node of a Patricia trie.
 	 */
-	private class Branch extends AbstractNode {
+	private static class Branch extends AbstractNode {
 
 		/**
 		 * The hashes of the branching children of the node. If the nth child is missing,
@@ -385,42 +752,101 @@ public class PatriciaTrieImpl<Key, Value extends Marshallable> implements Patric
 		}
 
 		@Override
-		protected Value get(byte[] nibblesOfHashedKey, final int cursor) throws NoSuchElementException, ClassNotFoundException, IOException {
-			if (cursor >= nibblesOfHashedKey.length)
-				throw new InternalFailureException("inconsistent key length in Patricia trie nibblesOfHashedKey.length = " + nibblesOfHashedKey.length + ", cursor = " + cursor);
+		protected byte[] get(PatriciaTrieImpl<?,?> trie, Nibbles nibblesOfHashedKey, final int cursor) throws NoSuchElementException, IOException {
+			if (cursor >= nibblesOfHashedKey.length())
+				throw new InternalFailureException("inconsistent key length in Patricia trie nibblesOfHashedKey.length = " + nibblesOfHashedKey.length() + ", cursor = " + cursor);
 
-			byte selection = nibblesOfHashedKey[cursor];
+			byte selection = nibblesOfHashedKey.get(cursor);
 			if (children[selection] == null)
 				throw new NoSuchElementException("key not found in Patricia trie");
 
-			return getNodeFromHash(children[selection], cursor + 1).get(nibblesOfHashedKey, cursor + 1);
+			return trie.getNodeFromHash(children[selection], cursor + 1).get(trie, nibblesOfHashedKey, cursor + 1);
+		}
+
+		@Override
+		protected byte[] childOnPath(Nibbles nibblesOfHashedKey, int cursor) {
+			return cursor < nibblesOfHashedKey.length() ? children[nibblesOfHashedKey.get(cursor)] : null;
+		}
+
+		@Override
+		protected int lengthOnPath() {
+			return 1;
 		}
 
 		@Override
-		protected AbstractNode put(byte[] nibblesOfHashedKey, final int cursor, Value value) throws IOException, ClassNotFoundException {
-			if (cursor >= nibblesOfHashedKey.length)
+		protected byte[] put(PatriciaTrieImpl<?,?> trie, Nibbles nibblesOfHashedKey, final int cursor, byte[] value) throws IOException {
+			if (cursor >= nibblesOfHashedKey.length())
 				throw new InternalFailureException("inconsistent key length in Patricia trie");
 
-			byte selection = nibblesOfHashedKey[cursor];
-			AbstractNode child;
+			byte selection = nibblesOfHashedKey.get(cursor);
+			byte[] hashOfChild;
 
 			if (children[selection] == null) {
 				// there was no path for this selection: we attach a leaf with the remaining nibbles
-				byte[] nibblesButFirst = new byte[nibblesOfHashedKey.length - cursor - 1];
-				System.arraycopy(nibblesOfHashedKey, cursor + 1, nibblesButFirst, 0, nibblesButFirst.length);
-				child = new Leaf(nibblesButFirst, value.toByteArray()).putInStore();
+				hashOfChild = new Leaf(nibblesOfHashedKey.subsequence(cursor + 1, nibblesOfHashedKey.length()), value).putInStore(trie);
 			}
 			else {
 				// there was already a path for this selection: we recur
-				child = getNodeFromHash(children[selection], cursor + 1).put(nibblesOfHashedKey, cursor + 1, value);
-				if (garbageCollected)
-					store.remove(children[selection]);
+				hashOfChild = trie.getNodeFromHash(children[selection], cursor + 1).put(trie, nibblesOfHashedKey, cursor + 1, value);
+				if (trie.garbageCollected)
+					trie.removeFromStore(children[selection]);
 			}
 
 			byte[][] childrenCopy = children.clone();
-			childrenCopy[selection] = hashingForNodes.hash(child);
+			childrenCopy[selection] = hashOfChild;
 
-			return new Branch(childrenCopy).putInStore();
+			return new Branch(childrenCopy).putInStore(trie);
+		}
+
+		@Override
+		protected AbstractNode putAll(PatriciaTrieImpl<?,?> trie, int cursor, Binding[] bindings, int from, int to) throws IOException {
+			return new Branch(trie.putAllInChildren(children.clone(), cursor, bindings, from, to));
+		}
+
+		@Override
+		protected AbstractNode remove(PatriciaTrieImpl<?,?> trie, Nibbles nibblesOfHashedKey, int cursor) throws NoSuchElementException, IOException {
+			if (cursor >= nibblesOfHashedKey.length())
+				throw new InternalFailureException("inconsistent key length in Patricia trie");
+
+			byte selection = nibblesOfHashedKey.get(cursor);
+			if (children[selection] == null)
+				throw new NoSuchElementException("key not found in Patricia trie");
+
+			AbstractNode child = trie.getNodeFromHash(children[selection], cursor + 1).remove(trie, nibblesOfHashedKey, cursor + 1);
+			if (trie.garbageCollected)
+				trie.removeFromStore(children[selection]);
+
+			byte[][] childrenCopy = children.clone();
+			childrenCopy[selection] = child == null ? null : trie.putInStore(child);
+
+			int remaining = -1;
+			for (byte pos = 0; pos < childrenCopy.length; pos++)
+				if (childrenCopy[pos] != null) {
+					if (remaining >= 0)
+						// at least two children are left
+						return new Branch(childrenCopy);
+
+					remaining = pos;
+				}
+
+			if (remaining < 0)
+				throw new InternalFailureException("inconsistent branch node in Patricia trie");
+
+			// a single child is left: this branch node gets merged with it
+			Nibbles nibble = Nibbles.single((byte) remaining);
+			byte[] hashOfRemaining = childrenCopy[remaining];
+			AbstractNode remainingChild = trie.getNodeFromHash(hashOfRemaining, cursor + 1);
+
+			if (remainingChild instanceof Branch)
+				return new Extension(nibble, hashOfRemaining);
+
+			if (trie.garbageCollected)
+				trie.removeFromStore(hashOfRemaining);
+
+			if (remainingChild instanceof Extension)
+				return new Extension(nibble.concat(((Extension) remainingChild).sharedNibbles), ((Extension) remainingChild).next);
+			else
+				return new Leaf(nibble.concat(((Leaf) remainingChild).keyEnd), ((Leaf) remainingChild).value);
 		}
 
 		/*
@@ -444,15 +870,13 @@ public class PatriciaTrieImpl<Key, Value extends Marshallable> implements Patric
 	/**
 	 * An extension node of a Patricia trie.
 	 */
-	private class Extension extends AbstractNode {
+	private static class Extension extends AbstractNode {
 
 		/**
 		 * The prefix nibbles shared among all paths passing through this node.
-		 * Each byte uses only its least significant 4 bits (a nibble).
-		 * Its 4 most significant bits are constantly set to 0.
-		 * This array is never empty.
+		 * This is never empty.
 		 */
-		private final byte[] sharedNibbles;
+		private final Nibbles sharedNibbles;
 
 		/**
 		 * The hash of the next node, the only child of this node.
@@ -463,88 +887,176 @@ public class PatriciaTrieImpl<Key, Value extends Marshallable> implements Patric
 		 * Builds an extension node of a Patricia trie.
 		 * 
 		 * @param sharedNibbles the prefix nibbles shared among all paths passing through this node.
-		 *                      Each byte uses only its least significant 4 bits (a nibble).
-		 *                      It 4 most significant bits are constantly set to 0.
-		 *                      This array is never empty
+		 *                      This is never empty
 		 * @param next the hash of the next node, the only child of the extension node
 		 */
-		private Extension(byte[] sharedNibbles, byte[] next) {
+		private Extension(Nibbles sharedNibbles, byte[] next) {
 			this.sharedNibbles = sharedNibbles;
 			this.next = next;
 		}
 
 		@Override
 		public void into(MarshallingContext context) throws IOException {
-			context.write(compactNibblesIntoBytes(sharedNibbles, (byte) 0x00, (byte) 0x01));
+			context.write(sharedNibbles.toCompactBytes((byte) 0x00, (byte) 0x01));
 			context.write(next);
 		}
 
 		@Override
-		protected Value get(byte[] nibblesOfHashedKey, int cursor) throws NoSuchElementException, ClassNotFoundException, IOException {
+		protected byte[] get(PatriciaTrieImpl<?,?> trie, Nibbles nibblesOfHashedKey, int cursor) throws NoSuchElementException, IOException {
 			int cursor1;
-			for (cursor1 = 0; cursor < nibblesOfHashedKey.length && cursor1 < sharedNibbles.length; cursor1++, cursor++)
-				if (sharedNibbles[cursor1] != nibblesOfHashedKey[cursor])
+			for (cursor1 = 0; cursor < nibblesOfHashedKey.length() && cursor1 < sharedNibbles.length(); cursor1++, cursor++)
+				if (sharedNibbles.get(cursor1) != nibblesOfHashedKey.get(cursor))
 					throw new NoSuchElementException("key not found in Patricia trie");
 
-			if (cursor1 != sharedNibbles.length || cursor >= nibblesOfHashedKey.length)
+			if (cursor1 != sharedNibbles.length() || cursor >= nibblesOfHashedKey.length())
 				throw new InternalFailureException("inconsistent key length in Patricia trie");
 
-			return getNodeFromHash(next, cursor).get(nibblesOfHashedKey, cursor);
+			return trie.getNodeFromHash(next, cursor).get(trie, nibblesOfHashedKey, cursor);
 		}
 
 		@Override
-		protected AbstractNode put(byte[] nibblesOfHashedKey, final int cursor, Value value) throws IOException, ClassNotFoundException {
+		protected byte[] childOnPath(Nibbles nibblesOfHashedKey, int cursor) {
+			if (cursor + sharedNibbles.length() > nibblesOfHashedKey.length())
+				return null;
+
+			for (int pos = 0; pos < sharedNibbles.length(); pos++)
+				if (sharedNibbles.get(pos) != nibblesOfHashedKey.get(cursor + pos))
+					return null;
+
+			return next;
+		}
+
+		@Override
+		protected int lengthOnPath() {
+			return sharedNibbles.length();
+		}
+
+		@Override
+		protected byte[] put(PatriciaTrieImpl<?,?> trie, Nibbles nibblesOfHashedKey, final int cursor, byte[] value) throws IOException {
 			int lengthOfSharedPortion = 0;
 
-			while (lengthOfSharedPortion < sharedNibbles.length && nibblesOfHashedKey[lengthOfSharedPortion + cursor] == sharedNibbles[lengthOfSharedPortion])
+			while (lengthOfSharedPortion < sharedNibbles.length() && nibblesOfHashedKey.get(lengthOfSharedPortion + cursor) == sharedNibbles.get(lengthOfSharedPortion))
 				 lengthOfSharedPortion++;
 
-			int lengthOfDistinctPortion = sharedNibbles.length - lengthOfSharedPortion;
+			int lengthOfDistinctPortion = sharedNibbles.length() - lengthOfSharedPortion;
 
 			if (lengthOfDistinctPortion == 0) {
 				// we recur
-				AbstractNode newNext = getNodeFromHash(next, sharedNibbles.length + cursor).put(nibblesOfHashedKey, sharedNibbles.length + cursor, value);
-				if (garbageCollected)
-					store.remove(next);
+				byte[] hashOfNewNext = trie.getNodeFromHash(next, sharedNibbles.length() + cursor).put(trie, nibblesOfHashedKey, sharedNibbles.length() + cursor, value);
+				if (trie.garbageCollected)
+					trie.removeFromStore(next);
 
-				return new Extension(sharedNibbles, hashingForNodes.hash(newNext)).putInStore();
+				return new Extension(sharedNibbles, hashOfNewNext).putInStore(trie);
 			}
 			else {
-				byte[] sharedNibbles1 = new byte[sharedNibbles.length - lengthOfSharedPortion - 1];
-				System.arraycopy(sharedNibbles, lengthOfSharedPortion + 1, sharedNibbles1, 0, sharedNibbles1.length);
-				byte[] keyEnd2 = new byte[nibblesOfHashedKey.length - cursor - lengthOfSharedPortion - 1];
-				System.arraycopy(nibblesOfHashedKey, lengthOfSharedPortion + cursor + 1, keyEnd2, 0, keyEnd2.length);
-				byte selection1 = sharedNibbles[lengthOfSharedPortion];
-				byte selection2 = nibblesOfHashedKey[lengthOfSharedPortion + cursor];
+				Nibbles sharedNibbles1 = sharedNibbles.subsequence(lengthOfSharedPortion + 1, sharedNibbles.length());
+				Nibbles keyEnd2 = nibblesOfHashedKey.subsequence(lengthOfSharedPortion + cursor + 1, nibblesOfHashedKey.length());
+				byte selection1 = sharedNibbles.get(lengthOfSharedPortion);
+				byte selection2 = nibblesOfHashedKey.get(lengthOfSharedPortion + cursor);
 				byte[][] children = new byte[16][];
 
 				byte[] hashOfChild1;
-				if (sharedNibbles1.length == 0)
+				if (sharedNibbles1.length() == 0)
 					hashOfChild1 = next;
 				else
-					hashOfChild1 = hashingForNodes.hash(new Extension(sharedNibbles1, next).putInStore());
+					hashOfChild1 = new Extension(sharedNibbles1, next).putInStore(trie);
 					
-				AbstractNode child2 = new Leaf(keyEnd2, value.toByteArray()).putInStore();
 				children[selection1] = hashOfChild1;
-				children[selection2] = hashingForNodes.hash(child2);
-				AbstractNode branch = new Branch(children).putInStore();
+				children[selection2] = new Leaf(keyEnd2, value).putInStore(trie);
+				byte[] hashOfBranch = new Branch(children).putInStore(trie);
 
 				if (lengthOfSharedPortion > 0) {
 					// yield an extension node linked to a branch node with two alternatives
-					byte[] sharedNibbles = new byte[lengthOfSharedPortion];
-					System.arraycopy(this.sharedNibbles, 0, sharedNibbles, 0, lengthOfSharedPortion);
-					return new Extension(sharedNibbles, hashingForNodes.hash(branch)).putInStore();
+					return new Extension(sharedNibbles.subsequence(0, lengthOfSharedPortion), hashOfBranch).putInStore(trie);
 				}
 				else
 					// yield a branch node with two alternatives
-					return branch;
+					return hashOfBranch;
+			}
+		}
+
+		@Override
+		protected AbstractNode putAll(PatriciaTrieImpl<?,?> trie, int cursor, Binding[] bindings, int from, int to) throws IOException {
+			int lengthOfSharedPortion = sharedNibbles.length();
+			for (int pos = from; pos < to; pos++) {
+				Nibbles nibblesOfHashedKey = bindings[pos].nibblesOfHashedKey;
+				int length = 0;
+				while (length < lengthOfSharedPortion && nibblesOfHashedKey.get(cursor + length) == sharedNibbles.get(length))
+					length++;
+
+				lengthOfSharedPortion = length;
+			}
+
+			if (lengthOfSharedPortion == sharedNibbles.length())
+				// all bindings pass through this extension: we recur
+				return new Extension(sharedNibbles, trie.putAll(next, cursor + lengthOfSharedPortion, bindings, from, to));
+
+			// some binding diverges from this extension: it gets split at a branch node
+			int cursorOfBranch = cursor + lengthOfSharedPortion;
+			byte selection = sharedNibbles.get(lengthOfSharedPortion);
+			byte[][] children = new byte[16][];
+
+			if (lengthOfSharedPortion + 1 == sharedNibbles.length()) {
+				children[selection] = next;
+				trie.putAllInChildren(children, cursorOfBranch, bindings, from, to);
+			}
+			else {
+				// the bindings passing through the rest of this extension are added to it
+				// before it is written into the store
+				int start = from;
+				while (start < to && bindings[start].nibblesOfHashedKey.get(cursorOfBranch) < selection)
+					start++;
+
+				int end = start;
+				while (end < to && bindings[end].nibblesOfHashedKey.get(cursorOfBranch) == selection)
+					end++;
+
+				AbstractNode rest = new Extension(sharedNibbles.subsequence(lengthOfSharedPortion + 1, sharedNibbles.length()), next);
+				if (start < end)
+					rest = rest.putAll(trie, cursorOfBranch + 1, bindings, start, end);
+
+				children[selection] = trie.putInStore(rest);
+				trie.putAllInChildren(children, cursorOfBranch, bindings, from, start);
+				trie.putAllInChildren(children, cursorOfBranch, bindings, end, to);
 			}
+
+			AbstractNode branch = new Branch(children);
+
+			if (lengthOfSharedPortion > 0)
+				return new Extension(sharedNibbles.subsequence(0, lengthOfSharedPortion), trie.putInStore(branch));
+			else
+				return branch;
+		}
+
+		@Override
+		protected AbstractNode remove(PatriciaTrieImpl<?,?> trie, Nibbles nibblesOfHashedKey, int cursor) throws NoSuchElementException, IOException {
+			int length = sharedNibbles.length();
+			if (cursor + length >= nibblesOfHashedKey.length())
+				throw new InternalFailureException("inconsistent key length in Patricia trie");
+
+			for (int pos = 0; pos < length; pos++)
+				if (sharedNibbles.get(pos) != nibblesOfHashedKey.get(cursor + pos))
+					throw new NoSuchElementException("key not found in Patricia trie");
+
+			AbstractNode newNext = trie.getNodeFromHash(next, cursor + length).remove(trie, nibblesOfHashedKey, cursor + length);
+			if (trie.garbageCollected)
+				trie.removeFromStore(next);
+
+			// the next node might have been reduced into an extension or a leaf: this node gets merged with it
+			if (newNext == null)
+				return null;
+			else if (newNext instanceof Extension)
+				return new Extension(sharedNibbles.concat(((Extension) newNext).sharedNibbles), ((Extension) newNext).next);
+			else if (newNext instanceof Leaf)
+				return new Leaf(sharedNibbles.concat(((Leaf) newNext).keyEnd), ((Leaf) newNext).value);
+			else
+				return new Extension(sharedNibbles, trie.putInStore(newNext));
 		}
 
 		/*
 		@Override
 		protected int depth(int cursor) throws NoSuchElementException, ClassNotFoundException, IOException {
-			return sharedNibbles.length + getNodeFromHash(next, sharedNibbles.length + cursor).depth(sharedNibbles.length + cursor);
+			return sharedNibbles.length() + getNodeFromHash(next, sharedNibbles.length() + cursor).depth(sharedNibbles.length() + cursor);
 		}
 		*/
 	}
@@ -552,15 +1064,13 @@ public class PatriciaTrieImpl<Key, Value extends Marshallable> implements Patric
 	/**
 	 * A leaf node of a Patricia trie.
 	 */
-	private class Leaf extends AbstractNode {
+	private static class Leaf extends AbstractNode {
 
 		/**
 		 * The key end of the only path passing through this node.
-		 * Each byte uses only its least significant 4 bits (a nibble).
-		 * Its 4 most significant bits are constantly set to 0.
-		 * This array can be empty.
+		 * This can be empty.
 		 */
-		private final byte[] keyEnd;
+		private final Nibbles keyEnd;
 
 		/**
 		 * The marshalled bytes of the value bound to the key leading to this node.
@@ -571,81 +1081,306 @@ public class PatriciaTrieImpl<Key, Value extends Marshallable> implements Patric
 		 * Builds an extension node of a Patricia trie.
 		 * 
 		 * @param keyEnd the key end of the only path passing through this node.
-		 *               Each byte uses only its least significant 4 bits (a nibble).
-		 *               Its 4 most significant bits are constantly set to 0. This
-		 *               array can be empty
+		 *               This can be empty
 		 * @param value the marshalled bytes of the value bound to the key leading to this node
 		 */
-		private Leaf(byte[] keyEnd, byte[] value) {
+		private Leaf(Nibbles keyEnd, byte[] value) {
 			this.keyEnd = keyEnd;
 			this.value = value;
 		}
 
 		@Override
 		public void into(MarshallingContext context) throws IOException {
-			context.write(compactNibblesIntoBytes(keyEnd, (byte) 0x02, (byte) 0x03));
+			context.write(keyEnd.toCompactBytes((byte) 0x02, (byte) 0x03));
 			context.write(value);
 		}
 
 		@Override
-		protected Value get(byte[] nibblesOfHashedKey, int cursor) throws NoSuchElementException, ClassNotFoundException, IOException {
+		protected byte[] get(PatriciaTrieImpl<?,?> trie, Nibbles nibblesOfHashedKey, int cursor) throws NoSuchElementException {
 			int cursor1;
-			for (cursor1 = 0; cursor < nibblesOfHashedKey.length && cursor1 < keyEnd.length; cursor1++, cursor++)
-				if (keyEnd[cursor1] != nibblesOfHashedKey[cursor])
+			for (cursor1 = 0; cursor < nibblesOfHashedKey.length() && cursor1 < keyEnd.length(); cursor1++, cursor++)
+				if (keyEnd.get(cursor1) != nibblesOfHashedKey.get(cursor))
 					throw new NoSuchElementException("key not found in Patricia trie");
 
-			if (cursor1 != keyEnd.length || cursor != nibblesOfHashedKey.length)
-				throw new InternalFailureException("inconsistent key length in Patricia trie: " + (cursor1 != keyEnd.length) + ", " + (cursor != nibblesOfHashedKey.length));
+			if (cursor1 != keyEnd.length() || cursor != nibblesOfHashedKey.length())
+				throw new InternalFailureException("inconsistent key length in Patricia trie: " + (cursor1 != keyEnd.length()) + ", " + (cursor != nibblesOfHashedKey.length()));
 
-			try (UnmarshallingContext context = new UnmarshallingContext(new ByteArrayInputStream(value))) {
-				return valueUnmarshaller.from(context);
-			}
+			return value;
+		}
+
+		@Override
+		protected byte[] childOnPath(Nibbles nibblesOfHashedKey, int cursor) {
+			return null;
 		}
 
 		@Override
-		protected AbstractNode put(byte[] nibblesOfHashedKey, int cursor, Value value) throws IOException {
+		protected int lengthOnPath() {
+			return keyEnd.length();
+		}
+
+		@Override
+		protected byte[] put(PatriciaTrieImpl<?,?> trie, Nibbles nibblesOfHashedKey, int cursor, byte[] value) throws IOException {
 			int lengthOfSharedPortion = 0;
 
-			while (lengthOfSharedPortion < keyEnd.length && nibblesOfHashedKey[lengthOfSharedPortion + cursor] == keyEnd[lengthOfSharedPortion])
+			while (lengthOfSharedPortion < keyEnd.length() && nibblesOfHashedKey.get(lengthOfSharedPortion + cursor) == keyEnd.get(lengthOfSharedPortion))
 				 lengthOfSharedPortion++;
 
-			int lengthOfDistinctPortion = keyEnd.length - lengthOfSharedPortion;
+			int lengthOfDistinctPortion = keyEnd.length() - lengthOfSharedPortion;
 
 			if (lengthOfDistinctPortion == 0)
 				// the keys coincide
-				return new Leaf(keyEnd, value.toByteArray()).putInStore();
+				return new Leaf(keyEnd, value).putInStore(trie);
 			else {
 				// since there is a distinct portion, there must be at least a nibble in keyEnd
-				byte[] keyEnd1 = new byte[keyEnd.length - lengthOfSharedPortion - 1];
-				System.arraycopy(keyEnd, lengthOfSharedPortion + 1, keyEnd1, 0, keyEnd1.length);
-				byte[] keyEnd2 = new byte[keyEnd1.length];
-				System.arraycopy(nibblesOfHashedKey, lengthOfSharedPortion + cursor + 1, keyEnd2, 0, keyEnd2.length);
-				byte selection1 = keyEnd[lengthOfSharedPortion];
-				byte selection2 = nibblesOfHashedKey[lengthOfSharedPortion + cursor];
+				Nibbles keyEnd1 = keyEnd.subsequence(lengthOfSharedPortion + 1, keyEnd.length());
+				Nibbles keyEnd2 = nibblesOfHashedKey.subsequence(lengthOfSharedPortion + cursor + 1, nibblesOfHashedKey.length());
+				byte selection1 = keyEnd.get(lengthOfSharedPortion);
+				byte selection2 = nibblesOfHashedKey.get(lengthOfSharedPortion + cursor);
 				byte[][] children = new byte[16][];
-				AbstractNode leaf1 = new Leaf(keyEnd1, this.value).putInStore();
-				AbstractNode leaf2 = new Leaf(keyEnd2, value.toByteArray()).putInStore();
-				children[selection1] = hashingForNodes.hash(leaf1);
-				children[selection2] = hashingForNodes.hash(leaf2);
-				AbstractNode branch = new Branch(children).putInStore();
+				children[selection1] = new Leaf(keyEnd1, this.value).putInStore(trie);
+				children[selection2] = new Leaf(keyEnd2, value).putInStore(trie);
+				byte[] hashOfBranch = new Branch(children).putInStore(trie);
 
 				if (lengthOfSharedPortion > 0) {
 					// yield an extension node linked to a branch node with two alternatives leaves
-					byte[] sharedNibbles = new byte[lengthOfSharedPortion];
-					System.arraycopy(keyEnd, 0, sharedNibbles, 0, lengthOfSharedPortion);
-					return new Extension(sharedNibbles, hashingForNodes.hash(branch)).putInStore();
+					return new Extension(keyEnd.subsequence(0, lengthOfSharedPortion), hashOfBranch).putInStore(trie);
 				}
 				else
 					// yield a branch node with two alternatives leaves
-					return branch;
+					return hashOfBranch;
 			}
 		}
 
+		@Override
+		protected AbstractNode putAll(PatriciaTrieImpl<?,?> trie, int cursor, Binding[] bindings, int from, int to) throws IOException {
+			// we rebuild the subtrie from the bindings and from the binding of this leaf,
+			// unless the latter gets replaced by one of the former
+			Binding binding = new Binding(bindings[from].nibblesOfHashedKey.subsequence(0, cursor).concat(keyEnd), value);
+
+			int pos = Arrays.binarySearch(bindings, from, to, binding, Binding.BY_NIBBLES);
+			if (pos >= 0)
+				return trie.fromBindings(cursor, bindings, from, to);
+
+			int insertionPoint = -pos - 1;
+			Binding[] merged = new Binding[to - from + 1];
+			System.arraycopy(bindings, from, merged, 0, insertionPoint - from);
+			merged[insertionPoint - from] = binding;
+			System.arraycopy(bindings, insertionPoint, merged, insertionPoint - from + 1, to - insertionPoint);
+
+			return trie.fromBindings(cursor, merged, 0, merged.length);
+		}
+
+		@Override
+		protected AbstractNode remove(PatriciaTrieImpl<?,?> trie, Nibbles nibblesOfHashedKey, int cursor) throws NoSuchElementException {
+			int length = keyEnd.length();
+			if (cursor + length != nibblesOfHashedKey.length())
+				throw new InternalFailureException("inconsistent key length in Patricia trie");
+
+			for (int pos = 0; pos < length; pos++)
+				if (keyEnd.get(pos) != nibblesOfHashedKey.get(cursor + pos))
+					throw new NoSuchElementException("key not found in Patricia trie");
+
+			return null;
+		}
+
 		/*
 		@Override
 		protected int depth(int cursor) throws NoSuchElementException, ClassNotFoundException, IOException {
-			return keyEnd.length;
+			return keyEnd.length();
 		}
 		*/
 	}
+
+	/**
+	 * A binding of a hashed key to a marshalled value, to put in a Patricia trie.
+	 */
+	private static class Binding {
+
+		/**
+		 * An ordering of bindings by the nibbles of their hashed key.
+		 */
+		private final static Comparator<Binding> BY_NIBBLES = (binding1, binding2) -> binding1.nibblesOfHashedKey.compareTo(binding2.nibblesOfHashedKey);
+
+		/**
+		 * The nibbles of the hashed key.
+		 */
+		private final Nibbles nibblesOfHashedKey;
+
+		/**
+		 * The marshalled bytes of the value.
+		 */
+		private final byte[] value;
+
+		private Binding(Nibbles nibblesOfHashedKey, byte[] value) {
+			this.nibblesOfHashedKey = nibblesOfHashedKey;
+			this.value = value;
+		}
+	}
+
+	/**
+	 * A sequence of nibbles, seen as a portion of an array of bytes holding two nibbles each.
+	 * Portions of keys are views over the same array, hence they can be taken
+	 * and compared without copying nibbles around. The underlying array is never modified.
+	 */
+	private static final class Nibbles implements Comparable<Nibbles> {
+
+		/**
+		 * The bytes holding the nibbles, two per byte, the most significant first.
+		 */
+		private final byte[] bytes;
+
+		/**
+		 * The position of the first nibble of this sequence inside {@link #bytes}.
+		 */
+		private final int start;
+
+		/**
+		 * The number of nibbles in this sequence.
+		 */
+		private final int length;
+
+		private Nibbles(byte[] bytes, int start, int length) {
+			this.bytes = bytes;
+			this.start = start;
+			this.length = length;
+		}
+
+		/**
+		 * Yields the sequence of all nibbles of the given bytes.
+		 * 
+		 * @param bytes the bytes; they are not copied, hence they must not be modified later
+		 * @return the sequence
+		 */
+		private static Nibbles of(byte[] bytes) {
+			return new Nibbles(bytes, 0, bytes.length * 2);
+		}
+
+		/**
+		 * Yields the sequence consisting of the given nibble only.
+		 * 
+		 * @param nibble the nibble, in the 4 least significant bits
+		 * @return the sequence
+		 */
+		private static Nibbles single(byte nibble) {
+			return new Nibbles(new byte[] { (byte) (nibble << 4) }, 0, 1);
+		}
+
+		/**
+		 * Yields the sequence of nibbles represented by the given compacted bytes.
+		 * This is the inverse of {@link #toCompactBytes(byte, byte)}.
+		 * 
+		 * @param bytes the compacted bytes; they are not copied, hence they must not be modified later
+		 * @param evenSelector the selector byte prefixed to sequences of even length
+		 * @return the sequence
+		 */
+		private static Nibbles ofCompactBytes(byte[] bytes, byte evenSelector) {
+			if (bytes[0] == evenSelector)
+				// the first byte is only a selector
+				return new Nibbles(bytes, 2, (bytes.length - 1) * 2);
+			else
+				// the first byte holds a selector nibble and the first nibble of the sequence
+				return new Nibbles(bytes, 1, bytes.length * 2 - 1);
+		}
+
+		/**
+		 * Yields the number of nibbles in this sequence.
+		 * 
+		 * @return the number of nibbles
+		 */
+		private int length() {
+			return length;
+		}
+
+		/**
+		 * Yields the nibble at the given position of this sequence.
+		 * 
+		 * @param pos the position
+		 * @return the nibble, in the 4 least significant bits of the result
+		 */
+		private byte get(int pos) {
+			int index = start + pos;
+			byte b = bytes[index >> 1];
+			return (byte) ((index & 1) == 0 ? (b & 0xf0) >> 4 : b & 0x0f);
+		}
+
+		/**
+		 * Yields the portion of this sequence between the given positions.
+		 * The result shares the underlying bytes with this sequence.
+		 * 
+		 * @param from the initial position, inclusive
+		 * @param to the final position, exclusive
+		 * @return the portion
+		 */
+		private Nibbles subsequence(int from, int to) {
+			return new Nibbles(bytes, start + from, to - from);
+		}
+
+		/**
+		 * Yields the concatenation of this sequence with the given one.
+		 * Differently from the other operations, this copies the nibbles.
+		 * 
+		 * @param other the sequence to append after this
+		 * @return the concatenation
+		 */
+		private Nibbles concat(Nibbles other) {
+			byte[] result = new byte[(length + other.length + 1) / 2];
+			for (int pos = 0; pos < length; pos++)
+				set(result, pos, get(pos));
+			for (int pos = 0; pos < other.length; pos++)
+				set(result, length + pos, other.get(pos));
+
+			return new Nibbles(result, 0, length + other.length);
+		}
+
+		/**
+		 * Sets a nibble inside an array of bytes whose nibble at that position is still 0.
+		 * 
+		 * @param bytes the array of bytes
+		 * @param pos the position of the nibble
+		 * @param nibble the nibble, in the 4 least significant bits
+		 */
+		private static void set(byte[] bytes, int pos, byte nibble) {
+			if ((pos & 1) == 0)
+				bytes[pos >> 1] |= nibble << 4;
+			else
+				bytes[pos >> 1] |= nibble;
+		}
+
+		/**
+		 * Compacts this sequence into bytes, using the given selector
+		 * as first nibble if the sequence has odd length.
+		 * 
+		 * @param evenSelector the selector byte prefixed to sequences of even length
+		 * @param oddSelector the selector nibble prefixed to sequences of odd length
+		 * @return the resulting bytes
+		 */
+		private byte[] toCompactBytes(byte evenSelector, byte oddSelector) {
+			byte[] result = new byte[1 + length / 2];
+
+			if (length % 2 == 0) {
+				result[0] = evenSelector;
+				for (int pos = 0; pos < length; pos += 2)
+					result[1 + pos / 2] = (byte) ((get(pos) << 4) | get(pos + 1));
+			}
+			else {
+				result[0] = (byte) ((oddSelector << 4) | get(0));
+				for (int pos = 1; pos < length; pos += 2)
+					result[1 + pos / 2] = (byte) ((get(pos) << 4) | get(pos + 1));
+			}
+
+			return result;
+		}
+
+		@Override
+		public int compareTo(Nibbles other) {
+			int min = Math.min(length, other.length);
+			for (int pos = 0; pos < min; pos++) {
+				int diff = get(pos) - other.get(pos);
+				if (diff != 0)
+					return diff;
+			}
+
+			return length - other.length;
+		}
+	}
 }
\ No newline at end of file
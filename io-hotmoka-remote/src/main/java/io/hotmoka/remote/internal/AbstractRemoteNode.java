@@ -350,6 +350,31 @@ public abstract class AbstractRemoteNode extends AbstractNode implements RemoteN
         }
     }
 
+    /**
+     * Runs a callable and wraps the exception by its type.
+     * If the type doesn't match {@link java.lang.UnsupportedOperationException} then it will be wrapped into a {@link io.hotmoka.beans.InternalFailureException}.
+     *
+     * @param <T> the return type of the callable
+     * @param what the callable
+     * @return the return value of the callable
+     * @throws UnsupportedOperationException the wrapped exception
+     */
+    protected static <T> T wrapNetworkExceptionForUnsupportedOperationException(Callable<T> what) throws UnsupportedOperationException {
+        try {
+            return what.call();
+        }
+        catch (NetworkExceptionResponse exceptionResponse) {
+            if (exceptionResponse.getExceptionClassName().equals(UnsupportedOperationException.class.getName()))
+                throw new UnsupportedOperationException(exceptionResponse.getMessage());
+            else
+                throw new InternalFailureException(exceptionResponse.getMessage());
+        }
+        catch (Exception e) {
+        	logger.log(Level.WARNING, "unexpected error", e);
+            throw new InternalFailureException(e.getMessage());
+        }
+    }
+
     /**
      * Runs a callable and wraps the exception by its type.
      *
@@ -432,7 +457,12 @@ public abstract class AbstractRemoteNode extends AbstractNode implements RemoteN
     }
 
     @Override
-    public void close() {
-        webSocketClient.close();
+    public void close() throws Exception {
+        try {
+            webSocketClient.close();
+        }
+        finally {
+            super.close();
+        }
     }
 }
\ No newline at end of file
@@ -48,6 +48,7 @@ import io.hotmoka.network.requests.JarStoreInitialTransactionRequestModel;
 import io.hotmoka.network.requests.JarStoreTransactionRequestModel;
 import io.hotmoka.network.requests.StaticMethodCallTransactionRequestModel;
 import io.hotmoka.network.requests.TransactionRestRequestModel;
+import io.hotmoka.network.responses.ProofModel;
 import io.hotmoka.network.responses.SignatureAlgorithmResponseModel;
 import io.hotmoka.network.responses.TransactionRestResponseModel;
 import io.hotmoka.network.updates.ClassTagModel;
@@ -133,6 +134,11 @@ public class HTTPRemoteNodeImpl extends AbstractRemoteNode {
         return wrapNetworkExceptionForPolledResponseException(() -> responseFromModel(service.post(url + "/get/polledResponse", new TransactionReferenceModel(reference), TransactionRestResponseModel.class)));
     }
 
+    @Override
+    public byte[][] getProofOfResponse(TransactionReference reference) throws UnsupportedOperationException {
+        return wrapNetworkExceptionForUnsupportedOperationException(() -> service.post(url + "/get/proof", new TransactionReferenceModel(reference), ProofModel.class).toBean());
+    }
+
     @Override
     public TransactionReference addJarStoreInitialTransaction(JarStoreInitialTransactionRequest request) throws TransactionRejectedException {
         return wrapNetworkExceptionSimple(() -> service.post(url + "/add/jarStoreInitialTransaction", new JarStoreInitialTransactionRequestModel(request), TransactionReferenceModel.class).toBean());
@@ -47,6 +47,7 @@ import io.hotmoka.network.requests.JarStoreInitialTransactionRequestModel;
 import io.hotmoka.network.requests.JarStoreTransactionRequestModel;
 import io.hotmoka.network.requests.StaticMethodCallTransactionRequestModel;
 import io.hotmoka.network.requests.TransactionRestRequestModel;
+import io.hotmoka.network.responses.ProofModel;
 import io.hotmoka.network.responses.SignatureAlgorithmResponseModel;
 import io.hotmoka.network.responses.TransactionRestResponseModel;
 import io.hotmoka.network.updates.ClassTagModel;
@@ -127,6 +128,12 @@ public class WebSocketsRemoteNodeImpl extends AbstractRemoteNode {
                 (() -> responseFromModel(send("/get/polledResponse", TransactionRestResponseModel.class, new TransactionReferenceModel(reference))));
     }
 
+    @Override
+    public byte[][] getProofOfResponse(TransactionReference reference) throws UnsupportedOperationException {
+        return wrapNetworkExceptionForUnsupportedOperationException
+                (() -> send("/get/proof", ProofModel.class, new TransactionReferenceModel(reference)).toBean());
+    }
+
     @Override
     public TransactionReference addJarStoreInitialTransaction(JarStoreInitialTransactionRequest request) throws TransactionRejectedException {
         return wrapNetworkExceptionSimple
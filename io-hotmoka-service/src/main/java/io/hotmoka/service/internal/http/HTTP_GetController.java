@@ -26,6 +26,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import io.hotmoka.network.nodes.NodeInfoModel;
 import io.hotmoka.network.requests.TransactionRestRequestModel;
+import io.hotmoka.network.responses.ProofModel;
 import io.hotmoka.network.responses.SignatureAlgorithmResponseModel;
 import io.hotmoka.network.responses.TransactionRestResponseModel;
 import io.hotmoka.network.updates.ClassTagModel;
@@ -82,6 +83,11 @@ public class HTTP_GetController {
         return nodeGetService.getPolledResponse(reference);
     }
 
+    @PostMapping("/proof")
+    public @ResponseBody ProofModel getProofOfResponseAt(@RequestBody TransactionReferenceModel reference) {
+        return nodeGetService.getProofOfResponse(reference);
+    }
+
     @GetMapping("/nameOfSignatureAlgorithmForRequests")
     public @ResponseBody
     SignatureAlgorithmResponseModel getNameOfSignatureAlgorithmForRequests() {
@@ -18,6 +18,7 @@ package io.hotmoka.service.internal.services;
 
 import io.hotmoka.network.nodes.NodeInfoModel;
 import io.hotmoka.network.requests.TransactionRestRequestModel;
+import io.hotmoka.network.responses.ProofModel;
 import io.hotmoka.network.responses.SignatureAlgorithmResponseModel;
 import io.hotmoka.network.responses.TransactionRestResponseModel;
 import io.hotmoka.network.updates.ClassTagModel;
@@ -35,4 +36,5 @@ public interface GetService {
 	SignatureAlgorithmResponseModel getNameOfSignatureAlgorithmForRequests();
     TransactionRestResponseModel<?> getResponse(TransactionReferenceModel reference);
     TransactionRestResponseModel<?> getPolledResponse(TransactionReferenceModel reference);
+    ProofModel getProofOfResponse(TransactionReferenceModel reference);
 }
\ No newline at end of file
@@ -20,6 +20,7 @@ import org.springframework.stereotype.Service;
 
 import io.hotmoka.network.nodes.NodeInfoModel;
 import io.hotmoka.network.requests.TransactionRestRequestModel;
+import io.hotmoka.network.responses.ProofModel;
 import io.hotmoka.network.responses.SignatureAlgorithmResponseModel;
 import io.hotmoka.network.responses.TransactionRestResponseModel;
 import io.hotmoka.network.updates.ClassTagModel;
@@ -74,4 +75,9 @@ public class GetServiceImpl extends AbstractService implements GetService {
     public TransactionRestResponseModel<?> getPolledResponse(TransactionReferenceModel reference) {
         return wrapExceptions(() -> TransactionRestResponseModel.from(getNode().getPolledResponse(reference.toBean())));
     }
+
+    @Override
+    public ProofModel getProofOfResponse(TransactionReferenceModel reference) {
+        return wrapExceptions(() -> new ProofModel(getNode().getProofOfResponse(reference.toBean())));
+    }
 }
\ No newline at end of file
@@ -84,6 +84,11 @@ public class WebSocketsGetController {
         simpMessagingTemplate.convertAndSendToUser(principal.getName(), "/get/polledResponse", nodeGetService.getPolledResponse(reference));
     }
 
+    @MessageMapping("/proof")
+    public void getProofOfResponseAt(Principal principal, TransactionReferenceModel reference) {
+        simpMessagingTemplate.convertAndSendToUser(principal.getName(), "/get/proof", nodeGetService.getProofOfResponse(reference));
+    }
+
     @MessageMapping("/nameOfSignatureAlgorithmForRequests")
     public void getNameOfSignatureAlgorithmForRequests(Principal principal) {
         simpMessagingTemplate.convertAndSendToUser(principal.getName(), "/get/nameOfSignatureAlgorithmForRequests", nodeGetService.getNameOfSignatureAlgorithmForRequests());
@@ -17,6 +17,8 @@ limitations under the License.
 package io.hotmoka.stores;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
@@ -82,18 +84,21 @@ public abstract class FullTrieBasedStore<C extends Config> extends PartialTrieBa
 
 	/**
 	 * The root of the trie of the errors. It is an empty array if the trie is empty.
+	 * It gets replaced, never modified, at each checkout.
 	 */
-	private final byte[] rootOfErrors = new byte[32];
+	private volatile byte[] rootOfErrors = new byte[32];
 
 	/**
 	 * The root of the trie of the requests. It is an empty array if the trie is empty.
+	 * It gets replaced, never modified, at each checkout.
 	 */
-	private final byte[] rootOfRequests = new byte[32];
+	private volatile byte[] rootOfRequests = new byte[32];
 
 	/**
 	 * The root of the trie of histories. It is an empty array if the trie is empty.
+	 * It gets replaced, never modified, at each checkout.
 	 */
-	private final byte[] rootOfHistories = new byte[32];
+	private volatile byte[] rootOfHistories = new byte[32];
 
 	/**
      * The trie of the errors.
@@ -110,6 +115,18 @@ public abstract class FullTrieBasedStore<C extends Config> extends PartialTrieBa
 	 */
 	private TrieOfHistories trieOfHistories;
 
+	/**
+	 * The requests set during the current transaction. They are written
+	 * into {@link #trieOfRequests} all together, at commit time.
+	 */
+	private final Map<TransactionReference, TransactionRequest<?>> pendingRequests = new HashMap<>();
+
+	/**
+	 * The histories set during the current transaction. They are written
+	 * into {@link #trieOfHistories} all together, at commit time.
+	 */
+	private final Map<StorageReference, TransactionReference[]> pendingHistories = new HashMap<>();
+
 	/**
      * Creates the store. Its roots are not yet initialized. Hence, after this constructor,
 	 * a call to {@link #setRootsTo(byte[])} or {@link #setRootsAsCheckedOut()}
@@ -152,40 +169,79 @@ public abstract class FullTrieBasedStore<C extends Config> extends PartialTrieBa
 		this.storeOfErrors = parent.storeOfErrors;
 		this.storeOfRequests = parent.storeOfRequests;
 		this.storeOfHistory = parent.storeOfHistory;
-		System.arraycopy(parent.rootOfErrors, 0, this.rootOfErrors, 0, 32);
-		System.arraycopy(parent.rootOfRequests, 0, this.rootOfRequests, 0, 32);
-		System.arraycopy(parent.rootOfHistories, 0, this.rootOfHistories, 0, 32);
+		this.rootOfErrors = parent.rootOfErrors;
+		this.rootOfRequests = parent.rootOfRequests;
+		this.rootOfHistories = parent.rootOfHistories;
 	}
 
     @Override
 	public Optional<String> getError(TransactionReference reference) {
-    	return recordTimeSynchronized(() -> env.computeInReadonlyTransaction
-    		(txn -> new TrieOfErrors(storeOfErrors, txn, nullIfEmpty(rootOfErrors), !(this instanceof CheckableStore)).get(reference)));
+    	return readCommitted(txn -> new TrieOfErrors(storeOfErrors, txn, nullIfEmpty(rootOfErrors), nodeCache, !(this instanceof CheckableStore)).get(reference));
 	}
 
 	@Override
 	public Optional<TransactionRequest<?>> getRequest(TransactionReference reference) {
-		return recordTimeSynchronized(() -> env.computeInReadonlyTransaction
-			(txn -> new TrieOfRequests(storeOfRequests, txn, nullIfEmpty(rootOfRequests), !(this instanceof CheckableStore)).get(reference)));
+		return readCommitted(txn -> new TrieOfRequests(storeOfRequests, txn, nullIfEmpty(rootOfRequests), nodeCache, !(this instanceof CheckableStore)).get(reference));
 	}
 
 	@Override
 	public Stream<TransactionReference> getHistory(StorageReference object) {
-		return recordTimeSynchronized(() -> env.computeInReadonlyTransaction
-			(txn -> new TrieOfHistories(storeOfHistory, txn, nullIfEmpty(rootOfHistories), !(this instanceof CheckableStore)).get(object)));
+		return readCommitted(txn -> new TrieOfHistories(storeOfHistory, txn, nullIfEmpty(rootOfHistories), nodeCache, !(this instanceof CheckableStore)).get(object));
+	}
+
+	@Override
+	protected Snapshot mkSnapshot(Transaction txn) {
+		byte[] rootOfErrors = nullIfEmpty(this.rootOfErrors);
+		byte[] rootOfRequests = nullIfEmpty(this.rootOfRequests);
+		byte[] rootOfHistories = nullIfEmpty(this.rootOfHistories);
+
+		return new Snapshot(txn) {
+
+			@Override
+			public Optional<String> getError(TransactionReference reference) {
+				return recordTime(() -> new TrieOfErrors(storeOfErrors, txn, rootOfErrors, nodeCache, false).get(reference));
+			}
+
+			@Override
+			public Optional<TransactionRequest<?>> getRequest(TransactionReference reference) {
+				return recordTime(() -> new TrieOfRequests(storeOfRequests, txn, rootOfRequests, nodeCache, false).get(reference));
+			}
+
+			@Override
+			public Stream<TransactionReference> getHistory(StorageReference object) {
+				return recordTime(() -> new TrieOfHistories(storeOfHistory, txn, rootOfHistories, nodeCache, false).get(object));
+			}
+		};
+	}
+
+	/**
+	 * Yields a Merkle proof of the committed history of the given object, or of the absence
+	 * of such history. The proven history lacks its last transaction, that is, the transaction
+	 * that created the object, since this is implied by the object itself.
+	 * 
+	 * @param object the object
+	 * @return the proof
+	 */
+	public byte[][] getProofOfHistory(StorageReference object) {
+		return readCommitted(txn -> new TrieOfHistories(storeOfHistory, txn, nullIfEmpty(rootOfHistories), nodeCache, !(this instanceof CheckableStore)).getProof(object));
 	}
 
 	@Override
 	public Stream<TransactionReference> getHistoryUncommitted(StorageReference object) {
 		synchronized (lock) {
-			return duringTransaction() ? trieOfHistories.get(object) : getHistory(object);
+			if (duringTransaction()) {
+				TransactionReference[] pending = pendingHistories.get(object);
+				return pending != null ? Stream.of(pending) : trieOfHistories.get(object);
+			}
+			else
+				return getHistory(object);
 		}
 	}
 
 	@Override
 	public void push(TransactionReference reference, TransactionRequest<?> request, String errorMessage) {
 		synchronized (lock) {
-			recordTime(() -> trieOfRequests.put(reference, request));
+			pendingRequests.put(reference, request);
 			recordTime(() -> trieOfErrors.put(reference, errorMessage));
 		}
 	}
@@ -196,9 +252,11 @@ public abstract class FullTrieBasedStore<C extends Config> extends PartialTrieBa
 			super.beginTransaction(now);
 
 			Transaction txn = getCurrentTransaction();
-			trieOfErrors = new TrieOfErrors(storeOfErrors, txn, nullIfEmpty(rootOfErrors), !(this instanceof CheckableStore));
-			trieOfRequests = new TrieOfRequests(storeOfRequests, txn, nullIfEmpty(rootOfRequests), !(this instanceof CheckableStore));
-			trieOfHistories = new TrieOfHistories(storeOfHistory, txn, nullIfEmpty(rootOfHistories), !(this instanceof CheckableStore));
+			trieOfErrors = new TrieOfErrors(storeOfErrors, txn, nullIfEmpty(rootOfErrors), nodeCache, !(this instanceof CheckableStore));
+			trieOfRequests = new TrieOfRequests(storeOfRequests, txn, nullIfEmpty(rootOfRequests), nodeCache, !(this instanceof CheckableStore));
+			trieOfHistories = new TrieOfHistories(storeOfHistory, txn, nullIfEmpty(rootOfHistories), nodeCache, !(this instanceof CheckableStore));
+			pendingRequests.clear();
+			pendingHistories.clear();
 		}
 	}
 
@@ -221,12 +279,33 @@ public abstract class FullTrieBasedStore<C extends Config> extends PartialTrieBa
 		super.setResponse(reference, request, response);
 	
 		// we also store the request
-		recordTime(() -> trieOfRequests.put(reference, request));
+		pendingRequests.put(reference, request);
 	}
 
 	@Override
 	protected void setHistory(StorageReference object, Stream<TransactionReference> history) {
-		trieOfHistories.put(object, history);
+		pendingHistories.put(object, history.toArray(TransactionReference[]::new));
+	}
+
+	@Override
+	protected Stream<Runnable> pendingUpdates() {
+		return Stream.concat(super.pendingUpdates(), Stream.of(
+			() -> {
+				trieOfRequests.putAll(pendingRequests);
+				pendingRequests.clear();
+			},
+			() -> {
+				trieOfHistories.putAll(pendingHistories);
+				pendingHistories.clear();
+			}));
+	}
+
+	@Override
+	protected void flushTries() {
+		super.flushTries();
+		trieOfErrors.flush();
+		trieOfRequests.flush();
+		trieOfHistories.flush();
 	}
 
 	@Override
@@ -259,14 +338,14 @@ public abstract class FullTrieBasedStore<C extends Config> extends PartialTrieBa
 		super.setRootsTo(root);
 
 		if (root == null) {
-			Arrays.fill(rootOfErrors, (byte) 0);
-			Arrays.fill(rootOfRequests, (byte) 0);
-			Arrays.fill(rootOfHistories, (byte) 0);
+			rootOfErrors = new byte[32];
+			rootOfRequests = new byte[32];
+			rootOfHistories = new byte[32];
 		}
 		else {
-			System.arraycopy(root, 64, rootOfErrors, 0, 32);
-			System.arraycopy(root, 96, rootOfRequests, 0, 32);
-			System.arraycopy(root, 128, rootOfHistories, 0, 32);
+			rootOfErrors = Arrays.copyOfRange(root, 64, 96);
+			rootOfRequests = Arrays.copyOfRange(root, 96, 128);
+			rootOfHistories = Arrays.copyOfRange(root, 128, 160);
 		}
 	}
 
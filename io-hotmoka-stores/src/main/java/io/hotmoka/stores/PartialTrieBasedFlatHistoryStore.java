@@ -25,6 +25,7 @@ import io.hotmoka.beans.values.StorageReference;
 import io.hotmoka.local.AbstractLocalNode;
 import io.hotmoka.local.Config;
 import io.hotmoka.xodus.ByteIterable;
+import io.hotmoka.xodus.env.Transaction;
 
 /**
  * A historical store of a node. It is a transactional database that keeps
@@ -92,10 +93,21 @@ public abstract class PartialTrieBasedFlatHistoryStore<C extends Config> extends
 
 	@Override
 	public Stream<TransactionReference> getHistory(StorageReference object) {
-		return recordTimeSynchronized(() -> {
-			ByteIterable historyAsByteArray = env.computeInReadonlyTransaction(txn -> storeOfHistory.get(txn, intoByteArray(object)));
-			return historyAsByteArray == null ? Stream.empty() : Stream.of(fromByteArray(TransactionReference::from, TransactionReference[]::new, historyAsByteArray));
-		});
+		ByteIterable historyAsByteArray = readCommitted(txn -> storeOfHistory.get(txn, intoByteArray(object)));
+		return historyAsByteArray == null ? Stream.empty() : Stream.of(fromByteArray(TransactionReference::from, TransactionReference[]::new, historyAsByteArray));
+	}
+
+	@Override
+	protected Snapshot mkSnapshot(Transaction txn) {
+		return new Snapshot(txn) {
+
+			@Override
+			public Stream<TransactionReference> getHistory(StorageReference object) {
+				// histories are not kept in a trie: they are read as they were committed when the view was created
+				ByteIterable historyAsByteArray = recordTime(() -> storeOfHistory.get(txn, intoByteArray(object)));
+				return historyAsByteArray == null ? Stream.empty() : Stream.of(fromByteArray(TransactionReference::from, TransactionReference[]::new, historyAsByteArray));
+			}
+		};
 	}
 
 	@Override
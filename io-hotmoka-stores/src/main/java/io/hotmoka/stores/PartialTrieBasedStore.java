@@ -20,10 +20,19 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.logging.Level;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import io.hotmoka.beans.InternalFailureException;
 import io.hotmoka.beans.Marshallable;
@@ -38,6 +47,7 @@ import io.hotmoka.local.AbstractLocalNode;
 import io.hotmoka.local.AbstractStore;
 import io.hotmoka.local.CheckableStore;
 import io.hotmoka.local.Config;
+import io.hotmoka.patricia.NodeCache;
 import io.hotmoka.stores.internal.TrieOfInfo;
 import io.hotmoka.stores.internal.TrieOfResponses;
 import io.hotmoka.xodus.ByteIterable;
@@ -84,13 +94,24 @@ public abstract class PartialTrieBasedStore<C extends Config> extends AbstractSt
 
 	/**
 	 * The root of the trie of the responses. It is an empty array if the trie is empty.
+	 * The array is never modified after being published, so that committed reads can
+	 * use it without synchronization.
 	 */
-	private final byte[] rootOfResponses = new byte[32];
+	private volatile byte[] rootOfResponses = new byte[32];
 
 	/**
 	 * The root of the trie of the miscellaneous info. It is an empty array if the trie is empty.
+	 * The array is never modified after being published, so that committed reads can
+	 * use it without synchronization.
 	 */
-	private final byte[] rootOfInfo = new byte[32];
+	private volatile byte[] rootOfInfo = new byte[32];
+
+	/**
+	 * A counter that gets incremented when a commit starts garbage-collecting nodes
+	 * of the tries and again when new roots are checked out. It is odd in between, when
+	 * the published roots might refer to nodes that have been removed from the database.
+	 */
+	private volatile long versionOfRoots;
 
 	/**
 	 * The key used inside {@link #storeOfInfo} to keep the root.
@@ -112,6 +133,30 @@ public abstract class PartialTrieBasedStore<C extends Config> extends AbstractSt
 	 */
 	private TrieOfInfo trieOfInfo;
 
+	/**
+	 * The responses set during the current transaction. They are written
+	 * into {@link #trieOfResponses} all together, at commit time.
+	 */
+	private final Map<TransactionReference, TransactionResponse> pendingResponses = new HashMap<>();
+
+	/**
+	 * The cache of the nodes of the tries of this store. It is shared among all tries
+	 * and among the clones of this store.
+	 */
+	final NodeCache nodeCache;
+
+	/**
+	 * The executor of the updates of the tries of this store at commit time.
+	 * It has at most a thread per trie and is shared among the clones of this store.
+	 */
+	private final ExecutorService commitExecutor;
+
+	/**
+	 * The maximal number of threads used to update the tries of a store at commit time.
+	 * This is the maximal number of tries in a store.
+	 */
+	private final static int MAX_COMMIT_THREADS = 5;
+
 	/**
 	 * The time when {@link #txn} was started, in the same format as {@link System#currentTimeMillis()}.
 	 */
@@ -128,6 +173,8 @@ public abstract class PartialTrieBasedStore<C extends Config> extends AbstractSt
     	super(node);
 
     	this.env = new Environment(config.dir + "/store");
+    	this.nodeCache = NodeCache.of(config.trieNodeCacheSize);
+    	this.commitExecutor = Executors.newFixedThreadPool(Math.min(MAX_COMMIT_THREADS, Runtime.getRuntime().availableProcessors()), PartialTrieBasedStore::mkCommitThread);
 
     	AtomicReference<io.hotmoka.xodus.env.Store> storeOfResponses = new AtomicReference<>();
     	AtomicReference<io.hotmoka.xodus.env.Store> storeOfInfo = new AtomicReference<>();
@@ -150,11 +197,14 @@ public abstract class PartialTrieBasedStore<C extends Config> extends AbstractSt
 		super(parent);
 
 		this.env = parent.env;
+		this.nodeCache = parent.nodeCache;
+		this.commitExecutor = parent.commitExecutor;
 		this.storeOfResponses = parent.storeOfResponses;
 		this.storeOfInfo = parent.storeOfInfo;
 		this.now = parent.now;
-		System.arraycopy(parent.rootOfResponses, 0, this.rootOfResponses, 0, 32);
-		System.arraycopy(parent.rootOfInfo, 0, this.rootOfInfo, 0, 32);
+		this.rootOfResponses = parent.rootOfResponses;
+		this.rootOfInfo = parent.rootOfInfo;
+		this.versionOfRoots = parent.versionOfRoots;
 	}
 
 	@Override
@@ -172,6 +222,9 @@ public abstract class PartialTrieBasedStore<C extends Config> extends AbstractSt
     		logger.log(Level.WARNING, "failed to close environment", e);
     	}
 
+    	commitExecutor.shutdownNow();
+    	logger.info("Usage of the " + nodeCache);
+
     	super.close();
     }
 
@@ -182,21 +235,53 @@ public abstract class PartialTrieBasedStore<C extends Config> extends AbstractSt
 
     @Override
     public Optional<TransactionResponse> getResponse(TransactionReference reference) {
-		return recordTimeSynchronized(() -> env.computeInReadonlyTransaction
-			(txn -> new TrieOfResponses(storeOfResponses, txn, nullIfEmpty(rootOfResponses), !(this instanceof CheckableStore)).get(reference)));
+		return readCommitted(txn -> new TrieOfResponses(storeOfResponses, txn, nullIfEmpty(rootOfResponses), nodeCache, !(this instanceof CheckableStore)).get(reference));
 	}
 
 	@Override
 	public Optional<TransactionResponse> getResponseUncommitted(TransactionReference reference) {
 		synchronized (lock) {
-			return duringTransaction() ? recordTime(() -> trieOfResponses.get(reference)) : getResponse(reference);
+			if (duringTransaction()) {
+				TransactionResponse pending = pendingResponses.get(reference);
+				return pending != null ? Optional.of(pending) : recordTime(() -> trieOfResponses.get(reference));
+			}
+			else
+				return getResponse(reference);
 		}
 	}
 
+	@Override
+	public Optional<byte[][]> getProofOfResponse(TransactionReference reference) {
+		return readCommitted(txn -> Optional.of(new TrieOfResponses(storeOfResponses, txn, nullIfEmpty(rootOfResponses), nodeCache, !(this instanceof CheckableStore)).getProof(reference)));
+	}
+
+	/**
+	 * Checks a Merkle proof yielded by {@link #getProofOfResponse(TransactionReference)}
+	 * and yields the response that it proves to be bound to the given transaction.
+	 * Responses that contain an instrumented jar are proved with the hash of the jar
+	 * in place of the jar itself, since that is what the trie of the responses contains.
+	 * 
+	 * @param hash the hash of the store, that is, the concatenation of the roots of its tries,
+	 *             as yielded by {@link #commitTransaction()} and accepted by {@link #checkout(byte[])};
+	 *             the proof is checked against the root of the trie of the responses, that is its first part;
+	 *             this is {@code null} if the store is empty
+	 * @param reference the reference of the transaction
+	 * @param proof the proof
+	 * @return the response of {@code reference}; this is empty if the proof shows that
+	 *         {@code reference} has no response
+	 * @throws IllegalArgumentException if the proof is not valid
+	 */
+	public static Optional<TransactionResponse> verifyProofOfResponse(byte[] hash, TransactionReference reference, byte[][] proof) throws IllegalArgumentException {
+		if (hash != null && hash.length < 32)
+			throw new IllegalArgumentException("illegal hash of a store: it should be at least 32 bytes long");
+
+		byte[] rootOfResponses = hash == null ? null : nullIfEmpty(Arrays.copyOfRange(hash, 0, 32));
+		return TrieOfResponses.verifyProof(rootOfResponses, reference, proof);
+	}
+
 	@Override
 	public Optional<StorageReference> getManifest() {
-		return recordTimeSynchronized(() -> env.computeInReadonlyTransaction
-			(txn -> new TrieOfInfo(storeOfInfo, txn, nullIfEmpty(rootOfInfo), !(this instanceof CheckableStore)).getManifest()));
+		return readCommitted(txn -> new TrieOfInfo(storeOfInfo, txn, nullIfEmpty(rootOfInfo), nodeCache, !(this instanceof CheckableStore)).getManifest());
 	}
 
 	@Override
@@ -208,7 +293,7 @@ public abstract class PartialTrieBasedStore<C extends Config> extends AbstractSt
 
 	@Override
 	protected void setResponse(TransactionReference reference, TransactionRequest<?> request, TransactionResponse response) {
-		recordTime(() -> trieOfResponses.put(reference, response));
+		pendingResponses.put(reference, response);
 	}
 
 	@Override
@@ -225,8 +310,9 @@ public abstract class PartialTrieBasedStore<C extends Config> extends AbstractSt
 	public void beginTransaction(long now) {
 		synchronized (lock) {
 			txn = recordTime(env::beginTransaction);
-			trieOfResponses = new TrieOfResponses(storeOfResponses, txn, nullIfEmpty(rootOfResponses), !(this instanceof CheckableStore));
-			trieOfInfo = new TrieOfInfo(storeOfInfo, txn, nullIfEmpty(rootOfInfo), !(this instanceof CheckableStore));
+			trieOfResponses = new TrieOfResponses(storeOfResponses, txn, nullIfEmpty(rootOfResponses), nodeCache, !(this instanceof CheckableStore));
+			trieOfInfo = new TrieOfInfo(storeOfInfo, txn, nullIfEmpty(rootOfInfo), nodeCache, !(this instanceof CheckableStore));
+			pendingResponses.clear();
 			this.now = now;
 		}
 	}
@@ -241,7 +327,14 @@ public abstract class PartialTrieBasedStore<C extends Config> extends AbstractSt
 	 */
 	protected byte[] commitTransaction() {
 		return recordTime(() -> {
-			trieOfInfo.increaseNumberOfCommits();
+			// each update modifies a distinct trie, hence they can be applied in parallel
+			runInParallel(pendingUpdates());
+			flushTries();
+
+			// from now on, the nodes removed by the garbage collection of the tries
+			// might be missing below the published roots, until the next checkout
+			if (!(this instanceof CheckableStore) && (versionOfRoots & 1L) == 0L)
+				versionOfRoots++;
 
 			if (!txn.commit())
 				logger.info("transaction's commit failed");
@@ -250,6 +343,70 @@ public abstract class PartialTrieBasedStore<C extends Config> extends AbstractSt
 		});
 	}
 
+	/**
+	 * Runs the given updates with {@link #commitExecutor} and waits for the completion of all of them.
+	 * 
+	 * @param updates the updates
+	 */
+	private void runInParallel(Stream<Runnable> updates) {
+		List<Future<?>> futures = updates.map(commitExecutor::submit).collect(Collectors.toList());
+		Throwable failure = null;
+
+		for (Future<?> future: futures) {
+			try {
+				future.get();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw InternalFailureException.of(e);
+			}
+			catch (ExecutionException e) {
+				if (failure == null)
+					failure = e.getCause();
+			}
+		}
+
+		if (failure instanceof RuntimeException)
+			throw (RuntimeException) failure;
+		else if (failure instanceof Error)
+			throw (Error) failure;
+		else if (failure != null)
+			throw InternalFailureException.of(failure);
+	}
+
+	private static Thread mkCommitThread(Runnable task) {
+		Thread thread = new Thread(task, "store commit");
+		thread.setDaemon(true);
+		return thread;
+	}
+
+	/**
+	 * Yields the updates to the tries of this store that have been accumulated
+	 * during the current transaction, so that each trie is updated in one pass.
+	 * They are applied at commit time. Each update modifies a distinct trie,
+	 * hence the updates are independent and are applied in parallel.
+	 * 
+	 * @return the updates
+	 */
+	protected Stream<Runnable> pendingUpdates() {
+		return Stream.of(
+			() -> {
+				trieOfResponses.putAll(pendingResponses);
+				pendingResponses.clear();
+			},
+			trieOfInfo::increaseNumberOfCommits);
+	}
+
+	/**
+	 * Writes into the database the nodes of the tries of this store that are still kept in memory.
+	 * This is called at commit time, after the last update to the tries. Hence the nodes
+	 * created and garbage collected during the transaction never reach the database.
+	 */
+	protected void flushTries() {
+		trieOfResponses.flush();
+		trieOfInfo.flush();
+	}
+
 	/**
 	 * Resets the store to the given root. This is just the concatenation of the roots
 	 * of the tries in this store. For instance, as returned by a previous {@link #commitTransaction()}.
@@ -258,6 +415,7 @@ public abstract class PartialTrieBasedStore<C extends Config> extends AbstractSt
 	 */
 	protected void checkout(byte[] root) {
 		setRootsTo(root);
+		publishRoots();
 		recordTime(() -> env.executeInTransaction(txn -> storeOfInfo.put(txn, ROOT, ByteIterable.fromBytes(root))));
 	}
 
@@ -267,8 +425,7 @@ public abstract class PartialTrieBasedStore<C extends Config> extends AbstractSt
 	 * @return the number of commits
 	 */
 	public long getNumberOfCommits() {
-		return recordTime(() -> env.computeInReadonlyTransaction
-			(txn -> new TrieOfInfo(storeOfInfo, txn, nullIfEmpty(rootOfInfo), !(this instanceof CheckableStore)).getNumberOfCommits()));
+		return readCommitted(txn -> new TrieOfInfo(storeOfInfo, txn, nullIfEmpty(rootOfInfo), nodeCache, !(this instanceof CheckableStore)).getNumberOfCommits());
 	}
 
 	/**
@@ -308,15 +465,73 @@ public abstract class PartialTrieBasedStore<C extends Config> extends AbstractSt
 	 */
 	protected void setRootsTo(byte[] root) {
 		if (root == null) {
-			Arrays.fill(rootOfResponses, (byte) 0);
-			Arrays.fill(rootOfInfo, (byte) 0);
+			rootOfResponses = new byte[32];
+			rootOfInfo = new byte[32];
 		}
 		else {
-			System.arraycopy(root, 0, rootOfResponses, 0, 32);
-			System.arraycopy(root, 32, rootOfInfo, 0, 32);
+			rootOfResponses = Arrays.copyOfRange(root, 0, 32);
+			rootOfInfo = Arrays.copyOfRange(root, 32, 64);
+		}
+	}
+
+	/**
+	 * Publishes the roots set by {@link #setRootsTo(byte[])}, so that committed reads
+	 * can run again against them without synchronization.
+	 */
+	private void publishRoots() {
+		if ((versionOfRoots & 1L) != 0L)
+			versionOfRoots++;
+	}
+
+	/**
+	 * Runs the given read of the committed state of this store inside a read-only transaction.
+	 * The read does not synchronize on {@link #lock}, since it only uses the roots published
+	 * at the last checkout, that are never modified, and Xodus isolates read-only transactions.
+	 * If a commit has garbage-collected nodes of the tries in the meanwhile, the read is
+	 * repeated while holding the lock, as it was done before any concurrent read was allowed.
+	 * 
+	 * @param <T> the type of the result of the read
+	 * @param read the read
+	 * @return the result of the read
+	 */
+	protected final <T> T readCommitted(Function<Transaction, T> read) {
+		long version = versionOfRoots;
+		if ((version & 1L) == 0L) {
+			T result = recordTime(() -> env.computeInReadonlyTransaction(read));
+			if (versionOfRoots == version)
+				return result;
 		}
+
+		return recordTimeSynchronized(() -> env.computeInReadonlyTransaction(read));
 	}
 
+	/**
+	 * {@inheritDoc} The view reads the database inside a read-only transaction started
+	 * at the time of this call, hence it keeps seeing the nodes of the tries also if a later
+	 * commit garbage-collects them, and resolves all reads against the roots published
+	 * at the time of this call. It yields no view while a commit has garbage-collected
+	 * nodes below the published roots, until the next checkout.
+	 */
+	@Override
+	protected Optional<io.hotmoka.local.Store> snapshotOfCommittedState() {
+		// commits and checkouts hold the lock, hence the roots are not being modified here
+		synchronized (lock) {
+			if ((versionOfRoots & 1L) != 0L)
+				return Optional.empty();
+
+			return Optional.of(mkSnapshot(recordTime(env::beginReadonlyTransaction)));
+		}
+	}
+
+	/**
+	 * Yields a view of the committed state of this store, as it is now, that reads
+	 * the database inside the given transaction. This is called while holding {@link #lock}.
+	 * 
+	 * @param txn the read-only transaction
+	 * @return the view
+	 */
+	protected abstract Snapshot mkSnapshot(Transaction txn);
+
 	/**
 	 * Yields the concatenation of the roots of the tries in this store,
 	 * resulting after all updates performed to the store. Hence, they point
@@ -405,4 +620,107 @@ public abstract class PartialTrieBasedStore<C extends Config> extends AbstractSt
 			throw InternalFailureException.of(e);
 		}
 	}
+
+	/**
+	 * A read-only view of the committed state of this store, frozen at the time of its creation.
+	 * Subclasses specialize it with the reads of the information that they add to the store.
+	 */
+	protected abstract class Snapshot implements io.hotmoka.local.Store {
+
+		/**
+		 * The read-only transaction inside which the database is read.
+		 */
+		protected final Transaction txn;
+
+		/**
+		 * The root of the trie of the responses, when this view was created.
+		 */
+		private final byte[] rootOfResponses = nullIfEmpty(PartialTrieBasedStore.this.rootOfResponses);
+
+		/**
+		 * The root of the trie of the miscellaneous info, when this view was created.
+		 */
+		private final byte[] rootOfInfo = nullIfEmpty(PartialTrieBasedStore.this.rootOfInfo);
+
+		/**
+		 * The time of the transaction of the store, when this view was created.
+		 */
+		private final long now = PartialTrieBasedStore.this.now;
+
+		/**
+		 * Creates a view of the committed state of this store, as it is now.
+		 * 
+		 * @param txn the read-only transaction inside which the database gets read
+		 */
+		protected Snapshot(Transaction txn) {
+			this.txn = txn;
+		}
+
+		@Override
+		public void close() {
+			txn.abort();
+		}
+
+		@Override
+		public long getNow() {
+			return now;
+		}
+
+		@Override
+		public Optional<TransactionResponse> getResponse(TransactionReference reference) {
+			return recordTime(() -> new TrieOfResponses(storeOfResponses, txn, rootOfResponses, nodeCache, false).get(reference));
+		}
+
+		@Override
+		public Optional<TransactionResponse> getResponseUncommitted(TransactionReference reference) {
+			return getResponse(reference);
+		}
+
+		@Override
+		public Optional<byte[][]> getProofOfResponse(TransactionReference reference) {
+			return recordTime(() -> Optional.of(new TrieOfResponses(storeOfResponses, txn, rootOfResponses, nodeCache, false).getProof(reference)));
+		}
+
+		@Override
+		public Optional<String> getError(TransactionReference reference) {
+			// errors are bound to their transaction forever, hence they are read from the store
+			return PartialTrieBasedStore.this.getError(reference);
+		}
+
+		@Override
+		public Optional<TransactionRequest<?>> getRequest(TransactionReference reference) {
+			// requests are bound to their transaction forever, hence they are read from the store
+			return PartialTrieBasedStore.this.getRequest(reference);
+		}
+
+		@Override
+		public Stream<TransactionReference> getHistoryUncommitted(StorageReference object) {
+			return getHistory(object);
+		}
+
+		@Override
+		public Optional<StorageReference> getManifest() {
+			return recordTime(() -> new TrieOfInfo(storeOfInfo, txn, rootOfInfo, nodeCache, false).getManifest());
+		}
+
+		@Override
+		public Optional<StorageReference> getManifestUncommitted() {
+			return getManifest();
+		}
+
+		@Override
+		public void push(TransactionReference reference, TransactionRequest<?> request, TransactionResponse response) {
+			throw new UnsupportedOperationException("the committed state of a store cannot be modified");
+		}
+
+		@Override
+		public void replace(TransactionReference reference, TransactionRequest<?> request, TransactionResponse response) {
+			throw new UnsupportedOperationException("the committed state of a store cannot be modified");
+		}
+
+		@Override
+		public void push(TransactionReference reference, TransactionRequest<?> request, String errorMessage) {
+			throw new UnsupportedOperationException("the committed state of a store cannot be modified");
+		}
+	}
 }
\ No newline at end of file
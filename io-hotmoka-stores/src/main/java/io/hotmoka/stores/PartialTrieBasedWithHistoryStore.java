@@ -17,6 +17,8 @@ limitations under the License.
 package io.hotmoka.stores;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.stream.Stream;
@@ -65,14 +67,21 @@ public abstract class PartialTrieBasedWithHistoryStore<C extends Config> extends
 
 	/**
 	 * The root of the trie of histories. It is an empty array if the trie is empty.
+	 * It gets replaced, never modified, at each checkout.
 	 */
-	private final byte[] rootOfHistories = new byte[32];
+	private volatile byte[] rootOfHistories = new byte[32];
 
 	/**
 	 * The trie of histories.
 	 */
 	private TrieOfHistories trieOfHistories;
 
+	/**
+	 * The histories set during the current transaction. They are written
+	 * into {@link #trieOfHistories} all together, at commit time.
+	 */
+	private final Map<StorageReference, TransactionReference[]> pendingHistories = new HashMap<>();
+
 	/**
      * Creates the store. Its roots are not yet initialized. Hence, after this constructor,
 	 * a call to {@link #setRootsTo(byte[])} or {@link #setRootsAsCheckedOut()}
@@ -105,19 +114,48 @@ public abstract class PartialTrieBasedWithHistoryStore<C extends Config> extends
 		super(parent);
 
 		this.storeOfHistory = parent.storeOfHistory;
-		System.arraycopy(parent.rootOfHistories, 0, this.rootOfHistories, 0, 32);
+		this.rootOfHistories = parent.rootOfHistories;
 	}
 
     @Override
 	public Stream<TransactionReference> getHistory(StorageReference object) {
-		return recordTimeSynchronized(() -> env.computeInReadonlyTransaction
-			(txn -> new TrieOfHistories(storeOfHistory, txn, nullIfEmpty(rootOfHistories), !(this instanceof CheckableStore)).get(object)));
+		return readCommitted(txn -> new TrieOfHistories(storeOfHistory, txn, nullIfEmpty(rootOfHistories), nodeCache, !(this instanceof CheckableStore)).get(object));
+	}
+
+	@Override
+	protected Snapshot mkSnapshot(Transaction txn) {
+		byte[] rootOfHistories = nullIfEmpty(this.rootOfHistories);
+
+		return new Snapshot(txn) {
+
+			@Override
+			public Stream<TransactionReference> getHistory(StorageReference object) {
+				return recordTime(() -> new TrieOfHistories(storeOfHistory, txn, rootOfHistories, nodeCache, false).get(object));
+			}
+		};
+	}
+
+	/**
+	 * Yields a Merkle proof of the committed history of the given object, or of the absence
+	 * of such history. The proven history lacks its last transaction, that is, the transaction
+	 * that created the object, since this is implied by the object itself.
+	 * 
+	 * @param object the object
+	 * @return the proof
+	 */
+	public byte[][] getProofOfHistory(StorageReference object) {
+		return readCommitted(txn -> new TrieOfHistories(storeOfHistory, txn, nullIfEmpty(rootOfHistories), nodeCache, !(this instanceof CheckableStore)).getProof(object));
 	}
 
 	@Override
 	public Stream<TransactionReference> getHistoryUncommitted(StorageReference object) {
 		synchronized (lock) {
-			return duringTransaction() ? trieOfHistories.get(object) : getHistory(object);
+			if (duringTransaction()) {
+				TransactionReference[] pending = pendingHistories.get(object);
+				return pending != null ? Stream.of(pending) : trieOfHistories.get(object);
+			}
+			else
+				return getHistory(object);
 		}
 	}
 
@@ -127,7 +165,8 @@ public abstract class PartialTrieBasedWithHistoryStore<C extends Config> extends
 			super.beginTransaction(now);
 
 			Transaction txn = getCurrentTransaction();
-			trieOfHistories = new TrieOfHistories(storeOfHistory, txn, nullIfEmpty(rootOfHistories), !(this instanceof CheckableStore));
+			trieOfHistories = new TrieOfHistories(storeOfHistory, txn, nullIfEmpty(rootOfHistories), nodeCache, !(this instanceof CheckableStore));
+			pendingHistories.clear();
 		}
 	}
 
@@ -147,7 +186,21 @@ public abstract class PartialTrieBasedWithHistoryStore<C extends Config> extends
 
 	@Override
 	protected void setHistory(StorageReference object, Stream<TransactionReference> history) {
-		trieOfHistories.put(object, history);
+		pendingHistories.put(object, history.toArray(TransactionReference[]::new));
+	}
+
+	@Override
+	protected Stream<Runnable> pendingUpdates() {
+		return Stream.concat(super.pendingUpdates(), Stream.of(() -> {
+			trieOfHistories.putAll(pendingHistories);
+			pendingHistories.clear();
+		}));
+	}
+
+	@Override
+	protected void flushTries() {
+		super.flushTries();
+		trieOfHistories.flush();
 	}
 
 	@Override
@@ -172,9 +225,9 @@ public abstract class PartialTrieBasedWithHistoryStore<C extends Config> extends
 		super.setRootsTo(root);
 
 		if (root == null)
-			Arrays.fill(rootOfHistories, (byte) 0);
+			rootOfHistories = new byte[32];
 		else
-			System.arraycopy(root, 64, rootOfHistories, 0, 32);
+			rootOfHistories = Arrays.copyOfRange(root, 64, 96);
 	}
 
 	@Override
@@ -16,7 +16,12 @@ limitations under the License.
 
 package io.hotmoka.stores.internal;
 
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 import io.hotmoka.patricia.KeyValueStore;
 import io.hotmoka.xodus.ByteIterable;
@@ -25,13 +30,25 @@ import io.hotmoka.xodus.env.Transaction;
 
 /**
  * A key/value store implemented over the Xodus database.
+ * Updates are kept in memory until {@link #flush()} is called.
+ * Hence bindings added and later removed before a flush never reach the database.
  */
-class KeyValueStoreOnXodus implements KeyValueStore {
+public class KeyValueStoreOnXodus implements KeyValueStore {
 	private final Store store;
 	private final Transaction txn;
 	private byte[] root;
 
-	KeyValueStoreOnXodus(Store store, Transaction txn, byte[] root) {
+	/**
+	 * The bindings added since the last flush, that must still be written into the database.
+	 */
+	private final Map<ByteBuffer, byte[]> added = new HashMap<>();
+
+	/**
+	 * The keys removed since the last flush, that must still be removed from the database.
+	 */
+	private final Set<ByteBuffer> removed = new HashSet<>();
+
+	public KeyValueStoreOnXodus(Store store, Transaction txn, byte[] root) {
 		this.store = store;
 		this.txn = txn;
 		this.root = root;
@@ -49,20 +66,55 @@ class KeyValueStoreOnXodus implements KeyValueStore {
 
 	@Override
 	public void put(byte[] key, byte[] value) {
-		store.put(txn, ByteIterable.fromBytes(key), ByteIterable.fromBytes(value));
+		ByteBuffer wrapped = ByteBuffer.wrap(key);
+		removed.remove(wrapped);
+		added.put(wrapped, value);
 	}
 
 	@Override
 	public void remove(byte[] key) {
-		store.remove(txn, ByteIterable.fromBytes(key));
+		ByteBuffer wrapped = ByteBuffer.wrap(key);
+		added.remove(wrapped);
+		// the key must be removed from the database also if it was added after the last flush,
+		// since it might have been already in the database before that addition;
+		// removing a key that is not in the database is harmless
+		removed.add(wrapped);
 	}
 
 	@Override
 	public byte[] get(byte[] key) throws NoSuchElementException {
-		ByteIterable result = store.get(txn, ByteIterable.fromBytes(key));
+		ByteBuffer wrapped = ByteBuffer.wrap(key);
+		byte[] value = added.get(wrapped);
+		if (value != null)
+			return value;
+		else if (removed.contains(wrapped))
+			throw new NoSuchElementException("no Merkle-Patricia trie node");
+
+		ByteIterable result;
+		// the same transaction might be used by more tries at the same time
+		synchronized (txn) {
+			result = store.get(txn, ByteIterable.fromBytes(key));
+		}
+
 		if (result == null)
 			throw new NoSuchElementException("no Merkle-Patricia trie node");
 		else
 			return result.getBytes();
 	}
+
+	/**
+	 * Writes into the database the updates performed since the last flush.
+	 */
+	public void flush() {
+		synchronized (txn) {
+			for (ByteBuffer key: removed)
+				store.remove(txn, ByteIterable.fromBytes(key.array()));
+
+			for (Map.Entry<ByteBuffer, byte[]> entry: added.entrySet())
+				store.put(txn, ByteIterable.fromBytes(entry.getKey().array()), ByteIterable.fromBytes(entry.getValue()));
+		}
+
+		removed.clear();
+		added.clear();
+	}
 }
\ No newline at end of file
@@ -25,6 +25,7 @@ import io.hotmoka.beans.MarshallingContext;
 import io.hotmoka.beans.UnmarshallingContext;
 import io.hotmoka.beans.references.TransactionReference;
 import io.hotmoka.crypto.HashingAlgorithm;
+import io.hotmoka.patricia.NodeCache;
 import io.hotmoka.patricia.PatriciaTrie;
 import io.hotmoka.xodus.env.Store;
 import io.hotmoka.xodus.env.Transaction;
@@ -39,21 +40,27 @@ public class TrieOfErrors {
 	 */
 	private final PatriciaTrie<TransactionReference, MarshallableString> parent;
 
+	/**
+	 * The store of the underlying Patricia trie.
+	 */
+	private final KeyValueStoreOnXodus keyValueStoreOfResponses;
+
 	/**
 	 * Builds a Merkle-Patricia trie that maps transaction requests into their errors.
 	 * 
 	 * @param store the supporting store of the database
 	 * @param txn the transaction where updates are reported
 	 * @param root the root of the trie to check out; use {@code null} if the trie is empty
+	 * @param nodeCache the cache of the nodes of the trie
 	 * @param garbageCollected true if and only if unused nodes must be garbage collected; in general,
 	 *                         this can be true if previous configurations of the trie needn't be
 	 *                         rechecked out in the future
 	 */
-	public TrieOfErrors(Store store, Transaction txn, byte[] root, boolean garbageCollected) {
+	public TrieOfErrors(Store store, Transaction txn, byte[] root, NodeCache nodeCache, boolean garbageCollected) {
 		try {
-			KeyValueStoreOnXodus keyValueStoreOfResponses = new KeyValueStoreOnXodus(store, txn, root);
-			HashingAlgorithm<io.hotmoka.patricia.Node> hashingForNodes = HashingAlgorithm.sha256(Marshallable::toByteArray);
-			parent = PatriciaTrie.of(keyValueStoreOfResponses, new HashingForTransactionReference(), hashingForNodes, MarshallableString::from, garbageCollected);
+			this.keyValueStoreOfResponses = new KeyValueStoreOnXodus(store, txn, root);
+			HashingAlgorithm<io.hotmoka.patricia.Node> hashingForNodes = HashingAlgorithm.sha256(io.hotmoka.patricia.Node::toByteArrayMemoized);
+			parent = PatriciaTrie.of(keyValueStoreOfResponses, new HashingForTransactionReference(), hashingForNodes, MarshallableString::from, nodeCache, garbageCollected);
 		}
 		catch (Exception e) {
 			throw InternalFailureException.of(e);
@@ -73,6 +80,14 @@ public class TrieOfErrors {
 		return parent.getRoot();
 	}
 
+	/**
+	 * Writes into the database the nodes of this trie that are still kept in memory.
+	 * Nodes added and garbage collected since the last flush never reach the database.
+	 */
+	public void flush() {
+		keyValueStoreOfResponses.flush();
+	}
+
 	/**
 	 * A string that can be marshalled into an object stream.
 	 */
@@ -17,6 +17,8 @@ limitations under the License.
 package io.hotmoka.stores.internal;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -29,6 +31,7 @@ import io.hotmoka.beans.references.TransactionReference;
 import io.hotmoka.beans.requests.TransactionRequest;
 import io.hotmoka.beans.values.StorageReference;
 import io.hotmoka.crypto.HashingAlgorithm;
+import io.hotmoka.patricia.NodeCache;
 import io.hotmoka.patricia.PatriciaTrie;
 import io.hotmoka.xodus.env.Store;
 import io.hotmoka.xodus.env.Transaction;
@@ -44,6 +47,11 @@ public class TrieOfHistories {
 	 */
 	private final PatriciaTrie<StorageReference, MarshallableArrayOfTransactionReferences> parent;
 
+	/**
+	 * The store of the underlying Patricia trie.
+	 */
+	private final KeyValueStoreOnXodus keyValueStoreOfResponses;
+
 	/**
 	 * Builds a Merkle-Patricia trie that maps references to storage references into
 	 * an array of transaction references (their <i>history</i>).
@@ -51,16 +59,17 @@ public class TrieOfHistories {
 	 * @param store the supporting store of the database
 	 * @param txn the transaction where updates are reported
 	 * @param root the root of the trie to check out; use {@code null} if the trie is empty
+	 * @param nodeCache the cache of the nodes of the trie
 	 * @param garbageCollected true if and only if unused nodes must be garbage collected; in general,
 	 *                         this can be true if previous configurations of the trie needn't be
 	 *                         rechecked out in the future
 	 */
-	public TrieOfHistories(Store store, Transaction txn, byte[] root, boolean garbageCollected) {
+	public TrieOfHistories(Store store, Transaction txn, byte[] root, NodeCache nodeCache, boolean garbageCollected) {
 		try {
-			KeyValueStoreOnXodus keyValueStoreOfResponses = new KeyValueStoreOnXodus(store, txn, root);
-			HashingAlgorithm<io.hotmoka.patricia.Node> hashingForNodes = HashingAlgorithm.sha256(Marshallable::toByteArray);
+			this.keyValueStoreOfResponses = new KeyValueStoreOnXodus(store, txn, root);
+			HashingAlgorithm<io.hotmoka.patricia.Node> hashingForNodes = HashingAlgorithm.sha256(io.hotmoka.patricia.Node::toByteArrayMemoized);
 			HashingAlgorithm<StorageReference> hashingForStorageReferences = HashingAlgorithm.sha256(StorageReference::toByteArrayWithoutSelector);
-			parent = PatriciaTrie.of(keyValueStoreOfResponses, hashingForStorageReferences, hashingForNodes, MarshallableArrayOfTransactionReferences::from, garbageCollected);
+			parent = PatriciaTrie.of(keyValueStoreOfResponses, hashingForStorageReferences, hashingForNodes, MarshallableArrayOfTransactionReferences::from, nodeCache, garbageCollected);
 		}
 		catch (Exception e) {
 			throw InternalFailureException.of(e);
@@ -91,10 +100,49 @@ public class TrieOfHistories {
 		parent.put(key, new MarshallableArrayOfTransactionReferences(withoutLast));
 	}
 
+	/**
+	 * Sets the histories of many storage references at once.
+	 * 
+	 * @param histories the histories, from each storage reference to its history
+	 */
+	public void putAll(Map<StorageReference, TransactionReference[]> histories) {
+		Map<StorageReference, MarshallableArrayOfTransactionReferences> bindings = new HashMap<>();
+
+		// as in put, the last transaction of each history is not kept
+		histories.forEach((key, history) -> {
+			TransactionReference[] withoutLast = new TransactionReference[history.length - 1];
+			System.arraycopy(history, 0, withoutLast, 0, withoutLast.length);
+			bindings.put(key, new MarshallableArrayOfTransactionReferences(withoutLast));
+		});
+
+		parent.putAll(bindings);
+	}
+
 	public byte[] getRoot() {
 		return parent.getRoot();
 	}
 
+	/**
+	 * Writes into the database the nodes of this trie that are still kept in memory.
+	 * Nodes added and garbage collected since the last flush never reach the database.
+	 */
+	public void flush() {
+		keyValueStoreOfResponses.flush();
+	}
+
+	/**
+	 * Yields a Merkle proof of the history of the given storage reference,
+	 * or of the absence of such history. The proven history lacks its last transaction,
+	 * that is, the transaction that created the object, since this is implied by the
+	 * storage reference itself.
+	 * 
+	 * @param key the storage reference
+	 * @return the proof
+	 */
+	public byte[][] getProof(StorageReference key) {
+		return parent.getProof(key);
+	}
+
 	/**
 	 * An array of transaction references that can be marshalled into an object stream.
 	 */
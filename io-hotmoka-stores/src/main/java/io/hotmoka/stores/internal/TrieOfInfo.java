@@ -19,11 +19,11 @@ package io.hotmoka.stores.internal;
 import java.util.Optional;
 
 import io.hotmoka.beans.InternalFailureException;
-import io.hotmoka.beans.Marshallable;
 import io.hotmoka.beans.values.LongValue;
 import io.hotmoka.beans.values.StorageReference;
 import io.hotmoka.beans.values.StorageValue;
 import io.hotmoka.crypto.HashingAlgorithm;
+import io.hotmoka.patricia.NodeCache;
 import io.hotmoka.patricia.PatriciaTrie;
 import io.hotmoka.xodus.env.Store;
 import io.hotmoka.xodus.env.Transaction;
@@ -38,20 +38,26 @@ public class TrieOfInfo {
 	 */
 	private final PatriciaTrie<Byte, StorageValue> parent;
 
+	/**
+	 * The store of the underlying Patricia trie.
+	 */
+	private final KeyValueStoreOnXodus keyValueStoreOfInfos;
+
 	/**
 	 * Builds a Merkle-Patricia trie that maps miscellaneous information into their value.
 	 * 
 	 * @param store the supporting store of the database
 	 * @param txn the transaction where updates are reported
 	 * @param root the root of the trie to check out; use {@code null} if the trie is empty
+	 * @param nodeCache the cache of the nodes of the trie
 	 * @param garbageCollected true if and only if unused nodes must be garbage collected; in general,
 	 *                         this can be true if previous configurations of the trie needn't be
 	 *                         rechecked out in the future
 	 */
-	public TrieOfInfo(Store store, Transaction txn, byte[] root, boolean garbageCollected) {
+	public TrieOfInfo(Store store, Transaction txn, byte[] root, NodeCache nodeCache, boolean garbageCollected) {
 		try {
-			KeyValueStoreOnXodus keyValueStoreOfInfos = new KeyValueStoreOnXodus(store, txn, root);
-			HashingAlgorithm<io.hotmoka.patricia.Node> hashingForNodes = HashingAlgorithm.sha256(Marshallable::toByteArray);
+			this.keyValueStoreOfInfos = new KeyValueStoreOnXodus(store, txn, root);
+			HashingAlgorithm<io.hotmoka.patricia.Node> hashingForNodes = HashingAlgorithm.sha256(io.hotmoka.patricia.Node::toByteArrayMemoized);
 
 			// the hashing algorithm applied to the keys of the trie.
 			HashingAlgorithm<Byte> hashingForKeys = new HashingAlgorithm<>() {
@@ -67,7 +73,7 @@ public class TrieOfInfo {
 				}
 			};
 
-			parent = PatriciaTrie.of(keyValueStoreOfInfos, hashingForKeys, hashingForNodes, StorageValue::from, garbageCollected);
+			parent = PatriciaTrie.of(keyValueStoreOfInfos, hashingForKeys, hashingForNodes, StorageValue::from, nodeCache, garbageCollected);
 		}
 		catch (Exception e) {
 			throw InternalFailureException.of(e);
@@ -83,6 +89,14 @@ public class TrieOfInfo {
 		return parent.getRoot();
 	}
 
+	/**
+	 * Writes into the database the nodes of this trie that are still kept in memory.
+	 * Nodes added and garbage collected since the last flush never reach the database.
+	 */
+	public void flush() {
+		keyValueStoreOfInfos.flush();
+	}
+
 	/**
 	 * Yields the number of commits.
 	 * 
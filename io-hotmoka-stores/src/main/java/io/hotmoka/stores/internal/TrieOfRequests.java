@@ -16,13 +16,15 @@ limitations under the License.
 
 package io.hotmoka.stores.internal;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import io.hotmoka.beans.InternalFailureException;
-import io.hotmoka.beans.Marshallable;
 import io.hotmoka.beans.references.TransactionReference;
 import io.hotmoka.beans.requests.TransactionRequest;
 import io.hotmoka.crypto.HashingAlgorithm;
+import io.hotmoka.patricia.NodeCache;
 import io.hotmoka.patricia.PatriciaTrie;
 import io.hotmoka.xodus.env.Store;
 import io.hotmoka.xodus.env.Transaction;
@@ -37,21 +39,27 @@ public class TrieOfRequests implements PatriciaTrie<TransactionReference, Transa
 	 */
 	private final PatriciaTrie<TransactionReference, TransactionRequest<?>> parent;
 
+	/**
+	 * The store of the underlying Patricia trie.
+	 */
+	private final KeyValueStoreOnXodus keyValueStoreOfResponses;
+
 	/**
 	 * Builds a Merkle-Patricia trie that maps references to transaction requests into their responses.
 	 * 
 	 * @param store the supporting store of the database
 	 * @param txn the transaction where updates are reported
 	 * @param root the root of the trie to check out; use {@code null} if the trie is empty
+	 * @param nodeCache the cache of the nodes of the trie
 	 * @param garbageCollected true if and only if unused nodes must be garbage collected; in general,
 	 *                         this can be true if previous configurations of the trie needn't be
 	 *                         rechecked out in the future
 	 */
-	public TrieOfRequests(Store store, Transaction txn, byte[] root, boolean garbageCollected) {
+	public TrieOfRequests(Store store, Transaction txn, byte[] root, NodeCache nodeCache, boolean garbageCollected) {
 		try {
-			KeyValueStoreOnXodus keyValueStoreOfResponses = new KeyValueStoreOnXodus(store, txn, root);
-			HashingAlgorithm<io.hotmoka.patricia.Node> hashingForNodes = HashingAlgorithm.sha256(Marshallable::toByteArray);
-			parent = PatriciaTrie.of(keyValueStoreOfResponses, new HashingForTransactionReference(), hashingForNodes, TransactionRequest::from, garbageCollected);
+			this.keyValueStoreOfResponses = new KeyValueStoreOnXodus(store, txn, root);
+			HashingAlgorithm<io.hotmoka.patricia.Node> hashingForNodes = HashingAlgorithm.sha256(io.hotmoka.patricia.Node::toByteArrayMemoized);
+			parent = PatriciaTrie.of(keyValueStoreOfResponses, new HashingForTransactionReference(), hashingForNodes, TransactionRequest::from, nodeCache, garbageCollected);
 		}
 		catch (Exception e) {
 			throw InternalFailureException.of(e);
@@ -68,8 +76,36 @@ public class TrieOfRequests implements PatriciaTrie<TransactionReference, Transa
 		parent.put(key, value);
 	}
 
+	@Override
+	public void putAll(Map<? extends TransactionReference, ? extends TransactionRequest<?>> bindings) {
+		parent.putAll(bindings);
+	}
+
+	@Override
+	public void remove(TransactionReference key) {
+		parent.remove(key);
+	}
+
+	@Override
+	public Stream<TransactionRequest<?>> values() {
+		return parent.values();
+	}
+
 	@Override
 	public byte[] getRoot() {
 		return parent.getRoot();
 	}
+
+	/**
+	 * Writes into the database the nodes of this trie that are still kept in memory.
+	 * Nodes added and garbage collected since the last flush never reach the database.
+	 */
+	public void flush() {
+		keyValueStoreOfResponses.flush();
+	}
+
+	@Override
+	public byte[][] getProof(TransactionReference key) {
+		return parent.getProof(key);
+	}
 }
\ No newline at end of file
@@ -18,17 +18,21 @@ package io.hotmoka.stores.internal;
 
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import io.hotmoka.beans.InternalFailureException;
-import io.hotmoka.beans.Marshallable;
 import io.hotmoka.beans.references.TransactionReference;
 import io.hotmoka.beans.responses.JarStoreInitialTransactionResponse;
 import io.hotmoka.beans.responses.JarStoreTransactionSuccessfulResponse;
 import io.hotmoka.beans.responses.TransactionResponse;
 import io.hotmoka.beans.responses.TransactionResponseWithInstrumentedJar;
 import io.hotmoka.crypto.HashingAlgorithm;
+import io.hotmoka.patricia.NodeCache;
 import io.hotmoka.patricia.PatriciaTrie;
 import io.hotmoka.xodus.env.Store;
 import io.hotmoka.xodus.env.Transaction;
@@ -62,16 +66,17 @@ public class TrieOfResponses implements PatriciaTrie<TransactionReference, Trans
 	 * @param store the supporting store of the database
 	 * @param txn the transaction where updates are reported
 	 * @param root the root of the trie to check out; use {@code null} if the trie is empty
+	 * @param nodeCache the cache of the nodes of the trie
 	 * @param garbageCollected true if and only if unused nodes must be garbage collected; in general,
 	 *                         this can be true if previous configurations of the trie needn't be
 	 *                         rechecked out in the future
 	 */
-	public TrieOfResponses(Store store, Transaction txn, byte[] root, boolean garbageCollected) {
+	public TrieOfResponses(Store store, Transaction txn, byte[] root, NodeCache nodeCache, boolean garbageCollected) {
 		try {
 			this.keyValueStoreOfResponses = new KeyValueStoreOnXodus(store, txn, root);
-			HashingAlgorithm<io.hotmoka.patricia.Node> hashingForNodes = HashingAlgorithm.sha256(Marshallable::toByteArray);
+			HashingAlgorithm<io.hotmoka.patricia.Node> hashingForNodes = HashingAlgorithm.sha256(io.hotmoka.patricia.Node::toByteArrayMemoized);
 			this.hashingForJars = HashingAlgorithm.sha256(bytes -> bytes);
-			parent = PatriciaTrie.of(keyValueStoreOfResponses, new HashingForTransactionReference(), hashingForNodes, TransactionResponse::from, garbageCollected);
+			parent = PatriciaTrie.of(keyValueStoreOfResponses, new HashingForTransactionReference(), hashingForNodes, TransactionResponse::from, nodeCache, garbageCollected);
 		}
 		catch (Exception e) {
 			throw InternalFailureException.of(e);
@@ -154,8 +159,59 @@ public class TrieOfResponses implements PatriciaTrie<TransactionReference, Trans
 		parent.put(key, writeTransformation(value));
 	}
 
+	@Override
+	public void putAll(Map<? extends TransactionReference, ? extends TransactionResponse> bindings) {
+		Map<TransactionReference, TransactionResponse> transformed = new HashMap<>();
+		bindings.forEach((key, value) -> transformed.put(key, writeTransformation(value)));
+		parent.putAll(transformed);
+	}
+
+	@Override
+	public void remove(TransactionReference key) {
+		// the jar of the response, if any, is not removed, since it might be shared with other responses
+		parent.remove(key);
+	}
+
+	@Override
+	public Stream<TransactionResponse> values() {
+		return parent.values().map(this::readTransformation);
+	}
+
 	@Override
 	public byte[] getRoot() {
 		return parent.getRoot();
 	}
+
+	/**
+	 * Writes into the database the nodes of this trie that are still kept in memory.
+	 * Nodes added and garbage collected since the last flush never reach the database.
+	 */
+	public void flush() {
+		keyValueStoreOfResponses.flush();
+	}
+
+	@Override
+	public byte[][] getProof(TransactionReference key) {
+		return parent.getProof(key);
+	}
+
+	/**
+	 * Checks a Merkle proof yielded by {@link #getProof(TransactionReference)}.
+	 * Responses containing an instrumented jar are proved with the hash of the jar in place
+	 * of the jar itself, since the jar is kept outside of the trie.
+	 * 
+	 * @param root the root of the trie; this is {@code null} if the trie is empty
+	 * @param key the reference of the transaction
+	 * @param proof the proof
+	 * @return the response of {@code key}; this is empty if the proof shows that {@code key} has no response
+	 * @throws IllegalArgumentException if the proof is not valid
+	 */
+	public static Optional<TransactionResponse> verifyProof(byte[] root, TransactionReference key, byte[][] proof) throws IllegalArgumentException {
+		try {
+			return PatriciaTrie.verifyProof(root, key, proof, new HashingForTransactionReference(), HashingAlgorithm.sha256(io.hotmoka.patricia.Node::toByteArrayMemoized), TransactionResponse::from);
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw InternalFailureException.of(e);
+		}
+	}
 }
\ No newline at end of file
@@ -32,7 +32,9 @@ import java.nio.file.Path;
 import java.util.HashSet;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -227,10 +229,23 @@ public class TendermintBlockchainImpl extends AbstractLocalNode<TendermintBlockc
 	 */
 	private final Set<TransactionResponseWithEvents> responsesWithEventsToNotify = new HashSet<>();
 
+	@Override
+	protected void scheduleForCompletion(TransactionReference reference) {
+		transactionsToComplete.add(reference);
+	}
+
+	/**
+	 * The transactions whose waiters must be woken up at the next commit.
+	 */
+	private final Queue<TransactionReference> transactionsToComplete = new ConcurrentLinkedQueue<>();
+
 	private void commitTransactionAndCheckout() {
 		store.commitTransactionAndCheckout();
 		responsesWithEventsToNotify.forEach(this::notifyEventsOf);
 		responsesWithEventsToNotify.clear();
+		TransactionReference reference;
+		while ((reference = transactionsToComplete.poll()) != null)
+			signalCompletion(reference);
 	}
 
 	private static final BigInteger _50_000 = BigInteger.valueOf(50_000);
@@ -299,6 +299,11 @@ public class TendermintInitializedNodeImpl implements TendermintInitializedNode
 		return parent.getRequest(reference);
 	}
 
+	@Override
+	public byte[][] getProofOfResponse(TransactionReference reference) throws UnsupportedOperationException {
+		return parent.getProofOfResponse(reference);
+	}
+
 	@Override
 	public TransactionResponse getResponse(TransactionReference reference) throws TransactionRejectedException, NoSuchElementException {
 		return parent.getResponse(reference);
@@ -21,6 +21,7 @@ open module io.takamaka.code.tests {
 	requires io.hotmoka.local;
 	requires io.hotmoka.crypto;
 	requires io.hotmoka.memory;
+	requires io.hotmoka.patricia;
 	requires io.hotmoka.constants;
 	requires io.hotmoka.instrumentation;
 	requires io.hotmoka.verification;
@@ -0,0 +1,210 @@
+/*
+Copyright 2021 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.tests;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.InvalidKeyException;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import io.hotmoka.beans.requests.InstanceMethodCallTransactionRequest;
+import io.hotmoka.beans.requests.SignedTransactionRequest;
+import io.hotmoka.beans.requests.SignedTransactionRequest.Signer;
+import io.hotmoka.beans.requests.TransactionRequest;
+import io.hotmoka.beans.signatures.CodeSignature;
+import io.hotmoka.crypto.SignatureAlgorithm;
+import io.hotmoka.local.AbstractLocalNode;
+import io.hotmoka.local.NodeCaches;
+
+/**
+ * Tests for the verification of many signatures at once, when some of them are valid and
+ * others are not. The outcome of the verification of each signature must be the same as if
+ * they were verified one by one.
+ */
+class BatchSignatures extends HotmokaTest {
+	private static final int SIZE = 8;
+
+	@ParameterizedTest @ValueSource(strings = { "ed25519", "ed25519det", "sha256dsa" })
+	@DisplayName("the verification of a batch of valid and invalid signatures yields the outcome of each verification")
+	void verifyBatchYieldsOutcomeOfEachSignature(String name) throws Exception {
+		SignatureAlgorithm<String> algorithm = SignatureAlgorithm.mk(name, (String s) -> s.getBytes(UTF_8));
+		// ed25519det always yields the same key pair, hence the keys are created with ed25519
+		SignatureAlgorithm<String> generator = name.equals("sha256dsa") ? algorithm : SignatureAlgorithm.ed25519((String s) -> s.getBytes(UTF_8));
+
+		List<String> messages = new ArrayList<>();
+		List<PublicKey> publicKeys = new ArrayList<>();
+		List<byte[]> signatures = new ArrayList<>();
+		boolean[] expected = new boolean[SIZE];
+
+		for (int pos = 0; pos < SIZE; pos++) {
+			KeyPair keys = generator.getKeyPair();
+			String message = "message #" + pos;
+			messages.add(message);
+			publicKeys.add(keys.getPublic());
+
+			switch (pos % 4) {
+			case 0:
+			case 2:
+				signatures.add(algorithm.sign(message, keys.getPrivate()));
+				expected[pos] = true;
+				break;
+			case 1:
+				// the signature of another message
+				signatures.add(algorithm.sign(message + '!', keys.getPrivate()));
+				break;
+			default:
+				// a signature with a bit flipped
+				byte[] signature = algorithm.sign(message, keys.getPrivate());
+				signature[signature.length / 2] ^= 1;
+				signatures.add(signature);
+			}
+		}
+
+		assertArrayEquals(expected, algorithm.verifyBatch(messages, publicKeys, signatures));
+
+		for (int pos = 0; pos < SIZE; pos++)
+			assertEquals(expected[pos], algorithm.verify(messages.get(pos), publicKeys.get(pos), signatures.get(pos)));
+	}
+
+	@Test
+	@DisplayName("ed25519 signatures that are too short or too long are invalid in a batch")
+	void ed25519SignaturesOfWrongLengthAreInvalid() throws Exception {
+		SignatureAlgorithm<String> ed25519 = SignatureAlgorithm.ed25519((String s) -> s.getBytes(UTF_8));
+		KeyPair keys = ed25519.getKeyPair();
+		byte[] signature = ed25519.sign("hello", keys.getPrivate());
+
+		assertArrayEquals(new boolean[] { false, true, false }, ed25519.verifyBatch(List.of("hello", "hello", "hello"),
+			List.of(keys.getPublic(), keys.getPublic(), keys.getPublic()),
+			List.of(Arrays.copyOf(signature, signature.length - 1), signature, Arrays.copyOf(signature, signature.length + 1))));
+	}
+
+	@ParameterizedTest @ValueSource(strings = { "ed25519", "ed25519det" })
+	@DisplayName("ed25519 public keys whose X.509 encoding has an unusual header are understood")
+	void ed25519KeysWithUnusualEncoding(String name) throws Exception {
+		SignatureAlgorithm<String> algorithm = SignatureAlgorithm.mk(name, (String s) -> s.getBytes(UTF_8));
+		KeyPair keys = SignatureAlgorithm.ed25519((String s) -> s.getBytes(UTF_8)).getKeyPair();
+		byte[] bytes = algorithm.encodingOf(keys.getPublic());
+		byte[] signature = algorithm.sign("hello", keys.getPrivate());
+
+		// the usual header is 30 2a 30 05 06 03 2b 65 70 03 21 00, of 12 bytes
+		PublicKey withNullParameters = x509("Ed25519", concat(new byte[] { 0x30, 0x2c, 0x30, 0x07, 0x06, 0x03, 0x2b, 0x65, 0x70, 0x05, 0x00, 0x03, 0x21, 0x00 }, bytes));
+		PublicKey withLongFormLength = x509("Ed25519", concat(new byte[] { 0x30, (byte) 0x81, 0x2a, 0x30, 0x05, 0x06, 0x03, 0x2b, 0x65, 0x70, 0x03, 0x21, 0x00 }, bytes));
+
+		assertArrayEquals(bytes, algorithm.encodingOf(withNullParameters));
+		assertArrayEquals(bytes, algorithm.encodingOf(withLongFormLength));
+		assertArrayEquals(new boolean[] { true, true, true, false }, algorithm.verifyBatch(List.of("hello", "hello", "hello", "bye"),
+			List.of(keys.getPublic(), withNullParameters, withLongFormLength, withNullParameters),
+			List.of(signature, signature, signature, signature)));
+	}
+
+	@ParameterizedTest @ValueSource(strings = { "ed25519", "ed25519det" })
+	@DisplayName("public keys that are not ed25519 keys are rejected")
+	void nonEd25519KeysAreRejected(String name) throws Exception {
+		SignatureAlgorithm<String> algorithm = SignatureAlgorithm.mk(name, (String s) -> s.getBytes(UTF_8));
+		KeyPair keys = SignatureAlgorithm.ed25519((String s) -> s.getBytes(UTF_8)).getKeyPair();
+		byte[] signature = algorithm.sign("hello", keys.getPrivate());
+		PublicKey dsa = SignatureAlgorithm.sha256dsa((String s) -> s.getBytes(UTF_8)).getKeyPair().getPublic();
+		PublicKey garbage = x509("Ed25519", new byte[] { 0x30, 0x03, 0x02, 0x01, 0x00 });
+
+		assertThrows(IllegalArgumentException.class, () -> algorithm.encodingOf(dsa));
+		assertThrows(IllegalArgumentException.class, () -> algorithm.encodingOf(garbage));
+		assertThrows(InvalidKeyException.class, () -> algorithm.verifyBatch(List.of("hello", "hello"), List.of(keys.getPublic(), dsa), List.of(signature, signature)));
+		assertThrows(InvalidKeyException.class, () -> algorithm.verifyBatch(List.of("hello", "hello"), List.of(keys.getPublic(), garbage), List.of(signature, signature)));
+	}
+
+	@Test
+	@DisplayName("the node takes note of the outcome of the verification in batch of each signature of valid and invalid requests")
+	void nodeVerifiesSignaturesInBatch() throws Exception {
+		assumeTrue(node instanceof AbstractLocalNode, "the node of the tests is not local");
+		setAccounts(BigInteger.ZERO, BigInteger.ZERO, BigInteger.ZERO, BigInteger.ZERO, BigInteger.ZERO, BigInteger.ZERO);
+
+		List<TransactionRequest<?>> requests = new ArrayList<>();
+		boolean[] expected = new boolean[6];
+		for (int pos = 0; pos < expected.length; pos++) {
+			// the odd requests are signed with the key of another account
+			expected[pos] = pos % 2 == 0;
+			Signer signer = Signer.with(signature(), privateKey(expected[pos] ? pos : pos - 1));
+			requests.add(new InstanceMethodCallTransactionRequest
+				(signer, account(pos), BigInteger.ZERO, chainId, _100_000, BigInteger.ONE, takamakaCode(), CodeSignature.NONCE, account(pos)));
+		}
+
+		NodeCaches caches = cachesOf(node);
+		caches.verifySignaturesInBatch(requests);
+
+		// the outcomes must come from the batch verification, hence the algorithm must not be used anymore
+		@SuppressWarnings("unchecked")
+		io.hotmoka.beans.SignatureAlgorithm<SignedTransactionRequest> unusable = (io.hotmoka.beans.SignatureAlgorithm<SignedTransactionRequest>) Proxy.newProxyInstance
+			(getClass().getClassLoader(), new Class<?>[] { io.hotmoka.beans.SignatureAlgorithm.class }, (proxy, method, args) -> {
+				throw new IllegalStateException("the signature has not been verified in batch");
+			});
+
+		for (int pos = 0; pos < expected.length; pos++)
+			assertEquals(expected[pos], caches.signatureIsValid((SignedTransactionRequest) requests.get(pos), unusable));
+	}
+
+	private static NodeCaches cachesOf(Object node) throws ReflectiveOperationException {
+		Field caches = AbstractLocalNode.class.getDeclaredField("caches");
+		caches.setAccessible(true);
+		return (NodeCaches) caches.get(node);
+	}
+
+	private static byte[] concat(byte[] first, byte[] second) {
+		byte[] result = Arrays.copyOf(first, first.length + second.length);
+		System.arraycopy(second, 0, result, first.length, second.length);
+		return result;
+	}
+
+	/**
+	 * Yields a public key with the given X.509 encoding.
+	 */
+	private static PublicKey x509(String algorithm, byte[] encoding) {
+		return new PublicKey() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public String getAlgorithm() {
+				return algorithm;
+			}
+
+			@Override
+			public String getFormat() {
+				return "X.509";
+			}
+
+			@Override
+			public byte[] getEncoded() {
+				return encoding.clone();
+			}
+		};
+	}
+}
@@ -0,0 +1,67 @@
+/*
+Copyright 2021 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigInteger;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.hotmoka.beans.CodeExecutionException;
+import io.hotmoka.beans.TransactionException;
+import io.hotmoka.beans.TransactionRejectedException;
+import io.hotmoka.beans.signatures.CodeSignature;
+import io.hotmoka.beans.values.BigIntegerValue;
+
+/**
+ * A test for running many view transactions concurrently.
+ */
+class ConcurrentViews extends HotmokaTest {
+	private final static int NUMBER_OF_VIEWS = 200;
+	private final static int NUMBER_OF_ACCOUNTS = 4;
+
+	@BeforeEach
+	void beforeEach() throws Exception {
+		setAccounts(Stream.iterate(_50_000, balance -> balance.add(BigInteger.ONE)).limit(NUMBER_OF_ACCOUNTS));
+	}
+
+	private BigInteger balanceOf(int num) {
+		try {
+			return ((BigIntegerValue) runInstanceMethodCallTransaction(account(0), _50_000, takamakaCode(), CodeSignature.BALANCE, account(num))).value;
+		}
+		catch (TransactionException | CodeExecutionException | TransactionRejectedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Test
+	@DisplayName(NUMBER_OF_VIEWS + " concurrent views of the balances of the accounts")
+	void concurrentViews() throws InterruptedException, ExecutionException {
+		ExecutorService customThreadPool = new ForkJoinPool(16);
+		customThreadPool.submit(() -> IntStream.range(0, NUMBER_OF_VIEWS).parallel().forEach
+			(i -> assertEquals(_50_000.add(BigInteger.valueOf(i % NUMBER_OF_ACCOUNTS)), balanceOf(i % NUMBER_OF_ACCOUNTS)))).get();
+		customThreadPool.shutdownNow();
+	}
+}
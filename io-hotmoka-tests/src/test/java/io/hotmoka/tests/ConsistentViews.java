@@ -0,0 +1,164 @@
+/*
+Copyright 2021 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.tests;
+
+import static io.hotmoka.beans.types.BasicTypes.BOOLEAN;
+import static io.hotmoka.beans.types.BasicTypes.INT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.hotmoka.beans.references.TransactionReference;
+import io.hotmoka.beans.requests.ConstructorCallTransactionRequest;
+import io.hotmoka.beans.requests.InstanceMethodCallTransactionRequest;
+import io.hotmoka.beans.requests.SignedTransactionRequest.Signer;
+import io.hotmoka.beans.requests.TransactionRequest;
+import io.hotmoka.beans.signatures.CodeSignature;
+import io.hotmoka.beans.signatures.ConstructorSignature;
+import io.hotmoka.beans.signatures.NonVoidMethodSignature;
+import io.hotmoka.beans.signatures.VoidMethodSignature;
+import io.hotmoka.beans.types.ClassType;
+import io.hotmoka.beans.values.BigIntegerValue;
+import io.hotmoka.beans.values.BooleanValue;
+import io.hotmoka.beans.values.IntValue;
+import io.hotmoka.beans.values.StorageReference;
+import io.hotmoka.helpers.InitializedNode;
+import io.hotmoka.helpers.NodeWithJars;
+import io.hotmoka.takamaka.DeltaGroupExecutionResult;
+import io.hotmoka.takamaka.TakamakaBlockchain;
+import io.hotmoka.takamaka.TakamakaBlockchainConfig;
+
+/**
+ * Tests that view transactions see a single state of the store, also when they run
+ * while transactions are delivered and committed. Since the node used for the other tests
+ * might not commit its transactions, a distinct node is used here.
+ */
+class ConsistentViews extends HotmokaTest {
+	private static final ClassType MIRRORED_STORAGE = new ClassType("io.hotmoka.examples.storage.MirroredStorage");
+	private static final VoidMethodSignature SET = new VoidMethodSignature(MIRRORED_STORAGE, "set", INT);
+	private static final NonVoidMethodSignature GET = new NonVoidMethodSignature(MIRRORED_STORAGE, "get", INT);
+	private static final NonVoidMethodSignature IS_MIRRORED = new NonVoidMethodSignature(MIRRORED_STORAGE, "isMirrored", BOOLEAN);
+	private static final ConstructorSignature CONSTRUCTOR_MIRRORED_STORAGE = new ConstructorSignature(MIRRORED_STORAGE);
+	private static final int NUMBER_OF_UPDATES = 30;
+	private static final int NUMBER_OF_READERS = 4;
+
+	/**
+	 * The node whose views are run.
+	 */
+	private static TakamakaBlockchain blockchain;
+
+	/**
+	 * The hash of the store of {@link #blockchain}, after the last execution of a request.
+	 */
+	private static byte[] hash;
+
+	@BeforeAll
+	static void beforeAll() throws Exception {
+		TakamakaBlockchainConfig config = new TakamakaBlockchainConfig.Builder()
+			.setDir(Paths.get("chain-views"))
+			.setMaxGasPerViewTransaction(_10_000_000)
+			.build();
+
+		blockchain = TakamakaBlockchain.init(config, consensus, ConsistentViews::execute);
+	}
+
+	@AfterAll
+	static void afterAll() throws Exception {
+		blockchain.close();
+	}
+
+	/**
+	 * Executes each request in its own delta group and commits it, by moving the blockchain to its result.
+	 *
+	 * @param request the request
+	 */
+	private static synchronized void execute(TransactionRequest<?> request) {
+		DeltaGroupExecutionResult result = blockchain.execute(hash, System.currentTimeMillis(), Stream.of(request), Stream.of(BigInteger.ZERO), "views");
+		hash = result.getHash();
+		blockchain.checkOut(hash);
+	}
+
+	@Test
+	@DisplayName("views running while transactions are committed see a single state of the store")
+	void viewsSeeASingleState() throws Exception {
+		StorageReference gamete = InitializedNode.of(blockchain, consensus, pathOfTakamakaCode()).gamete();
+		TransactionReference jar = NodeWithJars.of(blockchain, gamete, privateKeyOfGamete, pathOfExample("storage.jar")).jar(0);
+		Signer signer = Signer.with(signature(), privateKeyOfGamete);
+		BigInteger nonce = ((BigIntegerValue) blockchain.runInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+			(gamete, _100_000, jar, CodeSignature.NONCE, gamete))).value;
+
+		StorageReference mirrored = blockchain.addConstructorCallTransaction(new ConstructorCallTransactionRequest
+			(signer, gamete, nonce, chainId, _100_000, BigInteger.ONE, jar, CONSTRUCTOR_MIRRORED_STORAGE));
+
+		AtomicBoolean updating = new AtomicBoolean(true);
+		ExecutorService readers = Executors.newFixedThreadPool(NUMBER_OF_READERS);
+		List<Future<Integer>> views = new ArrayList<>();
+
+		try {
+			for (int i = 0; i < NUMBER_OF_READERS; i++)
+				views.add(readers.submit(() -> {
+					int count = 0, last = 0;
+
+					do {
+						// each view reads the two halves of the mirrored storage, that are distinct objects
+						assertEquals(BooleanValue.TRUE, blockchain.runInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+							(gamete, _100_000, jar, IS_MIRRORED, mirrored)));
+
+						// the committed state only moves forward
+						int value = ((IntValue) blockchain.runInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+							(gamete, _100_000, jar, GET, mirrored))).value;
+						assertTrue(value >= last);
+						last = value;
+						count++;
+					}
+					while (updating.get());
+
+					return count;
+				}));
+
+			for (int i = 1; i <= NUMBER_OF_UPDATES; i++) {
+				nonce = nonce.add(BigInteger.ONE);
+				blockchain.addInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+					(signer, gamete, nonce, chainId, _100_000, BigInteger.ONE, jar, SET, mirrored, new IntValue(i)));
+			}
+		}
+		finally {
+			updating.set(false);
+			readers.shutdown();
+		}
+
+		for (Future<Integer> view: views)
+			assertTrue(view.get() > 0);
+
+		assertEquals(new IntValue(NUMBER_OF_UPDATES), blockchain.runInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+			(gamete, _100_000, jar, GET, mirrored)));
+	}
+}
@@ -0,0 +1,267 @@
+/*
+Copyright 2021 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.tests;
+
+import static io.hotmoka.beans.types.BasicTypes.INT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.hotmoka.beans.references.TransactionReference;
+import io.hotmoka.beans.requests.ConstructorCallTransactionRequest;
+import io.hotmoka.beans.requests.InstanceMethodCallTransactionRequest;
+import io.hotmoka.beans.requests.SignedTransactionRequest.Signer;
+import io.hotmoka.beans.responses.TransactionResponseWithEvents;
+import io.hotmoka.beans.signatures.CodeSignature;
+import io.hotmoka.beans.signatures.ConstructorSignature;
+import io.hotmoka.beans.signatures.VoidMethodSignature;
+import io.hotmoka.beans.types.ClassType;
+import io.hotmoka.beans.values.BigIntegerValue;
+import io.hotmoka.beans.values.IntValue;
+import io.hotmoka.beans.values.StorageReference;
+import io.hotmoka.helpers.InitializedNode;
+import io.hotmoka.helpers.NodeWithJars;
+import io.hotmoka.memory.MemoryBlockchain;
+import io.hotmoka.memory.MemoryBlockchainConfig;
+import io.hotmoka.nodes.EventOverflowPolicy;
+import io.hotmoka.nodes.Node.Subscription;
+
+/**
+ * Tests for the dispatching of the events of a node to their subscribers, that occurs
+ * in other threads than those that deliver the transactions. Each test uses a distinct node,
+ * with its own limit to the events pending for each subscription, where a coin sends
+ * an event each time it is transferred.
+ */
+class EventDispatch extends HotmokaTest {
+	private static final ClassType COIN = new ClassType("io.hotmoka.examples.coin.Coin");
+	private static final ConstructorSignature CONSTRUCTOR_COIN = new ConstructorSignature(COIN);
+	private static final VoidMethodSignature MINT = new VoidMethodSignature(COIN, "mint", ClassType.CONTRACT, INT);
+	private static final VoidMethodSignature SEND = new VoidMethodSignature(COIN, "send", ClassType.CONTRACT, ClassType.BIG_INTEGER);
+
+	@Test
+	@DisplayName("transactions are delivered while a handler is running, and their events are handled later, in order")
+	void handlersDoNotDelayDelivery() throws Exception {
+		try (CoinNode node = new CoinNode(10, EventOverflowPolicy.DROP)) {
+			BlockingHandler handler = new BlockingHandler();
+
+			try (Subscription subscription = node.blockchain.subscribeToEvents(node.coin, handler)) {
+				List<StorageReference> sent = new ArrayList<>();
+				for (int i = 0; i < 5; i++)
+					sent.add(node.send());
+
+				// the handler is still waiting for the first event, hence no event has been handled yet
+				assertTrue(handler.received.isEmpty());
+				handler.release.countDown();
+				handler.awaitHandled(5);
+				assertEquals(sent, handler.received);
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("the events that do not fit into the queue of a slow subscription are dropped")
+	void overflowDropsEvents() throws Exception {
+		try (CoinNode node = new CoinNode(2, EventOverflowPolicy.DROP)) {
+			BlockingHandler handler = new BlockingHandler();
+
+			try (Subscription subscription = node.blockchain.subscribeToEvents(node.coin, handler)) {
+				StorageReference event1 = node.send();
+				handler.started.await();
+
+				// the first event is being handled, the next two are queued, the others are dropped
+				StorageReference event2 = node.send();
+				StorageReference event3 = node.send();
+				node.send();
+				node.send();
+
+				handler.release.countDown();
+				handler.awaitHandled(3);
+
+				// the subscription is still active
+				StorageReference event6 = node.send();
+				handler.awaitHandled(1);
+				assertEquals(List.of(event1, event2, event3, event6), handler.received);
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("a slow subscription is closed when its queue overflows")
+	void overflowDisconnects() throws Exception {
+		try (CoinNode node = new CoinNode(2, EventOverflowPolicy.DISCONNECT)) {
+			BlockingHandler handler = new BlockingHandler();
+
+			try (Subscription subscription = node.blockchain.subscribeToEvents(node.coin, handler)) {
+				StorageReference event1 = node.send();
+				handler.started.await();
+
+				// the first event is being handled, the next two are queued and the fourth closes the subscription
+				for (int i = 0; i < 3; i++)
+					node.send();
+
+				handler.release.countDown();
+				handler.awaitHandled(1);
+				node.send();
+
+				// closing the node waits for the handlers to terminate
+				node.close();
+				assertEquals(List.of(event1), handler.received);
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("the events pending for a subscription closed while an event is handled are not handled")
+	void unsubscribeDuringDispatch() throws Exception {
+		try (CoinNode node = new CoinNode(10, EventOverflowPolicy.DROP)) {
+			BlockingHandler handler = new BlockingHandler();
+			Subscription subscription = node.blockchain.subscribeToEvents(node.coin, handler);
+			StorageReference event1 = node.send();
+			handler.started.await();
+			node.send();
+			node.send();
+
+			subscription.close();
+			handler.release.countDown();
+			handler.awaitHandled(1);
+			node.send();
+
+			node.close();
+			assertEquals(List.of(event1), handler.received);
+		}
+	}
+
+	@Test
+	@DisplayName("closing a node discards the pending events and stops the threads that handle them")
+	void closeStopsDispatch() throws Exception {
+		try (CoinNode node = new CoinNode(10, EventOverflowPolicy.DROP)) {
+			BlockingHandler handler = new BlockingHandler();
+			node.blockchain.subscribeToEvents(node.coin, handler);
+			node.send();
+			handler.started.await();
+			node.send();
+
+			// the handler is never released: closing the node interrupts it
+			node.close();
+			assertTrue(handler.interrupted);
+			assertTrue(handler.received.isEmpty());
+			handler.thread.join(10_000);
+			assertFalse(handler.thread.isAlive());
+		}
+	}
+
+	/**
+	 * A memory node where a coin has been created and minted by the gamete.
+	 */
+	private static class CoinNode implements AutoCloseable {
+		private final MemoryBlockchain blockchain;
+		private final StorageReference gamete;
+		private final Signer signer;
+		private final TransactionReference jar;
+		private final StorageReference coin;
+		private BigInteger nonce;
+
+		private CoinNode(int maxPendingEventsPerSubscription, EventOverflowPolicy eventOverflowPolicy) throws Exception {
+			MemoryBlockchainConfig config = new MemoryBlockchainConfig.Builder()
+				.setDir(Paths.get("chain-events"))
+				.setMaxGasPerViewTransaction(_10_000_000)
+				.setMaxPendingEventsPerSubscription(maxPendingEventsPerSubscription)
+				.setEventOverflowPolicy(eventOverflowPolicy)
+				.build();
+
+			this.blockchain = MemoryBlockchain.init(config, consensus);
+			this.gamete = InitializedNode.of(blockchain, consensus, pathOfTakamakaCode()).gamete();
+			this.signer = Signer.with(signature(), privateKeyOfGamete);
+			this.jar = NodeWithJars.of(blockchain, gamete, privateKeyOfGamete, pathOfExample("coin.jar")).jar(0);
+			this.nonce = ((BigIntegerValue) blockchain.runInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+				(gamete, _100_000, jar, CodeSignature.NONCE, gamete))).value;
+			this.coin = blockchain.addConstructorCallTransaction(new ConstructorCallTransactionRequest
+				(signer, gamete, nextNonce(), chainId, _100_000, BigInteger.ONE, jar, CONSTRUCTOR_COIN));
+			blockchain.addInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+				(signer, gamete, nextNonce(), chainId, _100_000, BigInteger.ONE, jar, MINT, coin, gamete, new IntValue(999)));
+		}
+
+		/**
+		 * Sends a coin from the gamete to itself.
+		 *
+		 * @return the event generated by the transaction
+		 */
+		private StorageReference send() throws Exception {
+			InstanceMethodCallTransactionRequest request = new InstanceMethodCallTransactionRequest
+				(signer, gamete, nextNonce(), chainId, _100_000, BigInteger.ONE, jar, SEND, coin, gamete, new BigIntegerValue(BigInteger.ONE));
+			blockchain.addInstanceMethodCallTransaction(request);
+			return ((TransactionResponseWithEvents) blockchain.getResponse(request.getReference())).getEvents().findFirst().get();
+		}
+
+		private BigInteger nextNonce() {
+			BigInteger result = nonce;
+			nonce = nonce.add(BigInteger.ONE);
+			return result;
+		}
+
+		@Override
+		public void close() throws Exception {
+			blockchain.close();
+		}
+	}
+
+	/**
+	 * An event handler that waits to be released before handling its first event.
+	 */
+	private static class BlockingHandler implements BiConsumer<StorageReference, StorageReference> {
+		private final CountDownLatch started = new CountDownLatch(1);
+		private final CountDownLatch release = new CountDownLatch(1);
+		private final Semaphore handled = new Semaphore(0);
+		private final List<StorageReference> received = new CopyOnWriteArrayList<>();
+		private volatile Thread thread;
+		private volatile boolean interrupted;
+
+		@Override
+		public void accept(StorageReference creator, StorageReference event) {
+			thread = Thread.currentThread();
+			started.countDown();
+
+			try {
+				release.await();
+			}
+			catch (InterruptedException e) {
+				interrupted = true;
+				return;
+			}
+
+			received.add(event);
+			handled.release();
+		}
+
+		private void awaitHandled(int count) throws InterruptedException {
+			assertTrue(handled.tryAcquire(count, 20, TimeUnit.SECONDS));
+		}
+	}
+}
@@ -0,0 +1,121 @@
+/*
+Copyright 2021 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.tests;
+
+import static io.hotmoka.beans.types.BasicTypes.INT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import io.hotmoka.beans.references.TransactionReference;
+import io.hotmoka.beans.requests.ConstructorCallTransactionRequest;
+import io.hotmoka.beans.requests.InstanceMethodCallTransactionRequest;
+import io.hotmoka.beans.requests.SignedTransactionRequest.Signer;
+import io.hotmoka.beans.signatures.CodeSignature;
+import io.hotmoka.beans.signatures.ConstructorSignature;
+import io.hotmoka.beans.signatures.NonVoidMethodSignature;
+import io.hotmoka.beans.signatures.VoidMethodSignature;
+import io.hotmoka.beans.types.ClassType;
+import io.hotmoka.beans.updates.UpdateOfField;
+import io.hotmoka.beans.values.BigIntegerValue;
+import io.hotmoka.beans.values.IntValue;
+import io.hotmoka.beans.values.StorageReference;
+import io.hotmoka.helpers.InitializedNode;
+import io.hotmoka.helpers.NodeWithJars;
+import io.hotmoka.memory.MemoryBlockchain;
+import io.hotmoka.memory.MemoryBlockchainConfig;
+
+/**
+ * Tests for the simplification of the histories of the objects in store, that uses
+ * a cache of the indexes of such histories. The same updates are executed with
+ * no cache, with a cache so small that it keeps being invalidated and with a large cache.
+ * Since a distinct configuration is needed for each case, distinct nodes are used here.
+ */
+class HistoryIndexes extends HotmokaTest {
+	private static final ClassType SIMPLE_STORAGE = new ClassType("io.hotmoka.examples.storage.SimpleStorage");
+	private static final VoidMethodSignature SET = new VoidMethodSignature(SIMPLE_STORAGE, "set", INT);
+	private static final NonVoidMethodSignature GET = new NonVoidMethodSignature(SIMPLE_STORAGE, "get", INT);
+	private static final ConstructorSignature CONSTRUCTOR_SIMPLE_STORAGE = new ConstructorSignature(SIMPLE_STORAGE);
+
+	@ParameterizedTest @ValueSource(ints = { 0, 1, 10_000 })
+	@DisplayName("interleaved updates of two objects leave only their last values in their state")
+	void interleavedUpdatesKeepLastValues(int historyIndexCacheSize) throws Exception {
+		MemoryBlockchainConfig config = new MemoryBlockchainConfig.Builder()
+			.setDir(Paths.get("chain-histories"))
+			.setMaxGasPerViewTransaction(_10_000_000)
+			.setHistoryIndexCacheSize(historyIndexCacheSize)
+			.build();
+
+		try (MemoryBlockchain blockchain = MemoryBlockchain.init(config, consensus)) {
+			InitializedNode initialized = InitializedNode.of(blockchain, consensus, pathOfTakamakaCode());
+			StorageReference gamete = initialized.gamete();
+			TransactionReference jar = NodeWithJars.of(blockchain, gamete, privateKeyOfGamete, pathOfExample("storage.jar")).jar(0);
+			Signer signer = Signer.with(signature(), privateKeyOfGamete);
+			BigInteger nonce = ((BigIntegerValue) blockchain.runInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+				(gamete, _100_000, jar, CodeSignature.NONCE, gamete))).value;
+
+			StorageReference storage1 = blockchain.addConstructorCallTransaction(new ConstructorCallTransactionRequest
+				(signer, gamete, nonce, chainId, _100_000, BigInteger.ONE, jar, CONSTRUCTOR_SIMPLE_STORAGE));
+			nonce = nonce.add(BigInteger.ONE);
+			StorageReference storage2 = blockchain.addConstructorCallTransaction(new ConstructorCallTransactionRequest
+				(signer, gamete, nonce, chainId, _100_000, BigInteger.ONE, jar, CONSTRUCTOR_SIMPLE_STORAGE));
+			nonce = nonce.add(BigInteger.ONE);
+
+			for (int i = 1; i <= 5; i++) {
+				blockchain.addInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+					(signer, gamete, nonce, chainId, _100_000, BigInteger.ONE, jar, SET, storage1, new IntValue(i)));
+				nonce = nonce.add(BigInteger.ONE);
+				blockchain.addInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+					(signer, gamete, nonce, chainId, _100_000, BigInteger.ONE, jar, SET, storage2, new IntValue(10 * i)));
+				nonce = nonce.add(BigInteger.ONE);
+			}
+
+			for (StorageReference storage: new StorageReference[] { storage1, storage2 }) {
+				int expected = storage == storage1 ? 5 : 50;
+				List<UpdateOfField> updates = blockchain.getState(storage)
+					.filter(update -> update instanceof UpdateOfField)
+					.map(update -> (UpdateOfField) update)
+					.filter(update -> update.getField().name.equals("storedData"))
+					.collect(Collectors.toList());
+
+				assertEquals(1, updates.size());
+				assertEquals(new IntValue(expected), updates.get(0).getValue());
+				assertEquals(new IntValue(expected), blockchain.runInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+					(gamete, _100_000, jar, GET, storage)));
+			}
+
+			// the nonce of the gamete has been updated by every transaction
+			assertEquals(new BigIntegerValue(nonce), blockchain.runInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+				(gamete, _100_000, jar, CodeSignature.NONCE, gamete)));
+		}
+	}
+
+	@Test
+	@DisplayName("the size of the cache of the indexes of the histories cannot be negative")
+	void negativeHistoryIndexCacheSizeIsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> new MemoryBlockchainConfig.Builder().setHistoryIndexCacheSize(-1));
+	}
+}
@@ -291,7 +291,7 @@ public abstract class HotmokaTest {
 		catch (NoSuchElementException e) {
 			// if the original node has no manifest yet, it means that it is not initialized and we initialize it
 
-			Path takamakaCode = Paths.get("../modules/explicit/io-takamaka-code-" + takamakaVersion + ".jar");
+			Path takamakaCode = pathOfTakamakaCode();
 			if (tendermintBlockchain != null)
 				TendermintInitializedNode.of(tendermintBlockchain, consensus, takamakaCode);
 			else
@@ -582,6 +582,10 @@ public abstract class HotmokaTest {
 		return Files.readAllBytes(pathOfExample(fileName));
 	}
 
+	protected static Path pathOfTakamakaCode() {
+		return Paths.get("../modules/explicit/io-takamaka-code-" + takamakaVersion + ".jar");
+	}
+
 	protected static Path pathOfExample(String fileName) {
 		return Paths.get("../io-hotmoka-examples/target/io-hotmoka-examples-" + hotmokaVersion + '-' + fileName);
 	}
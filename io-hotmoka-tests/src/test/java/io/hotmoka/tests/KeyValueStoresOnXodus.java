@@ -0,0 +1,133 @@
+/*
+Copyright 2021 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.tests;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.hotmoka.stores.internal.KeyValueStoreOnXodus;
+import io.hotmoka.xodus.ByteIterable;
+import io.hotmoka.xodus.env.Environment;
+import io.hotmoka.xodus.env.Store;
+import io.hotmoka.xodus.env.Transaction;
+
+/**
+ * Tests for the key/value stores that keep the nodes of the tries of the stores in Xodus,
+ * buffering their updates until they are flushed.
+ */
+class KeyValueStoresOnXodus {
+	private final static byte[] KEY = { 1, 2, 3 };
+	private final static byte[] VALUE1 = { 4, 5, 6 };
+	private final static byte[] VALUE2 = { 7, 8, 9 };
+
+	private Path dir;
+	private Environment env;
+	private Store store;
+
+	@BeforeEach
+	void beforeEach() throws IOException {
+		dir = Files.createTempDirectory("xodus");
+		env = new Environment(dir.toString());
+		AtomicReference<Store> result = new AtomicReference<>();
+		env.executeInTransaction(txn -> result.set(env.openStoreWithoutDuplicates("nodes", txn)));
+		store = result.get();
+	}
+
+	@AfterEach
+	void afterEach() throws IOException {
+		env.close();
+
+		try (Stream<Path> paths = Files.walk(dir)) {
+			paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(java.io.File::delete);
+		}
+	}
+
+	@Test
+	@DisplayName("a key removed before a flush is removed from the database, also if it was put again after the previous flush")
+	void putFlushPutRemoveFlush() {
+		inTransaction(kvs -> kvs.put(KEY, VALUE1));
+		assertArrayEquals(VALUE1, inDatabase(KEY));
+
+		inTransaction(kvs -> {
+			kvs.put(KEY, VALUE2);
+			kvs.remove(KEY);
+			assertThrows(NoSuchElementException.class, () -> kvs.get(KEY));
+		});
+
+		assertNull(inDatabase(KEY));
+	}
+
+	@Test
+	@DisplayName("a key put and removed before a flush never reaches the database")
+	void putRemoveFlush() {
+		inTransaction(kvs -> {
+			kvs.put(KEY, VALUE1);
+			kvs.remove(KEY);
+		});
+
+		assertNull(inDatabase(KEY));
+	}
+
+	@Test
+	@DisplayName("a key removed and put again before a flush is in the database")
+	void putFlushRemovePutFlush() {
+		inTransaction(kvs -> kvs.put(KEY, VALUE1));
+
+		inTransaction(kvs -> {
+			kvs.remove(KEY);
+			kvs.put(KEY, VALUE2);
+			assertArrayEquals(VALUE2, kvs.get(KEY));
+		});
+
+		assertArrayEquals(VALUE2, inDatabase(KEY));
+	}
+
+	private interface Updates {
+		void run(KeyValueStoreOnXodus kvs);
+	}
+
+	/**
+	 * Runs the given updates on a key/value store inside a database transaction,
+	 * then flushes them and commits the transaction.
+	 */
+	private void inTransaction(Updates updates) {
+		Transaction txn = env.beginTransaction();
+		KeyValueStoreOnXodus kvs = new KeyValueStoreOnXodus(store, txn, null);
+		updates.run(kvs);
+		kvs.flush();
+		txn.commit();
+	}
+
+	private byte[] inDatabase(byte[] key) {
+		ByteIterable result = env.computeInReadonlyTransaction(txn -> store.get(txn, ByteIterable.fromBytes(key)));
+		return result == null ? null : result.getBytes();
+	}
+}
@@ -0,0 +1,172 @@
+/*
+Copyright 2021 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.tests;
+
+import static io.hotmoka.beans.types.BasicTypes.INT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import io.hotmoka.beans.references.TransactionReference;
+import io.hotmoka.beans.requests.ConstructorCallTransactionRequest;
+import io.hotmoka.beans.requests.InstanceMethodCallTransactionRequest;
+import io.hotmoka.beans.requests.SignedTransactionRequest.Signer;
+import io.hotmoka.beans.signatures.CodeSignature;
+import io.hotmoka.beans.signatures.ConstructorSignature;
+import io.hotmoka.beans.signatures.NonVoidMethodSignature;
+import io.hotmoka.beans.signatures.VoidMethodSignature;
+import io.hotmoka.beans.types.ClassType;
+import io.hotmoka.beans.updates.ClassTag;
+import io.hotmoka.beans.values.BigIntegerValue;
+import io.hotmoka.beans.values.IntValue;
+import io.hotmoka.beans.values.StorageReference;
+import io.hotmoka.helpers.InitializedNode;
+import io.hotmoka.helpers.NodeWithJars;
+import io.hotmoka.local.CachePolicy;
+import io.hotmoka.memory.MemoryBlockchain;
+import io.hotmoka.memory.MemoryBlockchainConfig;
+
+/**
+ * Tests for the caches of the node about the objects in store. The same transactions are
+ * executed with no cache, with a cache so small that it keeps evicting its entries and with a large cache.
+ * Since a distinct configuration is needed for each case, distinct nodes are used here.
+ */
+class ObjectCaches extends HotmokaTest {
+	private static final ClassType SIMPLE_STORAGE = new ClassType("io.hotmoka.examples.storage.SimpleStorage");
+	private static final VoidMethodSignature SET = new VoidMethodSignature(SIMPLE_STORAGE, "set", INT);
+	private static final NonVoidMethodSignature GET = new NonVoidMethodSignature(SIMPLE_STORAGE, "get", INT);
+	private static final ConstructorSignature CONSTRUCTOR_SIMPLE_STORAGE = new ConstructorSignature(SIMPLE_STORAGE);
+
+	@ParameterizedTest @ValueSource(ints = { 0, 1, 10_000 })
+	@DisplayName("the last updates cached for an object are not used anymore once a new update extends its history")
+	void lastUpdatesFollowTheHistory(int lastUpdatesCacheSize) throws Exception {
+		updatesAndReads(new MemoryBlockchainConfig.Builder()
+			.setDir(Paths.get("chain-object-caches"))
+			.setMaxGasPerViewTransaction(_10_000_000)
+			.setLastUpdatesCacheSize(lastUpdatesCacheSize)
+			.build());
+	}
+
+	@ParameterizedTest @EnumSource(CachePolicy.class)
+	@DisplayName("the objects in store are read back whatever the eviction policy of the caches")
+	void updatesAndReadsWithCachePolicy(CachePolicy cachePolicy) throws Exception {
+		updatesAndReads(new MemoryBlockchainConfig.Builder()
+			.setDir(Paths.get("chain-object-caches"))
+			.setMaxGasPerViewTransaction(_10_000_000)
+			.setCachePolicy(cachePolicy)
+			.setLastUpdatesCacheSize(1)
+			.build());
+	}
+
+	private void updatesAndReads(MemoryBlockchainConfig config) throws Exception {
+		try (MemoryBlockchain blockchain = MemoryBlockchain.init(config, consensus)) {
+			StorageReference gamete = InitializedNode.of(blockchain, consensus, pathOfTakamakaCode()).gamete();
+			TransactionReference jar = NodeWithJars.of(blockchain, gamete, privateKeyOfGamete, pathOfExample("storage.jar")).jar(0);
+			Signer signer = Signer.with(signature(), privateKeyOfGamete);
+			BigInteger nonce = ((BigIntegerValue) blockchain.runInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+				(gamete, _100_000, jar, CodeSignature.NONCE, gamete))).value;
+
+			StorageReference storage1 = blockchain.addConstructorCallTransaction(new ConstructorCallTransactionRequest
+				(signer, gamete, nonce, chainId, _100_000, BigInteger.ONE, jar, CONSTRUCTOR_SIMPLE_STORAGE));
+			nonce = nonce.add(BigInteger.ONE);
+			StorageReference storage2 = blockchain.addConstructorCallTransaction(new ConstructorCallTransactionRequest
+				(signer, gamete, nonce, chainId, _100_000, BigInteger.ONE, jar, CONSTRUCTOR_SIMPLE_STORAGE));
+			nonce = nonce.add(BigInteger.ONE);
+
+			for (int i = 1; i <= 5; i++) {
+				// each update is followed by a read, that caches the last updates of the object after the update;
+				// the next update extends the history of the object, hence the next read cannot use them anymore
+				blockchain.addInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+					(signer, gamete, nonce, chainId, _100_000, BigInteger.ONE, jar, SET, storage1, new IntValue(i)));
+				nonce = nonce.add(BigInteger.ONE);
+				assertEquals(new IntValue(i), blockchain.runInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+					(gamete, _100_000, jar, GET, storage1)));
+
+				blockchain.addInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+					(signer, gamete, nonce, chainId, _100_000, BigInteger.ONE, jar, SET, storage2, new IntValue(10 * i)));
+				nonce = nonce.add(BigInteger.ONE);
+				assertEquals(new IntValue(10 * i), blockchain.runInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+					(gamete, _100_000, jar, GET, storage2)));
+				assertEquals(new IntValue(i), blockchain.runInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+					(gamete, _100_000, jar, GET, storage1)));
+			}
+
+			// the nonce of the gamete, read by the node for each transaction, has been updated by every transaction
+			assertEquals(new BigIntegerValue(nonce), blockchain.runInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+				(gamete, _100_000, jar, CodeSignature.NONCE, gamete)));
+		}
+	}
+
+	@ParameterizedTest @ValueSource(ints = { 0, 1, 10_000 })
+	@DisplayName("the class tags of objects are the same whether they are cached or not")
+	void classTagsAreCached(int classTagCacheSize) throws Exception {
+		MemoryBlockchainConfig config = new MemoryBlockchainConfig.Builder()
+			.setDir(Paths.get("chain-object-caches"))
+			.setMaxGasPerViewTransaction(_10_000_000)
+			.setClassTagCacheSize(classTagCacheSize)
+			.build();
+
+		try (MemoryBlockchain blockchain = MemoryBlockchain.init(config, consensus)) {
+			StorageReference gamete = InitializedNode.of(blockchain, consensus, pathOfTakamakaCode()).gamete();
+			TransactionReference jar = NodeWithJars.of(blockchain, gamete, privateKeyOfGamete, pathOfExample("storage.jar")).jar(0);
+			Signer signer = Signer.with(signature(), privateKeyOfGamete);
+			BigInteger nonce = ((BigIntegerValue) blockchain.runInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+				(gamete, _100_000, jar, CodeSignature.NONCE, gamete))).value;
+
+			StorageReference storage = blockchain.addConstructorCallTransaction(new ConstructorCallTransactionRequest
+				(signer, gamete, nonce, chainId, _100_000, BigInteger.ONE, jar, CONSTRUCTOR_SIMPLE_STORAGE));
+			nonce = nonce.add(BigInteger.ONE);
+			ClassTag tag = blockchain.getClassTag(storage);
+			assertEquals(SIMPLE_STORAGE, tag.clazz);
+			assertEquals(jar, tag.jar);
+
+			for (int i = 1; i <= 5; i++) {
+				// each transaction reads the class tags of the gamete and of the storage, alternately
+				blockchain.addInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+					(signer, gamete, nonce, chainId, _100_000, BigInteger.ONE, jar, SET, storage, new IntValue(i)));
+				nonce = nonce.add(BigInteger.ONE);
+
+				// the updates of an object do not modify its class tag
+				assertEquals(tag, blockchain.getClassTag(storage));
+				assertEquals(ClassType.GAMETE, blockchain.getClassTag(gamete).clazz);
+			}
+
+			assertEquals(new IntValue(5), blockchain.runInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+				(gamete, _100_000, jar, GET, storage)));
+		}
+	}
+
+	@Test
+	@DisplayName("the size of the cache of the class tags cannot be negative")
+	void negativeClassTagCacheSizeIsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> new MemoryBlockchainConfig.Builder().setClassTagCacheSize(-1));
+	}
+
+	@Test
+	@DisplayName("the size of the cache of the last updates cannot be negative")
+	void negativeLastUpdatesCacheSizeIsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> new MemoryBlockchainConfig.Builder().setLastUpdatesCacheSize(-1));
+	}
+}
@@ -0,0 +1,334 @@
+/*
+Copyright 2021 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.tests;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.hotmoka.beans.Marshallable;
+import io.hotmoka.beans.values.StorageValue;
+import io.hotmoka.beans.values.StringValue;
+import io.hotmoka.crypto.HashingAlgorithm;
+import io.hotmoka.patricia.KeyValueStore;
+import io.hotmoka.patricia.Node;
+import io.hotmoka.patricia.NodeCache;
+import io.hotmoka.patricia.PatriciaTrie;
+
+/**
+ * Tests for the Merkle-Patricia tries, over a key/value store kept in RAM.
+ */
+public class PatriciaTries {
+
+	@Test
+	@DisplayName("values put in a trie can be read back")
+	void putAndGet() throws NoSuchAlgorithmException {
+		PatriciaTrie<String, StorageValue> trie = mkTrie(new KeyValueStoreInRAM(), NodeCache.of(0), false);
+
+		for (int i = 0; i < 500; i++)
+			trie.put("key" + i, new StringValue("value" + i));
+
+		for (int i = 0; i < 500; i++)
+			assertEquals(Optional.of(new StringValue("value" + i)), trie.get("key" + i));
+
+		assertTrue(trie.get("missing").isEmpty());
+	}
+
+	@Test
+	@DisplayName("the marshalling of the nodes of a trie does not change, hence neither does its root")
+	void rootIsStable() throws NoSuchAlgorithmException {
+		PatriciaTrie<String, StorageValue> trie = mkTrie(new KeyValueStoreInRAM(), NodeCache.of(0), false);
+
+		for (int i = 0; i < 1000; i++)
+			trie.put("k" + i, new StringValue("v" + i));
+
+		assertEquals("OSjLae7PS8ePtsDRYIyRh6a/EOk2z4fRwsJwUtmVLrw=", Base64.getEncoder().encodeToString(trie.getRoot()));
+	}
+
+	@Test
+	@DisplayName("the root of a trie does not depend on the order of insertion")
+	void rootIsIndependentFromOrder() throws NoSuchAlgorithmException {
+		PatriciaTrie<String, StorageValue> trie1 = mkTrie(new KeyValueStoreInRAM(), NodeCache.of(0), true);
+		PatriciaTrie<String, StorageValue> trie2 = mkTrie(new KeyValueStoreInRAM(), NodeCache.of(100), true);
+
+		for (int i = 0; i < 200; i++)
+			trie1.put("key" + i, new StringValue("value" + i));
+
+		for (int i = 199; i >= 0; i--)
+			trie2.put("key" + i, new StringValue("value" + i));
+
+		assertArrayEquals(trie1.getRoot(), trie2.getRoot());
+	}
+
+	@Test
+	@DisplayName("a cache of nodes shared among tries gives the same results as no cache")
+	void sharedCache() throws NoSuchAlgorithmException {
+		NodeCache cache = NodeCache.of(1000);
+		KeyValueStoreInRAM store1 = new KeyValueStoreInRAM();
+		KeyValueStoreInRAM store2 = new KeyValueStoreInRAM();
+		PatriciaTrie<String, StorageValue> trie1 = mkTrie(store1, cache, true);
+		PatriciaTrie<String, StorageValue> trie2 = mkTrie(store2, cache, false);
+		Random random = new Random(13011973);
+
+		for (int i = 0; i < 1000; i++) {
+			String key = "key" + random.nextInt(300);
+			trie1.put(key, new StringValue("value" + i));
+			trie2.put(key, new StringValue("value" + i));
+		}
+
+		// new tries over the same stores and cache see the same data
+		PatriciaTrie<String, StorageValue> trie1bis = mkTrie(store1, cache, true);
+		PatriciaTrie<String, StorageValue> trie2bis = mkTrie(store2, NodeCache.of(0), false);
+		for (int i = 0; i < 300; i++)
+			assertEquals(trie1bis.get("key" + i), trie2bis.get("key" + i));
+
+		assertArrayEquals(trie1.getRoot(), trie2.getRoot());
+		assertTrue(cache.getHits() > 0);
+	}
+
+	@Test
+	@DisplayName("a small cache of nodes can be shared among tries used by concurrent threads")
+	void sharedCacheIsThreadSafe() throws Exception {
+		NodeCache cache = NodeCache.of(50);
+		ExecutorService executors = Executors.newFixedThreadPool(8);
+
+		try {
+			List<Future<byte[]>> rootsWithCache = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				int seed = t;
+				rootsWithCache.add(executors.submit(() -> fillRandomly(mkTrie(new KeyValueStoreInRAM(), cache, true), seed)));
+			}
+
+			for (int t = 0; t < 8; t++)
+				assertArrayEquals(fillRandomly(mkTrie(new KeyValueStoreInRAM(), NodeCache.of(0), true), t), rootsWithCache.get(t).get());
+		}
+		finally {
+			executors.shutdownNow();
+		}
+
+		assertTrue(cache.getHits() > 0);
+	}
+
+	@Test
+	@DisplayName("a batch of bindings yields the same trie as their sequential insertion")
+	void putAllIsLikeManyPuts() throws NoSuchAlgorithmException {
+		KeyValueStoreInRAM store1 = new KeyValueStoreInRAM();
+		KeyValueStoreInRAM store2 = new KeyValueStoreInRAM();
+		PatriciaTrie<String, StorageValue> trie1 = mkTrie(store1, NodeCache.of(0), true);
+		PatriciaTrie<String, StorageValue> trie2 = mkTrie(store2, NodeCache.of(100), true);
+		Random random = new Random(13011973);
+
+		for (int round = 0; round < 20; round++) {
+			Map<String, StorageValue> batch = new HashMap<>();
+			Set<String> keys = new HashSet<>();
+			for (int i = 0; i < 1 + random.nextInt(50); i++)
+				keys.add("key" + random.nextInt(400));
+
+			for (String key: keys) {
+				StorageValue value = new StringValue("value" + round + key);
+				trie1.put(key, value);
+				batch.put(key, value);
+			}
+
+			trie2.putAll(batch);
+			assertArrayEquals(trie1.getRoot(), trie2.getRoot());
+		}
+
+		for (int i = 0; i < 400; i++)
+			assertEquals(trie1.get("key" + i), trie2.get("key" + i));
+
+		// garbage collection has left only the reachable nodes in both stores
+		assertEquals(store1.map.size(), store2.map.size());
+	}
+
+	@Test
+	@DisplayName("proofs of presence and absence of keys are verified against the root")
+	void proofsAreVerified() throws NoSuchAlgorithmException {
+		PatriciaTrie<String, StorageValue> trie = mkTrie(new KeyValueStoreInRAM(), NodeCache.of(100), true);
+		HashingAlgorithm<String> hashingForKeys = HashingAlgorithm.sha256(String::getBytes);
+		HashingAlgorithm<Node> hashingForNodes = HashingAlgorithm.sha256(Marshallable::toByteArray);
+
+		// the proof of absence in an empty trie is empty
+		assertEquals(0, trie.getProof("key0").length);
+		assertTrue(PatriciaTrie.verifyProof(null, "key0", new byte[0][], hashingForKeys, hashingForNodes, StorageValue::from).isEmpty());
+
+		for (int i = 0; i < 300; i++)
+			trie.put("key" + i, new StringValue("value" + i));
+
+		byte[] root = trie.getRoot();
+
+		for (int i = 0; i < 300; i++) {
+			byte[][] proof = trie.getProof("key" + i);
+			assertEquals(Optional.of(new StringValue("value" + i)), PatriciaTrie.verifyProof(root, "key" + i, proof, hashingForKeys, hashingForNodes, StorageValue::from));
+		}
+
+		for (int i = 300; i < 400; i++) {
+			byte[][] proof = trie.getProof("key" + i);
+			assertTrue(PatriciaTrie.verifyProof(root, "key" + i, proof, hashingForKeys, hashingForNodes, StorageValue::from).isEmpty());
+		}
+
+		// a proof for a key cannot be used for another key
+		byte[][] proof = trie.getProof("key13");
+		assertThrows(IllegalArgumentException.class, () -> PatriciaTrie.verifyProof(root, "key14", proof, hashingForKeys, hashingForNodes, StorageValue::from));
+
+		// a tampered proof is rejected
+		byte[][] tampered = proof.clone();
+		tampered[tampered.length - 1] = tampered[tampered.length - 1].clone();
+		tampered[tampered.length - 1][tampered[tampered.length - 1].length - 1]++;
+		assertThrows(IllegalArgumentException.class, () -> PatriciaTrie.verifyProof(root, "key13", tampered, hashingForKeys, hashingForNodes, StorageValue::from));
+
+		// a truncated proof is rejected
+		byte[][] truncated = new byte[proof.length - 1][];
+		System.arraycopy(proof, 0, truncated, 0, truncated.length);
+		assertThrows(IllegalArgumentException.class, () -> PatriciaTrie.verifyProof(root, "key13", truncated, hashingForKeys, hashingForNodes, StorageValue::from));
+	}
+
+	@Test
+	@DisplayName("removing keys yields the same trie as never putting them")
+	void removeIsLikeNeverPut() throws NoSuchAlgorithmException {
+		KeyValueStoreInRAM store1 = new KeyValueStoreInRAM();
+		KeyValueStoreInRAM store2 = new KeyValueStoreInRAM();
+		PatriciaTrie<String, StorageValue> trie1 = mkTrie(store1, NodeCache.of(100), true);
+		PatriciaTrie<String, StorageValue> trie2 = mkTrie(store2, NodeCache.of(0), true);
+
+		for (int i = 0; i < 500; i++) {
+			trie1.put("key" + i, new StringValue("value" + i));
+			if (i % 3 != 0)
+				trie2.put("key" + i, new StringValue("value" + i));
+		}
+
+		for (int i = 0; i < 500; i += 3)
+			trie1.remove("key" + i);
+
+		// removing missing keys has no effect
+		trie1.remove("key0");
+		trie1.remove("missing");
+
+		assertArrayEquals(trie2.getRoot(), trie1.getRoot());
+		assertTrue(trie1.get("key3").isEmpty());
+		assertEquals(Optional.of(new StringValue("value4")), trie1.get("key4"));
+
+		// garbage collection has left only the reachable nodes in both stores
+		assertEquals(store2.map.size(), store1.map.size());
+
+		for (int i = 0; i < 500; i++)
+			trie1.remove("key" + i);
+
+		assertNull(trie1.getRoot());
+		assertEquals(0, store1.map.size());
+	}
+
+	@Test
+	@DisplayName("the values of a trie can be enumerated")
+	void valuesAreEnumerated() throws NoSuchAlgorithmException {
+		PatriciaTrie<String, StorageValue> trie = mkTrie(new KeyValueStoreInRAM(), NodeCache.of(100), false);
+		assertEquals(0L, trie.values().count());
+
+		Set<StorageValue> expected = new HashSet<>();
+		for (int i = 0; i < 300; i++) {
+			StorageValue value = new StringValue("value" + i);
+			trie.put("key" + i, value);
+			expected.add(value);
+		}
+
+		assertEquals(expected, trie.values().collect(Collectors.toSet()));
+		assertEquals(300L, trie.values().count());
+	}
+
+	private static byte[] fillRandomly(PatriciaTrie<String, StorageValue> trie, int seed) {
+		Random random = new Random(seed);
+
+		for (int i = 0; i < 500; i++) {
+			String key = "key" + random.nextInt(100);
+			if (random.nextInt(4) == 0) {
+				trie.remove(key);
+				assertTrue(trie.get(key).isEmpty());
+			}
+			else {
+				trie.put(key, new StringValue("value" + i));
+				assertEquals(Optional.of(new StringValue("value" + i)), trie.get(key));
+			}
+		}
+
+		return trie.getRoot();
+	}
+
+	private static PatriciaTrie<String, StorageValue> mkTrie(KeyValueStoreInRAM store, NodeCache cache, boolean garbageCollected) throws NoSuchAlgorithmException {
+		HashingAlgorithm<String> hashingForKeys = HashingAlgorithm.sha256(String::getBytes);
+		HashingAlgorithm<Node> hashingForNodes = HashingAlgorithm.sha256(Node::toByteArrayMemoized);
+		return PatriciaTrie.of(store, hashingForKeys, hashingForNodes, StorageValue::from, cache, garbageCollected);
+	}
+
+	/**
+	 * A key/value store kept in RAM.
+	 */
+	private static class KeyValueStoreInRAM implements KeyValueStore {
+		private final Map<ByteBuffer, byte[]> map = new HashMap<>();
+		private byte[] root;
+
+		@Override
+		public byte[] getRoot() {
+			return root;
+		}
+
+		@Override
+		public void setRoot(byte[] root) {
+			this.root = root;
+		}
+
+		@Override
+		public void put(byte[] key, byte[] value) {
+			map.put(ByteBuffer.wrap(key.clone()), value);
+		}
+
+		@Override
+		public void remove(byte[] key) {
+			map.remove(ByteBuffer.wrap(key));
+		}
+
+		@Override
+		public byte[] get(byte[] key) throws NoSuchElementException {
+			byte[] result = map.get(ByteBuffer.wrap(key));
+			if (result == null)
+				throw new NoSuchElementException("no Merkle-Patricia trie node");
+			else
+				return result;
+		}
+	}
+}
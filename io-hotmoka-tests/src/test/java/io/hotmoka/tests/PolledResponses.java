@@ -0,0 +1,199 @@
+/*
+Copyright 2021 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.PrivateKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.hotmoka.beans.TransactionRejectedException;
+import io.hotmoka.beans.references.TransactionReference;
+import io.hotmoka.beans.requests.InstanceMethodCallTransactionRequest;
+import io.hotmoka.beans.requests.SignedTransactionRequest.Signer;
+import io.hotmoka.beans.responses.TransactionResponse;
+import io.hotmoka.beans.signatures.CodeSignature;
+import io.hotmoka.beans.values.BigIntegerValue;
+import io.hotmoka.beans.values.StorageReference;
+import io.hotmoka.helpers.InitializedNode;
+import io.hotmoka.local.AbstractLocalNode;
+import io.hotmoka.memory.MemoryBlockchain;
+import io.hotmoka.memory.MemoryBlockchainConfig;
+import io.hotmoka.nodes.Node;
+import io.hotmoka.tendermint.TendermintBlockchain;
+import io.hotmoka.tendermint.TendermintBlockchainConfig;
+import io.hotmoka.tendermint.helpers.TendermintInitializedNode;
+
+/**
+ * Tests that who waits for the response of a request posted to a node gets it as soon as
+ * it is committed, without polling for it, and that the node forgets the latch used for waiting afterwards.
+ * The dedicated nodes used here poll so rarely that a response found by polling would come too late.
+ */
+class PolledResponses extends HotmokaTest {
+	private static final int NUMBER_OF_WAITERS = 4;
+
+	/**
+	 * The polling delay of the dedicated nodes, in milliseconds. Responses must arrive well before.
+	 */
+	private static final int POLLING_DELAY = 30_000;
+
+	@Test
+	@DisplayName("the waiters for a request to the node of the tests get its response and its latch is removed")
+	void sharedNode() throws Exception {
+		assumeTrue(node instanceof AbstractLocalNode, "the node of the tests is not local");
+		setAccounts(_1_000_000);
+		waitersGetTheResponse(node, account(0), privateKey(0), Long.MAX_VALUE);
+		rejectionIsSignaled(node, account(0), privateKey(0), Long.MAX_VALUE);
+	}
+
+	@Test
+	@DisplayName("the waiters for a request to a memory node get its response as soon as it is committed")
+	void memoryNode() throws Exception {
+		MemoryBlockchainConfig config = new MemoryBlockchainConfig.Builder()
+			.setDir(Paths.get("chain-polled-responses"))
+			.setMaxGasPerViewTransaction(_10_000_000)
+			.setPollingDelay(POLLING_DELAY)
+			.setMaxPollingAttempts(1)
+			.build();
+
+		try (MemoryBlockchain blockchain = MemoryBlockchain.init(config, consensus)) {
+			StorageReference gamete = InitializedNode.of(blockchain, consensus, pathOfTakamakaCode()).gamete();
+			waitersGetTheResponse(blockchain, gamete, privateKeyOfGamete, POLLING_DELAY / 2);
+			rejectionIsSignaled(blockchain, gamete, privateKeyOfGamete, POLLING_DELAY / 2);
+		}
+	}
+
+	@Test
+	@DisplayName("the waiters for a request to a Tendermint node get its response as soon as it is committed")
+	void tendermintNode() throws Exception {
+		// the node of the tests might be a Tendermint node already, that would use the same ports
+		assumeTrue(tendermintBlockchain == null && tendermintIsInstalled(), "Tendermint is not available");
+
+		TendermintBlockchainConfig config = new TendermintBlockchainConfig.Builder()
+			.setTendermintConfigurationToClone(Paths.get("tendermint_config"))
+			.setDir(Paths.get("chain-polled-responses"))
+			.setMaxGasPerViewTransaction(_10_000_000)
+			.setPollingDelay(POLLING_DELAY)
+			.setMaxPollingAttempts(1)
+			.build();
+
+		try (TendermintBlockchain blockchain = TendermintBlockchain.init(config, consensus)) {
+			StorageReference gamete = TendermintInitializedNode.of(blockchain, consensus, pathOfTakamakaCode()).gamete();
+			waitersGetTheResponse(blockchain, gamete, privateKeyOfGamete, POLLING_DELAY / 2);
+			rejectionIsSignaled(blockchain, gamete, privateKeyOfGamete, POLLING_DELAY / 2);
+		}
+	}
+
+	/**
+	 * Posts a request to the given node and lets many threads wait for its response.
+	 *
+	 * @param node the node, that must be local
+	 * @param payer the payer of the request
+	 * @param key the private key of {@code payer}
+	 * @param maxMillis the maximal time that the waiters can wait for the response
+	 */
+	private static void waitersGetTheResponse(Node node, StorageReference payer, PrivateKey key, long maxMillis) throws Exception {
+		TransactionReference reference = node.postInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+			(Signer.with(signature(), key), payer, nonceOf(node, payer), chainId, _100_000, BigInteger.ONE, node.getTakamakaCode(), CodeSignature.NONCE, payer))
+			.getReferenceOfRequest();
+
+		ExecutorService waiters = Executors.newFixedThreadPool(NUMBER_OF_WAITERS);
+		List<Future<TransactionResponse>> responses = new ArrayList<>();
+
+		try {
+			for (int i = 0; i < NUMBER_OF_WAITERS; i++)
+				responses.add(waiters.submit(() -> {
+					long start = System.currentTimeMillis();
+					TransactionResponse response = node.getPolledResponse(reference);
+					assertTrue(System.currentTimeMillis() - start < maxMillis);
+					return response;
+				}));
+
+			for (Future<TransactionResponse> response: responses) {
+				// the response is in store when the waiters get it
+				TransactionResponse polled = response.get();
+				assertEquals(node.getResponse(reference), polled);
+			}
+		}
+		finally {
+			waiters.shutdown();
+		}
+
+		assertFalse(pendingCompletions(node).containsKey(reference));
+	}
+
+	/**
+	 * Posts to the given node a request with a wrong nonce and waits for its rejection.
+	 *
+	 * @param node the node, that must be local
+	 * @param payer the payer of the request
+	 * @param key the private key of {@code payer}
+	 * @param maxMillis the maximal time that can be waited for the rejection
+	 */
+	private static void rejectionIsSignaled(Node node, StorageReference payer, PrivateKey key, long maxMillis) throws Exception {
+		TransactionReference reference = node.postInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+			(Signer.with(signature(), key), payer, nonceOf(node, payer).add(BigInteger.TEN), chainId, _100_000, BigInteger.ONE, node.getTakamakaCode(), CodeSignature.NONCE, payer))
+			.getReferenceOfRequest();
+
+		long start = System.currentTimeMillis();
+		assertThrows(TransactionRejectedException.class, () -> node.getPolledResponse(reference));
+		assertTrue(System.currentTimeMillis() - start < maxMillis);
+		assertFalse(pendingCompletions(node).containsKey(reference));
+	}
+
+	private static BigInteger nonceOf(Node node, StorageReference account) throws Exception {
+		return ((BigIntegerValue) node.runInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+			(account, _100_000, node.getTakamakaCode(), CodeSignature.NONCE, account))).value;
+	}
+
+	/**
+	 * Yields the latches of the given node for the requests whose outcome is still awaited.
+	 *
+	 * @param node the node, that must be local
+	 * @return the latches, for each transaction reference
+	 */
+	private static Map<?, ?> pendingCompletions(Node node) throws ReflectiveOperationException {
+		Field completions = AbstractLocalNode.class.getDeclaredField("completions");
+		completions.setAccessible(true);
+		return (Map<?, ?>) completions.get(node);
+	}
+
+	private static boolean tendermintIsInstalled() {
+		String path = System.getenv("PATH");
+		return path != null && Stream.of(path.split(File.pathSeparator))
+			.map(dir -> Paths.get(dir, "tendermint"))
+			.anyMatch(Files::isExecutable);
+	}
+}
@@ -0,0 +1,153 @@
+/*
+Copyright 2021 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.tests;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.hotmoka.beans.TransactionRejectedException;
+import io.hotmoka.beans.references.LocalTransactionReference;
+import io.hotmoka.beans.references.TransactionReference;
+import io.hotmoka.beans.requests.JarStoreInitialTransactionRequest;
+import io.hotmoka.beans.requests.TransactionRequest;
+import io.hotmoka.beans.responses.JarStoreInitialTransactionResponse;
+import io.hotmoka.beans.responses.TransactionResponse;
+import io.hotmoka.network.responses.ProofModel;
+import io.hotmoka.network.values.TransactionReferenceModel;
+import io.hotmoka.remote.internal.http.client.RestClientService;
+import io.hotmoka.service.NodeService;
+import io.hotmoka.service.NodeServiceConfig;
+import io.hotmoka.stores.PartialTrieBasedStore;
+import io.hotmoka.takamaka.DeltaGroupExecutionResult;
+import io.hotmoka.takamaka.TakamakaBlockchain;
+import io.hotmoka.takamaka.TakamakaBlockchainConfig;
+
+/**
+ * Tests for the Merkle proofs of the responses of a node that keeps them in a Merkle-Patricia trie.
+ * Since the node used for the other tests might not keep such a trie, a distinct node is used here.
+ */
+class ProofsOfResponses extends HotmokaTest {
+	private final static NodeServiceConfig serviceConfig = new NodeServiceConfig.Builder().setPort(8081).setSpringBannerModeOn(false).build();
+
+	/**
+	 * The node whose responses get proved.
+	 */
+	private static TakamakaBlockchain blockchain;
+
+	/**
+	 * The hash of the store of {@link #blockchain}, after the last execution of a request.
+	 */
+	private static byte[] hash;
+
+	/**
+	 * The transactions that installed two jars in {@link #blockchain}.
+	 */
+	private static TransactionReference jar1, jar2;
+
+	@BeforeAll
+	static void beforeAll() throws Exception {
+		TakamakaBlockchainConfig config = new TakamakaBlockchainConfig.Builder().setDir(Paths.get("chain-proofs")).build();
+		blockchain = TakamakaBlockchain.init(config, consensus, ProofsOfResponses::execute);
+		byte[] takamakaCode = ((JarStoreInitialTransactionRequest) node.getRequest(node.getTakamakaCode())).getJar();
+		jar1 = blockchain.addJarStoreInitialTransaction(new JarStoreInitialTransactionRequest(takamakaCode));
+		jar2 = blockchain.addJarStoreInitialTransaction(new JarStoreInitialTransactionRequest(bytesOf("basicdependency.jar"), jar1));
+	}
+
+	@AfterAll
+	static void afterAll() throws Exception {
+		blockchain.close();
+	}
+
+	/**
+	 * Executes each request in its own delta group and moves the blockchain to its result.
+	 *
+	 * @param request the request
+	 */
+	private static synchronized void execute(TransactionRequest<?> request) {
+		DeltaGroupExecutionResult result = blockchain.execute(hash, System.currentTimeMillis(), Stream.of(request), Stream.of(BigInteger.ZERO), "proofs");
+		hash = result.getHash();
+		blockchain.checkOut(hash);
+	}
+
+	@Test
+	@DisplayName("the proofs of the responses of a node are verified against the hash of its store")
+	void proofsOfResponsesAreVerified() throws TransactionRejectedException {
+		for (TransactionReference reference: new TransactionReference[] { jar1, jar2 }) {
+			Optional<TransactionResponse> proved = PartialTrieBasedStore.verifyProofOfResponse(hash, reference, blockchain.getProofOfResponse(reference));
+			assertTrue(proved.isPresent());
+			assertTrue(proved.get() instanceof JarStoreInitialTransactionResponse);
+			assertEquals(((JarStoreInitialTransactionResponse) blockchain.getResponse(reference)).getDependencies().count(),
+				((JarStoreInitialTransactionResponse) proved.get()).getDependencies().count());
+		}
+	}
+
+	@Test
+	@DisplayName("the proof of a missing response of a node shows that it is missing")
+	void proofOfMissingResponseIsVerified() {
+		TransactionReference missing = new LocalTransactionReference("0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef");
+		assertTrue(PartialTrieBasedStore.verifyProofOfResponse(hash, missing, blockchain.getProofOfResponse(missing)).isEmpty());
+	}
+
+	@Test
+	@DisplayName("a tampered proof of a response of a node is rejected")
+	void tamperedProofOfResponseIsRejected() {
+		byte[][] proof = blockchain.getProofOfResponse(jar2);
+		byte[] last = proof[proof.length - 1];
+		last[last.length - 1] ^= 1;
+
+		assertThrows(IllegalArgumentException.class, () -> PartialTrieBasedStore.verifyProofOfResponse(hash, jar2, proof));
+	}
+
+	@Test
+	@DisplayName("a proof of a response of a node is rejected for another hash of the store")
+	void proofOfResponseIsRejectedForAnotherHash() {
+		byte[][] proof = blockchain.getProofOfResponse(jar2);
+		byte[] otherHash = hash.clone();
+		otherHash[0] ^= 1;
+
+		assertThrows(IllegalArgumentException.class, () -> PartialTrieBasedStore.verifyProofOfResponse(otherHash, jar2, proof));
+	}
+
+	@Test
+	@DisplayName("the proof of a response of a node can be requested with POST /get/proof and is verified")
+	void proofOfResponseThroughNetwork() {
+		ProofModel result;
+
+		try (NodeService nodeRestService = NodeService.of(serviceConfig, blockchain)) {
+			result = new RestClientService().post("http://localhost:8081/get/proof", new TransactionReferenceModel(jar2), ProofModel.class);
+		}
+
+		byte[][] proof = result.toBean();
+		assertArrayEquals(blockchain.getProofOfResponse(jar2), proof);
+		assertTrue(PartialTrieBasedStore.verifyProofOfResponse(hash, jar2, proof).isPresent());
+
+		proof[0][proof[0].length - 1] ^= 1;
+		assertThrows(IllegalArgumentException.class, () -> PartialTrieBasedStore.verifyProofOfResponse(hash, jar2, proof));
+	}
+}
@@ -0,0 +1,142 @@
+/*
+Copyright 2021 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.tests;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.hotmoka.verification.TakamakaClassLoader;
+
+/**
+ * Tests for the access to the entries of the jars of a class loader,
+ * that are decompressed only when needed.
+ */
+class ResolvingClassLoaderEntries {
+	private static final byte[] DATA = "the data of the entry, the data of the entry, the data of the entry".getBytes(StandardCharsets.UTF_8);
+
+	/**
+	 * The Takamaka base jar, that must be in the class path of the class loaders.
+	 */
+	private static byte[] takamakaCode;
+
+	@BeforeAll
+	static void beforeAll() throws IOException, XmlPullParserException {
+		// we access the project.version property from the pom.xml file of the parent project
+		MavenXpp3Reader reader = new MavenXpp3Reader();
+		Model model = reader.read(new FileReader("../pom.xml"));
+		String takamakaVersion = (String) model.getProperties().get("takamaka.version");
+		takamakaCode = Files.readAllBytes(Paths.get("../modules/explicit/io-takamaka-code-" + takamakaVersion + ".jar"));
+	}
+
+	@Test
+	@DisplayName("stored and deflated entries are read back, and the first jar wins for duplicated entries")
+	void entriesAreReadBack() throws IOException {
+		byte[] jar1 = mkJar("first", "stored.txt", "deflated.txt", "duplicated.txt");
+		byte[] jar2 = mkJar("second", "duplicated.txt", "other.txt");
+		ClassLoader loader = TakamakaClassLoader.of(Stream.of(takamakaCode, jar1, jar2), 0).getJavaClassLoader();
+
+		assertArrayEquals(DATA, read(loader, "stored.txt"));
+		assertArrayEquals(DATA, read(loader, "deflated.txt"));
+		assertArrayEquals(DATA, read(loader, "other.txt"));
+		// entries can be read more than once
+		assertArrayEquals(DATA, read(loader, "deflated.txt"));
+		assertNull(loader.getResourceAsStream("missing.txt"));
+
+		try (InputStream is = loader.getResourceAsStream("duplicated.txt")) {
+			assertEquals("first", new String(is.readAllBytes(), StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	@DisplayName("the bytes of a class remain available after the class has been defined")
+	void classBytesAfterDefinition() throws Exception {
+		// the class loader defines some classes of the base jar when it is created
+		ClassLoader loader = TakamakaClassLoader.of(Stream.of(takamakaCode), 0).getJavaClassLoader();
+
+		assertEquals(loader, loader.loadClass("io.takamaka.code.lang.Storage").getClassLoader());
+		assertNotNull(read(loader, "io/takamaka/code/lang/Storage.class"));
+	}
+
+	@Test
+	@DisplayName("a sequence of bytes that is not a jar is rejected")
+	void notAJarIsRejected() {
+		assertThrows(UncheckedIOException.class, () -> TakamakaClassLoader.of(Stream.of(DATA), 0));
+	}
+
+	/**
+	 * Builds a jar, whose first entry is stored and whose other entries are deflated.
+	 * The entries contain {@link #DATA}, but for those called {@code duplicated.txt}, that contain {@code content}.
+	 * The jar ends with a comment.
+	 */
+	private static byte[] mkJar(String content, String... names) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+		try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+			zos.setComment("a comment at the end of the jar");
+			boolean first = true;
+
+			for (String name: names) {
+				byte[] bytes = name.equals("duplicated.txt") ? content.getBytes(StandardCharsets.UTF_8) : DATA;
+				ZipEntry entry = new ZipEntry(name);
+
+				if (first) {
+					CRC32 crc = new CRC32();
+					crc.update(bytes);
+					entry.setMethod(ZipEntry.STORED);
+					entry.setSize(bytes.length);
+					entry.setCrc(crc.getValue());
+					first = false;
+				}
+
+				zos.putNextEntry(entry);
+				zos.write(bytes);
+				zos.closeEntry();
+			}
+		}
+
+		return baos.toByteArray();
+	}
+
+	private static byte[] read(ClassLoader loader, String name) throws IOException {
+		try (InputStream is = loader.getResourceAsStream(name)) {
+			return is == null ? null : is.readAllBytes();
+		}
+	}
+}
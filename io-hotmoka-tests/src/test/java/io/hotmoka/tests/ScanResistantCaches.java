@@ -0,0 +1,147 @@
+/*
+Copyright 2021 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.hotmoka.beans.caches.ScanResistantCache;
+
+/**
+ * Tests for the scan-resistant cache.
+ */
+class ScanResistantCaches {
+
+	@Test
+	@DisplayName("a scan over many keys accessed once does not evict the keys accessed frequently")
+	void scanDoesNotEvictHotKeys() {
+		ScanResistantCache<Integer, String> cache = new ScanResistantCache<>(100);
+
+		for (int key = 0; key < 50; key++)
+			cache.put(key, String.valueOf(key));
+
+		for (int round = 0; round < 2; round++)
+			for (int key = 0; key < 50; key++)
+				assertNotNull(cache.get(key));
+
+		for (int key = 1000; key < 11_000; key++)
+			cache.put(key, String.valueOf(key));
+
+		for (int key = 0; key < 50; key++)
+			assertEquals(String.valueOf(key), cache.get(key));
+
+		// the cache is full and has evicted everything else
+		assertEquals(10_000 + 50 - 100, cache.getEvictions());
+	}
+
+	@Test
+	@DisplayName("the hits, misses and evictions of a cache are counted")
+	void countersAreCorrect() {
+		ScanResistantCache<Integer, String> cache = new ScanResistantCache<>(10);
+
+		for (int key = 0; key < 20; key++)
+			cache.put(key, String.valueOf(key));
+
+		// putting again a key in cache is neither a lookup nor an eviction
+		cache.put(19, "nineteen");
+		assertEquals(0, cache.getHits());
+		assertEquals(0, cache.getMisses());
+		assertEquals(10, cache.getEvictions());
+
+		// the first keys have been evicted, in order of insertion
+		for (int key = 0; key < 10; key++)
+			assertNull(cache.get(key));
+
+		for (int key = 10; key < 19; key++)
+			assertEquals(String.valueOf(key), cache.get(key));
+
+		assertEquals("nineteen", cache.get(19));
+		assertEquals(10, cache.getHits());
+		assertEquals(10, cache.getMisses());
+
+		// removals are not evictions and clearing the cache does not reset its statistics
+		cache.remove(10);
+		assertNull(cache.get(10));
+		cache.clear();
+		assertNull(cache.get(11));
+		assertEquals(10, cache.getHits());
+		assertEquals(12, cache.getMisses());
+		assertEquals(10, cache.getEvictions());
+	}
+
+	@Test
+	@DisplayName("concurrent lookups and insertions see consistent values and respect the capacity of the cache")
+	void concurrentGetAndPut() throws Exception {
+		final int threads = 8, operations = 20_000, keys = 1_000, capacity = 100;
+		ScanResistantCache<Integer, Integer> cache = new ScanResistantCache<>(capacity);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<Integer>> results = new ArrayList<>();
+
+		try {
+			for (int thread = 0; thread < threads; thread++) {
+				long seed = thread;
+				results.add(executor.submit(() -> {
+					Random random = new Random(seed);
+					int lookups = 0;
+
+					for (int i = 0; i < operations; i++) {
+						// some keys are hotter than others
+						int key = random.nextBoolean() ? random.nextInt(keys / 20) : random.nextInt(keys);
+						if (random.nextBoolean()) {
+							Integer value = cache.get(key);
+							lookups++;
+							assertTrue(value == null || value == 2 * key);
+						}
+						else
+							cache.put(key, 2 * key);
+					}
+
+					return lookups;
+				}));
+			}
+
+			long lookups = 0;
+			for (Future<Integer> result: results)
+				lookups += result.get();
+
+			assertEquals(lookups, cache.getHits() + cache.getMisses());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		int present = 0;
+		for (int key = 0; key < keys; key++)
+			if (cache.get(key) != null)
+				present++;
+
+		assertTrue(present <= capacity);
+		assertTrue(present > 0);
+	}
+}
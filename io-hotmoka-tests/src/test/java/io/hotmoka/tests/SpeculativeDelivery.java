@@ -0,0 +1,145 @@
+/*
+Copyright 2021 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.tests;
+
+import static io.hotmoka.beans.types.BasicTypes.INT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.hotmoka.beans.TransactionRejectedException;
+import io.hotmoka.beans.requests.InstanceMethodCallTransactionRequest;
+import io.hotmoka.beans.requests.SignedTransactionRequest.Signer;
+import io.hotmoka.beans.signatures.CodeSignature;
+import io.hotmoka.beans.signatures.ConstructorSignature;
+import io.hotmoka.beans.signatures.NonVoidMethodSignature;
+import io.hotmoka.beans.signatures.VoidMethodSignature;
+import io.hotmoka.beans.types.ClassType;
+import io.hotmoka.beans.values.BigIntegerValue;
+import io.hotmoka.beans.values.IntValue;
+import io.hotmoka.beans.values.StorageReference;
+import io.hotmoka.beans.values.StorageValue;
+import io.hotmoka.nodes.Node.CodeSupplier;
+
+/**
+ * Tests for the delivery of requests that are posted together, hence are likely delivered
+ * in the same block, where they get executed speculatively in parallel. The requests
+ * conflict with each other, hence their results must be those of their execution in order.
+ * Requests of the same payer are checked against the nonce of the payer before being delivered,
+ * hence conflicting requests posted together have distinct payers here.
+ */
+class SpeculativeDelivery extends HotmokaTest {
+	private static final ClassType SIMPLE_STORAGE = new ClassType("io.hotmoka.examples.storage.SimpleStorage");
+	private static final VoidMethodSignature SET = new VoidMethodSignature(SIMPLE_STORAGE, "set", INT);
+	private static final NonVoidMethodSignature GET = new NonVoidMethodSignature(SIMPLE_STORAGE, "get", INT);
+	private static final ConstructorSignature CONSTRUCTOR_SIMPLE_STORAGE = new ConstructorSignature(SIMPLE_STORAGE);
+	private static final int NUMBER_OF_REQUESTS = 10;
+
+	/**
+	 * A storage created by the first account.
+	 */
+	private StorageReference storage;
+
+	@BeforeAll
+	static void beforeAll() throws Exception {
+		setJar("storage.jar");
+	}
+
+	@BeforeEach
+	void beforeEach() throws Exception {
+		setAccounts(Stream.generate(() -> _1_000_000).limit(2 * NUMBER_OF_REQUESTS));
+		storage = addConstructorCallTransaction(privateKey(0), account(0), _50_000, BigInteger.ONE, jar(), CONSTRUCTOR_SIMPLE_STORAGE);
+	}
+
+	@Test
+	@DisplayName("requests posted together that modify the same object leave it as modified by the last of them")
+	void distinctPayersUpdateSameObject() throws Exception {
+		List<CodeSupplier<StorageValue>> sets = new ArrayList<>();
+		for (int i = 0; i < NUMBER_OF_REQUESTS; i++)
+			sets.add(postInstanceMethodCallTransaction(privateKey(i), account(i), _50_000, BigInteger.ONE, jar(), SET, storage, new IntValue(i + 1)));
+
+		for (CodeSupplier<StorageValue> set: sets)
+			set.get();
+
+		assertEquals(new IntValue(NUMBER_OF_REQUESTS), runInstanceMethodCallTransaction(account(0), _50_000, jar(), GET, storage));
+	}
+
+	@Test
+	@DisplayName("of two requests of the same payer with the same nonce posted together, only the first is executed")
+	void samePayerSameNonce() throws Exception {
+		BigInteger nonce = getNonceOf(account(0));
+		Signer signer = Signer.with(signature(), privateKey(0));
+
+		CodeSupplier<StorageValue> first = node.postInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+			(signer, account(0), nonce, chainId, _50_000, BigInteger.ONE, jar(), SET, storage, new IntValue(13)));
+
+		// the second request might be rejected already when posted, if the first has been delivered in the meanwhile
+		assertThrows(TransactionRejectedException.class, () -> node.postInstanceMethodCallTransaction(new InstanceMethodCallTransactionRequest
+			(signer, account(0), nonce, chainId, _50_000, BigInteger.ONE, jar(), SET, storage, new IntValue(17))).get());
+
+		first.get();
+		assertEquals(new IntValue(13), runInstanceMethodCallTransaction(account(0), _50_000, jar(), GET, storage));
+		assertEquals(nonce.add(BigInteger.ONE), nonceOf(account(0)));
+	}
+
+	@Test
+	@DisplayName("requests posted together read what the previous requests have written")
+	void writesThenReads() throws Exception {
+		List<CodeSupplier<StorageValue>> reads = new ArrayList<>();
+
+		for (int i = 0; i < NUMBER_OF_REQUESTS; i++) {
+			postInstanceMethodCallTransaction(privateKey(i), account(i), _50_000, BigInteger.ONE, jar(), SET, storage, new IntValue(i + 1));
+			reads.add(postInstanceMethodCallTransaction(privateKey(NUMBER_OF_REQUESTS + i), account(NUMBER_OF_REQUESTS + i), _50_000, BigInteger.ONE, jar(), GET, storage));
+		}
+
+		for (int i = 0; i < NUMBER_OF_REQUESTS; i++)
+			assertEquals(new IntValue(i + 1), reads.get(i).get());
+	}
+
+	@Test
+	@DisplayName("a request posted together with a previous request that sends coins to its payer sees the coins")
+	void payAfterReceive() throws Exception {
+		CodeSupplier<StorageValue> transfer = postInstanceMethodCallTransaction(privateKey(0), account(0), _50_000, BigInteger.ONE, takamakaCode(),
+			CodeSignature.RECEIVE_INT, account(1), new IntValue(100_000));
+		CodeSupplier<StorageValue> set = postInstanceMethodCallTransaction(privateKey(1), account(1), _50_000, BigInteger.ONE, jar(), SET, storage, new IntValue(42));
+		transfer.get();
+		set.get();
+
+		// the payer of the second request has received the coins and paid for less gas than that
+		BigInteger balance = balanceOf(account(1));
+		assertTrue(balance.compareTo(_1_000_000) > 0 && balance.compareTo(_1_000_000.add(BigInteger.valueOf(100_000))) < 0);
+		assertEquals(new IntValue(42), runInstanceMethodCallTransaction(account(0), _50_000, jar(), GET, storage));
+	}
+
+	private BigInteger nonceOf(StorageReference account) throws Exception {
+		return ((BigIntegerValue) runInstanceMethodCallTransaction(account, _50_000, takamakaCode(), CodeSignature.NONCE, account)).value;
+	}
+
+	private BigInteger balanceOf(StorageReference account) throws Exception {
+		return ((BigIntegerValue) runInstanceMethodCallTransaction(account, _50_000, takamakaCode(), CodeSignature.BALANCE, account)).value;
+	}
+}
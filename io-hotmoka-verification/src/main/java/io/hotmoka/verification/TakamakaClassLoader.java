@@ -37,6 +37,19 @@ public interface TakamakaClassLoader extends ResolvingClassLoader {
 		return new TakamakaClassLoaderImpl(jars, verificationVersion);
 	}
 
+	/**
+	 * Builds a class loader with the given jars, given as byte arrays, that looks for
+	 * classes in the given parent before looking for them in the jars.
+	 * 
+	 * @param parent the parent class loader, for jars shared with other class loaders
+	 * @param jars the jars
+	 * @param verificationVersion the version of the verification module that must b e used; this affects the
+	 *                            set of white-listing annotations used by the class loader
+	 */
+	static TakamakaClassLoader of(ResolvingClassLoader parent, Stream<byte[]> jars, int verificationVersion) {
+		return new TakamakaClassLoaderImpl(ResolvingClassLoader.of(parent, jars, verificationVersion));
+	}
+
 	/**
 	 * Determines if a class is an instance of the storage class.
 	 * 
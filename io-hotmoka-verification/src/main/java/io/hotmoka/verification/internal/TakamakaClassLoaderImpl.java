@@ -118,7 +118,16 @@ public class TakamakaClassLoaderImpl implements TakamakaClassLoader {
 	 *                            set of white-listing annotations used by the class loader
 	 */
 	public TakamakaClassLoaderImpl(Stream<byte[]> jars, int verificationVersion) {
-		this.parent = ResolvingClassLoader.of(jars, verificationVersion);
+		this(ResolvingClassLoader.of(jars, verificationVersion));
+	}
+
+	/**
+	 * Builds a class loader that decorates the given resolving class loader.
+	 * 
+	 * @param parent the decorated resolving class loader
+	 */
+	public TakamakaClassLoaderImpl(ResolvingClassLoader parent) {
+		this.parent = parent;
 
 		try {
 			this.contract = loadClass(Constants.CONTRACT_NAME);
@@ -42,6 +42,23 @@ public interface ResolvingClassLoader {
 		return new ResolvingClassLoaderImpl(jars, verificationVersion);
 	}
 
+	/**
+	 * Yields an implementation of this interface that loads classes from the given jars, provided as byte arrays,
+	 * after looking for them in the given parent. This allows more class loaders to share
+	 * the same definition of the classes of the parent.
+	 * 
+	 * @param parent the parent class loader; this must have been created by {@link #of(Stream, int)}
+	 * @param jars the jars, as byte arrays
+	 * @param verificationVersion the version of the verification module that must b e used; this affects the
+	 *                            set of white-listing annotations used by the class loader
+	 * @return the class loader
+	 * @throws IllegalArgumentException if {@code parent} has not been created by {@link #of(Stream, int)}
+	 *                                  or uses a different verification version
+	 */
+	static ResolvingClassLoader of(ResolvingClassLoader parent, Stream<byte[]> jars, int verificationVersion) {
+		return new ResolvingClassLoaderImpl(parent, jars, verificationVersion);
+	}
+
 	/**
 	 * Yields the version of the verification module that this class loader is using.
 	 * 
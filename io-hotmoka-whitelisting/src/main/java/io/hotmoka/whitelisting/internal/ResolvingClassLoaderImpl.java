@@ -17,17 +17,24 @@ limitations under the License.
 package io.hotmoka.whitelisting.internal;
 
 import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.zip.ZipException;
 
 import io.hotmoka.constants.Constants;
 import io.hotmoka.whitelisting.ResolvingClassLoader;
@@ -50,15 +57,53 @@ public class ResolvingClassLoaderImpl extends ClassLoader implements ResolvingCl
 	private final WhiteListingWizard whiteListingWizard;
 
 	/**
-	 * The jars of the classpath of this class loader.
+	 * The position of the entries of the jars of the classpath of this class loader,
+	 * indexed by name. It is computed once, when this class loader is created, while
+	 * the content of the entries is decompressed only when needed.
 	 */
-	private final byte[][] jars;
+	private final Map<String, JarEntry> entries;
+
+	/**
+	 * The class loader for jars that are shared with other class loaders, if any.
+	 * Classes are looked up there before being looked up in {@link #entries}.
+	 */
+	private final ResolvingClassLoaderImpl parent;
+
+	/**
+	 * A memory of the results of {@link #resolveField(Class, String, Class)}.
+	 */
+	private final ConcurrentMap<Signature, Optional<Field>> resolvedFields = new ConcurrentHashMap<>();
+
+	/**
+	 * A memory of the results of {@link #resolveConstructor(Class, Class[])}.
+	 */
+	private final ConcurrentMap<Signature, Optional<Constructor<?>>> resolvedConstructors = new ConcurrentHashMap<>();
+
+	/**
+	 * A memory of the results of {@link #resolveMethod(Class, String, Class[], Class)}.
+	 */
+	private final ConcurrentMap<Signature, Optional<Method>> resolvedMethods = new ConcurrentHashMap<>();
+
+	/**
+	 * A memory of the results of {@link #resolveInterfaceMethod(Class, String, Class[], Class)}.
+	 */
+	private final ConcurrentMap<Signature, Optional<Method>> resolvedInterfaceMethods = new ConcurrentHashMap<>();
 
 	// getPackageName() not working under Android!
 	private final static String WHITELISTING_PACKAGE_NAME = ResolvingClassLoader.class.getPackage().getName() + '.';
 
 	private final static String DUMMY_NAME_WITH_SLASHES = Constants.DUMMY_NAME.replace('.', '/') + ".class";
 
+	private final static int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+	private final static int CENTRAL_DIRECTORY_HEADER_SIGNATURE = 0x02014b50;
+	private final static int LOCAL_FILE_HEADER_SIGNATURE = 0x04034b50;
+
+	static {
+		// the class loader of the base jar is shared among the class loaders of the node, hence
+		// it gets used by many threads at the same time: classes are loaded under a lock per class name
+		registerAsParallelCapable();
+	}
+
 	/**
 	 * Builds a class loader with the given jars.
 	 * 
@@ -70,7 +115,34 @@ public class ResolvingClassLoaderImpl extends ClassLoader implements ResolvingCl
 		super(null);
 
 		this.verificationVersion = verificationVersion;
-		this.jars = jars.toArray(byte[][]::new);
+		this.entries = indexEntriesOf(jars);
+		this.parent = null;
+		this.whiteListingWizard = new WhiteListingWizardImpl(this);
+	}
+
+	/**
+	 * Builds a class loader with the given jars, that looks up classes in the given
+	 * parent class loader before looking them up in the jars.
+	 * 
+	 * @param parent the parent class loader, for jars shared with other class loaders
+	 * @param jars the jars, as arrays of bytes
+	 * @param verificationVersion the version of the verification module that must be used; this affects the
+	 *                            set of white-listing annotations used by the class loader
+	 * @throws IllegalArgumentException if {@code parent} was not created by {@link ResolvingClassLoader#of(Stream, int)}
+	 *                                  or uses a different verification version
+	 */
+	public ResolvingClassLoaderImpl(ResolvingClassLoader parent, Stream<byte[]> jars, int verificationVersion) {
+		super(null);
+
+		if (!(parent.getJavaClassLoader() instanceof ResolvingClassLoaderImpl))
+			throw new IllegalArgumentException("unexpected kind of parent class loader");
+
+		if (parent.getVerificationVersion() != verificationVersion)
+			throw new IllegalArgumentException("the parent class loader uses a different verification version");
+
+		this.verificationVersion = verificationVersion;
+		this.entries = indexEntriesOf(jars);
+		this.parent = (ResolvingClassLoaderImpl) parent.getJavaClassLoader();
 		this.whiteListingWizard = new WhiteListingWizardImpl(this);
 	}
 
@@ -80,18 +152,21 @@ public class ResolvingClassLoaderImpl extends ClassLoader implements ResolvingCl
 	}
 
 	@Override
-	protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
-		Class<?> clazz = loadClassFromCache(name)
-			.or(() -> loadClassFromBootstrapClassloader(name))
-			.or(() -> loadClassFromApplicationClassloader(name))
-			.or(() -> loadClassFromJarsInNode(name))
-			.orElseThrow(() -> new ClassNotFoundException(name));
-
-        if (resolve)
-			resolveClass(clazz);
-
-        return clazz;
-    }
+	protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+		synchronized (getClassLoadingLock(name)) {
+			Class<?> clazz = loadClassFromCache(name)
+				.or(() -> loadClassFromBootstrapClassloader(name))
+				.or(() -> loadClassFromApplicationClassloader(name))
+				.or(() -> loadClassFromParent(name))
+				.or(() -> loadClassFromJarsInNode(name))
+				.orElseThrow(() -> new ClassNotFoundException(name));
+
+			if (resolve)
+				resolveClass(clazz);
+
+			return clazz;
+		}
+	}
 
 	private Optional<Class<?>> loadClassFromCache(String name) {
 		return Optional.ofNullable(findLoadedClass(name));
@@ -104,7 +179,8 @@ public class ResolvingClassLoaderImpl extends ClassLoader implements ResolvingCl
     	// the full classpath of the JVM running the node
 		if (name.startsWith(WHITELISTING_PACKAGE_NAME) // to allow access to the white-listing database
 				|| Constants.DUMMY_NAME.equals(name) // to allow instrumented methods
-				|| Constants.RUNTIME_NAME.equals(name)) // to allow calls to Takamaka's runtime
+				|| Constants.RUNTIME_NAME.equals(name) // to allow calls to Takamaka's runtime
+				|| Constants.GAS_METER_NAME.equals(name)) // to allow calls to the gas meter of the transaction
 			try {
 				return Optional.of(ClassLoader.getSystemClassLoader().loadClass(name));
 			}
@@ -115,6 +191,30 @@ public class ResolvingClassLoaderImpl extends ClassLoader implements ResolvingCl
 		return Optional.empty();
 	}
 
+	/**
+	 * Determines if the given class has been defined from the jars of this class loader
+	 * or of its parent, that is, if it comes from the node.
+	 * 
+	 * @param clazz the class
+	 * @return true if and only if that condition holds
+	 */
+	boolean definedInJarsInNode(Class<?> clazz) {
+		ClassLoader loader = clazz.getClassLoader();
+		return loader == this || (parent != null && loader == parent);
+	}
+
+	private Optional<Class<?>> loadClassFromParent(String name) {
+		if (parent != null)
+			try {
+				return Optional.of(parent.loadClass(name, false));
+			}
+			catch (ClassNotFoundException e) {
+				// ignore it
+			}
+
+		return Optional.empty();
+	}
+
 	private Optional<Class<?>> loadClassFromBootstrapClassloader(String name) {
 		try {
 			return Optional.of(super.loadClass(name, false));
@@ -125,58 +225,162 @@ public class ResolvingClassLoaderImpl extends ClassLoader implements ResolvingCl
 	}
 
 	private Optional<Class<?>> loadClassFromJarsInNode(String name) {
-		try (InputStream in = getResourceAsStream(name.replace('.', '/') + ".class")) {
-			if (in != null) {
-				byte[] bytes = in.readAllBytes();
-				Class<?> clazz = defineClass(name, bytes, 0, bytes.length);
-				return Optional.of(clazz);
-			}
+		JarEntry entry = entries.get(name.replace('.', '/') + ".class");
+		if (entry == null)
+			return Optional.empty();
+
+		try {
+			byte[] bytes = entry.getBytes();
+			return Optional.of(defineClass(name, bytes, 0, bytes.length));
 		}
-		catch (IOException | ClassFormatError e) {
+		catch (ClassFormatError e) {
 			throw new RuntimeException(e);
 		}
-
-		return Optional.empty();
 	}
 
     @Override
     public InputStream getResourceAsStream(String name) {
     	return getResourceAsStreamFromBoostrapClassloader(name)
     		.or(() -> getResourceAsStreamFromApplicationClassloader(name))
+    		.or(() -> getResourceAsStreamFromParent(name))
     		.or(() -> getResourceAsStreamFromJarsInNode(name))
     		.orElse(null);
     }
 
+    private Optional<InputStream> getResourceAsStreamFromParent(String name) {
+    	return parent != null ? parent.getResourceAsStreamFromJarsInNode(name) : Optional.empty();
+    }
+
     private Optional<InputStream> getResourceAsStreamFromJarsInNode(String name) {
-		boolean found = false;
-    	for (byte[] jar: jars) {
-            ZipInputStream jis = null;
-
-            try {
-            	jis = new ZipInputStream(new ByteArrayInputStream(jar));
-    			ZipEntry entry;
-    			while ((entry = jis.getNextEntry()) != null)
-    				if (entry.getName().equals(name)) {
-    					found = true;
-    					return Optional.of(jis);
-    				}
-            }
-    		catch (IOException e) {
-    			throw new UncheckedIOException(e);
-    		}
-            finally {
-                // only close the stream if the entry could not be found
-                if (jis != null && !found)
-                    try {
-                        jis.close();
-                    }
-                    catch (IOException e) {
-                        // ignore me
-                    }
-            }
-    	}
-
-    	return Optional.empty();
+    	return Optional.ofNullable(entries.get(name)).map(JarEntry::getBytes).map(ByteArrayInputStream::new);
+	}
+
+	/**
+	 * Indexes by name the entries of the given jars, from their central directory.
+	 * If more jars contain an entry with the same name, the first one is kept,
+	 * as it would result from looking for the entry in the jars, in order.
+	 * 
+	 * @param jars the jars
+	 * @return the index
+	 */
+	private static Map<String, JarEntry> indexEntriesOf(Stream<byte[]> jars) {
+		Map<String, JarEntry> entries = new HashMap<>();
+
+		jars.forEachOrdered(jar -> {
+			try {
+				int end = endOfCentralDirectory(jar);
+				int count = readShort(jar, end + 10);
+				int pos = readInt(jar, end + 16);
+
+				for (int i = 0; i < count; i++) {
+					if (readInt(jar, pos) != CENTRAL_DIRECTORY_HEADER_SIGNATURE)
+						throw new ZipException("corrupted central directory");
+
+					int nameLength = readShort(jar, pos + 28);
+					String name = new String(jar, pos + 46, nameLength, StandardCharsets.UTF_8);
+					if (!name.endsWith("/"))
+						entries.putIfAbsent(name, new JarEntry(jar, readShort(jar, pos + 10), readInt(jar, pos + 20), readInt(jar, pos + 24), readInt(jar, pos + 42)));
+
+					pos += 46 + nameLength + readShort(jar, pos + 30) + readShort(jar, pos + 32);
+				}
+			}
+			catch (ZipException | IndexOutOfBoundsException e) {
+				throw new UncheckedIOException(new ZipException("illegal jar: " + e.getMessage()));
+			}
+		});
+
+		return entries;
+	}
+
+	/**
+	 * Yields the position of the end of central directory record of the given jar.
+	 * It is the last record of the jar, possibly followed by a comment.
+	 * 
+	 * @param jar the jar
+	 * @return the position
+	 * @throws ZipException if the record cannot be found
+	 */
+	private static int endOfCentralDirectory(byte[] jar) throws ZipException {
+		for (int pos = jar.length - 22; pos >= Math.max(0, jar.length - 22 - 0xffff); pos--)
+			if (readInt(jar, pos) == END_OF_CENTRAL_DIRECTORY_SIGNATURE)
+				return pos;
+
+		throw new ZipException("missing end of central directory");
+	}
+
+	private static int readShort(byte[] bytes, int pos) {
+		return (bytes[pos] & 0xff) | (bytes[pos + 1] & 0xff) << 8;
+	}
+
+	private static int readInt(byte[] bytes, int pos) {
+		return readShort(bytes, pos) | readShort(bytes, pos + 2) << 16;
+	}
+
+	/**
+	 * The position of an entry inside a jar. Its content gets decompressed
+	 * only when required, so that it is not kept in memory.
+	 */
+	private static final class JarEntry {
+		private final byte[] jar;
+		private final int method;
+		private final int compressedSize;
+		private final int size;
+		private final int localHeader;
+
+		private JarEntry(byte[] jar, int method, int compressedSize, int size, int localHeader) throws ZipException {
+			if (method != ZipEntry.STORED && method != ZipEntry.DEFLATED)
+				throw new ZipException("unsupported compression method " + method);
+
+			if (compressedSize < 0 || size < 0 || localHeader < 0)
+				throw new ZipException("entry too large");
+
+			this.jar = jar;
+			this.method = method;
+			this.compressedSize = compressedSize;
+			this.size = size;
+			this.localHeader = localHeader;
+		}
+
+		/**
+		 * Decompresses the content of this entry.
+		 * 
+		 * @return the content
+		 * @throws UncheckedIOException if the entry is corrupted
+		 */
+		private byte[] getBytes() {
+			try {
+				if (readInt(jar, localHeader) != LOCAL_FILE_HEADER_SIGNATURE)
+					throw new ZipException("corrupted local header");
+
+				// the name and extra field of the local header might differ from those in the central directory
+				int start = localHeader + 30 + readShort(jar, localHeader + 26) + readShort(jar, localHeader + 28);
+				if (method == ZipEntry.STORED)
+					return Arrays.copyOfRange(jar, start, start + size);
+
+				Inflater inflater = new Inflater(true);
+
+				try {
+					inflater.setInput(jar, start, compressedSize);
+					byte[] bytes = new byte[size];
+					int length = 0;
+					while (length < size) {
+						int inflated = inflater.inflate(bytes, length, size - length);
+						if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary()))
+							throw new ZipException("truncated entry");
+
+						length += inflated;
+					}
+
+					return bytes;
+				}
+				finally {
+					inflater.end();
+				}
+			}
+			catch (ZipException | DataFormatException | IndexOutOfBoundsException e) {
+				throw new UncheckedIOException(new ZipException("corrupted jar entry: " + e.getMessage()));
+			}
+		}
 	}
 
 	private Optional<InputStream> getResourceAsStreamFromBoostrapClassloader(String name) {
@@ -211,6 +415,18 @@ public class ResolvingClassLoaderImpl extends ClassLoader implements ResolvingCl
 
 	@Override
 	public Optional<Field> resolveField(Class<?> clazz, String name, Class<?> type) {
+		// we do not use computeIfAbsent() since resolution might load classes
+		Signature signature = new Signature(clazz, name, null, type);
+		Optional<Field> result = resolvedFields.get(signature);
+		if (result == null) {
+			result = resolveFieldUncached(clazz, name, type);
+			resolvedFields.putIfAbsent(signature, result);
+		}
+
+		return result;
+	}
+
+	private static Optional<Field> resolveFieldUncached(Class<?> clazz, String name, Class<?> type) {
 		while (clazz != null) {
 			Optional<Field> result = Stream.of(clazz.getDeclaredFields())
 				.filter(field -> field.getType() == type && field.getName().equals(name))
@@ -232,6 +448,17 @@ public class ResolvingClassLoaderImpl extends ClassLoader implements ResolvingCl
 
 	@Override
 	public Optional<Constructor<?>> resolveConstructor(Class<?> clazz, Class<?>[] args) {
+		Signature signature = new Signature(clazz, null, args, null);
+		Optional<Constructor<?>> result = resolvedConstructors.get(signature);
+		if (result == null) {
+			result = resolveConstructorUncached(clazz, args);
+			resolvedConstructors.putIfAbsent(signature, result);
+		}
+
+		return result;
+	}
+
+	private static Optional<Constructor<?>> resolveConstructorUncached(Class<?> clazz, Class<?>[] args) {
 		try {
 			return Optional.of(clazz.getDeclaredConstructor(args));
 		}
@@ -247,6 +474,17 @@ public class ResolvingClassLoaderImpl extends ClassLoader implements ResolvingCl
 
 	@Override
 	public Optional<java.lang.reflect.Method> resolveMethod(Class<?> clazz, String methodName, Class<?>[] args, Class<?> returnType) {
+		Signature signature = new Signature(clazz, methodName, args, returnType);
+		Optional<Method> result = resolvedMethods.get(signature);
+		if (result == null) {
+			result = resolveMethodUncached(clazz, methodName, args, returnType);
+			resolvedMethods.putIfAbsent(signature, result);
+		}
+
+		return result;
+	}
+
+	private Optional<Method> resolveMethodUncached(Class<?> clazz, String methodName, Class<?>[] args, Class<?> returnType) {
 		for (Class<?> cursor = clazz; cursor != null; cursor = cursor.getSuperclass()) {
 			Optional<java.lang.reflect.Method> result = resolveMethodExact(cursor, methodName, args, returnType);
 			if (result.isPresent())
@@ -263,6 +501,17 @@ public class ResolvingClassLoaderImpl extends ClassLoader implements ResolvingCl
 
 	@Override
 	public Optional<Method> resolveInterfaceMethod(Class<?> clazz, String methodName, Class<?>[] args, Class<?> returnType) {
+		Signature signature = new Signature(clazz, methodName, args, returnType);
+		Optional<Method> result = resolvedInterfaceMethods.get(signature);
+		if (result == null) {
+			result = resolveInterfaceMethodUncached(clazz, methodName, args, returnType);
+			resolvedInterfaceMethods.putIfAbsent(signature, result);
+		}
+
+		return result;
+	}
+
+	private Optional<Method> resolveInterfaceMethodUncached(Class<?> clazz, String methodName, Class<?>[] args, Class<?> returnType) {
 		// we first try to resolve the method in Object, since all implementations of the interface must extend Object
 		return resolveInterfaceMethodInObject(methodName, args, returnType)
 			.or(() -> resolveMethodExact(clazz, methodName, args, returnType))
@@ -328,4 +577,40 @@ public class ResolvingClassLoaderImpl extends ClassLoader implements ResolvingCl
 					&& Arrays.equals(method.getParameterTypes(), args))
 			.findFirst();
 	}
-}
\ No newline at end of file
+
+	/**
+	 * The signature of a field, constructor or method, used as key
+	 * for the memories of the resolution methods.
+	 */
+	private static final class Signature {
+		private final Class<?> clazz;
+		private final String name; // null for constructors
+		private final Class<?>[] args; // null for fields
+		private final Class<?> type; // null for constructors
+		private final int hashCode;
+
+		private Signature(Class<?> clazz, String name, Class<?>[] args, Class<?> type) {
+			this.clazz = clazz;
+			this.name = name;
+			this.args = args == null ? null : args.clone();
+			this.type = type;
+			this.hashCode = clazz.hashCode() ^ Objects.hashCode(name) ^ Arrays.hashCode(args) ^ Objects.hashCode(type);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (other instanceof Signature) {
+				Signature otherAsSignature = (Signature) other;
+				return clazz == otherAsSignature.clazz && type == otherAsSignature.type
+					&& Objects.equals(name, otherAsSignature.name) && Arrays.equals(args, otherAsSignature.args);
+			}
+			else
+				return false;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+}
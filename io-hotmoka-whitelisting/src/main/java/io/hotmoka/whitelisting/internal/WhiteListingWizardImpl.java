@@ -71,7 +71,7 @@ class WhiteListingWizardImpl implements WhiteListingWizard {
 	public Optional<Field> whiteListingModelOf(Field field) {
 		// if the class defining the field has been loaded by the blockchain class loader,
 		// then it comes from blockchain and the field is white-listed
-		if (field.getDeclaringClass().getClassLoader() == classLoader)
+		if (classLoader.definedInJarsInNode(field.getDeclaringClass()))
 			return Optional.of(field);
 		else
 			return fieldInWhiteListedLibraryFor(field);
@@ -83,7 +83,7 @@ class WhiteListingWizardImpl implements WhiteListingWizard {
 		// then it comes from blockchain and the constructor is white-listed
 		Class<?> declaringClass = constructor.getDeclaringClass();
 
-		if (declaringClass.getClassLoader() == classLoader)
+		if (classLoader.definedInJarsInNode(declaringClass))
 			return Optional.of(constructor);
 		else
 			return constructorInWhiteListedLibraryFor(constructor);
@@ -93,7 +93,7 @@ class WhiteListingWizardImpl implements WhiteListingWizard {
 	public Optional<Method> whiteListingModelOf(Method method) {
 		Class<?> declaringClass = method.getDeclaringClass();
 
-		if (declaringClass.getClassLoader() == classLoader)
+		if (classLoader.definedInJarsInNode(declaringClass))
 			// if the class defining the method has been loaded by the blockchain class loader,
 			// then it comes from blockchain and the method is white-listed
 			return Optional.of(method);
@@ -42,6 +42,10 @@ public class Environment {
 		return new Transaction(parent.beginTransaction());
 	}
 
+	public Transaction beginReadonlyTransaction() {
+		return new Transaction(parent.beginReadonlyTransaction());
+	}
+
 	public void executeInTransaction(Consumer<Transaction> executable) {
 		parent.executeInTransaction(txn -> executable.accept(new Transaction(txn)));
 	}